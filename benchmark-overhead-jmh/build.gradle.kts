@@ -13,6 +13,15 @@ otelJava {
 
 dependencies {
   jmhImplementation("org.springframework.boot:spring-boot-starter-web:4.0.5")
+
+  jmhImplementation("io.opentelemetry:opentelemetry-api")
+
+  // libraries of the per-library overhead benchmarks
+  jmhImplementation("com.h2database:h2:2.3.232")
+  jmhImplementation("com.squareup.okhttp3:okhttp:4.12.0")
+  jmhImplementation("org.apache.kafka:kafka-clients:3.9.1")
+  jmhImplementation("io.lettuce:lettuce-core:6.5.5.RELEASE")
+  jmhImplementation("ch.qos.logback:logback-classic:1.5.18")
 }
 
 tasks {
@@ -56,6 +65,8 @@ tasks {
       // avoid instrumenting HttpURLConnection for now since it is used to make the requests
       // and this benchmark is focused on servlet overhead for now
       "-Dotel.instrumentation.http-url-connection.enabled=false",
+      // the http client benchmarks measure the client instrumentation only, not the local server
+      "-Dotel.instrumentation.java-http-server.enabled=false",
     )
     if (jmhStartFlightRecording != null) {
       args.addAll(
@@ -86,5 +97,57 @@ tasks {
 
     // TODO(trask) is this ok? if it's ok, move to otel.jmh-conventions?
     outputs.upToDateWhen { false }
+
+    finalizedBy("jmhOverheadReport")
   }
+
+  // pairs every <Name>Benchmark with its <Name>WithAgentDisabledBenchmark and writes the agent on
+  // and agent off scores side by side, so that the overhead of each library can be compared
+  // across runs
+  register("jmhOverheadReport") {
+    val resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+    val reportFile = layout.buildDirectory.file("results/jmh/overhead.json")
+    onlyIf { resultsFile.get().asFile.exists() }
+    doLast {
+      @Suppress("UNCHECKED_CAST")
+      val results =
+        groovy.json.JsonSlurper().parse(resultsFile.get().asFile) as List<Map<String, Any>>
+      val byName = results.associateBy { it["benchmark"] as String }
+      val report = results
+        .filter { !(it["benchmark"] as String).contains("WithAgentDisabledBenchmark.") }
+        .mapNotNull { agentOn ->
+          val name = agentOn["benchmark"] as String
+          val agentOff = byName[name.replace("Benchmark.", "WithAgentDisabledBenchmark.")]
+            ?: return@mapNotNull null
+          val on = score(agentOn)
+          val off = score(agentOff)
+          mapOf(
+            "benchmark" to name.removePrefix("io.opentelemetry.javaagent.benchmark."),
+            "unit" to primaryMetric(agentOn)["scoreUnit"],
+            "agentOff" to off,
+            "agentOn" to on,
+            "overhead" to on - off,
+            "overheadPercent" to if (off == 0.0) null else (on - off) * 100 / off,
+            "allocatedBytesAgentOff" to allocatedBytes(agentOff),
+            "allocatedBytesAgentOn" to allocatedBytes(agentOn),
+          )
+        }
+      reportFile.get().asFile.writeText(
+        groovy.json.JsonOutput.prettyPrint(groovy.json.JsonOutput.toJson(report)) + "\n",
+      )
+    }
+  }
+}
+
+@Suppress("UNCHECKED_CAST")
+fun primaryMetric(result: Map<String, Any>) = result["primaryMetric"] as Map<String, Any>
+
+fun score(result: Map<String, Any>) = (primaryMetric(result)["score"] as Number).toDouble()
+
+// bytes allocated per operation, reported by the gc profiler
+@Suppress("UNCHECKED_CAST")
+fun allocatedBytes(result: Map<String, Any>): Double? {
+  val secondaryMetrics = result["secondaryMetrics"] as Map<String, Map<String, Any>>? ?: return null
+  val metric = secondaryMetrics.entries.find { it.key.endsWith("gc.alloc.rate.norm") }
+  return (metric?.value?.get("score") as Number?)?.toDouble()
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.executors;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the cost of propagating the context to executor tasks, the tasks are submitted while a
+ * span is current so that the context is propagated to every one of them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ExecutorsBenchmark {
+
+  private static final int TASKS = 100;
+
+  private ExecutorService threadPoolExecutor;
+  private ForkJoinPool forkJoinPool;
+  private Span span;
+  private Context context;
+
+  @Setup
+  public void setup() {
+    threadPoolExecutor =
+        new ThreadPoolExecutor(4, 4, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    forkJoinPool = new ForkJoinPool(4);
+    span = GlobalOpenTelemetry.getTracer("benchmark").spanBuilder("parent").startSpan();
+    context = Context.current().with(span);
+  }
+
+  @TearDown
+  public void tearDown() {
+    span.end();
+    threadPoolExecutor.shutdown();
+    forkJoinPool.shutdown();
+  }
+
+  /** Submits 100 tasks and waits for all of them. */
+  @Benchmark
+  public int threadPoolExecutor() throws ExecutionException, InterruptedException {
+    try (Scope ignored = context.makeCurrent()) {
+      List<Future<Integer>> futures = new ArrayList<>(TASKS);
+      for (int i = 0; i < TASKS; i++) {
+        int value = i;
+        futures.add(threadPoolExecutor.submit(() -> value));
+      }
+      int sum = 0;
+      for (Future<Integer> future : futures) {
+        sum += future.get();
+      }
+      return sum;
+    }
+  }
+
+  /**
+   * Sums a range by recursively forking, which creates about 200 tasks. Most of them are run by
+   * the thread that forked them while it joins, so the context doesn't change.
+   */
+  @Benchmark
+  public long forkJoinPool() {
+    try (Scope ignored = context.makeCurrent()) {
+      return forkJoinPool.invoke(new SumTask(0, 10_000));
+    }
+  }
+
+  private static class SumTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+    private static final int THRESHOLD = 100;
+
+    private final int from;
+    private final int to;
+
+    SumTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Long compute() {
+      if (to - from <= THRESHOLD) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+          sum += i;
+        }
+        return sum;
+      }
+      int middle = (from + to) >>> 1;
+      SumTask left = new SumTask(from, middle);
+      left.fork();
+      return new SumTask(middle, to).compute() + left.join();
+    }
+  }
+}
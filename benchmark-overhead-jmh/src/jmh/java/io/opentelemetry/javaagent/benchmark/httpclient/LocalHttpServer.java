@@ -0,0 +1,47 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.httpclient;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** Responds to every request with a small body, for the http client benchmarks. */
+class LocalHttpServer {
+
+  private static final byte[] RESPONSE = "hello".getBytes(StandardCharsets.UTF_8);
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  LocalHttpServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(
+        "/",
+        exchange -> {
+          exchange.getRequestBody().readAllBytes();
+          exchange.sendResponseHeaders(200, RESPONSE.length);
+          try (OutputStream body = exchange.getResponseBody()) {
+            body.write(RESPONSE);
+          }
+        });
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  String uri() {
+    return "http://localhost:" + server.getAddress().getPort() + "/";
+  }
+
+  void stop() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.httpclient;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Benchmark)
+public class OkHttpBenchmark {
+
+  private LocalHttpServer server;
+  private OkHttpClient client;
+  private Request request;
+
+  @Setup
+  public void setup() throws IOException {
+    server = new LocalHttpServer();
+    client = new OkHttpClient();
+    request = new Request.Builder().url(server.uri()).build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.dispatcher().executorService().shutdown();
+    client.connectionPool().evictAll();
+    server.stop();
+  }
+
+  @Benchmark
+  public byte[] execute() throws IOException {
+    try (Response response = client.newCall(request).execute()) {
+      return response.body().bytes();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.kafka;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures sending a record with {@code KafkaProducer} and waiting for its acknowledgement. The
+ * instrumentation only applies to {@code KafkaProducer} and not to {@code MockProducer}, so a real
+ * producer is used that talks to a local {@link KafkaStandIn}, which acknowledges records without
+ * storing them. Every send takes the successful path, including the callback.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Thread)
+public class KafkaProducerBenchmark {
+
+  private static final Callback CALLBACK = (RecordMetadata metadata, Exception exception) -> {};
+
+  private KafkaStandIn kafka;
+  private KafkaProducer<String, String> producer;
+
+  @Setup
+  public void setup() throws IOException {
+    kafka = new KafkaStandIn();
+    Map<String, Object> config = new HashMap<>();
+    config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafka.bootstrapServers());
+    // the stand-in doesn't implement the requests for producer ids
+    config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+    config.put(ProducerConfig.ACKS_CONFIG, "1");
+    producer = new KafkaProducer<>(config, new StringSerializer(), new StringSerializer());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    producer.close();
+    kafka.stop();
+  }
+
+  @Benchmark
+  public RecordMetadata send() throws ExecutionException, InterruptedException {
+    // a new record every time since the context is propagated in its headers
+    return producer
+        .send(new ProducerRecord<>(KafkaStandIn.TOPIC, 0, "key", "value"), CALLBACK)
+        .get();
+  }
+}
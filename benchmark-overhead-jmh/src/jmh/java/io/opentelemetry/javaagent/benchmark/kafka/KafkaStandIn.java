@@ -0,0 +1,168 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.kafka;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.common.message.ApiVersionsResponseData;
+import org.apache.kafka.common.message.MetadataResponseData;
+import org.apache.kafka.common.message.ProduceResponseData;
+import org.apache.kafka.common.protocol.ApiKeys;
+import org.apache.kafka.common.requests.AbstractResponse;
+import org.apache.kafka.common.requests.ApiVersionsResponse;
+import org.apache.kafka.common.requests.MetadataResponse;
+import org.apache.kafka.common.requests.ProduceResponse;
+import org.apache.kafka.common.requests.ResponseHeader;
+
+/**
+ * Speaks just enough of the kafka protocol for a producer that sends to partition 0 of a single
+ * topic: {@code ApiVersions}, {@code Metadata} and {@code Produce}, which is acknowledged without
+ * storing the records. The responses are encoded with the message classes of kafka-clients, in the
+ * version the client asked for. One thread per connection.
+ */
+class KafkaStandIn {
+
+  static final String TOPIC = "benchmark";
+  private static final int NODE_ID = 0;
+
+  private final AtomicLong offset = new AtomicLong();
+  private final ServerSocket serverSocket;
+
+  KafkaStandIn() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "kafka-stand-in");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  String bootstrapServers() {
+    return "localhost:" + serverSocket.getLocalPort();
+  }
+
+  void stop() throws IOException {
+    serverSocket.close();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        Thread connection = new Thread(() -> serve(socket), "kafka-stand-in-connection");
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        // closed
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+        DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+      while (true) {
+        byte[] request = new byte[in.readInt()];
+        in.readFully(request);
+        // every request header starts with the api key, the api version and the correlation id
+        ByteBuffer buffer = ByteBuffer.wrap(request);
+        ApiKeys apiKey = ApiKeys.forId(buffer.getShort());
+        short apiVersion = buffer.getShort();
+        int correlationId = buffer.getInt();
+
+        ResponseHeader header =
+            new ResponseHeader(correlationId, apiKey.responseHeaderVersion(apiVersion));
+        ByteBuffer response = response(apiKey).serializeWithHeader(header, apiVersion);
+        byte[] bytes = new byte[response.remaining()];
+        response.get(bytes);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.flush();
+      }
+    } catch (IOException | RuntimeException e) {
+      // connection closed, or an unexpected request
+    }
+  }
+
+  private AbstractResponse response(ApiKeys apiKey) {
+    switch (apiKey) {
+      case API_VERSIONS:
+        return apiVersions();
+      case METADATA:
+        return metadata();
+      case PRODUCE:
+        return produce();
+      default:
+        throw new IllegalStateException("unexpected request " + apiKey);
+    }
+  }
+
+  private static ApiVersionsResponse apiVersions() {
+    ApiVersionsResponseData.ApiVersionCollection apiVersions =
+        new ApiVersionsResponseData.ApiVersionCollection();
+    for (ApiKeys apiKey : new ApiKeys[] {ApiKeys.API_VERSIONS, ApiKeys.METADATA, ApiKeys.PRODUCE}) {
+      apiVersions.add(
+          new ApiVersionsResponseData.ApiVersion()
+              .setApiKey(apiKey.id)
+              .setMinVersion(apiKey.oldestVersion())
+              .setMaxVersion(apiKey.latestVersion()));
+    }
+    return new ApiVersionsResponse(new ApiVersionsResponseData().setApiKeys(apiVersions));
+  }
+
+  private MetadataResponse metadata() {
+    MetadataResponseData.MetadataResponseBrokerCollection brokers =
+        new MetadataResponseData.MetadataResponseBrokerCollection();
+    brokers.add(
+        new MetadataResponseData.MetadataResponseBroker()
+            .setNodeId(NODE_ID)
+            .setHost("localhost")
+            .setPort(serverSocket.getLocalPort()));
+    MetadataResponseData.MetadataResponseTopicCollection topics =
+        new MetadataResponseData.MetadataResponseTopicCollection();
+    topics.add(
+        new MetadataResponseData.MetadataResponseTopic()
+            .setName(TOPIC)
+            .setPartitions(
+                Collections.singletonList(
+                    new MetadataResponseData.MetadataResponsePartition()
+                        .setPartitionIndex(0)
+                        .setLeaderId(NODE_ID)
+                        .setLeaderEpoch(0)
+                        .setReplicaNodes(Collections.singletonList(NODE_ID))
+                        .setIsrNodes(Collections.singletonList(NODE_ID)))));
+    MetadataResponseData data =
+        new MetadataResponseData()
+            .setBrokers(brokers)
+            .setClusterId("benchmark")
+            .setControllerId(NODE_ID)
+            .setTopics(topics);
+    return new MetadataResponse(data, ApiKeys.METADATA.latestVersion());
+  }
+
+  private ProduceResponse produce() {
+    ProduceResponseData.TopicProduceResponseCollection responses =
+        new ProduceResponseData.TopicProduceResponseCollection();
+    responses.add(
+        new ProduceResponseData.TopicProduceResponse()
+            .setName(TOPIC)
+            .setPartitionResponses(
+                Collections.singletonList(
+                    new ProduceResponseData.PartitionProduceResponse()
+                        .setIndex(0)
+                        .setBaseOffset(offset.getAndIncrement()))));
+    return new ProduceResponse(new ProduceResponseData().setResponses(responses));
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.lettuce;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.protocol.ProtocolVersion;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@State(Scope.Benchmark)
+public class LettuceBenchmark {
+
+  private RedisStandIn redis;
+  private RedisClient client;
+  private StatefulRedisConnection<String, String> connection;
+  private RedisCommands<String, String> commands;
+
+  @Setup
+  public void setup() throws IOException {
+    redis = new RedisStandIn();
+    client = RedisClient.create(RedisURI.create("localhost", redis.port()));
+    // the stand-in doesn't implement HELLO
+    client.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build());
+    connection = client.connect();
+    commands = connection.sync();
+    commands.set("key", "value");
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    connection.close();
+    client.shutdown();
+    redis.stop();
+  }
+
+  @Benchmark
+  public String get() {
+    return commands.get("key");
+  }
+}
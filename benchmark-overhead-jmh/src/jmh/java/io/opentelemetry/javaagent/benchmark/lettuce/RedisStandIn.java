@@ -0,0 +1,135 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.lettuce;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Speaks just enough of the RESP2 protocol for the lettuce benchmark: {@code GET}, {@code SET} and
+ * {@code PING}, every other command is acknowledged with {@code +OK}. One thread per connection.
+ */
+class RedisStandIn {
+
+  private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+  private final ServerSocket serverSocket;
+
+  RedisStandIn() throws IOException {
+    serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    Thread acceptor = new Thread(this::accept, "redis-stand-in");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  int port() {
+    return serverSocket.getLocalPort();
+  }
+
+  void stop() throws IOException {
+    serverSocket.close();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        Socket socket = serverSocket.accept();
+        Thread connection = new Thread(() -> serve(socket), "redis-stand-in-connection");
+        connection.setDaemon(true);
+        connection.start();
+      } catch (IOException e) {
+        // closed
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket s = socket;
+        InputStream in = new BufferedInputStream(s.getInputStream());
+        OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+      while (true) {
+        List<byte[]> command = readCommand(in);
+        if (command == null) {
+          return;
+        }
+        execute(command, out);
+        // lettuce pipelines, only flush when there is nothing more to read
+        if (in.available() == 0) {
+          out.flush();
+        }
+      }
+    } catch (IOException e) {
+      // connection closed
+    }
+  }
+
+  private void execute(List<byte[]> command, OutputStream out) throws IOException {
+    String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+    switch (name) {
+      case "GET":
+        byte[] value = values.get(new String(command.get(1), StandardCharsets.UTF_8));
+        if (value == null) {
+          out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else {
+          out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+          out.write(value);
+          out.write('\r');
+          out.write('\n');
+        }
+        return;
+      case "SET":
+        values.put(new String(command.get(1), StandardCharsets.UTF_8), command.get(2));
+        out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+        return;
+      case "PING":
+        out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+        return;
+      default:
+        out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+  }
+
+  // a command is an array of bulk strings, e.g. *2\r\n$3\r\nGET\r\n$3\r\nkey\r\n
+  private static List<byte[]> readCommand(InputStream in) throws IOException {
+    String header = readLine(in);
+    if (header == null) {
+      return null;
+    }
+    int count = Integer.parseInt(header.substring(1));
+    List<byte[]> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int length = Integer.parseInt(readLine(in).substring(1));
+      byte[] argument = in.readNBytes(length);
+      // the trailing \r\n
+      in.readNBytes(2);
+      result.add(argument);
+    }
+    return result;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder();
+    int c;
+    while ((c = in.read()) != '\r') {
+      if (c == -1) {
+        return null;
+      }
+      line.append((char) c);
+    }
+    in.read();
+    return line.toString();
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.benchmark.startup;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time it takes to start and stop a jvm with the agent, with and without a class data
+ * sharing archive of the agent classes created by {@code
+ * io.opentelemetry.javaagent.bootstrap.AgentClassDataSharing}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+  private static final String AGENT_MAIN_CLASS = "io.opentelemetry.javaagent.OpenTelemetryAgent";
+  private static final String CDS_MAIN_CLASS =
+      "io.opentelemetry.javaagent.bootstrap.AgentClassDataSharing";
+
+  // javaagent: agent jar passed with -javaagent only
+  // bootclasspath: agent jar also appended to the boot class path, without archive
+  // cds: agent jar appended to the boot class path and archive of the agent classes
+  @Param({"javaagent", "bootclasspath", "cds"})
+  public String mode;
+
+  private String java;
+  private String agentJar;
+  private Path tempDir;
+  private List<String> command;
+
+  @Setup
+  public void setup() throws IOException, InterruptedException {
+    java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    agentJar = getAgentJar();
+    tempDir = Files.createTempDirectory("startup-benchmark");
+
+    command = new ArrayList<>();
+    command.add(java);
+    if (!mode.equals("javaagent")) {
+      command.add("-Xbootclasspath/a:" + agentJar);
+    }
+    if (mode.equals("cds")) {
+      command.add("-XX:SharedArchiveFile=" + createArchive());
+      // fail instead of silently running without the archive
+      command.add("-Xshare:on");
+    }
+    command.add("-javaagent:" + agentJar);
+    command.add("-Dotel.traces.exporter=none");
+    command.add("-Dotel.metrics.exporter=none");
+    command.add("-Dotel.logs.exporter=none");
+    // the main class of the agent prints the agent version
+    command.add("-cp");
+    command.add(agentJar);
+    command.add(AGENT_MAIN_CLASS);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(tempDir.resolve("opentelemetry-javaagent.jsa"));
+    Files.deleteIfExists(tempDir.resolve("training"));
+    Files.deleteIfExists(tempDir);
+  }
+
+  @Benchmark
+  public void startup() throws IOException, InterruptedException {
+    run(command, tempDir.toFile());
+  }
+
+  private String createArchive() throws IOException, InterruptedException {
+    Path archive = tempDir.resolve("opentelemetry-javaagent.jsa");
+    // the class path of the training run is the working directory, it needs to be empty so that
+    // the archive can be used with any class path
+    Path trainingDir = Files.createDirectory(tempDir.resolve("training"));
+
+    List<String> trainingCommand = new ArrayList<>();
+    trainingCommand.add(java);
+    trainingCommand.add("-Xbootclasspath/a:" + agentJar);
+    trainingCommand.add("-XX:ArchiveClassesAtExit=" + archive);
+    trainingCommand.add(CDS_MAIN_CLASS);
+    trainingCommand.add(agentJar);
+    run(trainingCommand, trainingDir.toFile());
+    return archive.toString();
+  }
+
+  private static void run(List<String> command, File workingDir)
+      throws IOException, InterruptedException {
+    Process process =
+        new ProcessBuilder(command)
+            .directory(workingDir)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+    int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IllegalStateException("Command " + command + " exited with " + exitCode);
+    }
+  }
+
+  // the benchmark jvm itself is started with the agent
+  private static String getAgentJar() {
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      // the jvm arguments from build.gradle.kts are passed as a single argument
+      for (String option : argument.split(" ")) {
+        if (option.startsWith("-javaagent:")) {
+          return option.substring("-javaagent:".length());
+        }
+      }
+    }
+    throw new IllegalStateException("Benchmark jvm was not started with the agent");
+  }
+}
@@ -28,6 +28,9 @@ dependencies {
   testImplementation("com.jayway.jsonpath:json-path:3.0.0")
   testImplementation("org.slf4j:slf4j-simple:2.0.17")
   testImplementation("org.assertj:assertj-core:3.27.7")
+  // the app and database of the tests that run without docker
+  testImplementation("org.apache.tomcat.embed:tomcat-embed-core:10.1.40")
+  testImplementation("com.h2database:h2:2.3.232")
 
   testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
   testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -36,5 +39,16 @@ dependencies {
 tasks {
   test {
     useJUnitPlatform()
+    exclude("**/LocalOverheadTests*")
+  }
+
+  // runs the overhead tests without docker, e.g. ./gradlew localTest -PagentJar=<path to agent jar>
+  register<Test>("localTest") {
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    useJUnitPlatform()
+    include("**/LocalOverheadTests*")
+    systemProperty("io.opentelemetry.overhead.agentJar", findProperty("agentJar") ?: "")
+    outputs.upToDateWhen { false }
   }
 }
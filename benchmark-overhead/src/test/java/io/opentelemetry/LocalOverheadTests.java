@@ -0,0 +1,150 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import io.opentelemetry.agents.Agent;
+import io.opentelemetry.config.LocalConfigs;
+import io.opentelemetry.config.TestConfig;
+import io.opentelemetry.local.LoadGenerator;
+import io.opentelemetry.local.OtlpSink;
+import io.opentelemetry.local.PetClinicProcess;
+import io.opentelemetry.results.AppPerfResults;
+import io.opentelemetry.results.MainResultsPersister;
+import io.opentelemetry.results.ResultsCollector;
+import io.opentelemetry.util.NamingConventions;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Runs the overhead tests without docker: the petclinic app runs in a child jvm with an in-memory
+ * database, the load is generated in the test jvm and the telemetry is sent to an in-memory OTLP
+ * receiver. The agent jar is passed in the {@code io.opentelemetry.overhead.agentJar} system
+ * property.
+ */
+public class LocalOverheadTests {
+
+  private static final String AGENT_JAR_PROPERTY = "io.opentelemetry.overhead.agentJar";
+
+  private static OtlpSink otlpSink;
+  private final NamingConventions namingConventions = new NamingConventions();
+  private final Map<String, Long> runDurations = new HashMap<>();
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    otlpSink = new OtlpSink();
+    otlpSink.start();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    System.out.println(
+        "OTLP receiver got "
+            + otlpSink.getRequestCount()
+            + " requests with "
+            + otlpSink.getBytesReceived()
+            + " bytes");
+    otlpSink.close();
+  }
+
+  @TestFactory
+  Stream<DynamicTest> runAllTestConfigurations() throws Exception {
+    String agentJar = System.getProperty(AGENT_JAR_PROPERTY);
+    if (agentJar == null || !Files.isRegularFile(Paths.get(agentJar))) {
+      throw new IllegalStateException(
+          "Set " + AGENT_JAR_PROPERTY + " to the agent jar to test, was: " + agentJar);
+    }
+    return LocalConfigs.all(Paths.get(agentJar).toAbsolutePath())
+        .map(config -> dynamicTest(config.getName(), () -> runTestConfig(config)));
+  }
+
+  void runTestConfig(TestConfig config) {
+    runDurations.clear();
+    config
+        .getAgents()
+        .forEach(
+            agent -> {
+              try {
+                runAppOnce(config, agent);
+              } catch (Exception e) {
+                fail("Unhandled exception in " + config.getName(), e);
+              }
+            });
+    List<AppPerfResults> results =
+        new ResultsCollector(namingConventions.local, runDurations).collect(config);
+    new MainResultsPersister(config).write(results);
+  }
+
+  void runAppOnce(TestConfig config, Agent agent) throws Exception {
+    PetClinicProcess petclinic = new PetClinicProcess(agent, otlpSink);
+    long start = System.currentTimeMillis();
+    petclinic.start();
+    writeStartupTimeFile(agent, start);
+
+    try {
+      if (config.getWarmupSeconds() > 0) {
+        doWarmupPhase(config, petclinic);
+      }
+
+      long testStart = System.currentTimeMillis();
+      petclinic.startRecording("petclinic", namingConventions.local.jfrFile(agent));
+
+      LoadGenerator load =
+          new LoadGenerator(
+              petclinic.getApiUri(),
+              config.getConcurrentConnections(),
+              config.getTotalIterations(),
+              config.getMaxRequestRate());
+      load.run();
+      load.writeSummary(Paths.get(namingConventions.local.k6Results(agent)));
+
+      long runDuration = System.currentTimeMillis() - testStart;
+      runDurations.put(agent.getName(), runDuration);
+    } finally {
+      // a graceful exit of the jvm writes the jfr file
+      petclinic.stop();
+    }
+  }
+
+  private static void doWarmupPhase(TestConfig testConfig, PetClinicProcess petclinic)
+      throws Exception {
+    System.out.println(
+        "Performing startup warming phase for " + testConfig.getWarmupSeconds() + " seconds...");
+
+    // excluding the JFR recording from the warmup causes strange inconsistencies in the results
+    System.out.println("Starting disposable JFR warmup recording...");
+    petclinic.startRecording("warmup", "warmup.jfr");
+
+    long deadline = System.currentTimeMillis() + SECONDS.toMillis(testConfig.getWarmupSeconds());
+    while (System.currentTimeMillis() < deadline) {
+      new LoadGenerator(petclinic.getApiUri(), 5, 200, 0).run();
+    }
+
+    System.out.println("Stopping disposable JFR warmup recording...");
+    petclinic.stopRecording("warmup");
+
+    System.out.println("Warmup complete.");
+  }
+
+  private void writeStartupTimeFile(Agent agent, long start) throws IOException {
+    long delta = System.currentTimeMillis() - start;
+    Path startupPath = Path.of(namingConventions.local.startupDurationFile(agent));
+    Files.writeString(startupPath, String.valueOf(delta));
+  }
+}
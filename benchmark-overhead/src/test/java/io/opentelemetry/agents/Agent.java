@@ -28,6 +28,23 @@ public class Agent {
           "latest available snapshot version from main with indy enabled",
           null,
           Collections.singletonList("-Dotel.javaagent.experimental.indy=true"));
+  // both runs share the decision cache file, the first run writes it and the second one reads it
+  private static final String DECISION_CACHE_FILE =
+      "-Dotel.javaagent.experimental.decision-cache.file=/results/decision-cache-"
+          + System.currentTimeMillis()
+          + ".txt";
+  public static final Agent LATEST_SNAPSHOT_DECISION_CACHE_COLD =
+      new Agent(
+          "snapshot-decision-cache-cold",
+          "latest available snapshot version from main with an empty decision cache",
+          null,
+          Collections.singletonList(DECISION_CACHE_FILE));
+  public static final Agent LATEST_SNAPSHOT_DECISION_CACHE_WARM =
+      new Agent(
+          "snapshot-decision-cache-warm",
+          "latest available snapshot version from main with a populated decision cache",
+          null,
+          Collections.singletonList(DECISION_CACHE_FILE));
 
   private final String name;
   private final String description;
@@ -24,7 +24,10 @@ public class AgentResolver {
     if (Agent.NONE.equals(agent)) {
       return Optional.empty();
     }
-    if (Agent.LATEST_SNAPSHOT.equals(agent) || Agent.LATEST_SNAPSHOT_INDY.equals(agent)) {
+    if (Agent.LATEST_SNAPSHOT.equals(agent)
+        || Agent.LATEST_SNAPSHOT_INDY.equals(agent)
+        || Agent.LATEST_SNAPSHOT_DECISION_CACHE_COLD.equals(agent)
+        || Agent.LATEST_SNAPSHOT_DECISION_CACHE_WARM.equals(agent)) {
       return snapshotResolver.resolve();
     }
     if (agent.hasUrl()) {
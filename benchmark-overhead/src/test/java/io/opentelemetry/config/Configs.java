@@ -18,6 +18,17 @@ public enum Configs {
           .withAgents(
               Agent.NONE, Agent.LATEST_RELEASE, Agent.LATEST_SNAPSHOT, Agent.LATEST_SNAPSHOT_INDY)
           .warmupSeconds(60)
+          .build()),
+  STARTUP(
+      TestConfig.builder()
+          .name("startup")
+          .description("compares the startup time of the latest snapshot with the decision cache")
+          .withAgents(
+              Agent.NONE,
+              Agent.LATEST_SNAPSHOT,
+              Agent.LATEST_SNAPSHOT_DECISION_CACHE_COLD,
+              Agent.LATEST_SNAPSHOT_DECISION_CACHE_WARM)
+          .warmupSeconds(0)
           .build());
 
   public final TestConfig config;
@@ -0,0 +1,77 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.config;
+
+import io.opentelemetry.agents.Agent;
+import io.opentelemetry.local.AgentCdsArchive;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Defines the test configurations that run without docker. They compare no agent with a locally
+ * built agent jar, because the snapshot agents are only resolved for the containers. The startup
+ * configuration compares the cold start of the agent with and without a class data sharing archive
+ * of the agent classes, which is created before the tests run.
+ */
+public final class LocalConfigs {
+
+  public static Stream<TestConfig> all(Path agentJar) throws IOException, InterruptedException {
+    String agentUrl = agentJar.toUri().toString();
+    Agent local = new Agent("local", "locally built agent", agentUrl);
+    Agent localIndy =
+        new Agent(
+            "local-indy",
+            "locally built agent with indy enabled",
+            agentUrl,
+            Collections.singletonList("-Dotel.javaagent.experimental.indy=true"));
+    return Stream.of(
+        TestConfig.builder()
+            .name("local")
+            .description("compares no agent and the locally built agent, without docker")
+            .withAgents(Agent.NONE, local, localIndy)
+            .warmupSeconds(30)
+            .build(),
+        startup(agentJar, local));
+  }
+
+  private static TestConfig startup(Path agentJar, Agent local)
+      throws IOException, InterruptedException {
+    String agentUrl = agentJar.toUri().toString();
+    List<Agent> agents = new ArrayList<>();
+    agents.add(Agent.NONE);
+    agents.add(local);
+    // the archive is used with the agent jar on the boot class path, which alone changes how the
+    // agent classes are loaded
+    agents.add(
+        new Agent(
+            "local-boot-class-path",
+            "locally built agent appended to the boot class path",
+            agentUrl,
+            Collections.singletonList("-Xbootclasspath/a:" + agentJar)));
+    if (AgentCdsArchive.isSupported()) {
+      agents.add(
+          new Agent(
+              "local-cds",
+              "locally built agent with a class data sharing archive of the agent classes",
+              agentUrl,
+              AgentCdsArchive.create(agentJar)));
+    }
+    return TestConfig.builder()
+        .name("local-startup")
+        .description(
+            "compares the cold start of the locally built agent with and without a class data"
+                + " sharing archive, without docker")
+        .withAgents(agents.toArray(new Agent[0]))
+        .warmupSeconds(0)
+        .build();
+  }
+
+  private LocalConfigs() {}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates a class data sharing archive of the agent classes with a training run of the agent jar,
+ * as described in {@code docs/advanced-configuration-options.md}. Requires java 13+.
+ */
+public final class AgentCdsArchive {
+
+  private static final String TRAINING_MAIN =
+      "io.opentelemetry.javaagent.bootstrap.AgentClassDataSharing";
+
+  /** Returns whether the jvm that runs the tests can create dynamic archives. */
+  public static boolean isSupported() {
+    return Runtime.version().feature() >= 13;
+  }
+
+  /**
+   * Creates the archive, the app needs to be started with the returned jvm arguments in addition to
+   * {@code -javaagent}.
+   */
+  public static List<String> create(Path agentJar) throws IOException, InterruptedException {
+    Path archive = Paths.get(".", "opentelemetry-javaagent.jsa").toAbsolutePath();
+    String bootClassPath = "-Xbootclasspath/a:" + agentJar.toAbsolutePath();
+    // without a class path the working directory is the class path, it needs to be empty so that
+    // the archive can be used with any application class path
+    Path workingDirectory = Files.createTempDirectory("otel-cds-training");
+    Process process =
+        new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                bootClassPath,
+                "-XX:ArchiveClassesAtExit=" + archive,
+                TRAINING_MAIN,
+                agentJar.toAbsolutePath().toString())
+            .directory(workingDirectory.toFile())
+            .inheritIO()
+            .start();
+    int exitCode = process.waitFor();
+    Files.delete(workingDirectory);
+    if (exitCode != 0 || !Files.isRegularFile(archive)) {
+      throw new IllegalStateException("creating the class data sharing archive failed");
+    }
+    return Arrays.asList(bootClassPath, "-XX:SharedArchiveFile=" + archive, "-Xshare:on");
+  }
+
+  private AgentCdsArchive() {}
+}
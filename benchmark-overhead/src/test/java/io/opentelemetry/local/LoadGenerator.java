@@ -0,0 +1,256 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * JVM based load generator that makes the same requests as {@code k6/basic.js}. It stands in for
+ * the k6 container when the overhead tests run without docker, and writes the iteration and request
+ * durations in the format of the k6 summary export, so that they are read by the {@code
+ * ResultsCollector} like the k6 results.
+ */
+public class LoadGenerator {
+
+  private static final String[] NAMES = {
+    "Liam", "Noah", "Oliver", "Elijah", "James", "William", "Benjamin", "Lucas", "Henry", "Theodore"
+  };
+
+  private final String baseUri;
+  private final int virtualUsers;
+  private final int totalIterations;
+  private final int maxRequestRate;
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final List<Double> iterationDurations = Collections.synchronizedList(new ArrayList<>());
+  private final List<Double> requestDurations = Collections.synchronizedList(new ArrayList<>());
+  // next time a request may be sent when the request rate is limited
+  private final AtomicLong nextRequestNanos = new AtomicLong(System.nanoTime());
+
+  public LoadGenerator(String baseUri, int virtualUsers, int totalIterations, int maxRequestRate) {
+    this.baseUri = baseUri;
+    this.virtualUsers = virtualUsers;
+    this.totalIterations = totalIterations;
+    this.maxRequestRate = maxRequestRate;
+  }
+
+  /** Runs the iterations, each virtual user runs one iteration at a time. */
+  public void run() throws Exception {
+    AtomicInteger remainingIterations = new AtomicInteger(totalIterations);
+    ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+    try {
+      List<Future<?>> users = new ArrayList<>();
+      for (int i = 0; i < virtualUsers; i++) {
+        users.add(
+            executor.submit(
+                () -> {
+                  while (remainingIterations.getAndDecrement() > 0) {
+                    long start = System.nanoTime();
+                    iteration();
+                    iterationDurations.add(millisSince(start));
+                  }
+                  return null;
+                }));
+      }
+      for (Future<?> user : users) {
+        user.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void iteration() throws IOException, InterruptedException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    List<String> specialtyIds = SimpleJson.ids(get("/specialties"));
+    Map<String, Object> vet = new LinkedHashMap<>();
+    vet.put("firstName", randomName());
+    vet.put("lastName", randomName());
+    vet.put("specialtyId", specialtyIds.get(random.nextInt(specialtyIds.size())));
+    String vetId = SimpleJson.parse(post("/vets", vet)).get("id");
+    get("/vets/" + vetId);
+
+    Map<String, Object> owner = new LinkedHashMap<>();
+    owner.put("firstName", randomName());
+    owner.put("lastName", randomName());
+    owner.put("address", random.nextInt(1000) + " Main St.");
+    owner.put("city", "Madison");
+    owner.put("telephone", "608555" + (1000 + random.nextInt(9000)));
+    String ownerId = SimpleJson.parse(post("/owners", owner)).get("id");
+    get("/owners/" + ownerId);
+
+    List<String> typeIds = SimpleJson.ids(get("/pettypes"));
+    get("/owners");
+
+    // like http.batch in k6, the requests for the pets are sent in parallel
+    List<CompletableFuture<String>> newPets = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Map<String, Object> pet = new LinkedHashMap<>();
+      pet.put("name", randomName());
+      pet.put("birthDate", "2020/12/31");
+      pet.put("typeId", typeIds.get(random.nextInt(typeIds.size())));
+      pet.put("ownerId", ownerId);
+      newPets.add(sendAsync(request("/pets").POST(body(pet))));
+    }
+    List<String> petIds = new ArrayList<>();
+    for (CompletableFuture<String> newPet : newPets) {
+      petIds.add(SimpleJson.parse(newPet.join()).get("id"));
+    }
+    joinAll(petIds, petId -> sendAsync(request("/pets/" + petId).GET()));
+    joinAll(petIds, petId -> sendAsync(request("/pets/" + petId).DELETE()));
+
+    send(request("/owners/" + ownerId).DELETE());
+    send(request("/vets/" + vetId).DELETE());
+  }
+
+  private String get(String path) throws IOException, InterruptedException {
+    return send(request(path).GET());
+  }
+
+  private String post(String path, Map<String, Object> body)
+      throws IOException, InterruptedException {
+    return send(request(path).POST(body(body)));
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUri + path))
+        .header("Content-Type", "application/json");
+  }
+
+  private static HttpRequest.BodyPublisher body(Map<String, Object> body) {
+    return HttpRequest.BodyPublishers.ofString(SimpleJson.object(body));
+  }
+
+  private String send(HttpRequest.Builder request) throws IOException, InterruptedException {
+    awaitRequestRate();
+    long start = System.nanoTime();
+    HttpResponse<String> response =
+        client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    requestDurations.add(millisSince(start));
+    return checkStatus(response);
+  }
+
+  private CompletableFuture<String> sendAsync(HttpRequest.Builder request) {
+    try {
+      awaitRequestRate();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    long start = System.nanoTime();
+    return client
+        .sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+        .thenApply(
+            response -> {
+              requestDurations.add(millisSince(start));
+              return checkStatus(response);
+            });
+  }
+
+  private static void joinAll(
+      List<String> ids, Function<String, CompletableFuture<String>> request) {
+    List<CompletableFuture<String>> responses = new ArrayList<>();
+    for (String id : ids) {
+      responses.add(request.apply(id));
+    }
+    CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).join();
+  }
+
+  private static String checkStatus(HttpResponse<String> response) {
+    if (response.statusCode() >= 400) {
+      throw new IllegalStateException(
+          "Request " + response.request().uri() + " failed with " + response.statusCode());
+    }
+    return response.body();
+  }
+
+  private void awaitRequestRate() throws InterruptedException {
+    if (maxRequestRate <= 0) {
+      return;
+    }
+    long interval = SECONDS.toNanos(1) / maxRequestRate;
+    long slot = nextRequestNanos.getAndAdd(interval);
+    long wait = slot - System.nanoTime();
+    if (wait > 0) {
+      NANOSECONDS.sleep(wait);
+    } else {
+      // don't let the slots fall behind when the requests are slower than the limit
+      nextRequestNanos.compareAndSet(slot + interval, System.nanoTime());
+    }
+  }
+
+  private static String randomName() {
+    return NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)];
+  }
+
+  private static double millisSince(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000_000.0;
+  }
+
+  /** Writes the durations like {@code k6 run --summary-export}. */
+  public void writeSummary(Path file) throws IOException {
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("iteration_duration", summarize(iterationDurations));
+    metrics.put("http_req_duration", summarize(requestDurations));
+    Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("metrics", metrics);
+    Files.write(file, SimpleJson.object(summary).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Map<String, Object> summarize(List<Double> durations) {
+    List<Double> sorted;
+    synchronized (durations) {
+      sorted = new ArrayList<>(durations);
+    }
+    Collections.sort(sorted);
+    Map<String, Object> result = new LinkedHashMap<>();
+    if (sorted.isEmpty()) {
+      result.put("avg", 0.0);
+      result.put("p(95)", 0.0);
+      return result;
+    }
+    double sum = 0;
+    for (double duration : sorted) {
+      sum += duration;
+    }
+    result.put("avg", sum / sorted.size());
+    result.put("min", sorted.get(0));
+    result.put("max", sorted.get(sorted.size() - 1));
+    result.put("p(95)", percentile(sorted, 0.95));
+    return result;
+  }
+
+  // linear interpolation between the closest ranks, like k6
+  private static double percentile(List<Double> sorted, double percentile) {
+    double rank = percentile * (sorted.size() - 1);
+    int lower = (int) Math.floor(rank);
+    int upper = (int) Math.ceil(rank);
+    return sorted.get(lower) + (sorted.get(upper) - sorted.get(lower)) * (rank - lower);
+  }
+}
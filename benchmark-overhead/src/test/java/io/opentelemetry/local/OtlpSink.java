@@ -0,0 +1,74 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory OTLP http/protobuf receiver that accepts and discards all telemetry. It stands in for
+ * the collector container when the overhead tests run without docker.
+ */
+public class OtlpSink implements AutoCloseable {
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+
+  public OtlpSink() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/v1/traces", this::handle);
+    server.createContext("/v1/metrics", this::handle);
+    server.createContext("/v1/logs", this::handle);
+    server.setExecutor(executor);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public String getEndpoint() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  public long getBytesReceived() {
+    return bytes.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    long read = 0;
+    try (InputStream body = exchange.getRequestBody()) {
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = body.read(buffer)) != -1) {
+        read += count;
+      }
+    }
+    requests.incrementAndGet();
+    bytes.addAndGet(read);
+    // an empty export service response, which is also an empty protobuf message
+    exchange.getResponseHeaders().set("Content-Type", "application/x-protobuf");
+    exchange.sendResponseHeaders(200, -1);
+    exchange.close();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.h2.jdbcx.JdbcConnectionPool;
+
+/**
+ * A small petclinic rest app on embedded tomcat and an in-memory h2 database, with the endpoints
+ * that the load generator uses. It stands in for the spring-petclinic-rest container and the
+ * postgres container when the overhead tests run without docker.
+ */
+public class PetClinicApp {
+
+  static final String CONTEXT_PATH = "/petclinic";
+  static final String API_PATH = CONTEXT_PATH + "/api";
+  static final String HEALTH_PATH = CONTEXT_PATH + "/actuator/health";
+
+  public static void main(String[] args) throws Exception {
+    int port = Integer.parseInt(args[0]);
+
+    JdbcConnectionPool dataSource =
+        JdbcConnectionPool.create("jdbc:h2:mem:petclinic;DB_CLOSE_DELAY=-1", "petclinic", "");
+    initDatabase(dataSource);
+
+    Tomcat tomcat = new Tomcat();
+    tomcat.setBaseDir(Files.createTempDirectory("petclinic-tomcat").toString());
+    tomcat.setPort(port);
+    // creates the default connector
+    tomcat.getConnector();
+    Context context = tomcat.addContext(CONTEXT_PATH, null);
+    Tomcat.addServlet(context, "api", new ApiServlet(dataSource));
+    context.addServletMappingDecoded("/api/*", "api");
+    Tomcat.addServlet(context, "health", new HealthServlet());
+    context.addServletMappingDecoded("/actuator/health", "health");
+    tomcat.start();
+    tomcat.getServer().await();
+  }
+
+  private static void initDatabase(JdbcConnectionPool dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE vets (id INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(30),"
+              + " last_name VARCHAR(30))");
+      statement.execute(
+          "CREATE TABLE specialties (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(80))");
+      statement.execute(
+          "CREATE TABLE vet_specialties (vet_id INT NOT NULL REFERENCES vets(id),"
+              + " specialty_id INT NOT NULL REFERENCES specialties(id))");
+      statement.execute("CREATE TABLE types (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(80))");
+      statement.execute(
+          "CREATE TABLE owners (id INT AUTO_INCREMENT PRIMARY KEY, first_name VARCHAR(30),"
+              + " last_name VARCHAR(30), address VARCHAR(255), city VARCHAR(80),"
+              + " telephone VARCHAR(20))");
+      statement.execute(
+          "CREATE TABLE pets (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(30),"
+              + " birth_date VARCHAR(10), type_id INT NOT NULL REFERENCES types(id),"
+              + " owner_id INT NOT NULL REFERENCES owners(id))");
+      statement.execute("CREATE INDEX idx_vets_last_name ON vets (last_name)");
+      statement.execute("CREATE INDEX idx_owners_last_name ON owners (last_name)");
+      statement.execute("CREATE INDEX idx_pets_name ON pets (name)");
+
+      // same data as populateDB.sql
+      statement.execute(
+          "INSERT INTO vets (first_name, last_name) VALUES ('James', 'Carter'),"
+              + " ('Helen', 'Leary'), ('Linda', 'Douglas'), ('Rafael', 'Ortega'),"
+              + " ('Henry', 'Stevens'), ('Sharon', 'Jenkins')");
+      statement.execute(
+          "INSERT INTO specialties (name) VALUES ('radiology'), ('surgery'), ('dentistry')");
+      statement.execute(
+          "INSERT INTO vet_specialties VALUES (2, 1), (3, 2), (3, 3), (4, 2), (5, 1)");
+      statement.execute(
+          "INSERT INTO types (name) VALUES ('cat'), ('dog'), ('lizard'), ('snake'), ('bird'),"
+              + " ('hamster')");
+      statement.execute(
+          "INSERT INTO owners (first_name, last_name, address, city, telephone) VALUES"
+              + " ('George', 'Franklin', '110 W. Liberty St.', 'Madison', '6085551023'),"
+              + " ('Betty', 'Davis', '638 Cardinal Ave.', 'Sun Prairie', '6085551749'),"
+              + " ('Eduardo', 'Rodriquez', '2693 Commerce St.', 'McFarland', '6085558763')");
+    }
+  }
+
+  static class HealthServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      writeJson(response, HttpServletResponse.SC_OK, "{\"status\":\"UP\"}");
+    }
+  }
+
+  static class ApiServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private final transient JdbcConnectionPool dataSource;
+
+    ApiServlet(JdbcConnectionPool dataSource) {
+      this.dataSource = dataSource;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+      // paths are /{resource} and /{resource}/{id}
+      String[] path = String.valueOf(request.getPathInfo()).substring(1).split("/");
+      String resource = path[0];
+      Long id = path.length > 1 ? Long.valueOf(path[1]) : null;
+      try (Connection connection = dataSource.getConnection()) {
+        switch (request.getMethod()) {
+          case "GET":
+            if (id == null) {
+              list(connection, resource, response);
+            } else {
+              get(connection, resource, id, response);
+            }
+            return;
+          case "POST":
+            create(connection, resource, SimpleJson.parse(readBody(request)), response);
+            return;
+          case "DELETE":
+            delete(connection, resource, id, response);
+            return;
+          default:
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+      } catch (SQLException | IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      }
+    }
+
+    private static void list(Connection connection, String resource, HttpServletResponse response)
+        throws SQLException, IOException {
+      writeJson(
+          response,
+          HttpServletResponse.SC_OK,
+          SimpleJson.array(query(connection, "SELECT * FROM " + table(resource))));
+    }
+
+    private static void get(
+        Connection connection, String resource, long id, HttpServletResponse response)
+        throws SQLException, IOException {
+      List<Map<String, Object>> rows =
+          query(connection, "SELECT * FROM " + table(resource) + " WHERE id = ?", id);
+      if (rows.isEmpty()) {
+        response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        return;
+      }
+      Map<String, Object> result = rows.get(0);
+      if (resource.equals("vets")) {
+        result.put(
+            "specialties",
+            query(
+                connection,
+                "SELECT s.* FROM specialties s JOIN vet_specialties vs"
+                    + " ON s.id = vs.specialty_id WHERE vs.vet_id = ?",
+                id));
+      }
+      writeJson(response, HttpServletResponse.SC_OK, SimpleJson.object(result));
+    }
+
+    private static void create(
+        Connection connection,
+        String resource,
+        Map<String, String> body,
+        HttpServletResponse response)
+        throws SQLException, IOException {
+      long id;
+      switch (resource) {
+        case "vets":
+          id = insert(connection, "vets", body, "firstName", "lastName");
+          if (body.containsKey("specialtyId")) {
+            update(
+                connection,
+                "INSERT INTO vet_specialties VALUES (?, ?)",
+                id,
+                Long.parseLong(body.get("specialtyId")));
+          }
+          break;
+        case "owners":
+          id =
+              insert(
+                  connection,
+                  "owners",
+                  body,
+                  "firstName",
+                  "lastName",
+                  "address",
+                  "city",
+                  "telephone");
+          break;
+        case "pets":
+          id = insert(connection, "pets", body, "name", "birthDate", "typeId", "ownerId");
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown resource " + resource);
+      }
+      Map<String, Object> result = new LinkedHashMap<>(body);
+      result.put("id", id);
+      writeJson(response, HttpServletResponse.SC_CREATED, SimpleJson.object(result));
+    }
+
+    private static void delete(
+        Connection connection, String resource, Long id, HttpServletResponse response)
+        throws SQLException {
+      if (id == null) {
+        throw new IllegalArgumentException("Missing id");
+      }
+      if (resource.equals("vets")) {
+        update(connection, "DELETE FROM vet_specialties WHERE vet_id = ?", id);
+      } else if (resource.equals("owners")) {
+        update(connection, "DELETE FROM pets WHERE owner_id = ?", id);
+      }
+      update(connection, "DELETE FROM " + table(resource) + " WHERE id = ?", id);
+      response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+    }
+
+    private static String table(String resource) {
+      switch (resource) {
+        case "vets":
+        case "specialties":
+        case "owners":
+        case "pets":
+          return resource;
+        case "pettypes":
+          return "types";
+        default:
+          throw new IllegalArgumentException("Unknown resource " + resource);
+      }
+    }
+
+    private static long insert(
+        Connection connection, String table, Map<String, String> body, String... fields)
+        throws SQLException {
+      List<String> columns = new ArrayList<>();
+      List<String> placeholders = new ArrayList<>();
+      for (String field : fields) {
+        // camel case field names to snake case column names
+        columns.add(field.replaceAll("([A-Z])", "_$1").toLowerCase());
+        placeholders.add("?");
+      }
+      String sql =
+          "INSERT INTO "
+              + table
+              + " ("
+              + String.join(", ", columns)
+              + ") VALUES ("
+              + String.join(", ", placeholders)
+              + ")";
+      try (PreparedStatement statement =
+          connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        for (int i = 0; i < fields.length; i++) {
+          statement.setString(i + 1, body.get(fields[i]));
+        }
+        statement.executeUpdate();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          keys.next();
+          return keys.getLong(1);
+        }
+      }
+    }
+
+    private static void update(Connection connection, String sql, Object... parameters)
+        throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (int i = 0; i < parameters.length; i++) {
+          statement.setObject(i + 1, parameters[i]);
+        }
+        statement.executeUpdate();
+      }
+    }
+
+    private static List<Map<String, Object>> query(
+        Connection connection, String sql, Object... parameters) throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement(sql)) {
+        for (int i = 0; i < parameters.length; i++) {
+          statement.setObject(i + 1, parameters[i]);
+        }
+        try (ResultSet resultSet = statement.executeQuery()) {
+          ResultSetMetaData metaData = resultSet.getMetaData();
+          List<Map<String, Object>> result = new ArrayList<>();
+          while (resultSet.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+              row.put(metaData.getColumnLabel(i).toLowerCase(), resultSet.getObject(i));
+            }
+            result.add(row);
+          }
+          return result;
+        }
+      }
+    }
+
+    private static String readBody(HttpServletRequest request) throws IOException {
+      return new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  private static void writeJson(HttpServletResponse response, int status, String json)
+      throws IOException {
+    response.setStatus(status);
+    response.setContentType("application/json");
+    response.setCharacterEncoding("UTF-8");
+    response.getWriter().write(json);
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import io.opentelemetry.agents.Agent;
+import io.opentelemetry.agents.AgentResolver;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Runs the local petclinic app in a child jvm, optionally with an agent. It is the local
+ * counterpart of the {@code PetClinicRestContainer}.
+ */
+public class PetClinicProcess {
+
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+  private final AgentResolver agentResolver = new AgentResolver();
+  private final HttpClient client = HttpClient.newHttpClient();
+
+  private final Agent agent;
+  private final OtlpSink otlpSink;
+  private final Path jfrSettings;
+  private int port;
+  private Process process;
+
+  public PetClinicProcess(Agent agent, OtlpSink otlpSink) throws IOException {
+    this.agent = agent;
+    this.otlpSink = otlpSink;
+    this.jfrSettings = copyJfrSettings();
+  }
+
+  /** Starts the app and waits until its health endpoint responds. */
+  public void start() throws Exception {
+    Optional<Path> agentJar = agentResolver.resolve(agent);
+    port = findFreePort();
+    process =
+        new ProcessBuilder(buildCommandline(agentJar))
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+            .start();
+
+    long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT.toMillis();
+    while (!isHealthy()) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException("petclinic exited with " + process.exitValue());
+      }
+      if (System.currentTimeMillis() > deadline) {
+        stop();
+        throw new IllegalStateException("petclinic did not start within " + STARTUP_TIMEOUT);
+      }
+      MILLISECONDS.sleep(50);
+    }
+  }
+
+  public String getApiUri() {
+    return "http://localhost:" + port + PetClinicApp.API_PATH;
+  }
+
+  /** Starts a jfr recording with the overhead settings that is written when the jvm exits. */
+  public void startRecording(String name, String file) throws IOException, InterruptedException {
+    jcmd(
+        "JFR.start",
+        "settings=" + jfrSettings,
+        "dumponexit=true",
+        "name=" + name,
+        "filename=" + Paths.get(file).toAbsolutePath());
+  }
+
+  public void stopRecording(String name) throws IOException, InterruptedException {
+    jcmd("JFR.stop", "name=" + name);
+  }
+
+  /** Stops the app gracefully, so that the jfr recording is written. */
+  public void stop() throws InterruptedException {
+    process.destroy();
+    if (!process.waitFor(1, MINUTES)) {
+      process.destroyForcibly().waitFor();
+    }
+  }
+
+  private List<String> buildCommandline(Optional<Path> agentJar) {
+    List<String> result =
+        new ArrayList<>(
+            Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Dotel.traces.exporter=otlp",
+                "-Dotel.imr.export.interval=5000",
+                "-Dotel.exporter.otlp.protocol=http/protobuf",
+                "-Dotel.exporter.otlp.endpoint=" + otlpSink.getEndpoint(),
+                "-Dotel.resource.attributes=service.name=petclinic-otel-overhead"));
+    result.addAll(agent.getAdditionalJvmArgs());
+    agentJar.ifPresent(path -> result.add("-javaagent:" + path.toAbsolutePath()));
+
+    // the app runs from the test class path, which has tomcat and h2
+    result.add("-cp");
+    result.add(System.getProperty("java.class.path"));
+    result.add(PetClinicApp.class.getName());
+    result.add(String.valueOf(port));
+    return result;
+  }
+
+  private boolean isHealthy() throws InterruptedException {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + PetClinicApp.HEALTH_PATH))
+            .timeout(Duration.ofSeconds(1))
+            .build();
+    try {
+      return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private void jcmd(String... command) throws IOException, InterruptedException {
+    List<String> commandline = new ArrayList<>();
+    commandline.add(Paths.get(System.getProperty("java.home"), "bin", "jcmd").toString());
+    commandline.add(String.valueOf(process.pid()));
+    commandline.addAll(Arrays.asList(command));
+    int exitCode = new ProcessBuilder(commandline).inheritIO().start().waitFor();
+    if (exitCode != 0) {
+      throw new IllegalStateException("jcmd " + String.join(" ", command) + " failed");
+    }
+  }
+
+  private static int findFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static Path copyJfrSettings() throws IOException {
+    Path result = Paths.get(".", "overhead.jfc").toAbsolutePath();
+    try (InputStream settings = PetClinicProcess.class.getResourceAsStream("/overhead.jfc")) {
+      if (settings == null) {
+        throw new IOException("overhead.jfc not found on the class path");
+      }
+      Files.copy(settings, result, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return result;
+  }
+}
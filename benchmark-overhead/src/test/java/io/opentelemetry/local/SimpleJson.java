@@ -0,0 +1,91 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.local;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough json for the flat objects that the local petclinic app and the load generator
+ * exchange, so that the app doesn't need a json library on its class path.
+ */
+final class SimpleJson {
+
+  private static final Pattern FIELD =
+      Pattern.compile("\"([^\"]+)\"\\s*:\\s*(\"((?:[^\"\\\\]|\\\\.)*)\"|[^,}\\s]+)");
+  private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+  static String object(Map<String, ?> fields) {
+    StringBuilder result = new StringBuilder("{");
+    for (Map.Entry<String, ?> field : fields.entrySet()) {
+      if (result.length() > 1) {
+        result.append(',');
+      }
+      result.append('"').append(field.getKey()).append("\":");
+      Object value = field.getValue();
+      if (value instanceof Number || value instanceof Boolean) {
+        result.append(value);
+      } else if (value instanceof Map) {
+        @SuppressWarnings("unchecked")
+        Map<String, ?> nested = (Map<String, ?>) value;
+        result.append(object(nested));
+      } else if (value instanceof List) {
+        @SuppressWarnings("unchecked")
+        List<Map<String, ?>> nested = (List<Map<String, ?>>) value;
+        result.append(array(nested));
+      } else {
+        result.append('"').append(escape(String.valueOf(value))).append('"');
+      }
+    }
+    return result.append('}').toString();
+  }
+
+  static String array(List<? extends Map<String, ?>> objects) {
+    StringBuilder result = new StringBuilder("[");
+    for (Map<String, ?> object : objects) {
+      if (result.length() > 1) {
+        result.append(',');
+      }
+      result.append(object(object));
+    }
+    return result.append(']').toString();
+  }
+
+  /** Parses the fields of a flat object, values are returned as strings. */
+  static Map<String, String> parse(String json) {
+    Map<String, String> result = new LinkedHashMap<>();
+    Matcher matcher = FIELD.matcher(json);
+    while (matcher.find()) {
+      String value = matcher.group(3) != null ? unescape(matcher.group(3)) : matcher.group(2);
+      result.put(matcher.group(1), value);
+    }
+    return result;
+  }
+
+  /** Returns the values of all the {@code id} fields, e.g. of the objects of an array. */
+  static List<String> ids(String json) {
+    List<String> result = new ArrayList<>();
+    Matcher matcher = ID.matcher(json);
+    while (matcher.find()) {
+      result.add(matcher.group(1));
+    }
+    return result;
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  private static String unescape(String value) {
+    return value.replace("\\\"", "\"").replace("\\\\", "\\");
+  }
+
+  private SimpleJson() {}
+}
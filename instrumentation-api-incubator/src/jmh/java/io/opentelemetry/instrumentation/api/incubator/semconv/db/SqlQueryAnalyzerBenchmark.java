@@ -0,0 +1,125 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_STRING_LITERALS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import java.util.Random;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares analyzing a realistic mix of queries with inlined literals through a cache keyed by the
+ * literal normalized query shape against a cache keyed by the exact query text. Both caches have
+ * the same byte budget. The {@code hits} and {@code misses} secondary results show the cache hit
+ * rate.
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class SqlQueryAnalyzerBenchmark {
+
+  private static final String[] TEMPLATES = {
+    "SELECT id, name, email FROM users WHERE id = %d",
+    "SELECT * FROM orders WHERE customer_id = %d AND status = 'SHIPPED' ORDER BY created_at DESC",
+    "SELECT o.id, o.total FROM orders o JOIN customers c ON o.customer_id = c.id WHERE c.id = %d",
+    "UPDATE inventory SET quantity = quantity - %d WHERE product_id = 42",
+    "UPDATE users SET last_login = '2024-01-%02d 10:00:00' WHERE id = 7",
+    "INSERT INTO audit_log (user_id, action, created) VALUES (%d, 'login', 1700000000)",
+    "DELETE FROM sessions WHERE expires_at < %d",
+    "SELECT count(*) FROM events WHERE type = 'click' AND user_id = %d",
+    "SELECT p.name, p.price FROM products p WHERE p.category_id = %d AND p.price > 10.5",
+    "SELECT * FROM accounts WHERE email = 'user%d@example.com'",
+  };
+
+  // number of distinct query texts, well above the number of entries that fit into the cache
+  private static final int DISTINCT_QUERIES = 100_000;
+  private static final long CACHE_MAX_BYTES = 256 * 1024;
+
+  private String[] queries;
+  private SqlQueryCache normalizedCache;
+  private SqlQueryCache exactCache;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(0);
+    queries = new String[DISTINCT_QUERIES];
+    for (int i = 0; i < queries.length; i++) {
+      String template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+      queries[i] = String.format(template, random.nextInt(DISTINCT_QUERIES));
+    }
+    Meter meter = OpenTelemetry.noop().getMeter("benchmark");
+    normalizedCache = new SqlQueryCache(meter, Attributes.empty(), CACHE_MAX_BYTES);
+    exactCache = new SqlQueryCache(meter, Attributes.empty(), CACHE_MAX_BYTES);
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Counters {
+    public long hits;
+    public long misses;
+    private int index;
+
+    String nextQuery(String[] queries) {
+      index = (index + 1) % queries.length;
+      return queries[index];
+    }
+  }
+
+  @Benchmark
+  public SqlQuery normalizedKeys(Counters counters) {
+    String query = counters.nextQuery(queries);
+    return analyze(
+        normalizedCache, CacheKey.create(query, DOUBLE_QUOTES_ARE_STRING_LITERALS), counters);
+  }
+
+  @Benchmark
+  public SqlQuery exactKeys(Counters counters) {
+    String query = counters.nextQuery(queries);
+    return analyze(
+        exactCache, CacheKey.createExact(query, DOUBLE_QUOTES_ARE_STRING_LITERALS), counters);
+  }
+
+  @Benchmark
+  public long fingerprint(Counters counters) {
+    return SqlQueryShape.fingerprint(counters.nextQuery(queries));
+  }
+
+  private static SqlQuery analyze(SqlQueryCache cache, CacheKey cacheKey, Counters counters) {
+    long misses = cache.misses();
+    SqlQuery result =
+        cache.computeIfAbsent(
+            cacheKey, key -> AutoSqlSanitizer.sanitize(key.getQueryText(), key.getDialect()));
+    countLookup(counters, cache.misses() == misses);
+    return result;
+  }
+
+  private static void countLookup(Counters counters, boolean hit) {
+    if (hit) {
+      counters.hits++;
+    } else {
+      counters.misses++;
+    }
+  }
+}
@@ -64,6 +64,44 @@ public final class DbConfig {
     return sqlCommenterEnabled != null ? sqlCommenterEnabled : defaultValue;
   }
 
+  /**
+   * Returns the maximum number of bytes that the SQL query analysis caches are allowed to retain,
+   * configured with {@code
+   * otel.instrumentation.common.db.query-sanitization.experimental.cache-max-bytes}.
+   */
+  public static long getQuerySanitizationCacheMaxBytes(
+      OpenTelemetry openTelemetry, long defaultValue) {
+    return DeclarativeConfigUtil.getInstrumentationConfig(openTelemetry, "common")
+        .get("db")
+        .get("query_sanitization")
+        .getLong("cache_max_bytes/development", defaultValue);
+  }
+
+  /**
+   * Returns the maximum length of sanitized query texts, configured with {@code
+   * otel.instrumentation.common.db.query-sanitization.experimental.max-length}. Sanitization stops
+   * once the limit is reached, which bounds the cost of sanitizing very long statements.
+   */
+  public static int getQuerySanitizationMaxLength(OpenTelemetry openTelemetry, int defaultValue) {
+    return DeclarativeConfigUtil.getInstrumentationConfig(openTelemetry, "common")
+        .get("db")
+        .get("query_sanitization")
+        .getInt("max_length/development", defaultValue);
+  }
+
+  /**
+   * Returns whether the analysis of queries that are not cached yet is deferred to a background
+   * thread, configured with {@code
+   * otel.instrumentation.common.db.query-sanitization.experimental.deferred}. Only takes effect
+   * in the javaagent, which attaches the deferred results to the spans when they are exported.
+   */
+  public static boolean isQuerySanitizationDeferred(OpenTelemetry openTelemetry) {
+    return DeclarativeConfigUtil.getInstrumentationConfig(openTelemetry, "common")
+        .get("db")
+        .get("query_sanitization")
+        .getBoolean("deferred/development", false);
+  }
+
   @Nullable
   private static Boolean getCommonSqlCommenterEnabled(OpenTelemetry openTelemetry) {
     DeclarativeConfigProperties commonConfig =
@@ -0,0 +1,50 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import java.io.Reader;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Reader} over a {@link CharSequence} that can be reset to read a different sequence, so
+ * that a single instance can be reused by a pooled sanitizer.
+ */
+final class CharSequenceReader extends Reader {
+
+  @Nullable private CharSequence input;
+  private int position;
+
+  void reset(@Nullable CharSequence input) {
+    this.input = input;
+    this.position = 0;
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) {
+    CharSequence input = this.input;
+    if (input == null || position >= input.length()) {
+      return -1;
+    }
+    int count = Math.min(length, input.length() - position);
+    int end = position + count;
+    if (input instanceof String) {
+      ((String) input).getChars(position, end, buffer, offset);
+    } else if (input instanceof StringBuilder) {
+      ((StringBuilder) input).getChars(position, end, buffer, offset);
+    } else {
+      for (int i = 0; i < count; i++) {
+        buffer[offset + i] = input.charAt(position + i);
+      }
+    }
+    position = end;
+    return count;
+  }
+
+  @Override
+  public void close() {
+    input = null;
+  }
+}
@@ -208,17 +208,26 @@ public abstract class DbClientSpanNameExtractor<REQUEST> implements SpanNameExtr
         }
         SqlQuery analyzedQuery =
             SqlQueryAnalyzerUtil.analyze(rawQueryTexts.iterator().next(), dialect);
-        return computeSpanName(
-            dbName,
-            analyzedQuery.getOperationName(),
-            analyzedQuery.getCollectionName(),
-            analyzedQuery.getStoredProcedureName());
+        PendingSqlQuery pending = SqlQueryAnalyzerUtil.currentPending();
+        if (pending != null && pending.hasAnalysis()) {
+          // the analysis result is provisional, rename the span once the full result is available
+          pending.setSpanName(false, fullQuery -> spanName(dbName, fullQuery));
+        }
+        return spanName(dbName, analyzedQuery);
       }
 
       if (rawQueryTexts.size() == 1) {
         String rawQueryText = rawQueryTexts.iterator().next();
         SqlQuery analyzedQuery = SqlQueryAnalyzerUtil.analyzeWithSummary(rawQueryText, dialect);
         boolean batch = isBatch(request);
+        PendingSqlQuery pending = SqlQueryAnalyzerUtil.currentPending();
+        if (pending != null && pending.hasAnalysisWithSummary()) {
+          // the analysis result is provisional, rename the span once the full result is available
+          String fallbackSpanName =
+              computeSpanNameStable(getter, request, batch ? "BATCH" : null, null, null);
+          pending.setSpanName(
+              true, fullQuery -> spanNameStable(fullQuery, batch, fallbackSpanName));
+        }
         String querySummary = analyzedQuery.getQuerySummary();
         if (querySummary != null) {
           return batch ? "BATCH " + querySummary : querySummary;
@@ -240,6 +249,29 @@ public abstract class DbClientSpanNameExtractor<REQUEST> implements SpanNameExtr
       Long batchSize = getter.getDbOperationBatchSize(request);
       return batchSize != null && batchSize > 1;
     }
+
+    private static String spanName(@Nullable String dbName, SqlQuery analyzedQuery) {
+      return computeSpanName(
+          dbName,
+          analyzedQuery.getOperationName(),
+          analyzedQuery.getCollectionName(),
+          analyzedQuery.getStoredProcedureName());
+    }
+
+    // same as extract() with the span name computed from the request when the query has neither a
+    // summary nor a stored procedure name passed in
+    private static String spanNameStable(
+        SqlQuery analyzedQuery, boolean batch, String fallbackSpanName) {
+      String querySummary = analyzedQuery.getQuerySummary();
+      if (querySummary != null) {
+        return batch ? "BATCH " + querySummary : querySummary;
+      }
+      String storedProcedureName = analyzedQuery.getStoredProcedureName();
+      if (storedProcedureName == null) {
+        return fallbackSpanName;
+      }
+      return batch ? "BATCH " + storedProcedureName : storedProcedureName;
+    }
   }
 
   /**
@@ -275,11 +307,28 @@ public abstract class DbClientSpanNameExtractor<REQUEST> implements SpanNameExtr
         SqlDialect dialect = getter.getSqlDialect(request);
         SqlQuery analyzedQuery = SqlQueryAnalyzerUtil.analyze(rawQuery, dialect);
         operationName = analyzedQuery.getOperationName();
+        PendingSqlQuery pending = SqlQueryAnalyzerUtil.currentPending();
+        if (pending != null && pending.hasAnalysis()) {
+          // the analysis result is provisional, rename the span once the full result is available
+          String explicitOperationName = getter.getDbOperationName(request);
+          pending.setSpanName(
+              false,
+              fullQuery ->
+                  spanName(dbName, fullQuery.getOperationName(), explicitOperationName));
+        }
       }
       if (operationName == null) {
         operationName = getter.getDbOperationName(request);
       }
       return computeSpanName(dbName, operationName, null, null);
     }
+
+    private static String spanName(
+        @Nullable String dbName,
+        @Nullable String operationName,
+        @Nullable String explicitOperationName) {
+      return computeSpanName(
+          dbName, operationName != null ? operationName : explicitOperationName, null, null);
+    }
   }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableSet;
+
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Moves the analysis of queries that are not cached yet off the instrumented thread. When a query
+ * is seen for the first time {@link #analyze(String, SqlDialect, Supplier)} returns a provisional
+ * result that only contains the leading SQL keyword and never the query text, schedules the full
+ * analysis on a background thread and records it in the {@link PendingSqlQuery} of the current
+ * operation. The instrumented thread never waits for the analysis: the full result is attached to
+ * the span when the operation ends if it is available by then, or else by the span exporter, see
+ * {@link io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans}.
+ */
+final class DeferredSqlQueryAnalyzer {
+
+  // bounds the number of pending analyses, queries are analyzed synchronously above this limit
+  private static final int MAX_PENDING = 1024;
+
+  private static final Set<String> PROVISIONAL_OPERATIONS =
+      unmodifiableSet(
+          new HashSet<>(
+              asList(
+                  "SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "UPSERT", "REPLACE", "CALL",
+                  "EXEC", "EXECUTE", "CREATE", "ALTER", "DROP", "TRUNCATE")));
+
+  static DeferredSqlQueryAnalyzer create(SqlQueryAnalyzer analyzer) {
+    return new DeferredSqlQueryAnalyzer(analyzer, createExecutor());
+  }
+
+  private final SqlQueryAnalyzer analyzer;
+  private final Executor executor;
+  // analyses that have not completed yet, so that each query is only scheduled once
+  private final ConcurrentMap<CacheKey, FutureTask<SqlQuery>> pending = new ConcurrentHashMap<>();
+  private final ConcurrentMap<CacheKey, FutureTask<SqlQuery>> pendingWithSummary =
+      new ConcurrentHashMap<>();
+
+  // visible for tests
+  DeferredSqlQueryAnalyzer(SqlQueryAnalyzer analyzer, Executor executor) {
+    this.analyzer = analyzer;
+    this.executor = executor;
+  }
+
+  SqlQuery analyze(String query, SqlDialect dialect, Supplier<PendingSqlQuery> pendingQuery) {
+    SqlQuery cached = analyzer.getCached(query, dialect);
+    if (cached != null) {
+      return cached;
+    }
+    FutureTask<SqlQuery> task =
+        schedule(pending, query, dialect, () -> analyzer.analyze(query, dialect));
+    if (task == null) {
+      return analyzer.analyze(query, dialect);
+    }
+    pendingQuery.get().setAnalysis(task);
+    return SqlQuery.create(null, provisionalOperation(query), null);
+  }
+
+  SqlQuery analyzeWithSummary(
+      String query, SqlDialect dialect, Supplier<PendingSqlQuery> pendingQuery) {
+    SqlQuery cached = analyzer.getCachedWithSummary(query, dialect);
+    if (cached != null) {
+      return cached;
+    }
+    FutureTask<SqlQuery> task =
+        schedule(
+            pendingWithSummary, query, dialect, () -> analyzer.analyzeWithSummary(query, dialect));
+    if (task == null) {
+      return analyzer.analyzeWithSummary(query, dialect);
+    }
+    pendingQuery.get().setAnalysisWithSummary(task);
+    return SqlQuery.createWithSummary(null, null, provisionalOperation(query));
+  }
+
+  // visible for tests
+  int pendingCount() {
+    return pending.size() + pendingWithSummary.size();
+  }
+
+  @Nullable
+  private FutureTask<SqlQuery> schedule(
+      ConcurrentMap<CacheKey, FutureTask<SqlQuery>> pendingTasks,
+      String query,
+      SqlDialect dialect,
+      Callable<SqlQuery> analysis) {
+    if (pendingTasks.size() >= MAX_PENDING) {
+      return null;
+    }
+    CacheKey key = CacheKey.create(query, dialect);
+    FutureTask<SqlQuery> task =
+        new FutureTask<SqlQuery>(analysis) {
+          @Override
+          protected void done() {
+            // from now on the result is found in the cache, results of queries that are too large
+            // to be cached are only kept by the pending queries that reference this task
+            pendingTasks.remove(key, this);
+          }
+        };
+    FutureTask<SqlQuery> existing = pendingTasks.putIfAbsent(key, task);
+    if (existing != null) {
+      // the same query is already being analyzed
+      return existing;
+    }
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // the task is run by whoever needs its result first, see PendingSqlQuery
+    }
+    return task;
+  }
+
+  // visible for tests
+  @Nullable
+  static String provisionalOperation(String query) {
+    int length = query.length();
+    int start = 0;
+    while (start < length
+        && (Character.isWhitespace(query.charAt(start)) || query.charAt(start) == '(')) {
+      start++;
+    }
+    int end = start;
+    while (end < length && isAsciiLetter(query.charAt(end))) {
+      end++;
+    }
+    String keyword = query.substring(start, end).toUpperCase(Locale.ROOT);
+    // only report well known keywords, never arbitrary parts of the query text
+    return PROVISIONAL_OPERATIONS.contains(keyword) ? keyword : null;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static Executor createExecutor() {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            2,
+            2,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_PENDING),
+            new AnalyzerThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static final class AnalyzerThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread =
+          new Thread(runnable, "otel-sql-query-analyzer-" + threadNumber.getAndIncrement());
+      thread.setDaemon(true);
+      thread.setContextClassLoader(null);
+      return thread;
+    }
+  }
+}
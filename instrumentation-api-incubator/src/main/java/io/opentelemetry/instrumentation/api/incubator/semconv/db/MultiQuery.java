@@ -29,7 +29,7 @@ class MultiQuery {
     Set<String> uniqueQueryTexts = new LinkedHashSet<>();
     UniqueValue uniqueQuerySummary = new UniqueValue();
     for (String rawQueryText : rawQueryTexts) {
-      SqlQuery analyzedQuery = SqlQueryAnalyzerUtil.analyzeWithSummary(rawQueryText, dialect);
+      SqlQuery analyzedQuery = SqlQueryAnalyzerUtil.analyzeWithSummaryNow(rawQueryText, dialect);
       uniqueStoredProcedureName.set(analyzedQuery.getStoredProcedureName());
       uniqueQueryTexts.add(querySanitizationEnabled ? analyzedQuery.getQueryText() : rawQueryText);
       uniqueQuerySummary.set(analyzedQuery.getQuerySummary());
@@ -0,0 +1,117 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * The background analysis of the query of an operation that was started with a provisional
+ * analysis result, and how the span name and attributes are computed from the full result. The
+ * span name extractor and the attributes extractor register these computations when the operation
+ * starts, they are applied when it ends if the analysis has completed by then, or else by the span
+ * exporter.
+ */
+final class PendingSqlQuery implements DeferredSqlQuerySpans.Update {
+
+  @Nullable private FutureTask<SqlQuery> analysis;
+  @Nullable private FutureTask<SqlQuery> analysisWithSummary;
+  @Nullable private Function<SqlQuery, String> spanName;
+  private boolean spanNameWithSummary;
+  @Nullable private BiConsumer<AttributesBuilder, SqlQuery> attributes;
+  @Nullable private BiConsumer<AttributesBuilder, SqlQuery> attributesWithSummary;
+
+  void setAnalysis(FutureTask<SqlQuery> analysis) {
+    this.analysis = analysis;
+  }
+
+  void setAnalysisWithSummary(FutureTask<SqlQuery> analysisWithSummary) {
+    this.analysisWithSummary = analysisWithSummary;
+  }
+
+  boolean hasAnalysis() {
+    return analysis != null;
+  }
+
+  boolean hasAnalysisWithSummary() {
+    return analysisWithSummary != null;
+  }
+
+  /** Sets how the span name is computed from the result of either of the analyses. */
+  void setSpanName(boolean withSummary, Function<SqlQuery, String> spanName) {
+    this.spanNameWithSummary = withSummary;
+    this.spanName = spanName;
+  }
+
+  void setAttributes(BiConsumer<AttributesBuilder, SqlQuery> attributes) {
+    this.attributes = attributes;
+  }
+
+  void setAttributesWithSummary(BiConsumer<AttributesBuilder, SqlQuery> attributesWithSummary) {
+    this.attributesWithSummary = attributesWithSummary;
+  }
+
+  boolean isDone() {
+    return (analysis == null || analysis.isDone())
+        && (analysisWithSummary == null || analysisWithSummary.isDone());
+  }
+
+  void putAttributes(AttributesBuilder builder) {
+    BiConsumer<AttributesBuilder, SqlQuery> attributes = this.attributes;
+    SqlQuery result = attributes != null ? await(analysis) : null;
+    if (attributes != null && result != null) {
+      attributes.accept(builder, result);
+    }
+    BiConsumer<AttributesBuilder, SqlQuery> attributesWithSummary = this.attributesWithSummary;
+    SqlQuery resultWithSummary =
+        attributesWithSummary != null ? await(analysisWithSummary) : null;
+    if (attributesWithSummary != null && resultWithSummary != null) {
+      attributesWithSummary.accept(builder, resultWithSummary);
+    }
+  }
+
+  @Override
+  @Nullable
+  public String getSpanName() {
+    Function<SqlQuery, String> spanName = this.spanName;
+    if (spanName == null) {
+      return null;
+    }
+    SqlQuery result = await(spanNameWithSummary ? analysisWithSummary : analysis);
+    return result != null ? spanName.apply(result) : null;
+  }
+
+  @Override
+  public Attributes getAttributes() {
+    AttributesBuilder builder = Attributes.builder();
+    putAttributes(builder);
+    return builder.build();
+  }
+
+  @Nullable
+  private static SqlQuery await(@Nullable FutureTask<SqlQuery> task) {
+    if (task == null) {
+      return null;
+    }
+    // runs the analysis on the calling thread when no worker has picked it up, e.g. because the
+    // executor rejected it, otherwise this is a no-op and get() waits for the worker to finish
+    task.run();
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+}
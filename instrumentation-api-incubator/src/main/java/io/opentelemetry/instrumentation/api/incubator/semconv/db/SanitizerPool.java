@@ -0,0 +1,67 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A small lock-free pool of sanitizer instances. Instances are not bound to threads, so the pool
+ * also works well with virtual threads and retains at most a fixed number of instances (and their
+ * buffers) regardless of the number of threads. When all pooled instances are in use a new instance
+ * is created, and released instances that do not fit into the pool are dropped.
+ */
+final class SanitizerPool<T> {
+
+  private static final int MAX_SIZE = 32;
+
+  private final AtomicReferenceArray<T> slots;
+  private final int mask;
+  private final Supplier<T> factory;
+
+  SanitizerPool(Supplier<T> factory) {
+    this(defaultSize(), factory);
+  }
+
+  // visible for tests
+  SanitizerPool(int size, Supplier<T> factory) {
+    // round up to a power of two so that the start index can be masked
+    int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+    this.slots = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.factory = factory;
+  }
+
+  T acquire() {
+    int start = startIndex();
+    for (int i = 0; i <= mask; i++) {
+      T instance = slots.getAndSet((start + i) & mask, null);
+      if (instance != null) {
+        return instance;
+      }
+    }
+    return factory.get();
+  }
+
+  void release(T instance) {
+    int start = startIndex();
+    for (int i = 0; i <= mask; i++) {
+      if (slots.compareAndSet((start + i) & mask, null, instance)) {
+        return;
+      }
+    }
+  }
+
+  @SuppressWarnings("deprecation") // Thread.getId() is deprecated since Java 19
+  private int startIndex() {
+    // spread threads over the slots to reduce contention
+    return (int) Thread.currentThread().getId() & mask;
+  }
+
+  private static int defaultSize() {
+    return Math.min(Runtime.getRuntime().availableProcessors() * 2, MAX_SIZE);
+  }
+}
@@ -14,7 +14,9 @@ import static io.opentelemetry.semconv.DbAttributes.DB_STORED_PROCEDURE_NAME;
 
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
 import io.opentelemetry.instrumentation.api.internal.SpanKey;
 import io.opentelemetry.instrumentation.api.internal.SpanKeyProvider;
@@ -129,6 +131,57 @@ public final class SqlClientAttributesExtractor<REQUEST, RESPONSE>
     // the parsed values from above
     DbClientAttributesExtractor.onStartCommon(attributes, getter, request, captureQueryParameters);
     serverAttributesExtractor.onStart(attributes, parentContext, request);
+
+    // when query sanitization is deferred the attributes above may be provisional, record how to
+    // replace them once the analysis completes
+    PendingSqlQuery pending = SqlQueryAnalyzerUtil.currentPending();
+    if (pending != null && rawQueryTexts.size() == 1) {
+      setPendingAttributes(pending, request, isBatch);
+      SqlQueryAnalyzerUtil.registerPending(request, pending);
+    }
+  }
+
+  // the attributes are computed later, possibly on another thread, so only capture what is
+  // derived from the request here and not the request itself
+  @SuppressWarnings("deprecation") // until old db semconv are dropped
+  private void setPendingAttributes(PendingSqlQuery pending, REQUEST request, boolean isBatch) {
+    // explicit getter values override the parsed values, same as in onStart()
+    boolean explicitQueryText = getter.getDbQueryText(request) != null;
+
+    if (emitOldDatabaseSemconv() && pending.hasAnalysis()) {
+      boolean sanitizeQueryText = querySanitizationEnabled && !explicitQueryText;
+      boolean explicitOperationName = getter.getDbOperationName(request) != null;
+      AttributeKey<String> tableAttribute = oldSemconvTableAttribute;
+      pending.setAttributes(
+          (attributes, analyzedQuery) -> {
+            if (sanitizeQueryText) {
+              attributes.put(DB_STATEMENT, analyzedQuery.getQueryText());
+            }
+            if (!explicitOperationName) {
+              attributes.put(DB_OPERATION, analyzedQuery.getOperationName());
+            }
+            if (tableAttribute != null) {
+              attributes.put(tableAttribute, analyzedQuery.getCollectionName());
+            }
+          });
+    }
+
+    if (emitStableDatabaseSemconv() && pending.hasAnalysisWithSummary()) {
+      boolean sanitizeQueryText =
+          querySanitizationEnabled && !getter.isParameterizedQuery(request) && !explicitQueryText;
+      boolean explicitQuerySummary = getter.getDbQuerySummary(request) != null;
+      pending.setAttributesWithSummary(
+          (attributes, analyzedQuery) -> {
+            if (sanitizeQueryText) {
+              attributes.put(DB_QUERY_TEXT, analyzedQuery.getQueryText());
+            }
+            String querySummary = analyzedQuery.getQuerySummary();
+            if (querySummary != null && !explicitQuerySummary) {
+              attributes.put(DB_QUERY_SUMMARY, isBatch ? "BATCH " + querySummary : querySummary);
+            }
+            attributes.put(DB_STORED_PROCEDURE_NAME, analyzedQuery.getStoredProcedureName());
+          });
+    }
   }
 
   // String.join is not available on android
@@ -152,6 +205,33 @@ public final class SqlClientAttributesExtractor<REQUEST, RESPONSE>
       @Nullable Throwable error) {
     internalNetworkExtractor.onEnd(attributes, request, response);
     DbClientAttributesExtractor.onEndCommon(attributes, getter, request, response, error);
+
+    PendingSqlQuery pending = SqlQueryAnalyzerUtil.takePending(request);
+    if (pending != null) {
+      onEndPending(pending, attributes, context);
+    }
+  }
+
+  private static void onEndPending(
+      PendingSqlQuery pending, AttributesBuilder attributes, Context context) {
+    Span span = Span.fromContext(context);
+    if (!pending.isDone()) {
+      if (!span.isRecording() || !span.getSpanContext().isSampled()) {
+        // the span is not exported, nothing would attach the result
+        return;
+      }
+      if (DeferredSqlQuerySpans.put(span.getSpanContext(), pending)) {
+        // don't wait for the analysis here, the span exporter attaches the result
+        return;
+      }
+      // too many spans are waiting to be exported, wait for the analysis here instead
+    }
+    // end attributes take precedence over start attributes both on the span and in metrics
+    pending.putAttributes(attributes);
+    String spanName = pending.getSpanName();
+    if (spanName != null) {
+      span.updateName(spanName);
+    }
   }
 
   /**
@@ -7,9 +7,10 @@ package io.opentelemetry.instrumentation.api.incubator.semconv.db;
 
 import static io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics.CounterNames.SQL_SANITIZER_CACHE_MISS;
 
-import com.google.auto.value.AutoValue;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.instrumentation.api.incubator.config.internal.DbConfig;
 import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
-import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import javax.annotation.Nullable;
 
 /**
@@ -17,11 +18,12 @@ import javax.annotation.Nullable;
  * statements and queries.
  */
 public final class SqlQueryAnalyzer {
-  private static final SupportabilityMetrics supportability = SupportabilityMetrics.instance();
+  private static final SupportabilityMetrics.Counter cacheMisses =
+      SupportabilityMetrics.instance().counter(SQL_SANITIZER_CACHE_MISS);
 
-  private static final Cache<CacheKey, SqlQuery> sqlToQueryCache = Cache.bounded(1000);
-  private static final Cache<CacheKey, SqlQuery> sqlToQueryCacheWithSummary = Cache.bounded(1000);
-  private static final int LARGE_QUERY_THRESHOLD = 10 * 1024;
+  private static final int DEFAULT_MAX_QUERY_LENGTH = 32 * 1024;
+
+  @Nullable private static volatile Settings settings;
 
   public static SqlQueryAnalyzer create(boolean querySanitizationEnabled) {
     return new SqlQueryAnalyzer(querySanitizationEnabled);
@@ -37,19 +39,16 @@ public final class SqlQueryAnalyzer {
     if (!querySanitizationEnabled || query == null) {
       return SqlQuery.create(query, null, null);
     }
-    // sanitization result will not be cached for queries larger than the threshold to avoid
-    // cache growing too large
+    Settings current = settings();
+    // queries that would take a large share of the cache are analyzed without being cached
     // https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/13180
-    if (query.length() > LARGE_QUERY_THRESHOLD) {
-      return analyzeImpl(query, dialect);
-    }
-    return sqlToQueryCache.computeIfAbsent(
-        CacheKey.create(query, dialect), k -> analyzeImpl(query, dialect));
+    return current.queryCache.computeIfAbsent(
+        CacheKey.create(query, dialect), k -> analyzeImpl(query, dialect, current));
   }
 
-  private static SqlQuery analyzeImpl(String query, SqlDialect dialect) {
-    supportability.incrementCounter(SQL_SANITIZER_CACHE_MISS);
-    return AutoSqlSanitizer.sanitize(query, dialect);
+  private static SqlQuery analyzeImpl(String query, SqlDialect dialect, Settings settings) {
+    cacheMisses.increment();
+    return AutoSqlSanitizer.sanitize(query, dialect, settings.maxQueryLength);
   }
 
   /** Analyze and extract query summary. */
@@ -57,35 +56,138 @@ public final class SqlQueryAnalyzer {
     if (!querySanitizationEnabled || query == null) {
       return SqlQuery.createWithSummary(query, null, null);
     }
-    // sanitization result will not be cached for queries larger than the threshold to avoid
-    // cache growing too large
-    // https://github.com/open-telemetry/opentelemetry-java-instrumentation/issues/13180
-    if (query.length() > LARGE_QUERY_THRESHOLD) {
-      return analyzeWithSummaryImpl(query, dialect);
+    Settings current = settings();
+    return current.queryWithSummaryCache.computeIfAbsent(
+        CacheKey.create(query, dialect), k -> analyzeWithSummaryImpl(query, dialect, current));
+  }
+
+  private static SqlQuery analyzeWithSummaryImpl(
+      String query, SqlDialect dialect, Settings settings) {
+    cacheMisses.increment();
+    return AutoSqlSanitizerWithSummary.sanitize(query, dialect, settings.maxQueryLength);
+  }
+
+  /**
+   * Returns the cached result of {@link #analyze(String, SqlDialect)}, or {@code null} when the
+   * query would need to be analyzed.
+   */
+  @Nullable
+  SqlQuery getCached(String query, SqlDialect dialect) {
+    if (!querySanitizationEnabled) {
+      return SqlQuery.create(query, null, null);
     }
-    return sqlToQueryCacheWithSummary.computeIfAbsent(
-        CacheKey.create(query, dialect), k -> analyzeWithSummaryImpl(query, dialect));
+    return settings().queryCache.getIfPresent(CacheKey.create(query, dialect));
   }
 
-  private static SqlQuery analyzeWithSummaryImpl(String query, SqlDialect dialect) {
-    supportability.incrementCounter(SQL_SANITIZER_CACHE_MISS);
-    return AutoSqlSanitizerWithSummary.sanitize(query, dialect);
+  /**
+   * Returns the cached result of {@link #analyzeWithSummary(String, SqlDialect)}, or {@code null}
+   * when the query would need to be analyzed.
+   */
+  @Nullable
+  SqlQuery getCachedWithSummary(String query, SqlDialect dialect) {
+    if (!querySanitizationEnabled) {
+      return SqlQuery.createWithSummary(query, null, null);
+    }
+    return settings().queryWithSummaryCache.getIfPresent(CacheKey.create(query, dialect));
   }
 
   // visible for tests
   static boolean isCached(String query, SqlDialect dialect) {
-    return sqlToQueryCache.get(CacheKey.create(query, dialect)) != null;
+    return settings().queryCache.get(CacheKey.create(query, dialect)) != null;
   }
 
-  @AutoValue
-  abstract static class CacheKey {
+  private static Settings settings() {
+    Settings current = settings;
+    // the analyzer is shared by all instrumenters, so its caches and settings can't come from the
+    // OpenTelemetry instance of an instrumenter. They are resolved from the global instance when
+    // the first query is analyzed, and again once if that happened before the global instance
+    // was set, instead of being frozen to the defaults when this class is loaded.
+    if (current == null || (!current.global && GlobalOpenTelemetry.isSet())) {
+      synchronized (SqlQueryAnalyzer.class) {
+        current = settings;
+        if (current == null || (!current.global && GlobalOpenTelemetry.isSet())) {
+          boolean global = GlobalOpenTelemetry.isSet();
+          current = new Settings(GlobalOpenTelemetry.getOrNoop(), global);
+          settings = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private static final class Settings {
+    final SqlQueryCache queryCache;
+    final SqlQueryCache queryWithSummaryCache;
+    final int maxQueryLength;
+    final boolean global;
+
+    Settings(OpenTelemetry openTelemetry, boolean global) {
+      queryCache = SqlQueryCache.create(openTelemetry, "sql-query");
+      queryWithSummaryCache = SqlQueryCache.create(openTelemetry, "sql-query-with-summary");
+      maxQueryLength =
+          DbConfig.getQuerySanitizationMaxLength(openTelemetry, DEFAULT_MAX_QUERY_LENGTH);
+      this.global = global;
+    }
+  }
+
+  /**
+   * Cache key for analysis results. Queries that have the same {@link SqlQueryShape shape}, i.e.
+   * that only differ in the values of inlined literals, are considered equal so that they share a
+   * single analysis result. Queries without a shape are compared by their full text.
+   */
+  static final class CacheKey {
+
+    private final String queryText;
+    private final SqlDialect dialect;
+    private final long fingerprint;
 
     static CacheKey create(String queryText, SqlDialect dialect) {
-      return new AutoValue_SqlQueryAnalyzer_CacheKey(queryText, dialect);
+      return new CacheKey(queryText, dialect, SqlQueryShape.fingerprint(queryText));
     }
 
-    abstract String getQueryText();
+    // visible for benchmarks, creates a key that only matches queries with the same text
+    static CacheKey createExact(String queryText, SqlDialect dialect) {
+      return new CacheKey(queryText, dialect, SqlQueryShape.NO_FINGERPRINT);
+    }
 
-    abstract SqlDialect getDialect();
+    private CacheKey(String queryText, SqlDialect dialect, long fingerprint) {
+      this.queryText = queryText;
+      this.dialect = dialect;
+      this.fingerprint = fingerprint;
+    }
+
+    String getQueryText() {
+      return queryText;
+    }
+
+    SqlDialect getDialect() {
+      return dialect;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (!(obj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      if (fingerprint != other.fingerprint || !dialect.equals(other.dialect)) {
+        return false;
+      }
+      return fingerprint == SqlQueryShape.NO_FINGERPRINT
+          ? queryText.equals(other.queryText)
+          : SqlQueryShape.sameShape(queryText, other.queryText);
+    }
+
+    @Override
+    public int hashCode() {
+      int result =
+          fingerprint == SqlQueryShape.NO_FINGERPRINT
+              ? queryText.hashCode()
+              : Long.hashCode(fingerprint);
+      return 31 * result + dialect.hashCode();
+    }
   }
 }
@@ -5,35 +5,205 @@
 
 package io.opentelemetry.instrumentation.api.incubator.semconv.db;
 
-import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.instrumentation.api.incubator.config.internal.DbConfig;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.internal.InstrumenterContext;
-import java.util.HashMap;
-import java.util.Map;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 /**
  * Helper class for analyzing sql that keeps analysis results in {@link InstrumenterContext} so that
  * each query would be analyzed only once for given {@link Instrumenter} call.
+ *
+ * <p>When deferred query sanitization is enabled and an {@link InstrumenterContext} is entered,
+ * queries that are not cached yet are analyzed on a background thread and a provisional result is
+ * returned instead, see {@link DeferredSqlQueryAnalyzer}. The background analysis is recorded in the {@link PendingSqlQuery} of
+ * the operation, which the attributes extractor registers with {@link #registerPending(Object,
+ * PendingSqlQuery)} when the operation starts and takes back with {@link #takePending(Object)}
+ * when it ends.
  */
 class SqlQueryAnalyzerUtil {
   private static final SqlQueryAnalyzer analyzer = SqlQueryAnalyzer.create(true);
 
+  private static final InstrumenterContext.Key<AnalyzedQueries> ANALYZED_KEY =
+      InstrumenterContext.key("sanitized-sql");
+  private static final InstrumenterContext.Key<AnalyzedQueries> ANALYZED_WITH_SUMMARY_KEY =
+      InstrumenterContext.key("sanitized-sql-with-summary");
+  private static final InstrumenterContext.Key<AnalyzedQueries> ANALYZED_WITH_SUMMARY_NOW_KEY =
+      InstrumenterContext.key("sanitized-sql-with-summary-now");
+  private static final InstrumenterContext.Key<PendingSqlQuery> PENDING_KEY =
+      InstrumenterContext.key("pending-sql");
+
+  private static final Supplier<PendingSqlQuery> pendingQuery =
+      () -> InstrumenterContext.computeIfAbsent(PENDING_KEY, unused -> new PendingSqlQuery());
+
+  // pending queries of the operations that have started but not ended yet, keyed by request
+  private static final Cache<Object, PendingSqlQuery> pendingByRequest = Cache.weak();
+  // lets onEnd skip the lookup when there is nothing pending, entries that are never taken back
+  // because their operation never ends leave this above zero, which only costs the lookup
+  private static final AtomicInteger pendingCount = new AtomicInteger();
+
+  @Nullable private static volatile Deferred deferred;
+
   static SqlQuery analyze(String queryText, SqlDialect dialect) {
-    Map<CacheKey, SqlQuery> map =
-        InstrumenterContext.computeIfAbsent("sanitized-sql-map", unused -> new HashMap<>());
-    return map.computeIfAbsent(
-        CacheKey.create(queryText, dialect),
-        key -> analyzer.analyze(key.getQueryText(), key.getDialect()));
+    return InstrumenterContext.computeIfAbsent(ANALYZED_KEY, unused -> new AnalyzedQueries())
+        .computeIfAbsent(
+            queryText,
+            dialect,
+            (text, d) -> {
+              DeferredSqlQueryAnalyzer deferredAnalyzer = deferredAnalyzerInContext();
+              return deferredAnalyzer != null
+                  ? deferredAnalyzer.analyze(text, d, pendingQuery)
+                  : analyzer.analyze(text, d);
+            });
   }
 
   static SqlQuery analyzeWithSummary(String queryText, SqlDialect dialect) {
-    Map<CacheKey, SqlQuery> map =
-        InstrumenterContext.computeIfAbsent(
-            "sanitized-sql-map-with-summary", unused -> new HashMap<>());
-    return map.computeIfAbsent(
-        CacheKey.create(queryText, dialect),
-        key -> analyzer.analyzeWithSummary(key.getQueryText(), key.getDialect()));
+    return InstrumenterContext.computeIfAbsent(
+            ANALYZED_WITH_SUMMARY_KEY, unused -> new AnalyzedQueries())
+        .computeIfAbsent(
+            queryText,
+            dialect,
+            (text, d) -> {
+              DeferredSqlQueryAnalyzer deferredAnalyzer = deferredAnalyzerInContext();
+              return deferredAnalyzer != null
+                  ? deferredAnalyzer.analyzeWithSummary(text, d, pendingQuery)
+                  : analyzer.analyzeWithSummary(text, d);
+            });
+  }
+
+  /**
+   * Same as {@link #analyzeWithSummary(String, SqlDialect)} but never returns a provisional result,
+   * for callers that have no opportunity to complete the deferred analysis later.
+   */
+  static SqlQuery analyzeWithSummaryNow(String queryText, SqlDialect dialect) {
+    return InstrumenterContext.computeIfAbsent(
+            ANALYZED_WITH_SUMMARY_NOW_KEY, unused -> new AnalyzedQueries())
+        .computeIfAbsent(queryText, dialect, analyzer::analyzeWithSummary);
+  }
+
+  /**
+   * Returns the pending query of the current operation when one of the analyses above returned a
+   * provisional result, or else {@code null}.
+   */
+  @Nullable
+  static PendingSqlQuery currentPending() {
+    return InstrumenterContext.get(PENDING_KEY);
+  }
+
+  /**
+   * Keeps the pending query of the current operation until {@link #takePending(Object)} is called
+   * with the same request when the operation ends.
+   */
+  static void registerPending(Object request, PendingSqlQuery pending) {
+    pendingByRequest.put(request, pending);
+    pendingCount.incrementAndGet();
+  }
+
+  @Nullable
+  static PendingSqlQuery takePending(Object request) {
+    if (pendingCount.get() == 0) {
+      return null;
+    }
+    PendingSqlQuery pending = pendingByRequest.get(request);
+    if (pending != null) {
+      pendingByRequest.remove(request);
+      pendingCount.decrementAndGet();
+    }
+    return pending;
+  }
+
+  /**
+   * Returns the deferred analyzer when an {@link InstrumenterContext} is entered. Otherwise the
+   * pending query of the operation would not be kept, and the extractors would never find it to
+   * attach the full analysis result, so queries are analyzed right away.
+   */
+  @Nullable
+  private static DeferredSqlQueryAnalyzer deferredAnalyzerInContext() {
+    if (!InstrumenterContext.isEntered()) {
+      return null;
+    }
+    return deferredAnalyzer();
+  }
+
+  @Nullable
+  private static DeferredSqlQueryAnalyzer deferredAnalyzer() {
+    Deferred current = deferred;
+    // the agent installs the global OpenTelemetry after the first queries may have been analyzed,
+    // resolve the setting once more after that
+    if (current == null || (!current.global && GlobalOpenTelemetry.isSet())) {
+      synchronized (SqlQueryAnalyzerUtil.class) {
+        current = deferred;
+        if (current == null || (!current.global && GlobalOpenTelemetry.isSet())) {
+          boolean global = GlobalOpenTelemetry.isSet();
+          // the sanitized query text would never be attached to the span without the exporter
+          boolean enabled =
+              DbConfig.isQuerySanitizationDeferred(GlobalOpenTelemetry.getOrNoop())
+                  && DeferredSqlQuerySpans.isExporterInstalled();
+          current =
+              new Deferred(enabled ? DeferredSqlQueryAnalyzer.create(analyzer) : null, global);
+          deferred = current;
+        }
+      }
+    }
+    return current.analyzer;
+  }
+
+  // visible for tests
+  static void setDeferredAnalyzer(@Nullable DeferredSqlQueryAnalyzer deferredAnalyzer) {
+    deferred = deferredAnalyzer != null ? new Deferred(deferredAnalyzer, true) : null;
   }
 
   private SqlQueryAnalyzerUtil() {}
+
+  private static final class Deferred {
+    @Nullable final DeferredSqlQueryAnalyzer analyzer;
+    // whether the setting was read from the global OpenTelemetry
+    final boolean global;
+
+    Deferred(@Nullable DeferredSqlQueryAnalyzer analyzer, boolean global) {
+      this.analyzer = analyzer;
+      this.global = global;
+    }
+  }
+
+  /**
+   * The queries analyzed during one {@link Instrumenter} call. There are usually only one or a few,
+   * so they are kept in arrays and looked up with a linear scan.
+   */
+  private static final class AnalyzedQueries {
+    private String[] queryTexts = new String[2];
+    private SqlDialect[] dialects = new SqlDialect[2];
+    private SqlQuery[] results = new SqlQuery[2];
+    private int size;
+
+    SqlQuery computeIfAbsent(
+        String queryText,
+        SqlDialect dialect,
+        BiFunction<String, SqlDialect, SqlQuery> analyzeFunction) {
+      for (int i = 0; i < size; i++) {
+        if (queryTexts[i].equals(queryText) && dialects[i].equals(dialect)) {
+          return results[i];
+        }
+      }
+      SqlQuery result = analyzeFunction.apply(queryText, dialect);
+      if (size == queryTexts.length) {
+        int capacity = size * 2;
+        queryTexts = Arrays.copyOf(queryTexts, capacity);
+        dialects = Arrays.copyOf(dialects, capacity);
+        results = Arrays.copyOf(results, capacity);
+      }
+      queryTexts[size] = queryText;
+      dialects[size] = dialect;
+      results[size] = result;
+      size++;
+      return result;
+    }
+  }
 }
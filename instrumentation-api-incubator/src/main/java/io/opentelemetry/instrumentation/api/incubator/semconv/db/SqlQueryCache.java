@@ -0,0 +1,155 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.instrumentation.api.incubator.config.internal.DbConfig;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A cache of {@link SqlQuery} analysis results that is bounded by the estimated number of bytes
+ * retained by its entries, and that reports its hit, miss and eviction counts as metrics.
+ */
+final class SqlQueryCache {
+
+  private static final String INSTRUMENTATION_NAME = "io.opentelemetry.sql-query-analyzer";
+  private static final AttributeKey<String> CACHE_NAME = stringKey("cache.name");
+  // 8 MiB per cache
+  private static final long DEFAULT_MAX_BYTES = 8 * 1024 * 1024;
+
+  // rough estimates of the shallow size of the objects retained by a cache entry
+  private static final int ENTRY_OVERHEAD = 64;
+  private static final int CACHE_KEY_OVERHEAD = 24;
+  private static final int SQL_QUERY_OVERHEAD = 32;
+  private static final int STRING_OVERHEAD = 40;
+  // the share of the byte budget that a single entry may take, larger queries are not cached so
+  // that one huge statement can't evict most of the other entries
+  private static final int MAX_ENTRY_SHARE = 64;
+
+  static SqlQueryCache create(OpenTelemetry openTelemetry, String name) {
+    long maxBytes = DbConfig.getQuerySanitizationCacheMaxBytes(openTelemetry, DEFAULT_MAX_BYTES);
+    return new SqlQueryCache(
+        openTelemetry.getMeter(INSTRUMENTATION_NAME), Attributes.of(CACHE_NAME, name), maxBytes);
+  }
+
+  private final Cache<CacheKey, SqlQuery> cache;
+  private final int maxCacheableLength;
+  // LongAdder is not available on android API level 23
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  // visible for tests
+  SqlQueryCache(Meter meter, Attributes attributes, long maxBytes) {
+    // both the key and the sanitized query retain about 2 bytes per char of the query
+    maxCacheableLength = (int) Math.min(maxBytes / MAX_ENTRY_SHARE / 4, Integer.MAX_VALUE);
+    cache =
+        Cache.weighted(
+            maxBytes, SqlQueryCache::weigh, (key, value) -> evictions.incrementAndGet());
+
+    meter
+        .counterBuilder("otel.instrumentation.sql_query_analyzer.cache.hits")
+        .setUnit("{lookup}")
+        .setDescription(
+            "The number of SQL query analysis cache lookups that found a cached result.")
+        .buildWithCallback(measurement -> measurement.record(hits.get(), attributes));
+    meter
+        .counterBuilder("otel.instrumentation.sql_query_analyzer.cache.misses")
+        .setUnit("{lookup}")
+        .setDescription(
+            "The number of SQL query analysis cache lookups that required analyzing the query.")
+        .buildWithCallback(measurement -> measurement.record(misses.get(), attributes));
+    meter
+        .counterBuilder("otel.instrumentation.sql_query_analyzer.cache.evictions")
+        .setUnit("{entry}")
+        .setDescription(
+            "The number of SQL query analysis results evicted to stay within the cache size.")
+        .buildWithCallback(measurement -> measurement.record(evictions.get(), attributes));
+  }
+
+  /** Returns whether the analysis result of the given query is kept in this cache. */
+  boolean isCacheable(String queryText) {
+    return queryText.length() <= maxCacheableLength;
+  }
+
+  SqlQuery computeIfAbsent(CacheKey key, Function<? super CacheKey, ? extends SqlQuery> analyzer) {
+    if (!isCacheable(key.getQueryText())) {
+      misses.incrementAndGet();
+      return analyzer.apply(key);
+    }
+    SqlQuery query = cache.get(key);
+    if (query != null) {
+      hits.incrementAndGet();
+      return query;
+    }
+    misses.incrementAndGet();
+    return cache.computeIfAbsent(key, analyzer);
+  }
+
+  /**
+   * Returns the cached result for the given key, counting a hit when there is one. Misses are not
+   * counted as the caller is expected to follow up with {@link #computeIfAbsent}.
+   */
+  @Nullable
+  SqlQuery getIfPresent(CacheKey key) {
+    if (!isCacheable(key.getQueryText())) {
+      return null;
+    }
+    SqlQuery query = cache.get(key);
+    if (query != null) {
+      hits.incrementAndGet();
+    }
+    return query;
+  }
+
+  @Nullable
+  SqlQuery get(CacheKey key) {
+    return cache.get(key);
+  }
+
+  // visible for tests
+  long hits() {
+    return hits.get();
+  }
+
+  // visible for tests
+  long misses() {
+    return misses.get();
+  }
+
+  // visible for tests
+  long evictions() {
+    return evictions.get();
+  }
+
+  private static int weigh(CacheKey key, SqlQuery value) {
+    long bytes =
+        ENTRY_OVERHEAD
+            + CACHE_KEY_OVERHEAD
+            + estimateRetainedBytes(key.getQueryText())
+            + SQL_QUERY_OVERHEAD
+            + estimateRetainedBytes(value.getQueryText())
+            + estimateRetainedBytes(value.getOperationName())
+            + estimateRetainedBytes(value.getCollectionName())
+            + estimateRetainedBytes(value.getStoredProcedureName())
+            + estimateRetainedBytes(value.getQuerySummary());
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  }
+
+  private static long estimateRetainedBytes(@Nullable String value) {
+    // assume 2 bytes per char, strings are not always latin1 encoded
+    return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+/**
+ * Computes the shape of a SQL query: the sequence of tokens that the sanitizer would produce with
+ * the values of numeric and single quoted string literals removed. Queries that only differ in the
+ * values of inlined literals (e.g. {@code WHERE id = 123} and {@code WHERE id = 124}) have the same
+ * shape and therefore sanitize to the same {@link SqlQuery}.
+ *
+ * <p>The tokenizer mirrors the literal rules of {@code SqlSanitizer.jflex} and {@code
+ * SqlSanitizerWithSummary.jflex}. Queries containing constructs where the two sanitizers differ or
+ * that are not trivially tokenized (dollar quoted strings, backticks, brackets, non-ASCII
+ * characters, unterminated quotes) have no shape and must be compared by their full text.
+ */
+final class SqlQueryShape {
+
+  static final long NO_FINGERPRINT = 0;
+
+  // token kinds, stored in the lowest 2 bits of the value returned by nextToken()
+  private static final int VERBATIM = 0;
+  private static final int WHITESPACE = 1;
+  private static final int LITERAL = 2;
+  private static final int UNSUPPORTED = 3;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  // values hashed for whitespace and literal tokens, outside of the char range
+  private static final int WHITESPACE_MARKER = 0x10000;
+  private static final int LITERAL_MARKER = 0x10001;
+
+  /**
+   * Returns a hash of the shape of the given query, or {@link #NO_FINGERPRINT} when the query
+   * contains constructs that are not supported by the tokenizer. Does not allocate.
+   */
+  static long fingerprint(String query) {
+    long hash = FNV_OFFSET_BASIS;
+    int length = query.length();
+    int pos = 0;
+    while (pos < length) {
+      long token = nextToken(query, pos);
+      int end = tokenEnd(token);
+      switch (tokenKind(token)) {
+        case VERBATIM:
+          for (int i = pos; i < end; i++) {
+            hash = (hash ^ query.charAt(i)) * FNV_PRIME;
+          }
+          break;
+        case WHITESPACE:
+          hash = (hash ^ WHITESPACE_MARKER) * FNV_PRIME;
+          break;
+        case LITERAL:
+          hash = (hash ^ LITERAL_MARKER) * FNV_PRIME;
+          break;
+        default:
+          return NO_FINGERPRINT;
+      }
+      pos = end;
+    }
+    return hash == NO_FINGERPRINT ? 1 : hash;
+  }
+
+  /**
+   * Returns whether the two queries, both of which have a fingerprint, produce the same sequence of
+   * tokens when literal values are ignored. Does not allocate.
+   */
+  static boolean sameShape(String first, String second) {
+    int firstLength = first.length();
+    int secondLength = second.length();
+    int firstPos = 0;
+    int secondPos = 0;
+    while (firstPos < firstLength && secondPos < secondLength) {
+      long firstToken = nextToken(first, firstPos);
+      long secondToken = nextToken(second, secondPos);
+      int kind = tokenKind(firstToken);
+      if (kind != tokenKind(secondToken) || kind == UNSUPPORTED) {
+        return false;
+      }
+      int firstEnd = tokenEnd(firstToken);
+      int secondEnd = tokenEnd(secondToken);
+      if (kind == VERBATIM) {
+        int tokenLength = firstEnd - firstPos;
+        if (tokenLength != secondEnd - secondPos
+            || !first.regionMatches(firstPos, second, secondPos, tokenLength)) {
+          return false;
+        }
+      }
+      firstPos = firstEnd;
+      secondPos = secondEnd;
+    }
+    return firstPos == firstLength && secondPos == secondLength;
+  }
+
+  private static int tokenKind(long token) {
+    return (int) (token & 0x3);
+  }
+
+  private static int tokenEnd(long token) {
+    return (int) (token >>> 2);
+  }
+
+  private static long token(int end, int kind) {
+    return ((long) end << 2) | kind;
+  }
+
+  private static long nextToken(String query, int pos) {
+    int length = query.length();
+    char c = query.charAt(pos);
+    if (c >= 0x80 || c == '$' || c == '`' || c == '[') {
+      return token(pos, UNSUPPORTED);
+    }
+    if (isWhitespace(c)) {
+      int end = pos + 1;
+      while (end < length && isWhitespace(query.charAt(end))) {
+        end++;
+      }
+      return token(end, WHITESPACE);
+    }
+    if (isIdentifierStart(c)) {
+      int end = pos + 1;
+      while (end < length && isIdentifierPart(query.charAt(end))) {
+        end++;
+      }
+      return token(end, VERBATIM);
+    }
+    if (c == '\'' || c == '"') {
+      int end = quotedStringEnd(query, pos, c);
+      if (end < 0) {
+        return token(pos, UNSUPPORTED);
+      }
+      // double quoted strings may be identifiers (and are used for extracting the table name even
+      // when they are sanitized), so only single quoted strings are treated as literals
+      return token(end, c == '\'' ? LITERAL : VERBATIM);
+    }
+    if (c == '-' && pos + 1 < length && query.charAt(pos + 1) == '-') {
+      // line comment, kept as is by the sanitizer
+      int end = pos + 2;
+      while (end < length && query.charAt(end) != '\r' && query.charAt(end) != '\n') {
+        end++;
+      }
+      return token(end, VERBATIM);
+    }
+    if (c == '0'
+        && pos + 2 < length
+        && (query.charAt(pos + 1) == 'x' || query.charAt(pos + 1) == 'X')
+        && isHexDigit(query.charAt(pos + 2))) {
+      int end = pos + 3;
+      while (end < length && isHexDigit(query.charAt(end))) {
+        end++;
+      }
+      return token(end, LITERAL);
+    }
+    int end = numberEnd(query, pos);
+    if (end > 0) {
+      return token(end, LITERAL);
+    }
+    return token(pos + 1, VERBATIM);
+  }
+
+  // matches [.+-]* [0-9] ([0-9] | [eE.+-])*, returns -1 when there is no number at pos
+  private static int numberEnd(String query, int pos) {
+    int length = query.length();
+    int end = pos;
+    while (end < length && isNumberSign(query.charAt(end))) {
+      end++;
+    }
+    if (end == length || !isDigit(query.charAt(end))) {
+      return -1;
+    }
+    end++;
+    while (end < length && isNumberPart(query.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  // returns the index after the closing quote, or -1 when the string is not terminated
+  private static int quotedStringEnd(String query, int pos, char quote) {
+    int length = query.length();
+    int end = pos + 1;
+    while (end < length) {
+      if (query.charAt(end) == quote) {
+        // two consecutive quotes are an escaped quote
+        if (end + 1 < length && query.charAt(end + 1) == quote) {
+          end += 2;
+          continue;
+        }
+        return end + 1;
+      }
+      end++;
+    }
+    return -1;
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return isIdentifierStart(c) || isDigit(c);
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHexDigit(char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean isNumberSign(char c) {
+    return c == '.' || c == '+' || c == '-';
+  }
+
+  private static boolean isNumberPart(char c) {
+    return isDigit(c) || c == 'e' || c == 'E' || isNumberSign(c);
+  }
+
+  private SqlQueryShape() {}
+}
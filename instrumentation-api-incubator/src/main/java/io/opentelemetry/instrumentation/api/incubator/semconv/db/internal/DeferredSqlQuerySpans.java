@@ -0,0 +1,141 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db.internal;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Hands the spans whose SQL query analysis was still running in the background when they ended
+ * over to the span exporter, which attaches the analysis result before the span is exported. The
+ * exporter waits for the analysis, which keeps the wait off the instrumented thread unless spans
+ * are exported synchronously.
+ *
+ * <p>Deferred query sanitization only takes effect after an exporter has called {@link
+ * #addExporter()}, otherwise the sanitized query text would never be attached.
+ *
+ * <p>Each update is removed once every exporter has taken it. Updates of spans that are never
+ * exported, e.g. because the span processor dropped them, are only removed after a minute, which is
+ * well above the time a span spends in the export queue. When too many
+ * updates are waiting, {@link #put(SpanContext, Update)} refuses new ones and the caller applies
+ * the result itself, an update is never dropped while its span may still be exported.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class DeferredSqlQuerySpans {
+
+  private static final int MAX_PENDING_SPANS = 4096;
+  private static final long MAX_AGE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private static final ConcurrentMap<SpanContext, Entry> updates = new ConcurrentHashMap<>();
+  private static final AtomicInteger exporterCount = new AtomicInteger();
+
+  /**
+   * Called by each span exporter that attaches the results of {@link #take(SpanContext)}, an
+   * update is kept until all of them have taken it.
+   */
+  public static void addExporter() {
+    exporterCount.incrementAndGet();
+  }
+
+  public static boolean isExporterInstalled() {
+    return exporterCount.get() > 0;
+  }
+
+  /**
+   * Keeps the update of the span with the given span context until it is exported. Returns {@code
+   * false} when too many updates are waiting, the caller then has to apply the update itself.
+   */
+  public static boolean put(SpanContext spanContext, Update update) {
+    return put(spanContext, update, System.nanoTime());
+  }
+
+  // visible for testing
+  static boolean put(SpanContext spanContext, Update update, long nanoTime) {
+    if (updates.size() >= MAX_PENDING_SPANS) {
+      removeExpired(nanoTime);
+      if (updates.size() >= MAX_PENDING_SPANS) {
+        return false;
+      }
+    }
+    updates.put(spanContext, new Entry(update, nanoTime, Math.max(exporterCount.get(), 1)));
+    return true;
+  }
+
+  /**
+   * Returns the pending update of the span with the given span context, or {@code null} when the
+   * span needs no update. Every exporter gets the same update, it is removed once all exporters
+   * have taken it.
+   */
+  @Nullable
+  public static Update take(SpanContext spanContext) {
+    Entry entry = updates.get(spanContext);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.remainingExporters.decrementAndGet() <= 0) {
+      updates.remove(spanContext, entry);
+    }
+    return entry.update;
+  }
+
+  // visible for testing
+  static int size() {
+    return updates.size();
+  }
+
+  // visible for testing
+  static void clear() {
+    updates.clear();
+  }
+
+  private static void removeExpired(long nanoTime) {
+    Iterator<Entry> iterator = updates.values().iterator();
+    while (iterator.hasNext()) {
+      if (nanoTime - iterator.next().createdNanos > MAX_AGE_NANOS) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /** The analysis result of the query of a span that ended before the analysis completed. */
+  public interface Update {
+
+    /**
+     * Returns the name of the span computed from the analysis result, or {@code null} to keep the
+     * current name. Waits for the analysis to complete.
+     */
+    @Nullable
+    String getSpanName();
+
+    /**
+     * Returns the attributes computed from the analysis result, they replace the provisional
+     * attributes of the span. Waits for the analysis to complete.
+     */
+    Attributes getAttributes();
+  }
+
+  private static final class Entry {
+    final Update update;
+    final long createdNanos;
+    final AtomicInteger remainingExporters;
+
+    Entry(Update update, long createdNanos, int exporters) {
+      this.update = update;
+      this.createdNanos = createdNanos;
+      this.remainingExporters = new AtomicInteger(exporters);
+    }
+  }
+
+  private DeferredSqlQuerySpans() {}
+}
@@ -23,6 +23,8 @@ import javax.annotation.Nullable;
 public final class HttpClientUrlTemplateUtil {
 
   private static final List<HttpClientUrlTemplateCustomizer> customizers = new ArrayList<>();
+  private static final InstrumenterContext.Key<String> URL_TEMPLATE_KEY =
+      InstrumenterContext.key("url.template");
 
   static {
     for (HttpClientUrlTemplateCustomizer customizer :
@@ -58,7 +60,7 @@ public final class HttpClientUrlTemplateUtil {
     // we cache the computation in InstrumenterContext because url template is used by both
     // HttpSpanNameExtractor and HttpExperimentalAttributesExtractor
     return InstrumenterContext.computeIfAbsent(
-        "url.template",
+        URL_TEMPLATE_KEY,
         unused -> {
           for (HttpClientUrlTemplateCustomizer customizer : customizers) {
             String result = customizer.customize(urlTemplate, request, getter);
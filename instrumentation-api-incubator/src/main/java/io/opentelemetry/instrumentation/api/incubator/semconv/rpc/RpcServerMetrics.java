@@ -24,6 +24,7 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.ContextKey;
 import io.opentelemetry.instrumentation.api.instrumenter.OperationListener;
 import io.opentelemetry.instrumentation.api.instrumenter.OperationMetrics;
+import io.opentelemetry.instrumentation.api.internal.MergedAttributes;
 import io.opentelemetry.instrumentation.api.internal.OperationMetricsUtil;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -126,7 +127,7 @@ public final class RpcServerMetrics implements OperationListener {
           context);
       return;
     }
-    Attributes attributes = state.startAttributes().toBuilder().putAll(endAttributes).build();
+    Attributes attributes = MergedAttributes.merge(state.startAttributes(), endAttributes);
     double durationNanos = endNanos - state.startTimeNanos();
 
     if (emitOldRpcSemconv()) {
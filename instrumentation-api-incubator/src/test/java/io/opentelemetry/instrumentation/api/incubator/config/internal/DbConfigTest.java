@@ -5,6 +5,7 @@
 
 package io.opentelemetry.instrumentation.api.incubator.config.internal;
 
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
@@ -12,6 +13,8 @@ import static org.mockito.Mockito.when;
 
 import io.opentelemetry.api.incubator.ExtendedOpenTelemetry;
 import io.opentelemetry.api.incubator.config.DeclarativeConfigProperties;
+import io.opentelemetry.instrumentation.config.bridge.ConfigPropertiesBackedDeclarativeConfigProperties;
+import io.opentelemetry.sdk.autoconfigure.spi.internal.DefaultConfigProperties;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
@@ -150,6 +153,45 @@ class DbConfigTest {
     }
   }
 
+  @Test
+  void querySanitizationCacheMaxBytesProperty() {
+    ExtendedOpenTelemetry openTelemetry =
+        openTelemetryWithProperty(
+            "otel.instrumentation.common.db.query-sanitization.experimental.cache-max-bytes",
+            "1024");
+
+    assertThat(DbConfig.getQuerySanitizationCacheMaxBytes(openTelemetry, 0)).isEqualTo(1024);
+  }
+
+  @Test
+  void querySanitizationMaxLengthProperty() {
+    ExtendedOpenTelemetry openTelemetry =
+        openTelemetryWithProperty(
+            "otel.instrumentation.common.db.query-sanitization.experimental.max-length", "100");
+
+    assertThat(DbConfig.getQuerySanitizationMaxLength(openTelemetry, 0)).isEqualTo(100);
+  }
+
+  @Test
+  void querySanitizationDeferredProperty() {
+    ExtendedOpenTelemetry openTelemetry =
+        openTelemetryWithProperty(
+            "otel.instrumentation.common.db.query-sanitization.experimental.deferred", "true");
+
+    assertThat(DbConfig.isQuerySanitizationDeferred(openTelemetry)).isTrue();
+  }
+
+  // the same mapping of system properties to declarative configuration that the agent uses
+  private static ExtendedOpenTelemetry openTelemetryWithProperty(String key, String value) {
+    DeclarativeConfigProperties config =
+        ConfigPropertiesBackedDeclarativeConfigProperties.createInstrumentationConfig(
+            DefaultConfigProperties.createFromMap(singletonMap(key, value)));
+    ExtendedOpenTelemetry openTelemetry = mock(ExtendedOpenTelemetry.class);
+    when(openTelemetry.getInstrumentationConfig("common"))
+        .thenReturn(config.getStructured("java").getStructured("common"));
+    return openTelemetry;
+  }
+
   private static void clearDeprecatedWarnings() throws Exception {
     Field warnedDeprecatedPropertiesField =
         DbConfig.class.getDeclaredField("warnedDeprecatedProperties");
@@ -0,0 +1,266 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_STRING_LITERALS;
+import static io.opentelemetry.instrumentation.api.internal.SemconvStability.emitOldDatabaseSemconv;
+import static io.opentelemetry.instrumentation.api.internal.SemconvStability.emitStableDatabaseSemconv;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
+import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
+import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor;
+import io.opentelemetry.instrumentation.api.internal.InstrumenterContext;
+import io.opentelemetry.instrumentation.testing.internal.AutoCleanupExtension;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+
+class DeferredSqlQueryAnalyzerTest {
+  @RegisterExtension static final AutoCleanupExtension cleanup = AutoCleanupExtension.create();
+
+  private static final AtomicInteger tableCounter = new AtomicInteger();
+
+  // collects the scheduled analyses instead of running them
+  private final List<Runnable> scheduled = new ArrayList<>();
+  private final DeferredSqlQueryAnalyzer deferred =
+      new DeferredSqlQueryAnalyzer(SqlQueryAnalyzer.create(true), scheduled::add);
+
+  @Test
+  void analyzedOnCallingThreadWhenNotPickedUp() {
+    String table = uniqueTable();
+    String query = "SELECT name FROM " + table + " WHERE id = 1";
+    PendingSqlQuery pending = new PendingSqlQuery();
+
+    SqlQuery provisional =
+        deferred.analyzeWithSummary(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, () -> pending);
+    assertThat(provisional.getQueryText()).isNull();
+    assertThat(provisional.getQuerySummary()).isEqualTo("SELECT");
+    assertThat(scheduled).hasSize(1);
+    assertThat(deferred.pendingCount()).isEqualTo(1);
+    assertThat(pending.isDone()).isFalse();
+
+    // the analysis has not been picked up by a worker, it runs on the thread that needs the result
+    pending.setSpanName(true, SqlQuery::getQuerySummary);
+    assertThat(pending.getSpanName()).isEqualTo("SELECT " + table);
+    assertThat(pending.isDone()).isTrue();
+    assertThat(deferred.pendingCount()).isZero();
+
+    // later occurrences are served from the cache
+    SqlQuery cached =
+        deferred.analyzeWithSummary(
+            query,
+            DOUBLE_QUOTES_ARE_STRING_LITERALS,
+            () -> {
+              throw new AssertionError("cached queries are not pending");
+            });
+    assertThat(cached.getQueryText()).isEqualTo("SELECT name FROM " + table + " WHERE id = ?");
+    assertThat(scheduled).hasSize(1);
+  }
+
+  @Test
+  void analyzedInBackground() {
+    String table = uniqueTable();
+    String query = "UPDATE " + table + " SET name = 'x' WHERE id = 1";
+    PendingSqlQuery pending = new PendingSqlQuery();
+    PendingSqlQuery otherPending = new PendingSqlQuery();
+
+    SqlQuery provisional =
+        deferred.analyze(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, () -> pending);
+    assertThat(provisional.getQueryText()).isNull();
+    assertThat(provisional.getOperationName()).isEqualTo("UPDATE");
+    // the same query is only scheduled once
+    deferred.analyze(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, () -> otherPending);
+    assertThat(scheduled).hasSize(1);
+    assertThat(otherPending.hasAnalysis()).isTrue();
+
+    scheduled.forEach(Runnable::run);
+    assertThat(deferred.pendingCount()).isZero();
+    assertThat(pending.isDone()).isTrue();
+    assertThat(otherPending.isDone()).isTrue();
+    assertThat(SqlQueryAnalyzer.isCached(query, DOUBLE_QUOTES_ARE_STRING_LITERALS)).isTrue();
+
+    AttributeKey<String> queryTextKey = AttributeKey.stringKey("query");
+    pending.setAttributes(
+        (attributes, analyzedQuery) -> attributes.put(queryTextKey, analyzedQuery.getQueryText()));
+    assertThat(pending.getAttributes().get(queryTextKey))
+        .isEqualTo("UPDATE " + table + " SET name = ? WHERE id = ?");
+  }
+
+  @Test
+  void spanUpdatedOnEndWhenAnalysisCompleted() {
+    useDeferredAnalyzer();
+    String query = "SELECT name FROM " + uniqueTable() + " WHERE id = 1";
+    Object request = new Object();
+    Span span = mock(Span.class);
+    Context context = Context.root().with(span);
+
+    InstrumenterContext instrumenterContext = InstrumenterContext.enter();
+    String provisionalSpanName = spanNameExtractor(query).extract(request);
+    AttributesBuilder startAttributes = Attributes.builder();
+    attributesExtractor(query).onStart(startAttributes, Context.root(), request);
+    InstrumenterContext.exit(instrumenterContext);
+    // the raw query text is never exposed
+    assertThat(startAttributes.build().get(queryTextKey())).isNull();
+    if (emitOldDatabaseSemconv()) {
+      assertThat(startAttributes.build().get(AttributeKey.stringKey("db.operation")))
+          .isEqualTo("SELECT");
+    }
+
+    scheduled.forEach(Runnable::run);
+
+    AttributesBuilder endAttributes = Attributes.builder();
+    attributesExtractor(query).onEnd(endAttributes, context, request, null, null);
+    assertThat(endAttributes.build().get(queryTextKey()))
+        .isEqualTo(query.substring(0, query.length() - 1) + "?");
+    if (emitStableDatabaseSemconv()) {
+      assertThat(endAttributes.build().get(AttributeKey.stringKey("db.query.summary")))
+          .startsWith("SELECT ");
+    }
+    ArgumentCaptor<String> spanName = ArgumentCaptor.forClass(String.class);
+    verify(span).updateName(spanName.capture());
+    assertThat(spanName.getValue()).isNotEqualTo(provisionalSpanName).startsWith("SELECT ");
+    verify(span, never()).getSpanContext();
+  }
+
+  @Test
+  void spanHandedToExporterWhenAnalysisIsPending() {
+    useDeferredAnalyzer();
+    String query = "SELECT name FROM " + uniqueTable() + " WHERE id = 1";
+    Object request = new Object();
+    SpanContext spanContext =
+        SpanContext.create(
+            "0af7651916cd43dd8448eb211c80319c",
+            "b7ad6b7169203331",
+            TraceFlags.getSampled(),
+            TraceState.getDefault());
+    Span span = mock(Span.class);
+    when(span.isRecording()).thenReturn(true);
+    when(span.getSpanContext()).thenReturn(spanContext);
+    Context context = Context.root().with(span);
+
+    InstrumenterContext instrumenterContext = InstrumenterContext.enter();
+    spanNameExtractor(query).extract(request);
+    attributesExtractor(query).onStart(Attributes.builder(), Context.root(), request);
+    InstrumenterContext.exit(instrumenterContext);
+
+    // onEnd does not wait for the analysis
+    AttributesBuilder endAttributes = Attributes.builder();
+    attributesExtractor(query).onEnd(endAttributes, context, request, null, null);
+    assertThat(endAttributes.build().get(queryTextKey())).isNull();
+    verify(span, never()).updateName(anyString());
+    assertThat(scheduled).isNotEmpty();
+
+    DeferredSqlQuerySpans.Update update = DeferredSqlQuerySpans.take(spanContext);
+    assertThat(update).isNotNull();
+    assertThat(update.getSpanName()).startsWith("SELECT ");
+    assertThat(update.getAttributes().get(queryTextKey()))
+        .isEqualTo(query.substring(0, query.length() - 1) + "?");
+  }
+
+  @Test
+  void analyzedRightAwayOutsideOfInstrumenterStart() {
+    useDeferredAnalyzer();
+    String table = uniqueTable();
+    String query = "SELECT name FROM " + table + " WHERE id = 1";
+    Object request = new Object();
+
+    // extractors called directly, without an entered InstrumenterContext, have nowhere to keep the
+    // pending query, so the full result is used from the start
+    assertThat(InstrumenterContext.isEntered()).isFalse();
+    String spanName = spanNameExtractor(query).extract(request);
+    AttributesBuilder startAttributes = Attributes.builder();
+    attributesExtractor(query).onStart(startAttributes, Context.root(), request);
+
+    assertThat(scheduled).isEmpty();
+    assertThat(spanName).startsWith("SELECT ").contains(table);
+    assertThat(startAttributes.build().get(queryTextKey()))
+        .isEqualTo(query.substring(0, query.length() - 1) + "?");
+    assertThat(SqlQueryAnalyzerUtil.currentPending()).isNull();
+  }
+
+  private void useDeferredAnalyzer() {
+    SqlQueryAnalyzerUtil.setDeferredAnalyzer(deferred);
+    cleanup.deferCleanup(() -> SqlQueryAnalyzerUtil.setDeferredAnalyzer(null));
+  }
+
+  private static AttributeKey<String> queryTextKey() {
+    return emitStableDatabaseSemconv()
+        ? AttributeKey.stringKey("db.query.text")
+        : AttributeKey.stringKey("db.statement");
+  }
+
+  private static SpanNameExtractor<Object> spanNameExtractor(String query) {
+    return DbClientSpanNameExtractor.create(getter(query));
+  }
+
+  private static AttributesExtractor<Object, Void> attributesExtractor(String query) {
+    return SqlClientAttributesExtractor.create(getter(query));
+  }
+
+  private static SqlClientAttributesGetter<Object, Void> getter(String query) {
+    return new SqlClientAttributesGetter<Object, Void>() {
+      @Override
+      public String getDbSystemName(Object o) {
+        return "testdb";
+      }
+
+      @Override
+      public String getDbNamespace(Object o) {
+        return null;
+      }
+
+      @Override
+      public Collection<String> getRawQueryTexts(Object request) {
+        return singletonList(query);
+      }
+
+      @Override
+      public SqlDialect getSqlDialect(Object request) {
+        return DOUBLE_QUOTES_ARE_STRING_LITERALS;
+      }
+    };
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = '|',
+      value = {
+        "select * from t|SELECT",
+        "  (SELECT a FROM t) UNION (SELECT b FROM u)|SELECT",
+        "insert into t values (1)|INSERT",
+        "WITH x AS (SELECT 1) SELECT * FROM x|",
+        "secret_function(1)|",
+        "\"SELECT\" FROM t|",
+      })
+  void provisionalOperation(String query, String expected) {
+    assertThat(DeferredSqlQueryAnalyzer.provisionalOperation(query)).isEqualTo(expected);
+  }
+
+  private static String uniqueTable() {
+    return "deferred_table_" + tableCounter.incrementAndGet() + "_" + System.nanoTime();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_IDENTIFIERS;
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_STRING_LITERALS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PooledSqlSanitizerTest {
+
+  private static final String[] QUERIES = {
+    "SELECT * FROM users WHERE id = 1",
+    "WITH cte AS (SELECT a FROM t1) SELECT * FROM cte JOIN t2 ON cte.a = t2.a",
+    "INSERT INTO \"orders\" (id, total) VALUES (1, 'abc')",
+    "SELECT $tag$ unterminated",
+    "CALL my_procedure(1, 2)",
+    "SELECT a FROM (SELECT b FROM (SELECT c FROM t3) x) y WHERE z IN (1, 2, 3)",
+    "DELETE FROM sessions /* comment 'x' */ WHERE expired = true",
+  };
+
+  @Test
+  void pooledSanitizerIsReset() {
+    // run the queries several times so that pooled instances are reused for different queries
+    for (int i = 0; i < 3; i++) {
+      for (String query : QUERIES) {
+        for (SqlDialect dialect :
+            new SqlDialect[] {DOUBLE_QUOTES_ARE_STRING_LITERALS, DOUBLE_QUOTES_ARE_IDENTIFIERS}) {
+          assertThat(AutoSqlSanitizer.sanitize(query, dialect, AutoSqlSanitizer.LIMIT))
+              .isEqualTo(AutoSqlSanitizer.sanitize(query, dialect));
+          assertThat(
+                  AutoSqlSanitizerWithSummary.sanitize(
+                      query, dialect, AutoSqlSanitizerWithSummary.LIMIT))
+              .isEqualTo(AutoSqlSanitizerWithSummary.sanitize(query, dialect));
+        }
+      }
+    }
+  }
+
+  @Test
+  void charSequenceInput() {
+    StringBuilder query = new StringBuilder("SELECT name FROM users WHERE id = 42");
+    assertThat(AutoSqlSanitizer.sanitize(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, 1024))
+        .isEqualTo(
+            AutoSqlSanitizer.sanitize(query.toString(), DOUBLE_QUOTES_ARE_STRING_LITERALS));
+  }
+
+  @Test
+  void outputIsBounded() {
+    StringBuilder query = new StringBuilder("INSERT INTO batch_table (a, b) VALUES ");
+    for (int i = 0; i < 10_000; i++) {
+      if (i > 0) {
+        query.append(", ");
+      }
+      query.append("(").append(i).append(", 'value").append(i).append("')");
+    }
+
+    SqlQuery result =
+        AutoSqlSanitizerWithSummary.sanitize(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, 100);
+    assertThat(result.getQueryText()).hasSize(100).startsWith("INSERT INTO batch_table (a, b)");
+    assertThat(result.getQuerySummary()).isEqualTo("INSERT batch_table");
+
+    SqlQuery oldSemconvResult =
+        AutoSqlSanitizer.sanitize(query, DOUBLE_QUOTES_ARE_STRING_LITERALS, 100);
+    assertThat(oldSemconvResult.getQueryText()).hasSize(100);
+    assertThat(oldSemconvResult.getOperationName()).isEqualTo("INSERT");
+    assertThat(oldSemconvResult.getCollectionName()).isEqualTo("batch_table");
+  }
+
+  @Test
+  void poolReusesReleasedInstances() {
+    List<Object> created = new ArrayList<>();
+    SanitizerPool<Object> pool =
+        new SanitizerPool<>(
+            2,
+            () -> {
+              Object instance = new Object();
+              created.add(instance);
+              return instance;
+            });
+
+    Object first = pool.acquire();
+    Object second = pool.acquire();
+    assertThat(created).hasSize(2);
+    pool.release(first);
+    pool.release(second);
+    // pool is full, third instance is dropped
+    pool.release(new Object());
+
+    assertThat(created).contains(pool.acquire(), pool.acquire());
+    assertThat(created).hasSize(2);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_STRING_LITERALS;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.MeterProvider;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import io.opentelemetry.instrumentation.testing.internal.AutoCleanupExtension;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class SqlQueryCacheTest {
+  @RegisterExtension static final AutoCleanupExtension cleanup = AutoCleanupExtension.create();
+
+  @Test
+  void boundedByRetainedBytes() {
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    SdkMeterProvider meterProvider =
+        SdkMeterProvider.builder().registerMetricReader(metricReader).build();
+
+    SqlQueryCache cache =
+        new SqlQueryCache(
+            meterProvider.get("test"), Attributes.of(stringKey("cache.name"), "test"), 64 * 1024);
+
+    String query = "SELECT name FROM test WHERE id = 1";
+    SqlQuery analyzed = cache.computeIfAbsent(key(query), SqlQueryCacheTest::analyze);
+    assertThat(cache.computeIfAbsent(key(query), SqlQueryCacheTest::analyze)).isSameAs(analyzed);
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+    assertThat(cache.evictions()).isEqualTo(0);
+
+    // each entry retains several hundred bytes, only a few hundred of them fit into 64 KiB
+    for (int i = 0; i < 1000; i++) {
+      cache.computeIfAbsent(
+          key("SELECT name FROM test" + i + " WHERE id = 1"), SqlQueryCacheTest::analyze);
+    }
+    assertThat(cache.get(key(query))).isNull();
+    assertThat(cache.misses()).isEqualTo(1001);
+    assertThat(cache.evictions()).isGreaterThan(0);
+
+    assertThat(metricReader.collectAllMetrics())
+        .anySatisfy(
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.sql_query_analyzer.cache.hits")
+                    .hasLongSumSatisfying(
+                        sum ->
+                            sum.isMonotonic()
+                                .hasPointsSatisfying(
+                                    point ->
+                                        point
+                                            .hasValue(1)
+                                            .hasAttributesSatisfying(
+                                                equalTo(stringKey("cache.name"), "test")))))
+        .anySatisfy(
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.sql_query_analyzer.cache.misses")
+                    .hasLongSumSatisfying(
+                        sum ->
+                            sum.isMonotonic().hasPointsSatisfying(point -> point.hasValue(1001))))
+        .anySatisfy(
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.sql_query_analyzer.cache.evictions")
+                    .hasLongSumSatisfying(sum -> sum.isMonotonic()));
+  }
+
+  @Test
+  void largeQueriesAreNotCached() {
+    SqlQueryCache cache =
+        new SqlQueryCache(
+            MeterProvider.noop().get("test"), Attributes.empty(), 64 * 1024 * 1024);
+
+    // a single entry may take at most 1/64 of the budget, i.e. queries of up to 256K chars
+    String largeQuery = repeat("SELECT name FROM test WHERE id = 1 OR ", 8 * 1024);
+    assertThat(cache.isCacheable(largeQuery)).isFalse();
+    SqlQuery analyzed = cache.computeIfAbsent(key(largeQuery), SqlQueryCacheTest::analyze);
+    assertThat(analyzed.getQueryText()).doesNotContain("1");
+    assertThat(cache.get(key(largeQuery))).isNull();
+    assertThat(cache.getIfPresent(key(largeQuery))).isNull();
+    assertThat(cache.misses()).isEqualTo(1);
+
+    String query = repeat("SELECT name FROM test WHERE id = 1 OR ", 1024);
+    assertThat(cache.isCacheable(query)).isTrue();
+    cache.computeIfAbsent(key(query), SqlQueryCacheTest::analyze);
+    assertThat(cache.get(key(query))).isNotNull();
+  }
+
+  @Test
+  void analyzerUsesGlobalOpenTelemetrySetAfterFirstUse() {
+    SqlQueryAnalyzer analyzer = SqlQueryAnalyzer.create(true);
+    analyzer.analyze("SELECT name FROM test WHERE id = 1", DOUBLE_QUOTES_ARE_STRING_LITERALS);
+
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    OpenTelemetrySdk openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+    GlobalOpenTelemetry.resetForTest();
+    GlobalOpenTelemetry.set(openTelemetry);
+    cleanup.deferCleanup(GlobalOpenTelemetry::resetForTest);
+    cleanup.deferCleanup(openTelemetry);
+
+    analyzer.analyze("SELECT name FROM test WHERE id = 1", DOUBLE_QUOTES_ARE_STRING_LITERALS);
+
+    assertThat(metricReader.collectAllMetrics())
+        .anySatisfy(
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.sql_query_analyzer.cache.misses")
+                    .hasLongSumSatisfying(
+                        sum ->
+                            sum.hasPointsSatisfying(
+                                point ->
+                                    point
+                                        .hasValue(1)
+                                        .hasAttributesSatisfying(
+                                            equalTo(stringKey("cache.name"), "sql-query")),
+                                point ->
+                                    point
+                                        .hasValue(0)
+                                        .hasAttributesSatisfying(
+                                            equalTo(
+                                                stringKey("cache.name"),
+                                                "sql-query-with-summary")))));
+  }
+
+  // String.repeat() is not available on java 8
+  private static String repeat(String value, int count) {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      result.append(value);
+    }
+    return result.toString();
+  }
+
+  private static CacheKey key(String query) {
+    return CacheKey.create(query, DOUBLE_QUOTES_ARE_STRING_LITERALS);
+  }
+
+  private static SqlQuery analyze(CacheKey key) {
+    return AutoSqlSanitizer.sanitize(key.getQueryText(), key.getDialect());
+  }
+}
@@ -55,8 +55,8 @@ class SqlQuerySanitizerUtilCacheTest {
     AttributesExtractor<Object, Void> attributesExtractor =
         SqlClientAttributesExtractor.create(getter);
 
-    InstrumenterContext.reset();
-    cleanup.deferCleanup(InstrumenterContext::reset);
+    InstrumenterContext context = InstrumenterContext.enter();
+    cleanup.deferCleanup(() -> InstrumenterContext.exit(context));
 
     assertThat(spanNameExtractor.extract(null)).isEqualTo("SELECT test");
     // verify that analyzed query was cached
@@ -0,0 +1,92 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db;
+
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_IDENTIFIERS;
+import static io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlDialect.DOUBLE_QUOTES_ARE_STRING_LITERALS;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.SqlQueryAnalyzer.CacheKey;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class SqlQueryShapeTest {
+
+  @ParameterizedTest
+  @MethodSource("sameShapeArgs")
+  void sameShape(String first, String second) {
+    long fingerprint = SqlQueryShape.fingerprint(first);
+    assertThat(fingerprint).isNotEqualTo(SqlQueryShape.NO_FINGERPRINT);
+    assertThat(SqlQueryShape.fingerprint(second)).isEqualTo(fingerprint);
+    assertThat(SqlQueryShape.sameShape(first, second)).isTrue();
+    assertThat(CacheKey.create(first, DOUBLE_QUOTES_ARE_STRING_LITERALS))
+        .isEqualTo(CacheKey.create(second, DOUBLE_QUOTES_ARE_STRING_LITERALS))
+        .hasSameHashCodeAs(CacheKey.create(second, DOUBLE_QUOTES_ARE_STRING_LITERALS));
+
+    // queries with the same shape must be sanitized to the same result
+    for (SqlDialect dialect :
+        asList(DOUBLE_QUOTES_ARE_STRING_LITERALS, DOUBLE_QUOTES_ARE_IDENTIFIERS)) {
+      assertThat(AutoSqlSanitizer.sanitize(first, dialect))
+          .isEqualTo(AutoSqlSanitizer.sanitize(second, dialect));
+      assertThat(AutoSqlSanitizerWithSummary.sanitize(first, dialect))
+          .isEqualTo(AutoSqlSanitizerWithSummary.sanitize(second, dialect));
+    }
+  }
+
+  private static Stream<Arguments> sameShapeArgs() {
+    return Stream.of(
+        Arguments.of("SELECT * FROM users WHERE id = 123", "SELECT * FROM users WHERE id = 124"),
+        Arguments.of(
+            "SELECT * FROM users WHERE name = 'alice' AND age > 30",
+            "SELECT * FROM users WHERE name = 'o''brien' AND age > -1.5e3"),
+        Arguments.of(
+            "INSERT INTO t (a, b) VALUES (0x1F, 'x')", "INSERT INTO t (a, b) VALUES (2, 'yz')"),
+        Arguments.of("UPDATE t SET a = 1\n  WHERE b = 2", "UPDATE t SET a = 100 WHERE b = 200"),
+        Arguments.of(
+            "SELECT a FROM t /* 1 */ WHERE b = 'c'", "SELECT a FROM t /* 22 */ WHERE b = 'dd'"));
+  }
+
+  @ParameterizedTest
+  @MethodSource("differentShapeArgs")
+  void differentShape(String first, String second) {
+    assertThat(SqlQueryShape.sameShape(first, second)).isFalse();
+    assertThat(CacheKey.create(first, DOUBLE_QUOTES_ARE_STRING_LITERALS))
+        .isNotEqualTo(CacheKey.create(second, DOUBLE_QUOTES_ARE_STRING_LITERALS));
+  }
+
+  private static Stream<Arguments> differentShapeArgs() {
+    return Stream.of(
+        Arguments.of("SELECT * FROM users1 WHERE id = 1", "SELECT * FROM users2 WHERE id = 1"),
+        // double quoted strings may be identifiers
+        Arguments.of("SELECT * FROM \"users\"", "SELECT * FROM \"orders\""),
+        // line comments are not sanitized
+        Arguments.of("SELECT a FROM t -- 1", "SELECT a FROM t -- 2"),
+        Arguments.of("SELECT a FROM t WHERE b IN (1, 2)", "SELECT a FROM t WHERE b IN (1, 2, 3)"),
+        Arguments.of("SELECT a FROM t WHERE b = 1", "SELECT a FROM t WHERE b = 1 AND c = 2"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "SELECT $$text$$",
+        "SELECT * FROM `users` WHERE id = 1",
+        "SELECT * FROM [users] WHERE id = 1",
+        "SELECT * FROM users WHERE name = 'unterminated",
+        "SELECT * FROM users WHERE name = 'é'",
+      })
+  void noFingerprint(String query) {
+    assertThat(SqlQueryShape.fingerprint(query)).isEqualTo(SqlQueryShape.NO_FINGERPRINT);
+    // queries without a shape are compared by their full text
+    assertThat(CacheKey.create(query, DOUBLE_QUOTES_ARE_IDENTIFIERS))
+        .isEqualTo(CacheKey.create(query, DOUBLE_QUOTES_ARE_IDENTIFIERS))
+        .isNotEqualTo(CacheKey.create(query + " ", DOUBLE_QUOTES_ARE_IDENTIFIERS))
+        .isNotEqualTo(CacheKey.create(query, DOUBLE_QUOTES_ARE_STRING_LITERALS));
+  }
+}
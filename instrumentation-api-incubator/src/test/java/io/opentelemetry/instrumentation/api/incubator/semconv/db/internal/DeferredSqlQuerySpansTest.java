@@ -0,0 +1,88 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.incubator.semconv.db.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeferredSqlQuerySpansTest {
+
+  private static final DeferredSqlQuerySpans.Update UPDATE =
+      new DeferredSqlQuerySpans.Update() {
+        @Override
+        @Nullable
+        public String getSpanName() {
+          return null;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+          return Attributes.empty();
+        }
+      };
+
+  @AfterEach
+  void tearDown() {
+    DeferredSqlQuerySpans.clear();
+  }
+
+  @Test
+  void removedOnceTaken() {
+    SpanContext spanContext = spanContext(1);
+    assertThat(DeferredSqlQuerySpans.put(spanContext, UPDATE)).isTrue();
+
+    assertThat(DeferredSqlQuerySpans.take(spanContext)).isSameAs(UPDATE);
+    assertThat(DeferredSqlQuerySpans.size()).isZero();
+    assertThat(DeferredSqlQuerySpans.take(spanContext)).isNull();
+  }
+
+  @Test
+  void refusedInsteadOfEvictingWhenFull() {
+    long now = System.nanoTime();
+    int i = 0;
+    while (DeferredSqlQuerySpans.put(spanContext(++i), UPDATE, now)) {
+      // fill up
+    }
+    int size = DeferredSqlQuerySpans.size();
+    assertThat(size).isEqualTo(i - 1);
+
+    // none of the waiting updates was dropped for the refused one
+    for (int j = 1; j < i; j++) {
+      assertThat(DeferredSqlQuerySpans.take(spanContext(j))).isSameAs(UPDATE);
+    }
+    assertThat(DeferredSqlQuerySpans.take(spanContext(i))).isNull();
+  }
+
+  @Test
+  void expiredUpdatesMakeRoomWhenFull() {
+    long start = System.nanoTime();
+    int i = 0;
+    while (DeferredSqlQuerySpans.put(spanContext(++i), UPDATE, start)) {
+      // fill up
+    }
+
+    long later = start + TimeUnit.MINUTES.toNanos(2);
+    assertThat(DeferredSqlQuerySpans.put(spanContext(i), UPDATE, later)).isTrue();
+    assertThat(DeferredSqlQuerySpans.size()).isEqualTo(1);
+    assertThat(DeferredSqlQuerySpans.take(spanContext(i))).isSameAs(UPDATE);
+  }
+
+  private static SpanContext spanContext(int id) {
+    return SpanContext.create(
+        "0af7651916cd43dd8448eb211c80319c",
+        String.format("%016x", id),
+        TraceFlags.getSampled(),
+        TraceState.getDefault());
+  }
+}
@@ -24,6 +24,7 @@ dependencies {
   testImplementation("io.opentelemetry:opentelemetry-exporter-common")
 
   jmhImplementation(project(":instrumentation-api-incubator"))
+  jmhImplementation("io.opentelemetry:opentelemetry-sdk-testing")
 }
 
 tasks {
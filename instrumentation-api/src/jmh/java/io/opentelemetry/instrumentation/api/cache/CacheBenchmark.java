@@ -8,10 +8,16 @@ package io.opentelemetry.instrumentation.api.cache;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import org.openjdk.jmh.annotations.AuxCounters;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -156,4 +162,92 @@ public class CacheBenchmark {
     blackhole.consume(boundedSmallCache.get(key));
     blackhole.consume(boundedSmallCache.get(key2));
   }
+
+  /**
+   * Compares the hit ratio and throughput of the LRU {@link Cache#bounded(int)} and the W-TinyLFU
+   * {@link Cache#frequencyBounded(int)} caches. The {@code hits} and {@code misses} secondary
+   * results show the hit ratio.
+   *
+   * <ul>
+   *   <li>{@code zipfian}: keys follow a Zipf distribution, a few keys are used very often
+   *   <li>{@code scan}: the zipfian keys interleaved with long runs of keys that are used once,
+   *       e.g. queries with inlined values
+   * </ul>
+   */
+  @Benchmark
+  @Threads(4)
+  public Integer threads04_hitRatio(Workload workload, HitCounters counters) {
+    int key = workload.nextKey(counters);
+    Integer value = workload.cache.get(key);
+    if (value == null) {
+      counters.misses++;
+      workload.cache.put(key, key);
+    } else {
+      counters.hits++;
+    }
+    return value;
+  }
+
+  @State(Scope.Benchmark)
+  public static class Workload {
+    private static final int CAPACITY = 1_000;
+    private static final int DISTINCT_KEYS = 100_000;
+    private static final int KEYS_LENGTH = 1 << 20;
+    private static final int SCAN_LENGTH = 10_000;
+
+    @Param({"zipfian", "scan"})
+    public String distribution = "zipfian";
+
+    @Param({"bounded", "frequencyBounded"})
+    public String cacheType = "bounded";
+
+    Cache<Integer, Integer> cache;
+    private int[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      cache =
+          cacheType.equals("bounded") ? Cache.bounded(CAPACITY) : Cache.frequencyBounded(CAPACITY);
+
+      Random random = new Random(0);
+      double[] cumulativeProbabilities = zipfCumulativeProbabilities(DISTINCT_KEYS, 0.99);
+      keys = new int[KEYS_LENGTH];
+      for (int i = 0; i < KEYS_LENGTH; i++) {
+        if (distribution.equals("scan") && (i / SCAN_LENGTH) % 2 == 1) {
+          // unique keys that are never used again
+          keys[i] = DISTINCT_KEYS + i;
+        } else {
+          int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble());
+          keys[i] = index >= 0 ? index : -index - 1;
+        }
+      }
+    }
+
+    int nextKey(HitCounters counters) {
+      counters.index = (counters.index + 1) & (KEYS_LENGTH - 1);
+      return keys[counters.index];
+    }
+
+    private static double[] zipfCumulativeProbabilities(int size, double exponent) {
+      double[] result = new double[size];
+      double sum = 0;
+      for (int i = 0; i < size; i++) {
+        sum += 1 / Math.pow(i + 1, exponent);
+        result[i] = sum;
+      }
+      for (int i = 0; i < size; i++) {
+        result[i] /= sum;
+      }
+      return result;
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class HitCounters {
+    public long hits;
+    public long misses;
+    // threads start at different positions of the key sequence
+    int index = ThreadLocalRandom.current().nextInt();
+  }
 }
@@ -10,11 +10,15 @@ import static java.util.Collections.singletonList;
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpClientAttributesExtractor;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpClientAttributesGetter;
+import io.opentelemetry.instrumentation.api.semconv.http.HttpClientMetrics;
 import io.opentelemetry.instrumentation.api.semconv.http.HttpSpanNameExtractor;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -27,6 +31,11 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
+/**
+ * Measures the cost of starting and ending spans. The {@code gc} profiler, enabled by default for
+ * all benchmarks in this repository, reports the allocated bytes per span as {@code
+ * gc.alloc.rate.norm}.
+ */
 @Fork(3)
 @Warmup(iterations = 10, time = 1)
 @Measurement(iterations = 5, time = 1)
@@ -37,6 +46,15 @@ public class InstrumenterBenchmark {
 
   private static final Object REQUEST = new Object();
 
+  // roughly the number of attributes of an http client span
+  private static final List<AttributeKey<String>> ATTRIBUTE_KEYS = new ArrayList<>();
+
+  static {
+    for (int i = 0; i < 12; i++) {
+      ATTRIBUTE_KEYS.add(AttributeKey.stringKey("attribute" + i));
+    }
+  }
+
   private static final Instrumenter<Object, Void> instrumenter =
       Instrumenter.<Object, Void>builder(
               OpenTelemetry.noop(),
@@ -46,6 +64,17 @@ public class InstrumenterBenchmark {
               HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
           .buildInstrumenter();
 
+  // also shares the start and end attributes with an operation listener
+  private static final Instrumenter<Object, Void> instrumenterWithMetrics =
+      Instrumenter.<Object, Void>builder(
+              OpenTelemetry.noop(),
+              "benchmark",
+              HttpSpanNameExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+          .addAttributesExtractor(
+              HttpClientAttributesExtractor.create(ConstantHttpAttributesGetter.INSTANCE))
+          .addOperationMetrics(HttpClientMetrics.get())
+          .buildInstrumenter();
+
   @Benchmark
   public Context start() {
     return instrumenter.start(Context.root(), REQUEST);
@@ -58,6 +87,22 @@ public class InstrumenterBenchmark {
     return context;
   }
 
+  @Benchmark
+  public Context startEndWithMetrics() {
+    Context context = instrumenterWithMetrics.start(Context.root(), REQUEST);
+    instrumenterWithMetrics.end(context, REQUEST, null, null);
+    return context;
+  }
+
+  @Benchmark
+  public Attributes attributes() {
+    UnsafeAttributes attributes = new UnsafeAttributes();
+    for (AttributeKey<String> key : ATTRIBUTE_KEYS) {
+      attributes.put(key, "value");
+    }
+    return attributes;
+  }
+
   enum ConstantHttpAttributesGetter implements HttpClientAttributesGetter<Object, Void> {
     INSTANCE;
 
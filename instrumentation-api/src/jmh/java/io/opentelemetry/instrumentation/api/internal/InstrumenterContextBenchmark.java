@@ -0,0 +1,90 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of using {@link InstrumenterContext} during an operation start, i.e. entering a
+ * context, computing a couple of values and exiting the context, on a platform thread and on
+ * virtual threads. Each benchmark invocation submits one task, which runs {@code operationsPerTask}
+ * operations, so {@code operationsPerTask=1} on virtual threads models the thread per request case.
+ * Virtual threads require running the benchmark on java 21+.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Benchmark)
+public class InstrumenterContextBenchmark {
+
+  private static final InstrumenterContext.Key<String> FIRST_KEY =
+      InstrumenterContext.key("first");
+  private static final InstrumenterContext.Key<String> SECOND_KEY =
+      InstrumenterContext.key("second");
+
+  @Param({"platform", "virtual"})
+  String threadType = "platform";
+
+  @Param({"1", "100"})
+  int operationsPerTask = 1;
+
+  private ExecutorService executor;
+  private final Runnable task = this::runOperations;
+
+  @Setup
+  public void setUp() throws Exception {
+    if (threadType.equals("virtual")) {
+      Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      executor = (ExecutorService) method.invoke(null);
+    } else {
+      executor = Executors.newSingleThreadExecutor();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark
+  public Future<?> startOperations() throws Exception {
+    Future<?> future = executor.submit(task);
+    future.get();
+    return future;
+  }
+
+  private void runOperations() {
+    for (int i = 0; i < operationsPerTask; i++) {
+      InstrumenterContext context = InstrumenterContext.enter();
+      try {
+        InstrumenterContext.computeIfAbsent(FIRST_KEY, key -> "first");
+        InstrumenterContext.computeIfAbsent(SECOND_KEY, key -> "second");
+        InstrumenterContext.computeIfAbsent(FIRST_KEY, key -> "first");
+      } finally {
+        InstrumenterContext.exit(context);
+      }
+    }
+  }
+}
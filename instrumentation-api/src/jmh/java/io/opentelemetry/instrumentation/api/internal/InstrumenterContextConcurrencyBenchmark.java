@@ -0,0 +1,49 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of using {@link InstrumenterContext} during an operation start, like {@link
+ * InstrumenterContextBenchmark}, with as many benchmark threads as there are processors starting
+ * operations at the same time. Compare the score with a run using {@code -t 1} to see how much the
+ * threads slow each other down.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+@Threads(Threads.MAX)
+public class InstrumenterContextConcurrencyBenchmark {
+
+  private static final InstrumenterContext.Key<String> FIRST_KEY =
+      InstrumenterContext.key("first");
+  private static final InstrumenterContext.Key<String> SECOND_KEY =
+      InstrumenterContext.key("second");
+
+  @Benchmark
+  public String startOperation() {
+    InstrumenterContext context = InstrumenterContext.enter();
+    try {
+      InstrumenterContext.computeIfAbsent(FIRST_KEY, key -> "first");
+      InstrumenterContext.computeIfAbsent(SECOND_KEY, key -> "second");
+      return InstrumenterContext.computeIfAbsent(FIRST_KEY, key -> "first");
+    } finally {
+      InstrumenterContext.exit(context);
+    }
+  }
+}
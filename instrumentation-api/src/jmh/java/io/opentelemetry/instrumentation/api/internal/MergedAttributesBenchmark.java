@@ -0,0 +1,130 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_REQUEST_METHOD;
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_RESPONSE_STATUS_CODE;
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_ROUTE;
+import static io.opentelemetry.semconv.NetworkAttributes.NETWORK_PROTOCOL_VERSION;
+import static io.opentelemetry.semconv.ServerAttributes.SERVER_ADDRESS;
+import static io.opentelemetry.semconv.ServerAttributes.SERVER_PORT;
+import static io.opentelemetry.semconv.UrlAttributes.URL_PATH;
+import static io.opentelemetry.semconv.UrlAttributes.URL_SCHEME;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.incubator.metrics.ExtendedDoubleHistogramBuilder;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.DoubleHistogramBuilder;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures recording a histogram with the SDK using the combined start and end attributes of an
+ * operation. The attributes are either copied with {@code toBuilder().putAll().build()}, as
+ * operation metrics used to do, or combined with {@link MergedAttributes}. With {@code
+ * advice=true} the histogram keeps only the http server duration attributes, like the http
+ * metrics do, otherwise the SDK keeps all attributes. The {@code gc} profiler, enabled by default
+ * for all benchmarks in this repository, reports the allocated bytes per recording as {@code
+ * gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(3)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(NANOSECONDS)
+@State(Scope.Thread)
+public class MergedAttributesBenchmark {
+
+  private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+  private static final long[] STATUS_CODES = {200, 201, 400, 404, 500};
+
+  @Param({"copy", "merged"})
+  String combine = "copy";
+
+  @Param({"false", "true"})
+  boolean advice;
+
+  private SdkMeterProvider meterProvider;
+  private DoubleHistogram histogram;
+  private Attributes[] startAttributes;
+  private Attributes[] endAttributes;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    meterProvider =
+        SdkMeterProvider.builder().registerMetricReader(InMemoryMetricReader.create()).build();
+    DoubleHistogramBuilder builder =
+        meterProvider.get("benchmark").histogramBuilder("http.server.request.duration");
+    if (advice) {
+      ((ExtendedDoubleHistogramBuilder) builder)
+          .setAttributesAdvice(
+              asList(
+                  HTTP_REQUEST_METHOD,
+                  HTTP_RESPONSE_STATUS_CODE,
+                  HTTP_ROUTE,
+                  URL_SCHEME,
+                  NETWORK_PROTOCOL_VERSION));
+    }
+    histogram = builder.build();
+
+    int count = METHODS.length * STATUS_CODES.length;
+    startAttributes = new Attributes[count];
+    endAttributes = new Attributes[count];
+    int i = 0;
+    for (String method : METHODS) {
+      for (long statusCode : STATUS_CODES) {
+        startAttributes[i] =
+            Attributes.builder()
+                .put(HTTP_REQUEST_METHOD, method)
+                .put(URL_SCHEME, "https")
+                .put(URL_PATH, "/api/resource")
+                .put(SERVER_ADDRESS, "localhost")
+                .put(SERVER_PORT, 8080L)
+                .put(NETWORK_PROTOCOL_VERSION, "1.1")
+                .build();
+        endAttributes[i] =
+            Attributes.builder()
+                .put(HTTP_ROUTE, "/api/resource")
+                .put(HTTP_RESPONSE_STATUS_CODE, statusCode)
+                .build();
+        i++;
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    meterProvider.close();
+  }
+
+  @Benchmark
+  public void record() {
+    index = index + 1 == startAttributes.length ? 0 : index + 1;
+    Attributes start = startAttributes[index];
+    Attributes end = endAttributes[index];
+    Attributes attributes =
+        combine.equals("merged")
+            ? MergedAttributes.merge(start, end)
+            : start.toBuilder().putAll(end).build();
+    histogram.record(1.0, attributes, Context.root());
+  }
+}
@@ -68,9 +68,7 @@ public class Instrumenter<REQUEST, RESPONSE> {
     return new InstrumenterBuilder<>(openTelemetry, instrumentationName, spanNameExtractor);
   }
 
-  private static final SupportabilityMetrics supportability = SupportabilityMetrics.instance();
-
-  private final String instrumentationName;
+  private final SupportabilityMetrics.SuppressedSpanCounters suppressedSpans;
   private final Tracer tracer;
   private final SpanNameExtractor<? super REQUEST> spanNameExtractor;
   private final SpanKindExtractor<? super REQUEST> spanKindExtractor;
@@ -86,10 +84,20 @@ public class Instrumenter<REQUEST, RESPONSE> {
   private final boolean enabled;
   private final SpanSuppressor spanSuppressor;
 
+  // the initial size estimate, in the fixed point format of the averages below
+  private static final int INITIAL_SIZE_AVERAGE = 8 << 4;
+
+  // exponentially decaying averages of the number of start and end attributes in 1/16ths, used for
+  // pre-sizing the attributes of the next operation; racy updates are harmless as these are only
+  // hints
+  private int startAttributesSizeAverage = INITIAL_SIZE_AVERAGE;
+  private int endAttributesSizeAverage = INITIAL_SIZE_AVERAGE;
+
   // to allow converting generic lists to arrays with toArray
   @SuppressWarnings({"rawtypes", "unchecked"})
   Instrumenter(InstrumenterBuilder<REQUEST, RESPONSE> builder) {
-    this.instrumentationName = builder.instrumentationName;
+    this.suppressedSpans =
+        SupportabilityMetrics.instance().suppressedSpanCounters(builder.instrumentationName);
     this.tracer = builder.buildTracer();
     this.spanNameExtractor = builder.spanNameExtractor;
     this.spanKindExtractor = builder.spanKindExtractor;
@@ -124,7 +132,7 @@ public class Instrumenter<REQUEST, RESPONSE> {
     boolean suppressed = spanSuppressor.shouldSuppress(parentContext, spanKind);
 
     if (suppressed) {
-      supportability.recordSuppressedSpan(spanKind, instrumentationName);
+      suppressedSpans.record(spanKind);
     }
     return !suppressed;
   }
@@ -171,10 +179,11 @@ public class Instrumenter<REQUEST, RESPONSE> {
   }
 
   private Context doStart(Context parentContext, REQUEST request, @Nullable Instant startTime) {
+    InstrumenterContext instrumenterContext = InstrumenterContext.enter();
     try {
       return doStartImpl(parentContext, request, startTime);
     } finally {
-      InstrumenterContext.reset();
+      InstrumenterContext.exit(instrumenterContext);
     }
   }
 
@@ -192,7 +201,7 @@ public class Instrumenter<REQUEST, RESPONSE> {
       spanLinksExtractor.extract(spanLinksBuilder, parentContext, request);
     }
 
-    UnsafeAttributes attributes = new UnsafeAttributes();
+    UnsafeAttributes attributes = new UnsafeAttributes(sizeHint(startAttributesSizeAverage));
     for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
       extractor.onStart(attributes, parentContext, request);
     }
@@ -212,22 +221,26 @@ public class Instrumenter<REQUEST, RESPONSE> {
     Span span = spanBuilder.setParent(context).startSpan();
     context = context.with(span);
 
+    startAttributesSizeAverage = updateSizeAverage(startAttributesSizeAverage, attributes.size());
+
     if (operationListeners.length != 0) {
+      UnsafeAttributes operationAttributes = attributes;
       if (operationListenerAttributesExtractors.length != 0) {
-        UnsafeAttributes operationAttributes = new UnsafeAttributes();
-        operationAttributes.putAll(attributes.asMap());
+        // context customizers may have kept the start attributes, so the operation listener
+        // attributes go into a copy, which is only seen by the operation listeners
+        operationAttributes =
+            new UnsafeAttributes(attributes, operationListenerAttributesExtractors.length);
         for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
             operationListenerAttributesExtractors) {
           extractor.onStart(operationAttributes, parentContext, request);
         }
-        attributes = operationAttributes;
       }
 
       // operation listeners run after span start, so that they have access to the current span
       // for capturing exemplars
       long startNanos = getNanos(startTime);
       for (OperationListener operationListener : operationListeners) {
-        context = operationListener.onStart(context, attributes, startNanos);
+        context = operationListener.onStart(context, operationAttributes, startNanos);
       }
     }
     if (propagateOperationListenersToOnEnd || context.get(START_OPERATION_LISTENERS) != null) {
@@ -263,11 +276,12 @@ public class Instrumenter<REQUEST, RESPONSE> {
       span.recordException(error);
     }
 
-    UnsafeAttributes attributes = new UnsafeAttributes();
+    UnsafeAttributes attributes = new UnsafeAttributes(sizeHint(endAttributesSizeAverage));
     for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor : attributesExtractors) {
       extractor.onEnd(attributes, context, request, response, error);
     }
     span.setAllAttributes(attributes);
+    endAttributesSizeAverage = updateSizeAverage(endAttributesSizeAverage, attributes.size());
 
     OperationListener[] operationListeners = context.get(START_OPERATION_LISTENERS);
     if (operationListeners == null) {
@@ -278,14 +292,12 @@ public class Instrumenter<REQUEST, RESPONSE> {
     spanStatusExtractor.extract(spanStatusBuilder, request, response, error);
 
     if (operationListeners.length != 0) {
-      if (operationListenerAttributesExtractors.length != 0) {
-        UnsafeAttributes operationAttributes = new UnsafeAttributes();
-        operationAttributes.putAll(attributes.asMap());
-        for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
-            operationListenerAttributesExtractors) {
-          extractor.onEnd(operationAttributes, context, request, response, error);
-        }
-        attributes = operationAttributes;
+      // unlike the start attributes the end attributes are not passed to anything but the span,
+      // which has already copied them, so the operation listener attributes are added to the
+      // same instance
+      for (AttributesExtractor<? super REQUEST, ? super RESPONSE> extractor :
+          operationListenerAttributesExtractors) {
+        extractor.onEnd(attributes, context, request, response, error);
       }
 
       long endNanos = getNanos(endTime);
@@ -293,7 +305,6 @@ public class Instrumenter<REQUEST, RESPONSE> {
         operationListeners[i].onEnd(context, attributes, endNanos);
       }
     }
-
     if (endTime != null) {
       span.end(endTime);
     } else {
@@ -301,6 +312,18 @@ public class Instrumenter<REQUEST, RESPONSE> {
     }
   }
 
+  // visible for testing
+  static int sizeHint(int sizeAverage) {
+    // round up
+    return (sizeAverage + 15) >> 4;
+  }
+
+  // visible for testing
+  static int updateSizeAverage(int sizeAverage, int size) {
+    // moves 1/8 of the way towards the latest size
+    return sizeAverage + (((size << 4) - sizeAverage) >> 3);
+  }
+
   private static long getNanos(@Nullable Instant time) {
     if (time == null) {
       return System.nanoTime();
@@ -9,9 +9,15 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 
 /**
@@ -20,11 +26,37 @@ import javax.annotation.Nullable;
  * multiple Attributes instances. So we use just one storage for both the builder and attributes. A
  * couple of methods still require copying to satisfy the interface contracts, but in practice
  * should never be called by user code even though they can.
+ *
+ * <p>Keys and values are stored in two parallel arrays that are sized up front from the expected
+ * number of attributes. Instrumentations produce a few dozen attributes at most, so a linear scan
+ * for existing keys is cheaper than hashing, and no per entry objects are allocated.
  */
-final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
-    implements Attributes, AttributesBuilder {
+final class UnsafeAttributes implements Attributes, AttributesBuilder {
 
-  private static final long serialVersionUID = 1L;
+  private static final int DEFAULT_CAPACITY = 8;
+
+  private AttributeKey<?>[] keys;
+  private Object[] values;
+  private int size;
+  @Nullable private Map<AttributeKey<?>, Object> mapView;
+
+  UnsafeAttributes() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  UnsafeAttributes(int expectedSize) {
+    int capacity = Math.max(expectedSize, 1);
+    keys = new AttributeKey<?>[capacity];
+    values = new Object[capacity];
+  }
+
+  /** Creates a copy of the given attributes with room for the given number of additional ones. */
+  UnsafeAttributes(UnsafeAttributes attributes, int additionalSize) {
+    int capacity = Math.max(attributes.size + additionalSize, 1);
+    keys = Arrays.copyOf(attributes.keys, capacity);
+    values = Arrays.copyOf(attributes.values, capacity);
+    size = attributes.size;
+  }
 
   // Attributes
 
@@ -32,12 +64,35 @@ final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
   @Override
   @Nullable
   public <T> T get(AttributeKey<T> key) {
-    return (T) super.get(key);
+    int index = indexOf(key);
+    return index < 0 ? null : (T) values[index];
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> action) {
+    for (int i = 0; i < size; i++) {
+      action.accept(keys[i], values[i]);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
   }
 
   @Override
   public Map<AttributeKey<?>, Object> asMap() {
-    return this;
+    Map<AttributeKey<?>, Object> map = mapView;
+    if (map == null) {
+      map = new MapView();
+      mapView = map;
+    }
+    return map;
   }
 
   // This can be called by user code in a RequestListener so copy. In practice, it should not be
@@ -65,9 +120,22 @@ final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
   @Override
   @CanIgnoreReturnValue
   public <T> AttributesBuilder put(AttributeKey<T> key, @Nullable T value) {
-    if (value != null) {
-      super.put(key, value);
+    if (value == null) {
+      return this;
+    }
+    int index = indexOf(key);
+    if (index >= 0) {
+      values[index] = value;
+      return this;
     }
+    if (size == keys.length) {
+      int capacity = size * 2;
+      keys = Arrays.copyOf(keys, capacity);
+      values = Arrays.copyOf(values, capacity);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
     return this;
   }
 
@@ -79,10 +147,132 @@ final class UnsafeAttributes extends HashMap<AttributeKey<?>, Object>
   }
 
   @Override
-  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> action) {
-    // https://github.com/open-telemetry/opentelemetry-java/issues/4161
-    // Help out android desugaring by having an explicit call to HashMap.forEach, when forEach is
-    // just called through Attributes.forEach desugaring is unable to correctly handle it.
-    super.forEach(action);
+  @CanIgnoreReturnValue
+  public AttributesBuilder removeIf(Predicate<AttributeKey<?>> filter) {
+    int retained = 0;
+    for (int i = 0; i < size; i++) {
+      if (!filter.test(keys[i])) {
+        keys[retained] = keys[i];
+        values[retained] = values[i];
+        retained++;
+      }
+    }
+    Arrays.fill(keys, retained, size, null);
+    Arrays.fill(values, retained, size, null);
+    size = retained;
+    return this;
+  }
+
+  // start attributes are recorded in metric instruments, which key their points by the attributes,
+  // so compare by content like the HashMap this class used to extend. Other Attributes
+  // implementations don't accept this class in their equals(), so neither does this one.
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof UnsafeAttributes)) {
+      return false;
+    }
+    UnsafeAttributes other = (UnsafeAttributes) obj;
+    if (size != other.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      int index = other.indexOf(keys[i]);
+      if (index < 0 || !values[i].equals(other.values[index])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // independent of the insertion order, like Map.hashCode()
+  @Override
+  public int hashCode() {
+    int result = 0;
+    for (int i = 0; i < size; i++) {
+      result += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  private int indexOf(Object key) {
+    // keys are usually constants, so check for identity first
+    for (int i = 0; i < size; i++) {
+      if (keys[i] == key) {
+        return i;
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // read only view, the map is only exposed through Attributes.asMap()
+  private final class MapView extends AbstractMap<AttributeKey<?>, Object> {
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    @Nullable
+    public Object get(Object key) {
+      int index = indexOf(key);
+      return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> action) {
+      UnsafeAttributes.this.forEach(action);
+    }
+
+    @Override
+    public Set<Entry<AttributeKey<?>, Object>> entrySet() {
+      return new AbstractSet<Entry<AttributeKey<?>, Object>>() {
+        @Override
+        public int size() {
+          return size;
+        }
+
+        @Override
+        public Iterator<Entry<AttributeKey<?>, Object>> iterator() {
+          return new Iterator<Entry<AttributeKey<?>, Object>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < size;
+            }
+
+            @Override
+            public Entry<AttributeKey<?>, Object> next() {
+              if (index >= size) {
+                throw new NoSuchElementException();
+              }
+              Entry<AttributeKey<?>, Object> entry =
+                  new SimpleImmutableEntry<>(keys[index], values[index]);
+              index++;
+              return entry;
+            }
+          };
+        }
+      };
+    }
   }
 }
@@ -8,40 +8,186 @@ package io.opentelemetry.instrumentation.api.internal;
 import io.opentelemetry.instrumentation.api.instrumenter.AttributesExtractor;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.api.instrumenter.SpanNameExtractor;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import javax.annotation.Nullable;
 
 /**
  * Helper class for sharing computed values between different {@link AttributesExtractor}s and
  * {@link SpanNameExtractor} called in the start phase of the {@link Instrumenter}.
  *
+ * <p>Values are stored in an array indexed by {@link Key}s, which are created once and are
+ * typically kept in static fields. The {@link Instrumenter} obtains a context with {@link #enter()}
+ * before calling the extractors and hands it back with {@link #exit(InstrumenterContext)}. Each
+ * thread keeps its contexts in a thread local that is set once and never removed, so that
+ * operations only touch memory confined to their thread. {@link #exit(InstrumenterContext)} clears
+ * the values, a thread keeps no values of an operation after its start phase. Outside of an
+ * entered context values are computed on every call.
+ *
  * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
  * at any time.
  */
 public final class InstrumenterContext {
-  private static final ThreadLocal<InstrumenterContext> instrumenterContext = new ThreadLocal<>();
+  private static final AtomicInteger keyCount = new AtomicInteger();
+  private static final ConcurrentMap<String, Key<?>> namedKeys = new ConcurrentHashMap<>();
+
+  private static final ThreadLocal<ThreadContexts> threadContexts = new ThreadLocal<>();
 
-  private final Map<String, Object> map = new HashMap<>();
+  private final ThreadContexts owner;
+  // the context that was current when this context was entered, null for the outermost one
+  @Nullable private final InstrumenterContext outer;
+  // reused when a context is entered while this one is current
+  @Nullable private InstrumenterContext inner;
+  private Object[] values;
+  // number of leading slots that may hold a value
+  private int used;
 
-  private InstrumenterContext() {}
+  private InstrumenterContext(ThreadContexts owner, @Nullable InstrumenterContext outer) {
+    this.owner = owner;
+    this.outer = outer;
+    this.values = new Object[Math.max(keyCount.get(), 4)];
+  }
+
+  /** Creates a new key, keys should be created once and kept in static fields. */
+  public static <T> Key<T> key(String name) {
+    return new Key<>(name, keyCount.getAndIncrement());
+  }
 
+  /**
+   * Same as {@link #computeIfAbsent(Key, Function)} with a key that is looked up by name, for
+   * callers that don't keep a {@link Key}.
+   */
   @SuppressWarnings("unchecked") // we expect the caller to use the same type for a given key
   public static <T> T computeIfAbsent(String key, Function<String, T> function) {
-    return (T) get().computeIfAbsent(key, function);
+    Key<T> namedKey = (Key<T>) namedKeys.computeIfAbsent(key, InstrumenterContext::key);
+    return computeIfAbsent(namedKey, unused -> function.apply(key));
   }
 
-  // visible for testing
-  static Map<String, Object> get() {
-    InstrumenterContext context = instrumenterContext.get();
+  @SuppressWarnings("unchecked") // the key is typed with the value type
+  public static <T> T computeIfAbsent(Key<T> key, Function<Key<T>, T> function) {
+    InstrumenterContext context = current();
     if (context == null) {
-      context = new InstrumenterContext();
-      instrumenterContext.set(context);
+      return function.apply(key);
     }
-    return context.map;
+    int index = key.index;
+    if (index < context.used) {
+      Object value = context.values[index];
+      if (value != null) {
+        return (T) value;
+      }
+    }
+    T value = function.apply(key);
+    if (value != null) {
+      context.set(index, value);
+    }
+    return value;
   }
 
-  public static void reset() {
-    instrumenterContext.remove();
+  /** Returns the value of the given key, or {@code null} when it has not been computed. */
+  @Nullable
+  @SuppressWarnings("unchecked") // the key is typed with the value type
+  public static <T> T get(Key<T> key) {
+    InstrumenterContext context = current();
+    if (context == null || key.index >= context.used) {
+      return null;
+    }
+    return (T) context.values[key.index];
+  }
+
+  /**
+   * Returns {@code true} when a context is entered on the calling thread, i.e. when the values
+   * computed with {@link #computeIfAbsent(Key, Function)} are kept until the context exits.
+   */
+  public static boolean isEntered() {
+    return current() != null;
+  }
+
+  /**
+   * Makes a new empty context current for the calling thread until {@link
+   * #exit(InstrumenterContext)} is called with the returned context. A context entered while
+   * another one is current hides the other one until it exits.
+   */
+  public static InstrumenterContext enter() {
+    ThreadContexts contexts = threadContexts.get();
+    if (contexts == null) {
+      contexts = new ThreadContexts();
+      threadContexts.set(contexts);
+    }
+    InstrumenterContext current = contexts.current;
+    InstrumenterContext context;
+    if (current == null) {
+      context = contexts.outermost;
+      if (context == null) {
+        context = new InstrumenterContext(contexts, null);
+        contexts.outermost = context;
+      }
+    } else {
+      context = current.inner;
+      if (context == null) {
+        context = new InstrumenterContext(contexts, current);
+        current.inner = context;
+      }
+    }
+    contexts.current = context;
+    return context;
+  }
+
+  /** Ends the given context, which must have been returned by {@link #enter()} on this thread. */
+  public static void exit(InstrumenterContext context) {
+    context.clear();
+    context.owner.current = context.outer;
+  }
+
+  @Nullable
+  private static InstrumenterContext current() {
+    ThreadContexts contexts = threadContexts.get();
+    return contexts != null ? contexts.current : null;
+  }
+
+  private void set(int index, Object value) {
+    if (index >= values.length) {
+      values = Arrays.copyOf(values, Math.max(index + 1, values.length * 2));
+    }
+    values[index] = value;
+    if (index >= used) {
+      used = index + 1;
+    }
+  }
+
+  private void clear() {
+    if (used > 0) {
+      Arrays.fill(values, 0, used, null);
+      used = 0;
+    }
+  }
+
+  // the contexts of a thread, reused by all operations started on it
+  private static final class ThreadContexts {
+    @Nullable private InstrumenterContext outermost;
+    @Nullable private InstrumenterContext current;
+  }
+
+  /**
+   * A typed slot in the {@link InstrumenterContext}.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
+   */
+  public static final class Key<T> {
+    private final String name;
+    private final int index;
+
+    private Key(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
   }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+
+/**
+ * A read-only view of the combination of two {@link Attributes}, where the attributes of the second
+ * one take precedence. Used by operation metrics to combine the start and end attributes of an
+ * operation without copying them: metric views usually only keep a few of the attributes, which
+ * they read with {@link #get(AttributeKey)} or {@link #forEach(BiConsumer)}.
+ *
+ * <p>Both underlying attributes must not change after the view is created.
+ *
+ * <p>A view is only ever equal to another view with the same attributes, never to other {@link
+ * Attributes} implementations, whose {@code equals()} does not accept a view either. {@link
+ * #merge(Attributes, Attributes)} therefore always returns a view, so that all attributes recorded
+ * by an instrument compare consistently when the SDK uses them as keys.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
+ */
+public final class MergedAttributes implements Attributes {
+
+  private static final AttributeKey<?>[] NO_KEYS = new AttributeKey<?>[0];
+
+  private final Attributes first;
+  private final Attributes second;
+  // computed lazily
+  @Nullable private AttributeKey<?>[] secondKeys;
+  private int size = -1;
+  private int hashCode;
+  @Nullable private Map<AttributeKey<?>, Object> map;
+
+  /**
+   * Returns the combination of the given attributes, the attributes of {@code second} take
+   * precedence.
+   */
+  public static Attributes merge(Attributes first, Attributes second) {
+    return new MergedAttributes(first, second);
+  }
+
+  private MergedAttributes(Attributes first, Attributes second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  @Override
+  @Nullable
+  public <T> T get(AttributeKey<T> key) {
+    T value = second.get(key);
+    return value != null ? value : first.get(key);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> consumer) {
+    AttributeKey<?>[] shadowing = secondKeys();
+    if (shadowing.length == 0) {
+      first.forEach(consumer);
+      return;
+    }
+    first.forEach(
+        (key, value) -> {
+          if (!contains(shadowing, key)) {
+            consumer.accept(key, value);
+          }
+        });
+    second.forEach(consumer);
+  }
+
+  @Override
+  public int size() {
+    int result = size;
+    if (result < 0) {
+      AttributeKey<?>[] shadowing = secondKeys();
+      int[] count = {shadowing.length};
+      first.forEach(
+          (key, value) -> {
+            if (!contains(shadowing, key)) {
+              count[0]++;
+            }
+          });
+      result = count[0];
+      size = result;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return first.isEmpty() && second.isEmpty();
+  }
+
+  @Override
+  public Map<AttributeKey<?>, Object> asMap() {
+    Map<AttributeKey<?>, Object> result = map;
+    if (result == null) {
+      Map<AttributeKey<?>, Object> copy = new LinkedHashMap<>();
+      forEach(copy::put);
+      result = Collections.unmodifiableMap(copy);
+      map = result;
+    }
+    return result;
+  }
+
+  @Override
+  public AttributesBuilder toBuilder() {
+    return Attributes.builder().putAll(first).putAll(second);
+  }
+
+  @Override
+  public boolean equals(@Nullable Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (!(obj instanceof MergedAttributes)) {
+      return false;
+    }
+    MergedAttributes other = (MergedAttributes) obj;
+    if (size() != other.size() || hashCode() != other.hashCode()) {
+      return false;
+    }
+    boolean[] equal = {true};
+    forEach(
+        (key, value) -> {
+          if (equal[0] && !value.equals(other.get(key))) {
+            equal[0] = false;
+          }
+        });
+    return equal[0];
+  }
+
+  @Override
+  public int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      // same as the hash code of asMap(), without creating the map
+      int[] hash = {0};
+      forEach((key, value) -> hash[0] += key.hashCode() ^ value.hashCode());
+      result = hash[0];
+      hashCode = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  // the keys of the second attributes sorted by name, the attributes of the first one with these
+  // keys are hidden
+  private AttributeKey<?>[] secondKeys() {
+    AttributeKey<?>[] result = secondKeys;
+    if (result == null) {
+      int count = second.size();
+      if (count == 0) {
+        result = NO_KEYS;
+      } else {
+        KeyCollector collector = new KeyCollector(count);
+        second.forEach(collector);
+        result = collector.keys;
+        sortByName(result);
+      }
+      secondKeys = result;
+    }
+    return result;
+  }
+
+  private static void sortByName(AttributeKey<?>[] keys) {
+    // insertion sort, there are only a few keys and they are usually sorted already
+    for (int i = 1; i < keys.length; i++) {
+      AttributeKey<?> key = keys[i];
+      int j = i - 1;
+      while (j >= 0 && keys[j].getKey().compareTo(key.getKey()) > 0) {
+        keys[j + 1] = keys[j];
+        j--;
+      }
+      keys[j + 1] = key;
+    }
+  }
+
+  private static boolean contains(AttributeKey<?>[] sortedKeys, AttributeKey<?> key) {
+    String name = key.getKey();
+    // find the first key with this name
+    int low = 0;
+    int high = sortedKeys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (sortedKeys[middle].getKey().compareTo(name) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    // keys with the same name and a different type are distinct
+    for (int i = low; i < sortedKeys.length && sortedKeys[i].getKey().equals(name); i++) {
+      if (sortedKeys[i].equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class KeyCollector implements BiConsumer<AttributeKey<?>, Object> {
+    final AttributeKey<?>[] keys;
+    int count;
+
+    KeyCollector(int size) {
+      keys = new AttributeKey<?>[size];
+    }
+
+    @Override
+    public void accept(AttributeKey<?> key, Object value) {
+      keys[count++] = key;
+    }
+  }
+}
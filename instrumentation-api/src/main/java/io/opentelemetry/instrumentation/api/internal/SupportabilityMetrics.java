@@ -5,30 +5,54 @@
 
 package io.opentelemetry.instrumentation.api.internal;
 
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
 import static io.opentelemetry.instrumentation.api.internal.SemconvStability.emitStableDatabaseSemconv;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.trace.SpanKind;
 import java.security.PrivilegedAction;
+import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /**
- * This class is internal and is hence not for public use. Its APIs are unstable and can change at
- * any time.
+ * Internal health counters of the instrumentation. Counting is always enabled and cheap enough to
+ * be done on hot paths: callers resolve a {@link Counter} or {@link SuppressedSpanCounters} once
+ * and then only increment a counter cell, which is only striped across threads under contention.
+ * The counts are reported as observable metrics once {@link #registerMetrics(OpenTelemetry)} is
+ * called, and logged periodically when agent debug logging is enabled.
+ *
+ * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+ * at any time.
  */
 public final class SupportabilityMetrics {
   private static final Logger logger = Logger.getLogger(SupportabilityMetrics.class.getName());
+
+  private static final String INSTRUMENTATION_NAME =
+      "io.opentelemetry.instrumentation.supportability";
+  private static final AttributeKey<String> INSTRUMENTATION_NAME_KEY =
+      stringKey("otel.instrumentation.name");
+  private static final AttributeKey<String> SPAN_KIND_KEY = stringKey("otel.span.kind");
+  private static final AttributeKey<String> COUNTER_NAME_KEY = stringKey("otel.counter.name");
+
   private final boolean agentDebugEnabled;
   private final Consumer<String> reporter;
+  private final AtomicBoolean metricsRegistered = new AtomicBoolean();
 
-  private final ConcurrentMap<String, KindCounters> suppressionCounters = new ConcurrentHashMap<>();
-  private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, SuppressedSpanCounters> suppressionCounters =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
 
   private static final SupportabilityMetrics INSTANCE =
       new SupportabilityMetrics(DebugUtil.isAgentDebugEnabled(), logger::fine).start();
@@ -43,30 +67,91 @@ public final class SupportabilityMetrics {
     this.reporter = reporter;
   }
 
-  public void recordSuppressedSpan(SpanKind kind, String instrumentationName) {
-    if (!agentDebugEnabled) {
-      return;
+  /**
+   * Returns the counters of spans suppressed by the given instrumentation. Callers should keep the
+   * returned instance instead of calling {@link #recordSuppressedSpan(SpanKind, String)}.
+   */
+  public SuppressedSpanCounters suppressedSpanCounters(String instrumentationName) {
+    SuppressedSpanCounters result = suppressionCounters.get(instrumentationName);
+    if (result == null) {
+      result =
+          suppressionCounters.computeIfAbsent(
+              instrumentationName, name -> new SuppressedSpanCounters());
     }
+    return result;
+  }
 
-    suppressionCounters
-        .computeIfAbsent(instrumentationName, s -> new KindCounters())
-        .increment(kind);
+  public void recordSuppressedSpan(SpanKind kind, String instrumentationName) {
+    suppressedSpanCounters(instrumentationName).record(kind);
+  }
+
+  /**
+   * Returns the counter with the given name, see {@link CounterNames}. Callers should keep the
+   * returned instance instead of calling {@link #incrementCounter(String)}.
+   */
+  public Counter counter(String counterName) {
+    Counter result = counters.get(counterName);
+    if (result == null) {
+      result = counters.computeIfAbsent(counterName, name -> new Counter());
+    }
+    return result;
   }
 
   public void incrementCounter(String counterName) {
-    if (!agentDebugEnabled) {
+    counter(counterName).increment();
+  }
+
+  /**
+   * Registers observable instruments that report the counts under a dedicated meter. Only the
+   * first call has an effect.
+   */
+  public void registerMetrics(OpenTelemetry openTelemetry) {
+    if (!metricsRegistered.compareAndSet(false, true)) {
       return;
     }
-
-    counters.computeIfAbsent(counterName, k -> new AtomicLong()).incrementAndGet();
+    Meter meter = openTelemetry.getMeter(INSTRUMENTATION_NAME);
+    meter
+        .counterBuilder("otel.instrumentation.suppressed_spans")
+        .setUnit("{span}")
+        .setDescription("The number of spans that were suppressed by the instrumentation.")
+        .buildWithCallback(
+            measurement ->
+                suppressionCounters.forEach(
+                    (instrumentationName, countsByKind) -> {
+                      for (SpanKind kind : SpanKind.values()) {
+                        long value = countsByKind.sum(kind);
+                        if (value > 0) {
+                          measurement.record(
+                              value,
+                              Attributes.of(
+                                  INSTRUMENTATION_NAME_KEY,
+                                  instrumentationName,
+                                  SPAN_KIND_KEY,
+                                  kind.name().toLowerCase(Locale.ROOT)));
+                        }
+                      }
+                    }));
+    meter
+        .counterBuilder("otel.instrumentation.internal_events")
+        .setUnit("{event}")
+        .setDescription("The number of internal instrumentation events, by counter name.")
+        .buildWithCallback(
+            measurement ->
+                counters.forEach(
+                    (counterName, counter) ->
+                        measurement.record(
+                            counter.sum(), Attributes.of(COUNTER_NAME_KEY, counterName))));
   }
 
   // visible for testing
   void report() {
+    if (!agentDebugEnabled) {
+      return;
+    }
     suppressionCounters.forEach(
         (instrumentationName, countsByKind) -> {
           for (SpanKind kind : SpanKind.values()) {
-            long value = countsByKind.getAndReset(kind);
+            long value = countsByKind.sumSinceLastReport(kind);
             if (value > 0) {
               reporter.accept(
                   "Suppressed Spans by '" + instrumentationName + "' (" + kind + ") : " + value);
@@ -75,7 +160,7 @@ public final class SupportabilityMetrics {
         });
     counters.forEach(
         (counterName, counter) -> {
-          long value = counter.getAndSet(0);
+          long value = counter.sumSinceLastReport();
           if (value > 0) {
             reporter.accept("Counter '" + counterName + "' : " + value);
           }
@@ -118,60 +203,164 @@ public final class SupportabilityMetrics {
   }
 
   /**
-   * This class is internal and is hence not for public use. Its APIs are unstable and can change at
-   * any time.
+   * Counter names are reported as the {@code otel.counter.name} metric attribute, so they are
+   * dotted snake_case identifiers.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
    */
   public static final class CounterNames {
     public static final String SQL_SANITIZER_CACHE_MISS =
         emitStableDatabaseSemconv()
-            ? "sql sanitizer cache miss"
-            : "SqlStatementSanitizer cache miss";
+            ? "sql_sanitizer.cache_miss"
+            : "sql_statement_sanitizer.cache_miss";
+    public static final String MUZZLE_FAILURE = "muzzle.failure";
+    public static final String CONTEXT_PROPAGATION_DROP = "context_propagation.drop";
 
     private CounterNames() {}
   }
 
-  // this class is threadsafe.
-  private static class KindCounters {
-    private final AtomicLong server = new AtomicLong();
-    private final AtomicLong client = new AtomicLong();
-    private final AtomicLong internal = new AtomicLong();
-    private final AtomicLong consumer = new AtomicLong();
-    private final AtomicLong producer = new AtomicLong();
-
-    void increment(SpanKind kind) {
-      switch (kind) {
-        case INTERNAL:
-          internal.incrementAndGet();
-          break;
-        case SERVER:
-          server.incrementAndGet();
-          break;
-        case CLIENT:
-          client.incrementAndGet();
-          break;
-        case PRODUCER:
-          producer.incrementAndGet();
-          break;
-        case CONSUMER:
-          consumer.incrementAndGet();
-          break;
+  /**
+   * A monotonic counter.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
+   */
+  public static final class Counter {
+    private final StripedCounter count = new StripedCounter(1);
+    // only accessed by the reporter thread
+    private long lastReported;
+
+    private Counter() {}
+
+    public void increment() {
+      count.increment(0);
+    }
+
+    long sum() {
+      return count.sum(0);
+    }
+
+    // visible for testing
+    boolean isStriped() {
+      return count.isStriped();
+    }
+
+    long sumSinceLastReport() {
+      long sum = sum();
+      long result = sum - lastReported;
+      lastReported = sum;
+      return result;
+    }
+  }
+
+  /**
+   * Counts suppressed spans by span kind.
+   *
+   * <p>This class is internal and is hence not for public use. Its APIs are unstable and can change
+   * at any time.
+   */
+  public static final class SuppressedSpanCounters {
+    private final StripedCounter counts = new StripedCounter(SpanKind.values().length);
+    // only accessed by the reporter thread
+    private final long[] lastReported = new long[SpanKind.values().length];
+
+    private SuppressedSpanCounters() {}
+
+    public void record(SpanKind kind) {
+      counts.increment(kind.ordinal());
+    }
+
+    long sum(SpanKind kind) {
+      return counts.sum(kind.ordinal());
+    }
+
+    long sumSinceLastReport(SpanKind kind) {
+      long sum = sum(kind);
+      long result = sum - lastReported[kind.ordinal()];
+      lastReported[kind.ordinal()] = sum;
+      return result;
+    }
+  }
+
+  /**
+   * A fixed number of counters. Like LongAdder, which is not available on all supported android
+   * versions, increments go to a single cell per counter until two threads contend on it. Only
+   * then the counts are spread over several cells, selected by the current thread, so that threads
+   * incrementing concurrently rarely contend on the same cache line. Counters that are never
+   * incremented concurrently never allocate the striped cells.
+   */
+  private static final class StripedCounter {
+    private static final int STRIPES = stripes();
+    // longs per cache line, cells of different stripes are kept on separate cache lines
+    private static final int PADDING = 8;
+
+    private final int counters;
+    private final AtomicLongArray base;
+    @Nullable private volatile AtomicLongArray cells;
+
+    StripedCounter(int counters) {
+      this.counters = counters;
+      base = new AtomicLongArray(counters);
+    }
+
+    void increment(int counter) {
+      AtomicLongArray cells = this.cells;
+      if (cells == null) {
+        long count = base.get(counter);
+        if (base.compareAndSet(counter, count, count + 1)) {
+          return;
+        }
+        cells = cells();
       }
+      cells.getAndIncrement(stripe() * stride() + counter);
+    }
+
+    long sum(int counter) {
+      long sum = base.get(counter);
+      AtomicLongArray cells = this.cells;
+      if (cells != null) {
+        int stride = stride();
+        for (int i = 0; i < STRIPES; i++) {
+          sum += cells.get(i * stride + counter);
+        }
+      }
+      return sum;
+    }
+
+    // visible for testing
+    boolean isStriped() {
+      return cells != null;
     }
 
-    long getAndReset(SpanKind kind) {
-      switch (kind) {
-        case INTERNAL:
-          return internal.getAndSet(0);
-        case SERVER:
-          return server.getAndSet(0);
-        case CLIENT:
-          return client.getAndSet(0);
-        case PRODUCER:
-          return producer.getAndSet(0);
-        case CONSUMER:
-          return consumer.getAndSet(0);
+    private AtomicLongArray cells() {
+      AtomicLongArray result = cells;
+      if (result == null) {
+        synchronized (this) {
+          result = cells;
+          if (result == null) {
+            result = new AtomicLongArray(STRIPES * stride());
+            cells = result;
+          }
+        }
       }
-      return 0;
+      return result;
+    }
+
+    private int stride() {
+      // rounded up to whole cache lines
+      return (counters + PADDING - 1) / PADDING * PADDING;
+    }
+
+    private static int stripe() {
+      int hash = System.identityHashCode(Thread.currentThread());
+      return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static int stripes() {
+      int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+      // power of two, at least the number of processors
+      return Integer.highestOneBit(Math.max(processors * 2 - 1, 1));
     }
   }
 }
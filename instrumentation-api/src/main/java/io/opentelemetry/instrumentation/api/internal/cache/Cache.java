@@ -6,6 +6,8 @@
 package io.opentelemetry.instrumentation.api.internal.cache;
 
 import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.EntryWeigher;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.EvictionListener;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 
@@ -38,6 +40,41 @@ public interface Cache<K, V> {
     return new MapBackedCache<>(map);
   }
 
+  /**
+   * Returns new bounded cache that evicts based on how frequently entries are accessed (W-TinyLFU)
+   * instead of how recently. Prefer this over {@link #bounded(int)} for workloads where many keys
+   * are used only once, e.g. scans or queries with inlined values, which would otherwise flush out
+   * the frequently used entries.
+   *
+   * <p>Both keys and values are strongly referenced. Reads do not block, the eviction policy is
+   * applied asynchronously to map updates so the cache may briefly hold more than {@code capacity}
+   * entries.
+   */
+  static <K, V> Cache<K, V> frequencyBounded(int capacity) {
+    return new FrequencyBoundedCache<>(capacity);
+  }
+
+  /**
+   * Returns new bounded cache whose capacity is expressed in the units returned by {@code weigher}
+   * (e.g. estimated retained bytes) instead of in number of entries.
+   *
+   * <p>Both keys and values are strongly referenced. {@code evictionListener} is notified on the
+   * calling thread whenever an entry is evicted to keep the total weight under {@code
+   * maximumWeight}.
+   */
+  static <K, V> Cache<K, V> weighted(
+      long maximumWeight,
+      EntryWeigher<? super K, ? super V> weigher,
+      EvictionListener<K, V> evictionListener) {
+    ConcurrentLinkedHashMap<K, V> map =
+        new ConcurrentLinkedHashMap.Builder<K, V>()
+            .maximumWeightedCapacity(maximumWeight)
+            .weigher(weigher)
+            .listener(evictionListener)
+            .build();
+    return new MapBackedCache<>(map);
+  }
+
   /**
    * Returns the cached value associated with the provided {@code key}. If no value is cached yet,
    * computes the value using {@code mappingFunction}, stores the result, and returns it.
@@ -0,0 +1,382 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded cache that uses the W-TinyLFU policy (as used by Caffeine) to decide which entries to
+ * keep. Unlike an LRU cache, a single scan over many keys that are each accessed only once cannot
+ * flush out the entries that are accessed frequently.
+ *
+ * <p>New entries are first added to a small LRU "window". Entries leaving the window are only
+ * admitted into the main region, which is split into a "probation" and a "protected" LRU segment,
+ * if they have been accessed more often than the entry that would have to be evicted for them. The
+ * access frequencies are estimated by a {@link FrequencySketch}.
+ *
+ * <p>Reads only do a lock free map lookup and record the access in a lossy ring buffer. Writes
+ * update the map and record the change in a write buffer. Both buffers are drained and the policy
+ * is applied under a lock by whichever thread manages to acquire it, other threads never block.
+ */
+final class FrequencyBoundedCache<K, V> implements Cache<K, V> {
+
+  private static final int READ_BUFFER_SIZE = 128;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  // number of buffered reads that triggers draining the buffers
+  private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+
+  private static final int IDLE = 0;
+  private static final int REQUIRED = 1;
+  private static final int PROCESSING = 2;
+
+  private final ConcurrentMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+  private final AtomicReferenceArray<Node<K, V>> readBuffer =
+      new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+  private final AtomicLong readBufferWriteCount = new AtomicLong();
+  // only written while holding the eviction lock
+  private volatile long readBufferReadCount;
+
+  private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger drainStatus = new AtomicInteger(IDLE);
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // the fields below are guarded by the eviction lock
+  private final FrequencySketch sketch;
+  private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+  private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+  private final AccessOrderDeque<K, V> protectedSegment = new AccessOrderDeque<>();
+  private final int maximumSize;
+  private final int windowMaximum;
+  private final int protectedMaximum;
+
+  FrequencyBoundedCache(int maximumSize) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+    }
+    this.maximumSize = maximumSize;
+    // 1% window, 80% of the main region is protected
+    windowMaximum = Math.max(1, maximumSize / 100);
+    protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+    sketch = new FrequencySketch(maximumSize);
+  }
+
+  @Override
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    Node<K, V> node = data.get(key);
+    if (node != null) {
+      afterRead(node);
+      return node.value;
+    }
+    // compute outside of the map to not block other keys, the function may be called concurrently
+    // for the same key and only the first value is kept
+    V value = mappingFunction.apply(key);
+    Node<K, V> newNode = new Node<>(key, value);
+    Node<K, V> existing = data.putIfAbsent(key, newNode);
+    if (existing != null) {
+      afterRead(existing);
+      return existing.value;
+    }
+    afterWrite(() -> onAdd(newNode));
+    return value;
+  }
+
+  @Nullable
+  @Override
+  public V get(K key) {
+    Node<K, V> node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    afterRead(node);
+    return node.value;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    Node<K, V> newNode = new Node<>(key, value);
+    Node<K, V> existing = data.putIfAbsent(key, newNode);
+    if (existing != null) {
+      existing.value = value;
+      afterRead(existing);
+      return;
+    }
+    afterWrite(() -> onAdd(newNode));
+  }
+
+  @Override
+  public void remove(K key) {
+    Node<K, V> node = data.remove(key);
+    if (node != null) {
+      node.retired = true;
+      afterWrite(() -> onRemove(node));
+    }
+  }
+
+  // visible for tests
+  int size() {
+    return data.size();
+  }
+
+  // visible for tests
+  ReentrantLock evictionLock() {
+    return evictionLock;
+  }
+
+  // visible for tests
+  void cleanUp() {
+    evictionLock.lock();
+    try {
+      maintenance();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void afterRead(Node<K, V> node) {
+    long writeCount = readBufferWriteCount.get();
+    long pending = writeCount - readBufferReadCount;
+    if (pending < READ_BUFFER_SIZE
+        && readBufferWriteCount.compareAndSet(writeCount, writeCount + 1)) {
+      readBuffer.lazySet((int) (writeCount & READ_BUFFER_MASK), node);
+    }
+    // when the buffer is full the access is dropped, the policy only needs a sample of the reads
+    if (pending >= READ_BUFFER_DRAIN_THRESHOLD && drainStatus.get() == IDLE) {
+      drainStatus.compareAndSet(IDLE, REQUIRED);
+      tryToDrain();
+    }
+  }
+
+  private void afterWrite(Runnable task) {
+    writeBuffer.add(task);
+    drainStatus.set(REQUIRED);
+    tryToDrain();
+  }
+
+  private void tryToDrain() {
+    // a thread that changes the status to REQUIRED while another thread holds the lock relies on
+    // that thread to drain again after releasing it
+    while (drainStatus.get() == REQUIRED && evictionLock.tryLock()) {
+      try {
+        drainStatus.set(PROCESSING);
+        maintenance();
+        drainStatus.compareAndSet(PROCESSING, IDLE);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+  }
+
+  private void maintenance() {
+    drainReadBuffer();
+    drainWriteBuffer();
+    evictEntries();
+  }
+
+  private void drainReadBuffer() {
+    long readCount = readBufferReadCount;
+    long writeCount = readBufferWriteCount.get();
+    for (; readCount < writeCount; readCount++) {
+      // the slot may still be empty if the reader has not stored the node yet, that access is lost
+      Node<K, V> node = readBuffer.getAndSet((int) (readCount & READ_BUFFER_MASK), null);
+      if (node != null) {
+        onAccess(node);
+      }
+    }
+    readBufferReadCount = readCount;
+  }
+
+  private void drainWriteBuffer() {
+    Runnable task;
+    while ((task = writeBuffer.poll()) != null) {
+      task.run();
+    }
+  }
+
+  private void onAdd(Node<K, V> node) {
+    sketch.increment(node.key);
+    if (node.retired || node.segment != null) {
+      // removed before it was added to the policy
+      return;
+    }
+    window.addLast(node);
+  }
+
+  private void onRemove(Node<K, V> node) {
+    // the node may have been evicted already
+    AccessOrderDeque<K, V> segment = node.segment;
+    if (segment != null) {
+      segment.remove(node);
+    }
+  }
+
+  private void onAccess(Node<K, V> node) {
+    sketch.increment(node.key);
+    AccessOrderDeque<K, V> segment = node.segment;
+    if (segment == window || segment == protectedSegment) {
+      segment.moveToBack(node);
+    } else if (segment == probation) {
+      probation.remove(node);
+      protectedSegment.addLast(node);
+      // demote the least recently used protected entries
+      while (protectedSegment.size > protectedMaximum) {
+        Node<K, V> demoted = protectedSegment.first();
+        protectedSegment.remove(demoted);
+        probation.addLast(demoted);
+      }
+    }
+    // otherwise the node has already been removed or not been added yet
+  }
+
+  private void evictEntries() {
+    // entries leaving the window become candidates for the main region, added to the back of the
+    // probation segment
+    int candidates = 0;
+    while (window.size > windowMaximum) {
+      Node<K, V> node = window.first();
+      window.remove(node);
+      probation.addLast(node);
+      candidates++;
+    }
+
+    // like Caffeine's evictFromMain(), the candidates are compared from the most recently added
+    // one towards the older ones with the victims from the front of the probation segment
+    Node<K, V> victim = probation.first();
+    Node<K, V> candidate = candidates > 0 ? probation.last() : null;
+    while (window.size + probation.size + protectedSegment.size > maximumSize) {
+      if (candidates <= 0) {
+        candidate = null;
+      }
+      Node<K, V> evicted;
+      if (candidate == null) {
+        if (victim != null) {
+          evicted = victim;
+          victim = victim.next;
+        } else {
+          // the probation segment is exhausted
+          evicted = protectedSegment.first();
+          if (evicted == null) {
+            evicted = window.first();
+          }
+          if (evicted == null) {
+            break;
+          }
+        }
+      } else if (victim == null || victim == candidate) {
+        // the victims have reached the candidates, the entries after this one have been admitted
+        evicted = candidate;
+        victim = candidate.next;
+        candidate = null;
+        candidates = 0;
+      } else {
+        candidates--;
+        // the candidate is only admitted when it is used more often than the victim
+        if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+          evicted = victim;
+          victim = victim.next;
+        } else {
+          evicted = candidate;
+        }
+        candidate = candidate.previous;
+      }
+      if (candidate == evicted) {
+        // the victim that was evicted directly preceded the candidate
+        candidate = null;
+        candidates = 0;
+      }
+      evict(evicted);
+    }
+  }
+
+  private void evict(Node<K, V> node) {
+    AccessOrderDeque<K, V> segment = node.segment;
+    if (segment != null) {
+      segment.remove(node);
+    }
+    node.retired = true;
+    data.remove(node.key, node);
+  }
+
+  private static final class Node<K, V> {
+    final K key;
+    volatile V value;
+    // set when the node is no longer in the map
+    volatile boolean retired;
+
+    // guarded by the eviction lock
+    @Nullable AccessOrderDeque<K, V> segment;
+    @Nullable Node<K, V> previous;
+    @Nullable Node<K, V> next;
+
+    Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /** A doubly linked list of nodes, ordered from least to most recently used. */
+  private static final class AccessOrderDeque<K, V> {
+    @Nullable private Node<K, V> head;
+    @Nullable private Node<K, V> tail;
+    int size;
+
+    @Nullable
+    Node<K, V> first() {
+      return head;
+    }
+
+    @Nullable
+    Node<K, V> last() {
+      return tail;
+    }
+
+    void addLast(Node<K, V> node) {
+      node.segment = this;
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      size++;
+    }
+
+    void remove(Node<K, V> node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.segment = null;
+      node.previous = null;
+      node.next = null;
+      size--;
+    }
+
+    void moveToBack(Node<K, V> node) {
+      if (node != tail) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal.cache;
+
+/**
+ * A probabilistic estimate of how often keys were accessed recently, used by {@link
+ * FrequencyBoundedCache} to decide whether a new entry should replace an existing one.
+ *
+ * <p>This is a count-min sketch with four 4-bit counters per key, packed sixteen to a {@code
+ * long}. Once the number of recorded accesses reaches ten times the maximum cache size all
+ * counters are halved, so that the estimate follows changes in the access pattern.
+ *
+ * <p>This class is not thread safe, it is only accessed while holding the cache's eviction lock.
+ */
+final class FrequencySketch {
+
+  // seeds of the four hash functions
+  private static final long[] SEED = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int maximumSize) {
+    int capacity = ceilingPowerOfTwo(Math.max(maximumSize, 8));
+    table = new long[capacity];
+    tableMask = capacity - 1;
+    sampleSize = (int) Math.min(10L * Math.max(maximumSize, 1), Integer.MAX_VALUE);
+  }
+
+  /** Returns the estimated number of recent accesses of the key, at most 15. */
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /** Records an access of the key. */
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  // increments the j-th 4-bit counter of table[i] unless it has reached its maximum value
+  private boolean incrementAt(int i, int j) {
+    int offset = j << 2;
+    long mask = 0xfL << offset;
+    if ((table[i] & mask) != mask) {
+      table[i] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  // halves all counters
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long result = (hash + SEED[i]) * SEED[i];
+    result += result >>> 32;
+    return ((int) result) & tableMask;
+  }
+
+  // protects against keys with poor hash codes
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    return value >= (1 << 30) ? 1 << 30 : 1 << -Integer.numberOfLeadingZeros(value - 1);
+  }
+}
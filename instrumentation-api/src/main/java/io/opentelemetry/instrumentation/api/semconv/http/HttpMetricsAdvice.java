@@ -32,38 +32,44 @@ final class HttpMetricsAdvice {
   // copied from UrlIncubatingAttributes
   private static final AttributeKey<String> URL_TEMPLATE = stringKey("url.template");
 
+  // the attributes of the http.client.request.duration metric
+  static final List<AttributeKey<?>> CLIENT_DURATION_ATTRIBUTES =
+      unmodifiableList(
+          asList(
+              HTTP_REQUEST_METHOD,
+              HTTP_RESPONSE_STATUS_CODE,
+              ERROR_TYPE,
+              NETWORK_PROTOCOL_NAME,
+              NETWORK_PROTOCOL_VERSION,
+              SERVER_ADDRESS,
+              SERVER_PORT,
+              // we only add url.template when experimental http client telemetry is enabled
+              URL_TEMPLATE));
+
+  // the attributes of the http.server.request.duration metric
+  static final List<AttributeKey<?>> SERVER_DURATION_ATTRIBUTES =
+      unmodifiableList(
+          asList(
+              HTTP_ROUTE,
+              HTTP_REQUEST_METHOD,
+              HTTP_RESPONSE_STATUS_CODE,
+              ERROR_TYPE,
+              NETWORK_PROTOCOL_NAME,
+              NETWORK_PROTOCOL_VERSION,
+              URL_SCHEME));
+
   static void applyClientDurationAdvice(DoubleHistogramBuilder builder) {
     if (!(builder instanceof ExtendedDoubleHistogramBuilder)) {
       return;
     }
-    ((ExtendedDoubleHistogramBuilder) builder)
-        .setAttributesAdvice(
-            asList(
-                HTTP_REQUEST_METHOD,
-                HTTP_RESPONSE_STATUS_CODE,
-                ERROR_TYPE,
-                NETWORK_PROTOCOL_NAME,
-                NETWORK_PROTOCOL_VERSION,
-                SERVER_ADDRESS,
-                SERVER_PORT,
-                // we only add url.template when experimental http client telemetry is enabled
-                URL_TEMPLATE));
+    ((ExtendedDoubleHistogramBuilder) builder).setAttributesAdvice(CLIENT_DURATION_ATTRIBUTES);
   }
 
   static void applyServerDurationAdvice(DoubleHistogramBuilder builder) {
     if (!(builder instanceof ExtendedDoubleHistogramBuilder)) {
       return;
     }
-    ((ExtendedDoubleHistogramBuilder) builder)
-        .setAttributesAdvice(
-            asList(
-                HTTP_ROUTE,
-                HTTP_REQUEST_METHOD,
-                HTTP_RESPONSE_STATUS_CODE,
-                ERROR_TYPE,
-                NETWORK_PROTOCOL_NAME,
-                NETWORK_PROTOCOL_VERSION,
-                URL_SCHEME));
+    ((ExtendedDoubleHistogramBuilder) builder).setAttributesAdvice(SERVER_DURATION_ATTRIBUTES);
   }
 
   private HttpMetricsAdvice() {}
@@ -0,0 +1,125 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.http;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+
+/**
+ * Interns the attributes that a metric is recorded with, after filtering them down to the
+ * attributes of the metric. Since the metric attributes have a low cardinality (e.g. route, method
+ * and status code), the same few attribute sets are recorded over and over again. Reusing them
+ * saves building a new {@link Attributes} instance for each request and lets the SDK reuse their
+ * cached hash code when looking up the aggregation.
+ *
+ * <p>The cache is a fixed-size open addressing table, looking up an attribute set only reads the
+ * attribute values and does not allocate. When all slots that an attribute set may be stored in
+ * are taken, one of them is replaced, so the table never grows.
+ *
+ * <p>This is opt-in, because attributes that are not part of the metric are dropped before the SDK
+ * sees them, which breaks metric views that select additional attributes.
+ */
+final class InternedMetricAttributes {
+
+  private static final int CAPACITY = 4096;
+  private static final int MAX_PROBES = 4;
+
+  static boolean isEnabled() {
+    return ConfigPropertiesUtil.getBoolean(
+        "otel.instrumentation.http.metrics.experimental.intern-attributes", false);
+  }
+
+  private final AttributeKey<?>[] keys;
+  private final AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(CAPACITY);
+
+  InternedMetricAttributes(List<AttributeKey<?>> keys) {
+    this.keys = keys.toArray(new AttributeKey<?>[0]);
+  }
+
+  /**
+   * Returns the metric attributes of an operation, values from the end attributes take precedence.
+   */
+  Attributes get(Attributes startAttributes, Attributes endAttributes) {
+    int hash = hash(startAttributes, endAttributes);
+    int index = hash & (CAPACITY - 1);
+    int emptyIndex = -1;
+    for (int i = 0; i < MAX_PROBES; i++) {
+      int probe = (index + i) & (CAPACITY - 1);
+      Entry entry = table.get(probe);
+      if (entry == null) {
+        emptyIndex = probe;
+        // entries are never removed, so the attribute set is not in the table
+        break;
+      }
+      if (entry.hash == hash && entry.matches(keys, startAttributes, endAttributes)) {
+        return entry.attributes;
+      }
+    }
+
+    Entry entry = createEntry(hash, startAttributes, endAttributes);
+    // when all probed slots are taken, replace the first one
+    table.set(emptyIndex >= 0 ? emptyIndex : index, entry);
+    return entry.attributes;
+  }
+
+  private int hash(Attributes startAttributes, Attributes endAttributes) {
+    int hash = 1;
+    for (AttributeKey<?> key : keys) {
+      Object value = value(key, startAttributes, endAttributes);
+      hash = 31 * hash + (value == null ? 0 : value.hashCode());
+    }
+    return hash ^ (hash >>> 16);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // the value has the type of the key
+  private Entry createEntry(int hash, Attributes startAttributes, Attributes endAttributes) {
+    Object[] values = new Object[keys.length];
+    AttributesBuilder builder = Attributes.builder();
+    for (int i = 0; i < keys.length; i++) {
+      Object value = value(keys[i], startAttributes, endAttributes);
+      values[i] = value;
+      if (value != null) {
+        builder.put((AttributeKey) keys[i], value);
+      }
+    }
+    return new Entry(hash, values, builder.build());
+  }
+
+  @Nullable
+  private static Object value(
+      AttributeKey<?> key, Attributes startAttributes, Attributes endAttributes) {
+    Object value = endAttributes.get(key);
+    return value != null ? value : startAttributes.get(key);
+  }
+
+  private static final class Entry {
+    final int hash;
+    final Object[] values;
+    final Attributes attributes;
+
+    Entry(int hash, Object[] values, Attributes attributes) {
+      this.hash = hash;
+      this.values = values;
+      this.attributes = attributes;
+    }
+
+    boolean matches(AttributeKey<?>[] keys, Attributes startAttributes, Attributes endAttributes) {
+      for (int i = 0; i < keys.length; i++) {
+        Object value = value(keys[i], startAttributes, endAttributes);
+        Object expected = values[i];
+        if (expected == null ? value != null : !expected.equals(value)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -567,6 +567,68 @@ class InstrumenterTest {
         .containsEntry("resp3", "resp3_value");
   }
 
+  @Test
+  void operationListenerAttributesAreNotSeenByContextCustomizers() {
+    AtomicReference<Attributes> customizerAttributes = new AtomicReference<>();
+    AtomicReference<Attributes> listenerAttributes = new AtomicReference<>();
+
+    OperationListener operationListener =
+        new OperationListener() {
+          @Override
+          public Context onStart(Context context, Attributes startAttributes, long startNanos) {
+            listenerAttributes.set(startAttributes);
+            return context;
+          }
+
+          @Override
+          public void onEnd(Context context, Attributes endAttributes, long endNanos) {}
+        };
+
+    InstrumenterBuilder<Map<String, String>, Map<String, String>> builder =
+        Instrumenter.<Map<String, String>, Map<String, String>>builder(
+                otelTesting.getOpenTelemetry(), "test", unused -> "span")
+            .addOperationListener(operationListener)
+            .addAttributesExtractor(new AttributesExtractor1())
+            .addContextCustomizer(
+                (context, request, attributes) -> {
+                  customizerAttributes.set(attributes);
+                  return context;
+                });
+    Experimental.addOperationListenerAttributesExtractor(builder, new AttributesExtractor2());
+    Instrumenter<Map<String, String>, Map<String, String>> instrumenter =
+        builder.buildServerInstrumenter(new MapGetter());
+
+    Context context = instrumenter.start(Context.root(), REQUEST);
+    instrumenter.end(context, REQUEST, RESPONSE, null);
+
+    assertThat(customizerAttributes.get())
+        .hasSize(2)
+        .containsEntry("req1", "req1_value")
+        .containsEntry("req2", "req2_value");
+    assertThat(listenerAttributes.get())
+        .hasSize(3)
+        .containsEntry("req1", "req1_value")
+        .containsEntry("req2", "req2_2_value")
+        .containsEntry("req3", "req3_value");
+  }
+
+  @Test
+  void attributesSizeEstimateFollowsRecentSizes() {
+    int average = Instrumenter.updateSizeAverage(8 << 4, 8);
+    assertThat(Instrumenter.sizeHint(average)).isEqualTo(8);
+
+    for (int i = 0; i < 100; i++) {
+      average = Instrumenter.updateSizeAverage(average, 40);
+    }
+    assertThat(Instrumenter.sizeHint(average)).isEqualTo(40);
+
+    // a burst of large operations does not keep the estimate high
+    for (int i = 0; i < 100; i++) {
+      average = Instrumenter.updateSizeAverage(average, 4);
+    }
+    assertThat(Instrumenter.sizeHint(average)).isEqualTo(4);
+  }
+
   @Test
   void shouldNotAddInvalidLink() {
     // given
@@ -9,8 +9,13 @@ import static io.opentelemetry.api.common.AttributeKey.longKey;
 import static io.opentelemetry.api.common.AttributeKey.stringKey;
 import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
 import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.attributeEntry;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
 
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
 import org.junit.jupiter.api.Test;
 
 class UnsafeAttributesTest {
@@ -84,4 +89,78 @@ class UnsafeAttributesTest {
             attributeEntry("lives", 9L),
             attributeEntry("clothes", "fur"));
   }
+
+  @Test
+  void growsBeyondExpectedSize() {
+    UnsafeAttributes attributes = new UnsafeAttributes(1);
+    for (int i = 0; i < 20; i++) {
+      attributes.put("key" + i, i);
+    }
+    // Overwrites
+    attributes.put(stringKey("key0"), "changed");
+    attributes.put(longKey("key1"), (Long) null);
+
+    assertThat(attributes.size()).isEqualTo(21);
+    assertThat(attributes.get(stringKey("key0"))).isEqualTo("changed");
+    assertThat(attributes.get(longKey("key0"))).isEqualTo(0L);
+    assertThat(attributes.get(longKey("key19"))).isEqualTo(19L);
+    assertThat(attributes.asMap())
+        .hasSize(21)
+        .containsEntry(longKey("key1"), 1L)
+        .containsEntry(stringKey("key0"), "changed");
+
+    attributes.removeIf(key -> key.getKey().startsWith("key1"));
+    assertThat(attributes.size()).isEqualTo(10);
+    assertThat(attributes.get(longKey("key1"))).isNull();
+    assertThat(attributes.get(longKey("key2"))).isEqualTo(2L);
+  }
+
+  @Test
+  void equalsByContent() {
+    UnsafeAttributes attributes = new UnsafeAttributes();
+    attributes.put("method", "GET").put("status", 200L);
+    UnsafeAttributes sameInOtherOrder = new UnsafeAttributes(1);
+    sameInOtherOrder.put("status", 200L).put("method", "GET");
+    UnsafeAttributes other = new UnsafeAttributes();
+    other.put("method", "POST").put("status", 200L);
+
+    assertThat((Attributes) attributes)
+        .isEqualTo(sameInOtherOrder)
+        .hasSameHashCodeAs(sameInOtherOrder)
+        .isNotEqualTo(other)
+        .isNotEqualTo(new UnsafeAttributes().put("method", "GET"));
+    // other implementations don't accept UnsafeAttributes, keep equals symmetric
+    assertThat((Object) attributes).isNotEqualTo(attributes.build());
+  }
+
+  @Test
+  void equalAttributesRecordedInSameMetricPoint() {
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    try (SdkMeterProvider meterProvider =
+        SdkMeterProvider.builder().registerMetricReader(metricReader).build()) {
+      LongUpDownCounter activeRequests =
+          meterProvider.get("test").upDownCounterBuilder("active.requests").build();
+
+      for (int i = 0; i < 3; i++) {
+        UnsafeAttributes startAttributes = new UnsafeAttributes();
+        startAttributes.put("method", "GET").put("scheme", "https");
+        activeRequests.add(1, startAttributes, Context.root());
+      }
+
+      assertThat(metricReader.collectAllMetrics())
+          .satisfiesExactly(
+              metric ->
+                  assertThat(metric)
+                      .hasName("active.requests")
+                      .hasLongSumSatisfying(
+                          sum ->
+                              sum.hasPointsSatisfying(
+                                  point ->
+                                      point
+                                          .hasValue(3)
+                                          .hasAttributesSatisfyingExactly(
+                                              equalTo(stringKey("method"), "GET"),
+                                              equalTo(stringKey("scheme"), "https")))));
+    }
+  }
 }
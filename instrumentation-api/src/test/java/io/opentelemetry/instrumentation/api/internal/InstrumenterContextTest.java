@@ -0,0 +1,183 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class InstrumenterContextTest {
+  private static final InstrumenterContext.Key<String> KEY = InstrumenterContext.key("test");
+  private static final InstrumenterContext.Key<String> OTHER_KEY =
+      InstrumenterContext.key("other");
+
+  @Test
+  void computesOncePerCall() {
+    AtomicInteger calls = new AtomicInteger();
+
+    InstrumenterContext context = InstrumenterContext.enter();
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "value" + calls.incrementAndGet()))
+        .isEqualTo("value1");
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "value" + calls.incrementAndGet()))
+        .isEqualTo("value1");
+    assertThat(InstrumenterContext.computeIfAbsent(OTHER_KEY, key -> "other")).isEqualTo("other");
+    assertThat(InstrumenterContext.get(KEY)).isEqualTo("value1");
+    InstrumenterContext.exit(context);
+
+    assertThat(InstrumenterContext.get(KEY)).isNull();
+    assertThat(InstrumenterContext.get(OTHER_KEY)).isNull();
+
+    context = InstrumenterContext.enter();
+    assertThat(InstrumenterContext.get(KEY)).isNull();
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "value" + calls.incrementAndGet()))
+        .isEqualTo("value2");
+    InstrumenterContext.exit(context);
+  }
+
+  @Test
+  void computesEveryCallOutsideOfContext() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "value" + calls.incrementAndGet()))
+        .isEqualTo("value1");
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "value" + calls.incrementAndGet()))
+        .isEqualTo("value2");
+    assertThat(InstrumenterContext.get(KEY)).isNull();
+    assertThat(InstrumenterContext.isEntered()).isFalse();
+  }
+
+  @Test
+  void stringKeys() {
+    AtomicInteger calls = new AtomicInteger();
+
+    InstrumenterContext context = InstrumenterContext.enter();
+    assertThat(InstrumenterContext.computeIfAbsent("named", key -> key + calls.incrementAndGet()))
+        .isEqualTo("named1");
+    assertThat(InstrumenterContext.computeIfAbsent("named", key -> key + calls.incrementAndGet()))
+        .isEqualTo("named1");
+    assertThat(InstrumenterContext.computeIfAbsent("other-named", key -> key))
+        .isEqualTo("other-named");
+    InstrumenterContext.exit(context);
+  }
+
+  @Test
+  void nullValuesAreNotStored() {
+    AtomicInteger calls = new AtomicInteger();
+
+    InstrumenterContext context = InstrumenterContext.enter();
+    InstrumenterContext.computeIfAbsent(
+        KEY,
+        key -> {
+          calls.incrementAndGet();
+          return null;
+        });
+    InstrumenterContext.computeIfAbsent(
+        KEY,
+        key -> {
+          calls.incrementAndGet();
+          return null;
+        });
+    InstrumenterContext.exit(context);
+
+    assertThat(calls).hasValue(2);
+  }
+
+  @Test
+  void keysCreatedLater() {
+    InstrumenterContext context = InstrumenterContext.enter();
+    InstrumenterContext.computeIfAbsent(KEY, key -> "value");
+    // keys created after the slots were allocated grow the slot array
+    InstrumenterContext.Key<String> lateKey = InstrumenterContext.key("late");
+    for (int i = 0; i < 10; i++) {
+      InstrumenterContext.key("padding" + i);
+    }
+    InstrumenterContext.Key<String> laterKey = InstrumenterContext.key("later");
+
+    assertThat(InstrumenterContext.computeIfAbsent(laterKey, key -> "later")).isEqualTo("later");
+    assertThat(InstrumenterContext.computeIfAbsent(lateKey, key -> "late")).isEqualTo("late");
+    assertThat(InstrumenterContext.get(KEY)).isEqualTo("value");
+    InstrumenterContext.exit(context);
+  }
+
+  @Test
+  void nestedContextHidesOuter() {
+    InstrumenterContext outer = InstrumenterContext.enter();
+    InstrumenterContext.computeIfAbsent(KEY, key -> "outer");
+
+    InstrumenterContext inner = InstrumenterContext.enter();
+    assertThat(InstrumenterContext.get(KEY)).isNull();
+    assertThat(InstrumenterContext.computeIfAbsent(KEY, key -> "inner")).isEqualTo("inner");
+    InstrumenterContext.exit(inner);
+
+    assertThat(InstrumenterContext.get(KEY)).isEqualTo("outer");
+    InstrumenterContext.exit(outer);
+    assertThat(InstrumenterContext.isEntered()).isFalse();
+  }
+
+  @Test
+  void nothingRetainedByPooledThreadAfterExit() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor
+          .submit(
+              () -> {
+                InstrumenterContext context = InstrumenterContext.enter();
+                InstrumenterContext.computeIfAbsent(KEY, key -> "value");
+                InstrumenterContext.exit(context);
+              })
+          .get();
+
+      // the next task on the same pooled thread sees neither the context nor its values
+      assertThat(executor.submit(InstrumenterContext::isEntered).get()).isFalse();
+      assertThat(executor.submit(() -> InstrumenterContext.get(KEY)).get()).isNull();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void concurrentContextsAreIsolated() throws Exception {
+    // far more threads than would fit in any small shared table, every one of them gets its own
+    // context
+    int threads = 64;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch entered = new CountDownLatch(threads);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        String value = "value" + i;
+        results.add(
+            executor.submit(
+                () -> {
+                  InstrumenterContext context = InstrumenterContext.enter();
+                  try {
+                    InstrumenterContext.computeIfAbsent(KEY, key -> value);
+                    // all threads are entered at the same time
+                    entered.countDown();
+                    entered.await(10, TimeUnit.SECONDS);
+                    assertThat(InstrumenterContext.isEntered()).isTrue();
+                    return InstrumenterContext.computeIfAbsent(KEY, key -> "other");
+                  } finally {
+                    InstrumenterContext.exit(context);
+                  }
+                }));
+      }
+      for (int i = 0; i < threads; i++) {
+        assertThat(results.get(i).get()).isEqualTo("value" + i);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
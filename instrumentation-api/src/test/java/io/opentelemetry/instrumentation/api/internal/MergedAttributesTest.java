@@ -0,0 +1,101 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.internal;
+
+import static io.opentelemetry.api.common.AttributeKey.longKey;
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MergedAttributesTest {
+
+  private static final AttributeKey<String> METHOD = stringKey("http.request.method");
+  private static final AttributeKey<String> ROUTE = stringKey("http.route");
+  private static final AttributeKey<Long> STATUS = longKey("http.response.status_code");
+
+  @Test
+  void secondTakesPrecedence() {
+    Attributes start = Attributes.of(METHOD, "GET", ROUTE, "/start");
+    Attributes end = Attributes.of(ROUTE, "/users/{id}", STATUS, 200L);
+
+    Attributes merged = MergedAttributes.merge(start, end);
+
+    Attributes expected =
+        Attributes.builder().put(METHOD, "GET").put(ROUTE, "/users/{id}").put(STATUS, 200L).build();
+    assertThat(merged.get(METHOD)).isEqualTo("GET");
+    assertThat(merged.get(ROUTE)).isEqualTo("/users/{id}");
+    assertThat(merged.get(STATUS)).isEqualTo(200L);
+    assertThat(merged.size()).isEqualTo(3);
+    assertThat(merged.isEmpty()).isFalse();
+    assertThat(merged.asMap()).isEqualTo(expected.asMap());
+    assertThat(merged.toBuilder().build()).isEqualTo(expected);
+
+    Map<AttributeKey<?>, Object> visited = new HashMap<>();
+    merged.forEach(
+        (key, value) -> assertThat(visited.put(key, value)).as("visited once: " + key).isNull());
+    assertThat(visited).isEqualTo(expected.asMap());
+  }
+
+  @Test
+  void equalViewsAreInterchangeable() {
+    Attributes first =
+        MergedAttributes.merge(Attributes.of(METHOD, "GET"), Attributes.of(STATUS, 200L));
+    Attributes second =
+        MergedAttributes.merge(
+            Attributes.of(METHOD, "GET", STATUS, 500L), Attributes.of(STATUS, 200L));
+
+    assertThat(first).isEqualTo(second);
+    assertThat(first.hashCode()).isEqualTo(second.hashCode());
+  }
+
+  @Test
+  void notEqualToOtherImplementations() {
+    Attributes attributes = Attributes.of(METHOD, "GET", STATUS, 200L);
+    Attributes merged =
+        MergedAttributes.merge(Attributes.of(METHOD, "GET"), Attributes.of(STATUS, 200L));
+
+    // equals() must be symmetric, and the attributes built by the api only equal their own kind
+    assertThat(attributes).isNotEqualTo(merged);
+    assertThat(merged).isNotEqualTo(attributes);
+    assertThat(merged.asMap()).isEqualTo(attributes.asMap());
+  }
+
+  @Test
+  void keysWithSameNameAndDifferentType() {
+    AttributeKey<Long> routeAsLong = longKey(ROUTE.getKey());
+    Attributes merged =
+        MergedAttributes.merge(
+            Attributes.of(ROUTE, "/start", METHOD, "GET"),
+            Attributes.of(routeAsLong, 1L, stringKey("a"), "first", stringKey("z"), "last"));
+
+    Map<AttributeKey<?>, Object> visited = new HashMap<>();
+    merged.forEach((key, value) -> visited.put(key, value));
+    assertThat(visited)
+        .containsEntry(ROUTE, "/start")
+        .containsEntry(routeAsLong, 1L)
+        .containsEntry(METHOD, "GET")
+        .hasSize(5);
+    assertThat(merged.size()).isEqualTo(5);
+  }
+
+  @Test
+  void emptyAttributes() {
+    Attributes attributes = Attributes.of(METHOD, "GET");
+
+    assertThat(MergedAttributes.merge(attributes, Attributes.empty()).asMap())
+        .isEqualTo(attributes.asMap());
+    assertThat(MergedAttributes.merge(Attributes.empty(), attributes).asMap())
+        .isEqualTo(attributes.asMap());
+    assertThat(MergedAttributes.merge(Attributes.empty(), Attributes.empty()).isEmpty()).isTrue();
+    assertThat(MergedAttributes.merge(attributes, Attributes.empty()))
+        .isEqualTo(MergedAttributes.merge(Attributes.empty(), attributes));
+  }
+}
@@ -5,11 +5,20 @@
 
 package io.opentelemetry.instrumentation.api.internal;
 
-import static org.assertj.core.api.Assertions.assertThat;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
 
+import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 
 class SupportabilityMetricsTest {
@@ -22,9 +31,9 @@ class SupportabilityMetricsTest {
     metrics.recordSuppressedSpan(SpanKind.SERVER, "favoriteInstrumentation");
     metrics.recordSuppressedSpan(SpanKind.CLIENT, "favoriteInstrumentation");
     metrics.recordSuppressedSpan(SpanKind.INTERNAL, "otherInstrumentation");
-    metrics.incrementCounter("some counter");
-    metrics.incrementCounter("another counter");
-    metrics.incrementCounter("some counter");
+    metrics.incrementCounter("some.counter");
+    metrics.incrementCounter("another.counter");
+    metrics.incrementCounter("some.counter");
 
     metrics.report();
 
@@ -40,9 +49,9 @@ class SupportabilityMetricsTest {
     metrics.recordSuppressedSpan(SpanKind.SERVER, "favoriteInstrumentation");
     metrics.recordSuppressedSpan(SpanKind.CLIENT, "favoriteInstrumentation");
     metrics.recordSuppressedSpan(SpanKind.INTERNAL, "otherInstrumentation");
-    metrics.incrementCounter("some counter");
-    metrics.incrementCounter("another counter");
-    metrics.incrementCounter("some counter");
+    metrics.incrementCounter("some.counter");
+    metrics.incrementCounter("another.counter");
+    metrics.incrementCounter("some.counter");
 
     metrics.report();
 
@@ -51,8 +60,8 @@ class SupportabilityMetricsTest {
             "Suppressed Spans by 'favoriteInstrumentation' (CLIENT) : 2",
             "Suppressed Spans by 'favoriteInstrumentation' (SERVER) : 1",
             "Suppressed Spans by 'otherInstrumentation' (INTERNAL) : 1",
-            "Counter 'some counter' : 2",
-            "Counter 'another counter' : 1");
+            "Counter 'some.counter' : 2",
+            "Counter 'another.counter' : 1");
   }
 
   @Test
@@ -61,7 +70,7 @@ class SupportabilityMetricsTest {
     SupportabilityMetrics metrics = new SupportabilityMetrics(true, reports::add);
 
     metrics.recordSuppressedSpan(SpanKind.CLIENT, "favoriteInstrumentation");
-    metrics.incrementCounter("some counter");
+    metrics.incrementCounter("some.counter");
 
     metrics.report();
     metrics.report();
@@ -69,6 +78,115 @@ class SupportabilityMetricsTest {
     assertThat(reports)
         .containsExactlyInAnyOrder(
             "Suppressed Spans by 'favoriteInstrumentation' (CLIENT) : 1",
-            "Counter 'some counter' : 1");
+            "Counter 'some.counter' : 1");
+  }
+
+  @Test
+  void exportsMetrics() {
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    OpenTelemetrySdk openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+    List<String> reports = new ArrayList<>();
+    SupportabilityMetrics metrics = new SupportabilityMetrics(true, reports::add);
+    metrics.registerMetrics(openTelemetry);
+
+    SupportabilityMetrics.SuppressedSpanCounters suppressed =
+        metrics.suppressedSpanCounters("favoriteInstrumentation");
+    suppressed.record(SpanKind.CLIENT);
+    suppressed.record(SpanKind.CLIENT);
+    SupportabilityMetrics.Counter counter = metrics.counter("some.counter");
+    counter.increment();
+    // reporting the deltas to the log does not reset the exported totals
+    metrics.report();
+    counter.increment();
+
+    assertThat(metricReader.collectAllMetrics())
+        .satisfiesExactlyInAnyOrder(
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.suppressed_spans")
+                    .hasInstrumentationScope(
+                        InstrumentationScopeInfo.create(
+                            "io.opentelemetry.instrumentation.supportability"))
+                    .hasLongSumSatisfying(
+                        sum ->
+                            sum.isMonotonic()
+                                .hasPointsSatisfying(
+                                    point ->
+                                        point
+                                            .hasValue(2)
+                                            .hasAttributesSatisfyingExactly(
+                                                equalTo(
+                                                    AttributeKey.stringKey(
+                                                        "otel.instrumentation.name"),
+                                                    "favoriteInstrumentation"),
+                                                equalTo(
+                                                    AttributeKey.stringKey("otel.span.kind"),
+                                                    "client")))),
+            metric ->
+                assertThat(metric)
+                    .hasName("otel.instrumentation.internal_events")
+                    .hasLongSumSatisfying(
+                        sum ->
+                            sum.isMonotonic()
+                                .hasPointsSatisfying(
+                                    point ->
+                                        point
+                                            .hasValue(2)
+                                            .hasAttributesSatisfyingExactly(
+                                                equalTo(
+                                                    AttributeKey.stringKey("otel.counter.name"),
+                                                    "some.counter")))));
+  }
+
+  @Test
+  void stripesOnlyUnderContention() throws InterruptedException {
+    SupportabilityMetrics metrics = new SupportabilityMetrics(false, unused -> {});
+    SupportabilityMetrics.Counter counter = metrics.counter("some.counter");
+    for (int i = 0; i < 1000; i++) {
+      counter.increment();
+    }
+    assertThat(counter.sum()).isEqualTo(1000);
+    assertThat(counter.isStriped()).isFalse();
+
+    int threadCount = 4;
+    int increments = 100_000;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < threadCount; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  return;
+                }
+                for (int j = 0; j < increments; j++) {
+                  counter.increment();
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // no increments are lost whether or not the counter switched to striped cells
+    assertThat(counter.sum()).isEqualTo(1000 + (long) threadCount * increments);
+  }
+
+  @Test
+  void counterNamesAreSnakeCaseIdentifiers() throws IllegalAccessException {
+    Pattern pattern = Pattern.compile("[a-z][a-z0-9_]*(\\.[a-z][a-z0-9_]*)*");
+    for (Field field : SupportabilityMetrics.CounterNames.class.getFields()) {
+      String counterName = (String) field.get(null);
+      assertThat(pattern.matcher(counterName).matches()).as(counterName).isTrue();
+    }
   }
 }
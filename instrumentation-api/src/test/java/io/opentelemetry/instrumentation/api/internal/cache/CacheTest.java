@@ -5,9 +5,14 @@
 
 package io.opentelemetry.instrumentation.api.internal.cache;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.awaitility.Awaitility.await;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
@@ -35,6 +40,142 @@ class CacheTest {
       assertThat(mapBackedCache.size()).isEqualTo(1);
       assertThat(cache.computeIfAbsent("cat", unused -> "purr")).isEqualTo("purr");
     }
+
+    @Test
+    void weighted() {
+      List<String> evicted = new ArrayList<>();
+      Cache<String, String> cache =
+          Cache.weighted(
+              10, (key, value) -> key.length() + value.length(), (key, value) -> evicted.add(key));
+
+      assertThat(cache.computeIfAbsent("cat", unused -> "meow")).isEqualTo("meow");
+      assertThat(cache.computeIfAbsent("dog", unused -> "bark")).isEqualTo("bark");
+
+      MapBackedCache<?, ?> mapBackedCache = ((MapBackedCache<?, ?>) cache);
+      // 7 + 7 exceeds the maximum weight of 10, the least recently used entry is evicted
+      assertThat(mapBackedCache.size()).isEqualTo(1);
+      assertThat(cache.get("cat")).isNull();
+      assertThat(cache.get("dog")).isEqualTo("bark");
+      assertThat(evicted).containsExactly("cat");
+
+      cache.put("ox", "moo");
+      assertThat(mapBackedCache.size()).isEqualTo(1);
+      assertThat(cache.get("ox")).isEqualTo("moo");
+      assertThat(evicted).containsExactly("cat", "dog");
+    }
+  }
+
+  @Nested
+  @SuppressWarnings("ClassCanBeStatic")
+  class FrequencyBounded {
+    @Test
+    void basicOperations() {
+      Cache<String, String> cache = Cache.frequencyBounded(10);
+
+      assertThat(cache.computeIfAbsent("bear", unused -> "roar")).isEqualTo("roar");
+      assertThat(cache.computeIfAbsent("bear", unused -> "growl")).isEqualTo("roar");
+      cache.remove("bear");
+      assertThat(cache.get("bear")).isNull();
+
+      cache.put("dog", "bark");
+      cache.put("dog", "woof");
+      assertThat(cache.get("dog")).isEqualTo("woof");
+
+      FrequencyBoundedCache<?, ?> frequencyBoundedCache = (FrequencyBoundedCache<?, ?>) cache;
+      frequencyBoundedCache.cleanUp();
+      assertThat(frequencyBoundedCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void scanResistant() {
+      Cache<String, String> cache = Cache.frequencyBounded(100);
+      FrequencyBoundedCache<?, ?> frequencyBoundedCache = (FrequencyBoundedCache<?, ?>) cache;
+
+      for (int round = 0; round < 10; round++) {
+        for (int i = 0; i < 50; i++) {
+          cache.computeIfAbsent("hot" + i, key -> key);
+        }
+        frequencyBoundedCache.cleanUp();
+      }
+      // keys that are used only once must not flush out the frequently used keys
+      for (int i = 0; i < 10_000; i++) {
+        cache.computeIfAbsent("scan" + i, key -> key);
+        if (i % 1000 == 0) {
+          for (int j = 0; j < 50; j++) {
+            cache.get("hot" + j);
+          }
+          frequencyBoundedCache.cleanUp();
+        }
+      }
+      frequencyBoundedCache.cleanUp();
+
+      assertThat(frequencyBoundedCache.size()).isEqualTo(100);
+      for (int i = 0; i < 50; i++) {
+        assertThat(cache.get("hot" + i)).isEqualTo("hot" + i);
+      }
+    }
+
+    @Test
+    void everyCandidateFacesVictim() throws Exception {
+      FrequencyBoundedCache<String, String> cache = new FrequencyBoundedCache<>(100);
+      // "hot" is used often before it is added again
+      for (int i = 0; i < 10; i++) {
+        cache.put("hot", "hot");
+        cache.get("hot");
+        cache.cleanUp();
+      }
+      cache.remove("hot");
+      // the entries in the main region have been added twice
+      for (int i = 0; i < 100; i++) {
+        cache.put("cold" + i, "cold");
+      }
+      for (int i = 0; i < 100; i++) {
+        cache.remove("cold" + i);
+      }
+      cache.cleanUp();
+      for (int i = 0; i < 100; i++) {
+        cache.put("cold" + i, "cold");
+      }
+      cache.cleanUp();
+      assertThat(cache.size()).isEqualTo(100);
+
+      // several entries leave the window in the same drain, the most recent one is "hot"
+      ReentrantLock evictionLock = cache.evictionLock();
+      CountDownLatch locked = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      Thread lockHolder =
+          new Thread(
+              () -> {
+                evictionLock.lock();
+                try {
+                  locked.countDown();
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                } finally {
+                  evictionLock.unlock();
+                }
+              });
+      lockHolder.start();
+      locked.await();
+      for (String key : asList("new1", "new2", "new3", "hot", "last")) {
+        cache.put(key, key);
+      }
+      release.countDown();
+      lockHolder.join();
+      cache.cleanUp();
+
+      assertThat(cache.size()).isEqualTo(100);
+      // "hot" is admitted in place of the first victim, the candidates before it are used less
+      // often than the next victim and must not be admitted along with it
+      assertThat(cache.get("hot")).isEqualTo("hot");
+      assertThat(cache.get("cold0")).isNull();
+      assertThat(cache.get("cold1")).isEqualTo("cold");
+      assertThat(cache.get("new1")).isNull();
+      assertThat(cache.get("new2")).isNull();
+      assertThat(cache.get("new3")).isNull();
+      assertThat(cache.get("last")).isEqualTo("last");
+    }
   }
 
   @Nested
@@ -0,0 +1,71 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.api.semconv.http;
+
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_REQUEST_METHOD;
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_RESPONSE_STATUS_CODE;
+import static io.opentelemetry.semconv.HttpAttributes.HTTP_ROUTE;
+import static io.opentelemetry.semconv.UrlAttributes.URL_PATH;
+import static io.opentelemetry.semconv.UrlAttributes.URL_SCHEME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.Attributes;
+import org.junit.jupiter.api.Test;
+
+class InternedMetricAttributesTest {
+
+  private final InternedMetricAttributes interned =
+      new InternedMetricAttributes(HttpMetricsAdvice.SERVER_DURATION_ATTRIBUTES);
+
+  @Test
+  void filtersAndInterns() {
+    Attributes start =
+        Attributes.builder()
+            .put(HTTP_REQUEST_METHOD, "GET")
+            .put(URL_SCHEME, "https")
+            .put(URL_PATH, "/users/123")
+            .build();
+    Attributes end =
+        Attributes.builder()
+            .put(HTTP_ROUTE, "/users/{id}")
+            .put(HTTP_RESPONSE_STATUS_CODE, 200L)
+            .build();
+
+    Attributes attributes = interned.get(start, end);
+
+    assertThat(attributes)
+        .isEqualTo(
+            Attributes.builder()
+                .put(HTTP_REQUEST_METHOD, "GET")
+                .put(URL_SCHEME, "https")
+                .put(HTTP_ROUTE, "/users/{id}")
+                .put(HTTP_RESPONSE_STATUS_CODE, 200L)
+                .build());
+    // attributes that are not part of the metric do not affect the interned instance
+    Attributes otherStart = start.toBuilder().put(URL_PATH, "/users/456").build();
+    assertThat(interned.get(otherStart, end)).isSameAs(attributes);
+  }
+
+  @Test
+  void endAttributesTakePrecedence() {
+    Attributes start = Attributes.of(HTTP_REQUEST_METHOD, "GET", HTTP_ROUTE, "/users");
+    Attributes end = Attributes.of(HTTP_ROUTE, "/users/{id}");
+
+    assertThat(interned.get(start, end).get(HTTP_ROUTE)).isEqualTo("/users/{id}");
+    assertThat(interned.get(start, Attributes.empty()).get(HTTP_ROUTE)).isEqualTo("/users");
+  }
+
+  @Test
+  void boundedSize() {
+    Attributes end = Attributes.of(HTTP_RESPONSE_STATUS_CODE, 200L);
+    for (int i = 0; i < 100_000; i++) {
+      Attributes start = Attributes.of(HTTP_ROUTE, "/route" + i);
+      assertThat(interned.get(start, end).get(HTTP_ROUTE)).isEqualTo("/route" + i);
+    }
+    Attributes start = Attributes.of(HTTP_ROUTE, "/route99999");
+    assertThat(interned.get(start, end)).isSameAs(interned.get(start, end));
+  }
+}
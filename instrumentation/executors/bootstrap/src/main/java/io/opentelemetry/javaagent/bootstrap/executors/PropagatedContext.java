@@ -5,9 +5,11 @@
 
 package io.opentelemetry.javaagent.bootstrap.executors;
 
+import static io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics.CounterNames.CONTEXT_PROPAGATION_DROP;
 import static java.util.logging.Level.FINE;
 
 import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -16,6 +18,8 @@ import javax.annotation.Nullable;
 public final class PropagatedContext {
 
   private static final Logger logger = Logger.getLogger(PropagatedContext.class.getName());
+  private static final SupportabilityMetrics.Counter droppedContexts =
+      SupportabilityMetrics.instance().counter(CONTEXT_PROPAGATION_DROP);
 
   private static final AtomicReferenceFieldUpdater<PropagatedContext, Context> contextUpdater =
       AtomicReferenceFieldUpdater.newUpdater(PropagatedContext.class, Context.class, "context");
@@ -31,6 +35,9 @@ public final class PropagatedContext {
     boolean result = contextUpdater.compareAndSet(this, null, context);
     if (!result) {
       Context currentPropagatedContext = contextUpdater.get(this);
+      if (currentPropagatedContext != context) {
+        droppedContexts.increment();
+      }
       if (currentPropagatedContext != context && logger.isLoggable(FINE)) {
         logger.log(
             FINE,
@@ -15,7 +15,9 @@ public final class TaskAdviceHelper {
 
   /**
    * Make the {@link PropagatedContext} associated with this {@code task} current and return the
-   * resulting scope. Will return {@code null} if there's no context attached to this {@code task}.
+   * resulting scope. Will return {@code null} if there's no context attached to this {@code task},
+   * or if the attached context is already current, e.g. when a {@link
+   * java.util.concurrent.ForkJoinTask} is run by the thread that forked it while joining.
    */
   @Nullable
   public static <T> Scope makePropagatedContextCurrent(
@@ -25,7 +27,7 @@ public final class TaskAdviceHelper {
       // setting the field to null removes it from the fallback map
       virtualField.set(task, null);
       Context context = propagatedContext.getAndClear();
-      if (context != null) {
+      if (context != null && context != Context.current()) {
         return context.makeCurrent();
       }
     }
@@ -12,6 +12,7 @@ import static net.bytebuddy.matcher.ElementMatchers.takesArgument;
 
 import io.opentelemetry.context.Context;
 import io.opentelemetry.javaagent.bootstrap.Java8BytecodeBridge;
+import io.opentelemetry.javaagent.bootstrap.ScopedValueContextStorage;
 import io.opentelemetry.javaagent.bootstrap.executors.ExecutorAdviceHelper;
 import io.opentelemetry.javaagent.bootstrap.executors.PropagatedContext;
 import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
@@ -19,6 +20,8 @@ import io.opentelemetry.javaagent.extension.instrumentation.TypeTransformer;
 import java.util.concurrent.Callable;
 import javax.annotation.Nullable;
 import net.bytebuddy.asm.Advice;
+import net.bytebuddy.asm.Advice.AssignReturned;
+import net.bytebuddy.asm.Advice.AssignReturned.ToArguments.ToArgument;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 
@@ -42,21 +45,32 @@ class StructuredTaskScopeInstrumentation implements TypeInstrumentation {
   @SuppressWarnings("unused")
   public static class ForkCallableAdvice {
 
-    @Nullable
+    @AssignReturned.ToArguments(@ToArgument(value = 0, index = 0))
     @Advice.OnMethodEnter(suppress = Throwable.class, inline = false)
-    public static PropagatedContext enterCallableFork(@Advice.Argument(0) Callable<?> task) {
+    public static Object[] enterCallableFork(@Advice.Argument(0) Callable<?> task) {
       Context context = Java8BytecodeBridge.currentContext();
-      if (ExecutorAdviceHelper.shouldPropagateContext(context, task)) {
-        return ExecutorAdviceHelper.attachContextToTask(context, CALLABLE_PROPAGATED_CONTEXT, task);
+      // the forked task inherits the scoped value bindings of the task scope
+      if (ScopedValueContextStorage.isInherited(context)
+          || !ExecutorAdviceHelper.shouldPropagateContext(context, task)) {
+        return new Object[] {task, null};
       }
-      return null;
+      if (ScopedValueContextStorage.isInstalled()) {
+        // binds the context in the forked task instead of propagating it, the task scopes opened
+        // in the task then pass it on to their subtasks through the binding
+        return new Object[] {ScopedValueContextStorage.bindContext(context, task), null};
+      }
+      return new Object[] {
+        task, ExecutorAdviceHelper.attachContextToTask(context, CALLABLE_PROPAGATED_CONTEXT, task)
+      };
     }
 
     @Advice.OnMethodExit(onThrowable = Throwable.class, suppress = Throwable.class, inline = false)
     public static void exitCallableFork(
         @Advice.Argument(0) Callable<?> task,
-        @Advice.Enter @Nullable PropagatedContext propagatedContext,
+        @Advice.Enter @Nullable Object[] enterResult,
         @Advice.Thrown @Nullable Throwable throwable) {
+      PropagatedContext propagatedContext =
+          enterResult != null ? (PropagatedContext) enterResult[1] : null;
       ExecutorAdviceHelper.cleanUpAfterSubmit(
           propagatedContext, throwable, CALLABLE_PROPAGATED_CONTEXT, task);
     }
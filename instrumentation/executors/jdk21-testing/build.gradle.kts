@@ -8,6 +8,7 @@ dependencies {
   testInstrumentation(project(":instrumentation:executors:javaagent"))
 
   testCompileOnly(project(":instrumentation:executors:bootstrap"))
+  testCompileOnly(project(":javaagent-bootstrap"))
   testImplementation(project(":instrumentation:executors:testing"))
 }
 
@@ -28,6 +29,18 @@ tasks.withType<JavaCompile>().configureEach {
   }
 }
 
+tasks {
+  val testScopedValueContextStorage by registering(Test::class) {
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    jvmArgs("-Dotel.javaagent.experimental.scoped-value-context-storage.enabled=true")
+  }
+
+  check {
+    dependsOn(testScopedValueContextStorage)
+  }
+}
+
 tasks.withType<Test>().configureEach {
   // needed for VirtualThreadTest
   jvmArgs("--add-opens=java.base/java.lang=ALL-UNNAMED")
@@ -11,8 +11,10 @@ import io.opentelemetry.api.trace.SpanKind;
 import io.opentelemetry.instrumentation.testing.internal.AutoCleanupExtension;
 import io.opentelemetry.instrumentation.testing.junit.AgentInstrumentationExtension;
 import io.opentelemetry.instrumentation.testing.junit.InstrumentationExtension;
+import io.opentelemetry.javaagent.bootstrap.ScopedValueContextStorage;
 import java.util.concurrent.Callable;
 import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -30,18 +32,7 @@ class StructuredTaskScopeTest {
   }) // type arguments for StructuredTaskScope change between jdk 21 and 25
   @Test
   void multipleForkJoin() throws Exception {
-    StructuredTaskScope tmp;
-    try {
-      // since jdk 25-ea+24
-      tmp = (StructuredTaskScope) StructuredTaskScope.class.getMethod("open").invoke(null);
-    } catch (NoSuchMethodException ignored) {
-      tmp =
-          Class.forName("java.util.concurrent.StructuredTaskScope$ShutdownOnFailure")
-              .asSubclass(StructuredTaskScope.class)
-              .getConstructor()
-              .newInstance();
-    }
-    StructuredTaskScope taskScope = tmp;
+    StructuredTaskScope taskScope = openTaskScope();
     cleanup.deferCleanup(taskScope);
 
     Callable<String> callable1 =
@@ -77,4 +68,116 @@ class StructuredTaskScopeTest {
                 span ->
                     span.hasName("task2").hasKind(SpanKind.INTERNAL).hasParent(trace.getSpan(0))));
   }
+
+  @SuppressWarnings({
+    "unchecked",
+    "rawtypes"
+  }) // type arguments for StructuredTaskScope change between jdk 21 and 25
+  @Test
+  void forkInScopedValueBinding() {
+    Callable<String> callable1 =
+        () -> {
+          testing.runWithSpan("task1", () -> {});
+          return "a";
+        };
+    Callable<String> callable2 =
+        () -> {
+          testing.runWithSpan("task2", () -> {});
+          return "b";
+        };
+
+    // with the scoped value context storage the forked tasks inherit the bound context, otherwise
+    // the context is propagated to them as usual
+    StringBuilder result = new StringBuilder();
+    testing.runWithSpan(
+        "parent",
+        () ->
+            ScopedValueContextStorage.runWithCurrentContext(
+                () -> {
+                  try (StructuredTaskScope taskScope = openTaskScope()) {
+                    StructuredTaskScope.Subtask<String> fork1 = taskScope.fork(callable1);
+                    StructuredTaskScope.Subtask<String> fork2 = taskScope.fork(callable2);
+                    taskScope.join();
+
+                    result.append(fork1.get()).append(fork2.get());
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                  } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                  }
+                }));
+
+    assertThat(result.toString()).isEqualTo("ab");
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactlyInAnyOrder(
+                span -> span.hasName("parent").hasKind(SpanKind.INTERNAL).hasNoParent(),
+                span ->
+                    span.hasName("task1").hasKind(SpanKind.INTERNAL).hasParent(trace.getSpan(0)),
+                span ->
+                    span.hasName("task2").hasKind(SpanKind.INTERNAL).hasParent(trace.getSpan(0))));
+  }
+
+  @SuppressWarnings({
+    "unchecked",
+    "rawtypes"
+  }) // type arguments for StructuredTaskScope change between jdk 21 and 25
+  @Test
+  void nestedForkInheritsBinding() throws Exception {
+    AtomicBoolean bound = new AtomicBoolean();
+    Callable<String> nestedCallable =
+        () -> {
+          bound.set(ScopedValueContextStorage.isCurrentContextBound());
+          testing.runWithSpan("nested", () -> {});
+          return "b";
+        };
+    // opens a task scope with the context of the parent still current, without binding it
+    // explicitly
+    Callable<String> callable =
+        () -> {
+          try (StructuredTaskScope nestedTaskScope = openTaskScope()) {
+            StructuredTaskScope.Subtask<String> fork = nestedTaskScope.fork(nestedCallable);
+            nestedTaskScope.join();
+            return "a" + fork.get();
+          }
+        };
+
+    String result =
+        testing.runWithSpan(
+            "parent",
+            () -> {
+              try (StructuredTaskScope taskScope = openTaskScope()) {
+                StructuredTaskScope.Subtask<String> fork = taskScope.fork(callable);
+                taskScope.join();
+                return fork.get();
+              }
+            });
+
+    assertThat(result).isEqualTo("ab");
+    // with the scoped value context storage the agent binds the context in the forked task and the
+    // nested task inherits the binding, otherwise the context is propagated to both tasks
+    assertThat(bound.get()).isEqualTo(ScopedValueContextStorage.isInstalled());
+
+    testing.waitAndAssertTraces(
+        trace ->
+            trace.hasSpansSatisfyingExactly(
+                span -> span.hasName("parent").hasKind(SpanKind.INTERNAL).hasNoParent(),
+                span ->
+                    span.hasName("nested").hasKind(SpanKind.INTERNAL).hasParent(trace.getSpan(0))));
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static StructuredTaskScope openTaskScope() throws Exception {
+    try {
+      // since jdk 25-ea+24
+      return (StructuredTaskScope) StructuredTaskScope.class.getMethod("open").invoke(null);
+    } catch (NoSuchMethodException ignored) {
+      return Class.forName("java.util.concurrent.StructuredTaskScope$ShutdownOnFailure")
+          .asSubclass(StructuredTaskScope.class)
+          .getConstructor()
+          .newInstance();
+    }
+  }
 }
@@ -0,0 +1,38 @@
+import net.ltgt.gradle.errorprone.errorprone
+import org.jetbrains.kotlin.gradle.dsl.JvmTarget
+
+// We are using a separate module for kotlin source instead of placing them in
+// instrumentation/kotlinx-coroutines/kotlinx-coroutines-1.0/javaagent because muzzle
+// generation plugin currently doesn't handle kotlin sources correctly.
+plugins {
+  id("org.jetbrains.kotlin.jvm")
+  id("otel.java-conventions")
+  id("otel.jmh-conventions")
+}
+
+dependencies {
+  compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.0.0")
+  compileOnly("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
+  compileOnly("io.opentelemetry:opentelemetry-api")
+  compileOnly("io.opentelemetry:opentelemetry-extension-kotlin")
+
+  jmhImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.3.0")
+  jmhImplementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
+  jmhImplementation("io.opentelemetry:opentelemetry-api")
+  jmhImplementation("io.opentelemetry:opentelemetry-extension-kotlin")
+}
+
+kotlin {
+  compilerOptions {
+    jvmTarget.set(JvmTarget.JVM_1_8)
+  }
+}
+
+tasks {
+  // TODO this should live in jmh-conventions
+  named<JavaCompile>("jmhCompileGeneratedClasses") {
+    options.errorprone {
+      enabled.set(false)
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.instrumentation.kotlinxcoroutines
+
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.ContextKey
+import io.opentelemetry.extension.kotlin.asContextElement
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import kotlinx.coroutines.yield
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Suspends and resumes a coroutine that carries a context element [RESUMES] times. On the event
+ * loop of `runBlocking` the coroutine resumes on the thread that already has its context current,
+ * on `Dispatchers.Default` it resumes on worker threads that don't.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(ContextElementBenchmark.RESUMES)
+@State(Scope.Thread)
+open class ContextElementBenchmark {
+
+  companion object {
+    const val RESUMES = 1000
+
+    private val KEY: ContextKey<String> = ContextKey.named("benchmark")
+  }
+
+  @Param("asContextElement", "propagatedContextElement")
+  @JvmField
+  var element: String = "propagatedContextElement"
+
+  @Param("runBlocking", "default")
+  @JvmField
+  var dispatcher: String = "runBlocking"
+
+  private lateinit var context: Context
+  private lateinit var contextElement: CoroutineContext
+
+  @Setup
+  fun setUp() {
+    context = Context.root().with(KEY, "value")
+    contextElement = when (element) {
+      "asContextElement" -> context.asContextElement()
+      else -> PropagatedContextElement(context)
+    }
+  }
+
+  @Benchmark
+  fun resume() {
+    context.makeCurrent().use {
+      runBlocking(contextElement) {
+        if (dispatcher == "default") {
+          withContext(Dispatchers.Default) {
+            suspendAndResume()
+          }
+        } else {
+          suspendAndResume()
+        }
+      }
+    }
+  }
+
+  private suspend fun suspendAndResume() {
+    repeat(RESUMES) {
+      yield()
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.instrumentation.kotlinxcoroutines
+
+import io.opentelemetry.context.Context
+import io.opentelemetry.context.Scope
+import io.opentelemetry.extension.kotlin.getOpenTelemetryContext
+import kotlinx.coroutines.ThreadContextElement
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * Makes [otelContext] current while the coroutine runs, like the element returned by
+ * `Context.asContextElement()`. When [otelContext] already is the current context of the thread
+ * that the coroutine resumes on, which is the case for most resumes, the thread is left as it is:
+ * no [Scope] is created and there is nothing to restore when the coroutine suspends.
+ */
+class PropagatedContextElement(val otelContext: Context) : ThreadContextElement<Scope?> {
+
+  companion object Key : CoroutineContext.Key<PropagatedContextElement> {
+
+    /**
+     * Returns the context of the element added with `Context.asContextElement()`, or else of the
+     * [PropagatedContextElement], or else the root context.
+     */
+    @JvmStatic
+    fun getOpenTelemetryContext(coroutineContext: CoroutineContext): Context {
+      val context = coroutineContext.getOpenTelemetryContext()
+      if (context !== Context.root()) {
+        return context
+      }
+      return coroutineContext[Key]?.otelContext ?: context
+    }
+  }
+
+  override val key: CoroutineContext.Key<PropagatedContextElement>
+    get() = Key
+
+  override fun updateThreadContext(context: CoroutineContext): Scope? {
+    if (Context.current() === otelContext) {
+      return null
+    }
+    return otelContext.makeCurrent()
+  }
+
+  override fun restoreThreadContext(context: CoroutineContext, oldState: Scope?) {
+    oldState?.close()
+  }
+}
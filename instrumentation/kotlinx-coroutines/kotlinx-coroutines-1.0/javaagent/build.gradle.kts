@@ -25,12 +25,14 @@ muzzle {
 
 dependencies {
   compileOnly("io.opentelemetry:opentelemetry-extension-kotlin")
+  compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.0.0")
   compileOnly("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
   compileOnly(project(":opentelemetry-instrumentation-annotations-shaded-for-instrumenting", configuration = "shadow"))
 
   implementation("org.ow2.asm:asm-tree")
   implementation("org.ow2.asm:asm-util")
   implementation(project(":instrumentation:opentelemetry-instrumentation-annotations-1.16:javaagent"))
+  implementation(project(":instrumentation:kotlinx-coroutines:kotlinx-coroutines-1.0:javaagent-kotlin"))
 
   testInstrumentation(project(":instrumentation:opentelemetry-extension-kotlin-1.0:javaagent"))
   testInstrumentation(project(":instrumentation:reactor:reactor-3.1:javaagent"))
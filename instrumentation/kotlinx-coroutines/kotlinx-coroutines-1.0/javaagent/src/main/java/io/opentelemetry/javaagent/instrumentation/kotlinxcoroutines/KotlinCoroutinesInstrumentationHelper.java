@@ -6,18 +6,17 @@
 package io.opentelemetry.javaagent.instrumentation.kotlinxcoroutines;
 
 import io.opentelemetry.context.Context;
-import io.opentelemetry.extension.kotlin.ContextExtensionsKt;
 import kotlin.coroutines.CoroutineContext;
 
 public class KotlinCoroutinesInstrumentationHelper {
 
   public static CoroutineContext addOpenTelemetryContext(CoroutineContext coroutineContext) {
     Context current = Context.current();
-    Context inCoroutine = ContextExtensionsKt.getOpenTelemetryContext(coroutineContext);
+    Context inCoroutine = PropagatedContextElement.getOpenTelemetryContext(coroutineContext);
     if (current == inCoroutine || inCoroutine != Context.root()) {
       return coroutineContext;
     }
-    return coroutineContext.plus(ContextExtensionsKt.asContextElement(current));
+    return coroutineContext.plus(new PropagatedContextElement(current));
   }
 
   private KotlinCoroutinesInstrumentationHelper() {}
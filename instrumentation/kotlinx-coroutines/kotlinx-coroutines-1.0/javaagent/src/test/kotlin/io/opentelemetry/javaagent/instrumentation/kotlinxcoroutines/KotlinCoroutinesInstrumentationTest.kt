@@ -6,6 +6,7 @@
 package io.opentelemetry.javaagent.instrumentation.kotlinxcoroutines
 
 import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.Span
 import io.opentelemetry.api.trace.SpanKind
 import io.opentelemetry.context.Context
 import io.opentelemetry.context.ContextKey
@@ -371,6 +372,36 @@ class KotlinCoroutinesInstrumentationTest {
     )
   }
 
+  @ParameterizedTest
+  @MethodSource("dispatchersSourceArguments")
+  fun `propagated context is kept across resumes`(dispatcher: DispatcherWrapper) {
+    runTest(dispatcher) {
+      val parentSpanContext = Span.current().spanContext
+      repeat(3) {
+        yield()
+        assertThat(Span.current().spanContext).isEqualTo(parentSpanContext)
+        assertThat(Span.fromContext(coroutineContext.getOpenTelemetryContext()).spanContext)
+          .isEqualTo(parentSpanContext)
+      }
+      tracedChild("child")
+    }
+
+    testing.waitAndAssertTraces(
+      { trace ->
+        trace.hasSpansSatisfyingExactly(
+          {
+            it.hasName("parent")
+              .hasNoParent()
+          },
+          {
+            it.hasName("child")
+              .hasParent(trace.getSpan(0))
+          },
+        )
+      },
+    )
+  }
+
   @Test
   fun `test WithSpan annotation`() {
     runBlocking {
@@ -17,6 +17,8 @@ import kotlinx.coroutines.asCoroutineDispatcher
 import kotlinx.coroutines.channels.produce
 import kotlinx.coroutines.flow.collect
 import kotlinx.coroutines.flow.consumeAsFlow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.reactive.awaitSingle
 import kotlinx.coroutines.reactive.collect
@@ -107,6 +109,49 @@ class KotlinCoroutines13InstrumentationTest {
     )
   }
 
+  @ParameterizedTest
+  @MethodSource("dispatchersSourceArguments")
+  fun `traced across flowOn`(dispatcher: DispatcherWrapper) {
+    runTest(dispatcher) {
+      // flowOn collects the upstream flow in a coroutine of its own
+      flow {
+        repeat(2) {
+          tracedChild("produce_$it")
+          emit(it)
+        }
+      }.flowOn(Dispatchers.Default).collect {
+        tracedChild("consume_$it")
+      }
+    }
+
+    testing.waitAndAssertTraces(
+      { trace ->
+        trace.hasSpansSatisfyingExactlyInAnyOrder(
+          {
+            it.hasName("parent")
+              .hasNoParent()
+          },
+          {
+            it.hasName("produce_0")
+              .hasParent(trace.getSpan(0))
+          },
+          {
+            it.hasName("consume_0")
+              .hasParent(trace.getSpan(0))
+          },
+          {
+            it.hasName("produce_1")
+              .hasParent(trace.getSpan(0))
+          },
+          {
+            it.hasName("consume_1")
+              .hasParent(trace.getSpan(0))
+          },
+        )
+      },
+    )
+  }
+
   @ParameterizedTest
   @MethodSource("dispatchersSourceArguments")
   fun `traced mono with context propagation operator`(dispatcherWrapper: DispatcherWrapper) {
@@ -1,5 +1,8 @@
+import net.ltgt.gradle.errorprone.errorprone
+
 plugins {
   id("otel.library-instrumentation")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -11,6 +14,9 @@ dependencies {
   annotationProcessor("com.google.auto.value:auto-value")
 
   testImplementation(project(":instrumentation:netty:netty-4.1:testing"))
+
+  jmhImplementation("io.netty:netty-codec-http:4.1.118.Final")
+  jmhImplementation("io.opentelemetry:opentelemetry-sdk")
 }
 
 tasks {
@@ -23,4 +29,11 @@ tasks {
   check {
     dependsOn(testStableSemconv)
   }
+
+  // TODO this should live in jmh-conventions
+  named<JavaCompile>("jmhCompileGeneratedClasses") {
+    options.errorprone {
+      enabled.set(false)
+    }
+  }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.netty.v4_1;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import java.nio.charset.StandardCharsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sends http requests through an instrumented server pipeline on an {@link EmbeddedChannel}, which
+ * runs the codec, the tracing handlers and a handler that responds to every request without any
+ * network io. With {@code pipelined} requests, that many requests are received before the
+ * responses are sent, as with http pipelining.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(MILLISECONDS)
+@OperationsPerInvocation(NettyServerBenchmark.REQUESTS)
+@State(Scope.Thread)
+public class NettyServerBenchmark {
+
+  static final int REQUESTS = 16;
+
+  private static final byte[] REQUEST =
+      "GET /benchmark HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+  @Param({"1", "4"})
+  int pipelined = 1;
+
+  private EmbeddedChannel channel;
+  // the pipelined requests are received in a single read
+  private byte[] requests;
+
+  @Setup
+  public void setUp() {
+    // spans are recorded but not exported
+    OpenTelemetry openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().build())
+            .build();
+    NettyServerTelemetry telemetry = NettyServerTelemetry.create(openTelemetry);
+    requests = new byte[REQUEST.length * pipelined];
+    for (int i = 0; i < pipelined; i++) {
+      System.arraycopy(REQUEST, 0, requests, i * REQUEST.length, REQUEST.length);
+    }
+    channel =
+        new EmbeddedChannel(
+            new HttpServerCodec(), telemetry.createCombinedHandler(), new Responder());
+  }
+
+  @TearDown
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Benchmark
+  public void requests() {
+    for (int i = 0; i < REQUESTS; i += pipelined) {
+      channel.writeInbound(Unpooled.wrappedBuffer(requests));
+      Object response;
+      while ((response = channel.readOutbound()) != null) {
+        ReferenceCountUtil.release(response);
+      }
+    }
+  }
+
+  private static class Responder extends ChannelInboundHandlerAdapter {
+
+    private int pending;
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (msg instanceof LastHttpContent) {
+        pending++;
+      }
+      ReferenceCountUtil.release(msg);
+    }
+
+    // responds once all the requests that were received together have been read
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+      for (; pending > 0; pending--) {
+        ByteBuf content = Unpooled.wrappedBuffer(new byte[] {'o', 'k'});
+        FullHttpResponse response =
+            new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, content);
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
+        ctx.write(response);
+      }
+      ctx.flush();
+    }
+  }
+}
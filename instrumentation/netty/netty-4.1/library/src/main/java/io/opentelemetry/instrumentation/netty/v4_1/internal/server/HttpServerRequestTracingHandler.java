@@ -16,6 +16,7 @@ import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
 import io.opentelemetry.instrumentation.netty.common.v4_0.internal.NettyCommonRequest;
 import io.opentelemetry.instrumentation.netty.v4_1.internal.ServerContext;
 import io.opentelemetry.instrumentation.netty.v4_1.internal.ServerContexts;
+import javax.annotation.Nullable;
 
 /**
  * This class is internal and is hence not for public use. Its APIs are unstable and can change at
@@ -24,6 +25,8 @@ import io.opentelemetry.instrumentation.netty.v4_1.internal.ServerContexts;
 public class HttpServerRequestTracingHandler extends ChannelInboundHandlerAdapter {
 
   private final Instrumenter<NettyCommonRequest, HttpResponse> instrumenter;
+  // the handler is not sharable, so the channel attribute only has to be looked up once
+  @Nullable private ServerContexts serverContexts;
 
   public HttpServerRequestTracingHandler(
       Instrumenter<NettyCommonRequest, HttpResponse> instrumenter) {
@@ -33,7 +36,11 @@ public class HttpServerRequestTracingHandler extends ChannelInboundHandlerAdapte
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
     Channel channel = ctx.channel();
-    ServerContexts serverContexts = ServerContexts.getOrCreate(channel);
+    ServerContexts serverContexts = this.serverContexts;
+    if (serverContexts == null) {
+      serverContexts = ServerContexts.getOrCreate(channel);
+      this.serverContexts = serverContexts;
+    }
 
     if (!(msg instanceof HttpRequest)) {
       ServerContext serverContext = serverContexts.peekLast();
@@ -73,7 +80,10 @@ public class HttpServerRequestTracingHandler extends ChannelInboundHandlerAdapte
   @Override
   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
     // connection was closed, close all remaining requests
-    ServerContexts serverContexts = ServerContexts.get(ctx.channel());
+    ServerContexts serverContexts = this.serverContexts;
+    if (serverContexts == null) {
+      serverContexts = ServerContexts.get(ctx.channel());
+    }
 
     if (serverContexts == null) {
       super.channelInactive(ctx);
@@ -13,7 +13,6 @@ import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.util.AttributeKey;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.api.instrumenter.Instrumenter;
@@ -31,12 +30,14 @@ import javax.annotation.Nullable;
  */
 public class HttpServerResponseTracingHandler extends ChannelOutboundHandlerAdapter {
 
-  private static final AttributeKey<HttpResponse> HTTP_SERVER_RESPONSE =
-      AttributeKey.valueOf(HttpServerResponseTracingHandler.class, "http-server-response");
-
   private final Instrumenter<NettyCommonRequest, HttpResponse> instrumenter;
   private final HttpServerResponseBeforeCommitHandler beforeCommitHandler;
   private final ProtocolEventHandler eventHandler;
+  // the handler is not sharable, so per connection state is kept in fields instead of channel
+  // attributes
+  @Nullable private ServerContexts serverContexts;
+  // response headers that were sent before the body, used when finishing the span
+  @Nullable private HttpResponse response;
 
   public HttpServerResponseTracingHandler(
       Instrumenter<NettyCommonRequest, HttpResponse> instrumenter,
@@ -49,7 +50,12 @@ public class HttpServerResponseTracingHandler extends ChannelOutboundHandlerAdap
 
   @Override
   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise prm) throws Exception {
-    ServerContexts serverContexts = ServerContexts.get(ctx.channel());
+    ServerContexts serverContexts = this.serverContexts;
+    if (serverContexts == null) {
+      // created by the request handler when the first request arrives
+      serverContexts = ServerContexts.get(ctx.channel());
+      this.serverContexts = serverContexts;
+    }
     ServerContext serverContext = serverContexts != null ? serverContexts.peekFirst() : null;
     if (serverContext == null) {
       super.write(ctx, msg, prm);
@@ -90,14 +96,14 @@ public class HttpServerResponseTracingHandler extends ChannelOutboundHandlerAdap
                       writePromise));
         }
       } else {
-        HttpResponse responseTest = ctx.channel().attr(HTTP_SERVER_RESPONSE).get();
-        if (responseTest == null
-            || !responseTest.status().equals(HttpResponseStatus.SWITCHING_PROTOCOLS)) {
+        HttpResponse response = this.response;
+        if (response == null
+            || !response.status().equals(HttpResponseStatus.SWITCHING_PROTOCOLS)) {
           // Body sent after headers. We stored the response information in the context when
           // encountering HttpResponse (which was not FullHttpResponse since it's not
           // LastHttpContent).
           serverContexts.pollFirst();
-          HttpResponse response = ctx.channel().attr(HTTP_SERVER_RESPONSE).getAndSet(null);
+          this.response = null;
           writePromise.addListener(
               future ->
                   end(serverContext.context(), serverContext.request(), response, writePromise));
@@ -116,7 +122,7 @@ public class HttpServerResponseTracingHandler extends ChannelOutboundHandlerAdap
         } else {
           // Headers before body has been sent, store them to use when finishing the span.
           beforeCommitHandler.handle(serverContext.context(), response);
-          ctx.channel().attr(HTTP_SERVER_RESPONSE).set(response);
+          this.response = response;
         }
       }
     }
@@ -17,11 +17,13 @@ muzzle {
 
 dependencies {
   compileOnly("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
+  compileOnly("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.3.0")
   library("io.opentelemetry:opentelemetry-extension-kotlin")
   // see the comment in opentelemetry-api-1.0.gradle for more details
   compileOnly(project(":opentelemetry-api-shaded-for-instrumenting", configuration = "shadow"))
 
   implementation(project(":instrumentation:opentelemetry-api:opentelemetry-api-1.0:javaagent"))
+  implementation(project(":instrumentation:kotlinx-coroutines:kotlinx-coroutines-1.0:javaagent-kotlin"))
 
   testImplementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
   testImplementation("org.jetbrains.kotlinx:kotlinx-coroutines-core:1.3.0")
@@ -12,6 +12,7 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.extension.kotlin.ContextExtensionsKt;
 import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
 import io.opentelemetry.javaagent.extension.instrumentation.TypeTransformer;
+import io.opentelemetry.javaagent.instrumentation.kotlinxcoroutines.PropagatedContextElement;
 import io.opentelemetry.javaagent.instrumentation.opentelemetryapi.context.AgentContextStorage;
 import javax.annotation.Nullable;
 import kotlin.coroutines.CoroutineContext;
@@ -113,7 +114,8 @@ class ContextExtensionInstrumentation implements TypeInstrumentation {
     public static application.io.opentelemetry.context.Context enter(
         @Advice.Argument(0) CoroutineContext coroutineContext) {
       if (coroutineContext != null) {
-        Context agentContext = ContextExtensionsKt.getOpenTelemetryContext(coroutineContext);
+        // also finds the context that the kotlinx-coroutines instrumentation propagates
+        Context agentContext = PropagatedContextElement.getOpenTelemetryContext(coroutineContext);
         return AgentContextStorage.toApplicationContext(agentContext);
       }
       return null;
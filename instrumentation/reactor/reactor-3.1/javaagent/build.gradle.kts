@@ -69,7 +69,13 @@ tasks {
     jvmArgs("-Dotel.semconv-stability.opt-in=code/dup")
   }
 
+  val testLiftOnlyAtContextBoundaries by registering(Test::class) {
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    jvmArgs("-Dotel.instrumentation.reactor.experimental.lift-only-at-context-boundaries=true")
+  }
+
   check {
-    dependsOn(testing.suites, testStableSemconv, testBothSemconv)
+    dependsOn(testing.suites, testStableSemconv, testBothSemconv, testLiftOnlyAtContextBoundaries)
   }
 }
@@ -1,5 +1,8 @@
+import net.ltgt.gradle.errorprone.errorprone
+
 plugins {
   id("otel.library-instrumentation")
+  id("otel.jmh-conventions")
 }
 
 dependencies {
@@ -12,10 +15,51 @@ dependencies {
   testLibrary("io.projectreactor:reactor-test:3.1.0.RELEASE")
 
   testImplementation(project(":instrumentation:reactor:reactor-3.1:testing"))
+
+  jmhImplementation("io.projectreactor:reactor-core:3.4.0")
+}
+
+testing {
+  suites {
+    // lifting only at context boundaries relies on Scannable.Attr.RUN_STYLE added in reactor 3.4
+    val testLiftOnlyAtContextBoundaries by registering(JvmTestSuite::class) {
+      sources {
+        java {
+          setSrcDirs(listOf("src/test/java", "src/testLiftOnlyAtContextBoundaries/java"))
+        }
+      }
+      dependencies {
+        implementation(project())
+        implementation(project(":instrumentation:reactor:reactor-3.1:testing"))
+        val version = if (otelProps.testLatestDeps) "latest.release" else "3.4.0"
+        implementation("io.projectreactor:reactor-core:$version")
+        implementation("io.projectreactor:reactor-test:$version")
+      }
+
+      targets {
+        all {
+          testTask.configure {
+            systemProperty("testLiftOnlyAtContextBoundaries", true)
+          }
+        }
+      }
+    }
+  }
 }
 
 tasks {
   withType<Test>().configureEach {
     systemProperty("testLatestDeps", otelProps.testLatestDeps)
   }
+
+  check {
+    dependsOn(testing.suites)
+  }
+
+  // TODO this should live in jmh-conventions
+  named<JavaCompile>("jmhCompileGeneratedClasses") {
+    options.errorprone {
+      enabled.set(false)
+    }
+  }
 }
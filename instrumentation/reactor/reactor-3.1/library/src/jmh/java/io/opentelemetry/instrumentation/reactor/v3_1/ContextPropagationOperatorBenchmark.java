@@ -0,0 +1,94 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.reactor.v3_1;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures a synchronous pipeline of 24 operators that emits 100 elements in the context of a
+ * span, without the hook, with every operator lifted and with operators only lifted at context
+ * boundaries.
+ */
+@Fork(3)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(org.openjdk.jmh.annotations.Scope.Thread)
+public class ContextPropagationOperatorBenchmark {
+
+  @Param({"none", "onEachOperator", "contextBoundaries"})
+  public String lift;
+
+  private ContextPropagationOperator operator;
+  private Context context;
+  private Flux<Integer> pipeline;
+
+  @Setup
+  public void setup() {
+    if (!lift.equals("none")) {
+      operator =
+          ContextPropagationOperator.builder()
+              .setLiftOnlyAtContextBoundaries(lift.equals("contextBoundaries"))
+              .build();
+      operator.registerOnEachOperator();
+    }
+    context =
+        Context.root()
+            .with(
+                Span.wrap(
+                    SpanContext.create(
+                        "ff01020304050600ff0a0b0c0d0e0f00",
+                        "090a0b0c0d0e0f00",
+                        TraceFlags.getSampled(),
+                        TraceState.getDefault())));
+
+    // the hook applies when the operators are assembled
+    Flux<Integer> flux = Flux.range(0, 100);
+    for (int i = 0; i < 10; i++) {
+      flux = flux.map(value -> value + 1).filter(value -> value >= 0);
+    }
+    pipeline =
+        flux.flatMap(value -> Mono.just(value).map(v -> v - 1), 1)
+            .concatMap(Flux::just)
+            .doOnNext(value -> Span.current());
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (operator != null) {
+      operator.resetOnEachOperator();
+    }
+  }
+
+  @Benchmark
+  public void pipeline(Blackhole blackhole) {
+    try (Scope ignored = context.makeCurrent()) {
+      pipeline.subscribe(blackhole::consume);
+    }
+  }
+}
@@ -60,6 +60,10 @@ public final class ContextPropagationOperator {
 
   @Nullable private static final MethodHandle SCHEDULERS_HOOK_METHOD = getSchedulersHookMethod();
 
+  // Scannable.Attr.RUN_STYLE and RunStyle.SYNC, which are not available before reactor 3.4
+  @Nullable private static final Scannable.Attr<Object> RUN_STYLE_ATTR = getRunStyleAttr();
+  @Nullable private static final Object RUN_STYLE_SYNC = getRunStyleSync();
+
   @Nullable
   private static MethodHandle getContextWriteMethod(Class<?> type) {
     MethodHandles.Lookup lookup = MethodHandles.publicLookup();
@@ -88,6 +92,25 @@ public final class ContextPropagationOperator {
     return null;
   }
 
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static Scannable.Attr<Object> getRunStyleAttr() {
+    try {
+      return (Scannable.Attr<Object>) Scannable.Attr.class.getField("RUN_STYLE").get(null);
+    } catch (NoSuchFieldException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Object getRunStyleSync() {
+    try {
+      return Class.forName("reactor.core.Scannable$Attr$RunStyle").getField("SYNC").get(null);
+    } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
   public static ContextPropagationOperator create() {
     return builder().build();
   }
@@ -97,6 +120,7 @@ public final class ContextPropagationOperator {
   }
 
   private final ReactorAsyncOperationEndStrategy asyncOperationEndStrategy;
+  private final boolean liftOnlyAtContextBoundaries;
 
   private static final Object TRACE_CONTEXT_KEY =
       new Object() {
@@ -150,11 +174,13 @@ public final class ContextPropagationOperator {
     return contextView.getOrDefault(TRACE_CONTEXT_KEY, defaultTraceContext);
   }
 
-  ContextPropagationOperator(boolean captureExperimentalSpanAttributes) {
+  ContextPropagationOperator(
+      boolean captureExperimentalSpanAttributes, boolean liftOnlyAtContextBoundaries) {
     this.asyncOperationEndStrategy =
         ReactorAsyncOperationEndStrategy.builder()
             .setCaptureExperimentalSpanAttributes(captureExperimentalSpanAttributes)
             .build();
+    this.liftOnlyAtContextBoundaries = liftOnlyAtContextBoundaries;
   }
 
   /**
@@ -169,7 +195,8 @@ public final class ContextPropagationOperator {
         return;
       }
       Hooks.onEachOperator(
-          TracingSubscriber.class.getName(), tracingLift(asyncOperationEndStrategy));
+          TracingSubscriber.class.getName(),
+          tracingLift(asyncOperationEndStrategy, liftOnlyAtContextBoundaries));
       AsyncOperationEndStrategies.instance().registerStrategy(asyncOperationEndStrategy);
       registerScheduleHook(RunnableWrapper.class.getName(), RunnableWrapper::new);
       enabled = true;
@@ -200,9 +227,11 @@ public final class ContextPropagationOperator {
   }
 
   private static <T> Function<? super Publisher<T>, ? extends Publisher<T>> tracingLift(
-      ReactorAsyncOperationEndStrategy asyncOperationEndStrategy) {
+      ReactorAsyncOperationEndStrategy asyncOperationEndStrategy,
+      boolean liftOnlyAtContextBoundaries) {
     return Operators.lift(
-        ContextPropagationOperator::shouldInstrument, new Lifter<>(asyncOperationEndStrategy));
+        ContextPropagationOperator::shouldInstrument,
+        new Lifter<>(asyncOperationEndStrategy, liftOnlyAtContextBoundaries));
   }
 
   /** Forces Mono to run in traceContext scope. */
@@ -279,16 +308,48 @@ public final class ContextPropagationOperator {
     @SuppressWarnings({"FieldCanBeLocal", "UnusedVariable"})
     private final ReactorAsyncOperationEndStrategy asyncOperationEndStrategy;
 
-    Lifter(ReactorAsyncOperationEndStrategy asyncOperationEndStrategy) {
+    private final boolean liftOnlyAtContextBoundaries;
+
+    Lifter(
+        ReactorAsyncOperationEndStrategy asyncOperationEndStrategy,
+        boolean liftOnlyAtContextBoundaries) {
       this.asyncOperationEndStrategy = asyncOperationEndStrategy;
+      this.liftOnlyAtContextBoundaries = liftOnlyAtContextBoundaries;
     }
 
     @Override
     public CoreSubscriber<? super T> apply(Scannable publisher, CoreSubscriber<? super T> sub) {
+      if (liftOnlyAtContextBoundaries && !isContextBoundary(publisher, sub)) {
+        return sub;
+      }
       return new TracingSubscriber<>(sub, sub.currentContext());
     }
   }
 
+  /**
+   * Returns whether the signals of the {@code publisher} may reach the {@code subscriber} with a
+   * different context than the one that is current when subscribing. That is the case when the
+   * context stored in the Reactor context differs from the current one, or when the publisher may
+   * emit on another thread. Synchronous operators emit on the thread and in the context of their
+   * upstream, so when their upstream restores the context they don't need to restore it again.
+   */
+  private static boolean isContextBoundary(Scannable publisher, CoreSubscriber<?> subscriber) {
+    Context current = Context.current();
+    if (getOpenTelemetryContext(subscriber.currentContext(), current) != current) {
+      return true;
+    }
+    // retry subscribers need the context cleared, see TracingSubscriber.onError()
+    if (TracingSubscriber.isRetrySubscriber(subscriber)) {
+      return true;
+    }
+    return !isSynchronous(publisher);
+  }
+
+  private static boolean isSynchronous(Scannable publisher) {
+    // without RUN_STYLE every operator is treated as asynchronous
+    return RUN_STYLE_ATTR != null && publisher.scan(RUN_STYLE_ATTR) == RUN_STYLE_SYNC;
+  }
+
   static void subscribeInActiveSpan(CoreSubscriber<? super Object> actual, Object value) {
     Context tracingContextInReactor =
         ContextPropagationOperator.getOpenTelemetryContext(actual.currentContext(), null);
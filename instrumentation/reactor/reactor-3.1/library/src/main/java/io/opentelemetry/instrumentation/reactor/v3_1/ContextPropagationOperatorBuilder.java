@@ -9,6 +9,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
 public final class ContextPropagationOperatorBuilder {
   private boolean captureExperimentalSpanAttributes;
+  private boolean liftOnlyAtContextBoundaries;
 
   ContextPropagationOperatorBuilder() {}
 
@@ -19,7 +20,25 @@ public final class ContextPropagationOperatorBuilder {
     return this;
   }
 
+  /**
+   * Sets whether operators are only lifted into a {@link TracingSubscriber} where the context of
+   * their signals may differ from the context that is current when subscribing: when the context
+   * stored in the Reactor context is a different one, or when the operator may emit on another
+   * thread. Synchronous operators in between run in the context restored by their upstream, so that
+   * they don't make the same context current again for every signal.
+   *
+   * <p>Operators are only known to be synchronous with Reactor 3.4 and later, with earlier versions
+   * every operator is still lifted. Disabled by default.
+   */
+  @CanIgnoreReturnValue
+  public ContextPropagationOperatorBuilder setLiftOnlyAtContextBoundaries(
+      boolean liftOnlyAtContextBoundaries) {
+    this.liftOnlyAtContextBoundaries = liftOnlyAtContextBoundaries;
+    return this;
+  }
+
   public ContextPropagationOperator build() {
-    return new ContextPropagationOperator(captureExperimentalSpanAttributes);
+    return new ContextPropagationOperator(
+        captureExperimentalSpanAttributes, liftOnlyAtContextBoundaries);
   }
 }
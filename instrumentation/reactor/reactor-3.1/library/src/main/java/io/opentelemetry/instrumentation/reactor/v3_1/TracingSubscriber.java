@@ -76,9 +76,7 @@ public class TracingSubscriber<T> implements CoreSubscriber<T> {
   @Override
   public void onError(Throwable throwable) {
     Supplier<Scope> scopeSupplier;
-    if (!hasContextToPropagate
-        && (fluxRetrySubscriberClass == subscriber.getClass()
-            || fluxRetryWhenSubscriberClass == subscriber.getClass())) {
+    if (!hasContextToPropagate && isRetrySubscriber(subscriber)) {
       // clear context for retry to avoid having retried operations run with currently active
       // context as parent context
       scopeSupplier = () -> openScope(io.opentelemetry.context.Context.root());
@@ -109,7 +107,16 @@ public class TracingSubscriber<T> implements CoreSubscriber<T> {
 
   @Nullable
   private static Scope openScope(@Nullable io.opentelemetry.context.Context context) {
-    return context != null ? context.makeCurrent() : null;
+    // nothing to restore when the context is already current, e.g. for synchronous signals
+    if (context == null || context == io.opentelemetry.context.Context.current()) {
+      return null;
+    }
+    return context.makeCurrent();
+  }
+
+  static boolean isRetrySubscriber(Subscriber<?> subscriber) {
+    return fluxRetrySubscriberClass == subscriber.getClass()
+        || fluxRetryWhenSubscriberClass == subscriber.getClass();
   }
 
   @Nullable
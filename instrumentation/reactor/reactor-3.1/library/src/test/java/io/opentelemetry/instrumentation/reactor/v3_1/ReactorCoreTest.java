@@ -64,7 +64,10 @@ class ReactorCoreTest extends AbstractReactorCoreTest {
     }
   }
 
-  private final ContextPropagationOperator tracingOperator = ContextPropagationOperator.create();
+  private final ContextPropagationOperator tracingOperator =
+      ContextPropagationOperator.builder()
+          .setLiftOnlyAtContextBoundaries(Boolean.getBoolean("testLiftOnlyAtContextBoundaries"))
+          .build();
   private final Tracer tracer = testing.getOpenTelemetry().getTracer("test");
 
   ReactorCoreTest() {
@@ -17,7 +17,10 @@ class SubscriptionTest extends AbstractSubscriptionTest {
   @RegisterExtension
   static final InstrumentationExtension testing = LibraryInstrumentationExtension.create();
 
-  private final ContextPropagationOperator tracingOperator = ContextPropagationOperator.create();
+  private final ContextPropagationOperator tracingOperator =
+      ContextPropagationOperator.builder()
+          .setLiftOnlyAtContextBoundaries(Boolean.getBoolean("testLiftOnlyAtContextBoundaries"))
+          .build();
 
   SubscriptionTest() {
     super(testing);
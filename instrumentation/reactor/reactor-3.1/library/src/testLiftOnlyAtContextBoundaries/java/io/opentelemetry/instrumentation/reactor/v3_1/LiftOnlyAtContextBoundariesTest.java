@@ -0,0 +1,80 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.instrumentation.reactor.v3_1;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class LiftOnlyAtContextBoundariesTest {
+
+  private static final ContextPropagationOperator tracingOperator =
+      ContextPropagationOperator.builder().setLiftOnlyAtContextBoundaries(true).build();
+
+  @BeforeAll
+  static void setUp() {
+    tracingOperator.registerOnEachOperator();
+  }
+
+  @AfterAll
+  static void tearDown() {
+    tracingOperator.resetOnEachOperator();
+  }
+
+  @Test
+  void synchronousOperatorIsNotLifted() {
+    AtomicReference<CoreSubscriber<? super Integer>> subscriber = new AtomicReference<>();
+
+    new CapturingMono(subscriber).map(i -> i + 1).subscribe();
+
+    assertThat(subscriber.get()).extracting("actual").isNotInstanceOf(TracingSubscriber.class);
+  }
+
+  @Test
+  void asynchronousOperatorIsLifted() {
+    AtomicReference<CoreSubscriber<? super Integer>> subscriber = new AtomicReference<>();
+
+    new CapturingMono(subscriber).publishOn(Schedulers.immediate()).subscribe();
+
+    assertThat(subscriber.get()).extracting("actual").isInstanceOf(TracingSubscriber.class);
+  }
+
+  @Test
+  void synchronousOperatorIsLiftedWhenContextChanges() {
+    AtomicReference<CoreSubscriber<? super Integer>> subscriber = new AtomicReference<>();
+    Context context = Context.root().with(ContextKey.named("test"), "value");
+
+    new CapturingMono(subscriber)
+        .map(i -> i + 1)
+        .contextWrite(
+            reactorContext ->
+                ContextPropagationOperator.storeOpenTelemetryContext(reactorContext, context))
+        .subscribe();
+
+    assertThat(subscriber.get()).extracting("actual").isInstanceOf(TracingSubscriber.class);
+  }
+
+  private static class CapturingMono extends Mono<Integer> {
+    private final AtomicReference<CoreSubscriber<? super Integer>> subscriber;
+
+    private CapturingMono(AtomicReference<CoreSubscriber<? super Integer>> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void subscribe(CoreSubscriber<? super Integer> actual) {
+      subscriber.set(actual);
+    }
+  }
+}
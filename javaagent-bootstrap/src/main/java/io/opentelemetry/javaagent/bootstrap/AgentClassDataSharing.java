@@ -0,0 +1,107 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import javax.annotation.Nullable;
+
+/**
+ * Training run for a dynamic class data sharing (AppCDS) archive of the agent classes. Run it with
+ * the agent jar appended to the boot class path and with an empty class path:
+ *
+ * <pre>
+ * java -Xbootclasspath/a:opentelemetry-javaagent.jar -cp "" \
+ *   -XX:ArchiveClassesAtExit=opentelemetry-javaagent.jsa \
+ *   io.opentelemetry.javaagent.bootstrap.AgentClassDataSharing opentelemetry-javaagent.jar
+ * </pre>
+ *
+ * <p>All the classes of the agent jar are loaded and linked, the bootstrap classes from the boot
+ * class path and the internal classes by an {@link AgentClassLoader}, so that the jvm archives
+ * them when it exits. The archive is used with {@code
+ * -Xbootclasspath/a:opentelemetry-javaagent.jar -XX:SharedArchiveFile=opentelemetry-javaagent.jsa
+ * -javaagent:opentelemetry-javaagent.jar}.
+ *
+ * <p>The agent is not started in the training run because the jvm refuses to create archives when
+ * an agent is loaded on the command line, unless diagnostic options meant for testing are enabled.
+ */
+// no logging is configured in the training jvm
+@SuppressWarnings("SystemOut")
+public final class AgentClassDataSharing {
+
+  private static final String INTERNAL_JAR_PREFIX = "inst/";
+  private static final String META_INF = "META-INF/";
+
+  public static void main(String... args) throws Exception {
+    if (args.length != 1) {
+      throw new IllegalArgumentException(
+          "Usage: " + AgentClassDataSharing.class.getName() + " <agent jar>");
+    }
+    // bootstrap classes are only archived when they are loaded from the boot class path
+    if (AgentClassDataSharing.class.getClassLoader() != null) {
+      throw new IllegalStateException(
+          "the agent jar must be appended to the boot class path with -Xbootclasspath/a");
+    }
+    File javaagentFile = new File(args[0]);
+
+    // the jvm archives the classes that are defined from a jar on the boot class path as boot
+    // classes, even when they are defined by another class loader. Classes of the agent class
+    // loader are loaded from a copy of the agent jar so that they are archived as classes of a
+    // custom class loader, these are only used when the same class file is defined again.
+    File javaagentCopy = File.createTempFile("opentelemetry-javaagent", ".jar");
+    javaagentCopy.deleteOnExit();
+    Files.copy(javaagentFile.toPath(), javaagentCopy.toPath(), REPLACE_EXISTING);
+    AgentClassLoader agentClassLoader = new AgentClassLoader(javaagentCopy, "inst", false);
+
+    int loaded = 0;
+    int failed = 0;
+    try (JarFile jarFile = new JarFile(javaagentFile, false)) {
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String entryName = entries.nextElement().getName();
+        String className;
+        ClassLoader classLoader;
+        if (entryName.startsWith(INTERNAL_JAR_PREFIX)) {
+          className = getClassName(entryName.substring(INTERNAL_JAR_PREFIX.length()), ".classdata");
+          classLoader = agentClassLoader;
+        } else {
+          className = getClassName(entryName, ".class");
+          classLoader = null;
+        }
+        if (className == null) {
+          continue;
+        }
+        try {
+          // the jvm archives only linked classes, getting the methods links the class without
+          // initializing it
+          Class.forName(className, false, classLoader).getDeclaredMethods();
+          loaded++;
+        } catch (ClassNotFoundException | LinkageError e) {
+          // the class depends on library classes that are not present in the training jvm
+          failed++;
+        }
+      }
+    }
+    System.out.println(
+        "Loaded " + loaded + " agent classes, " + failed + " classes could not be loaded");
+  }
+
+  @Nullable
+  private static String getClassName(String entryName, String suffix) {
+    // multi-release classes are loaded from the base name
+    if (!entryName.endsWith(suffix) || entryName.startsWith(META_INF)) {
+      return null;
+    }
+    return entryName.substring(0, entryName.length() - suffix.length()).replace('/', '.');
+  }
+
+  private AgentClassDataSharing() {}
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import javax.annotation.Nullable;
+
+/**
+ * An uncompressed index of the classes of the internal jar, stored as a single entry of the agent
+ * jar. The agent class loader memory maps the index and defines the classes straight from it,
+ * instead of looking up and inflating the jar entries.
+ *
+ * <p>The index starts with a header, followed by an open addressing hash table of the entry names,
+ * the names and the class bytes:
+ *
+ * <pre>
+ * int magic, int version, int max multi release version, int slot count
+ * slot count * (int name hash, int name offset, int name length, int data offset, int data length)
+ * names, data
+ * </pre>
+ *
+ * <p>The index is added to the agent jar by running {@link #main(String[])} at build time.
+ */
+public final class AgentClassIndex {
+
+  // NOTE it's important not to use logging in this class, because this class is used before logging
+  // is initialized
+
+  static final String ENTRY_NAME = "classes.index";
+
+  private static final int MAGIC = 0x4F54434C;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int SLOT_SIZE = 20;
+
+  private static final String CLASS_SUFFIX = ".classdata";
+  private static final String META_INF_VERSIONS = "META-INF/versions/";
+
+  // zip file format, see https://pkware.cachefly.net/webdocs/casestudies/APPNOTE.TXT
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+  private static final int END_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+  private final ByteBuffer buffer;
+  private final int maxVersion;
+  private final int slotMask;
+
+  private AgentClassIndex(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.maxVersion = buffer.getInt(8);
+    this.slotMask = buffer.getInt(12) - 1;
+  }
+
+  /**
+   * Memory maps the index stored in the given entry of the agent jar, returns {@code null} when the
+   * jar doesn't contain a usable index.
+   */
+  @Nullable
+  static AgentClassIndex open(File javaagentFile, JarFile jarFile, String entryName) {
+    ZipEntry entry = jarFile.getEntry(entryName);
+    if (entry == null || entry.getMethod() != ZipEntry.STORED || entry.getSize() < HEADER_SIZE) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(javaagentFile.toPath(), StandardOpenOption.READ)) {
+      // the mapping remains valid after the channel is closed
+      ByteBuffer jar = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      // zip headers are little endian
+      jar.order(ByteOrder.LITTLE_ENDIAN);
+      int offset = findEntryData(jar, entryName);
+      if (offset < 0 || offset + entry.getSize() > jar.capacity()) {
+        return null;
+      }
+      // slices are big endian, like the index
+      ByteBuffer buffer = slice(jar, offset, (int) entry.getSize());
+      if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        return null;
+      }
+      return new AgentClassIndex(buffer);
+    } catch (IOException | RuntimeException e) {
+      // fall back to reading the classes from the jar entries
+      return null;
+    }
+  }
+
+  /** Returns the highest multi release version that the index contains classes for. */
+  int getMaxVersion() {
+    return maxVersion;
+  }
+
+  /** Returns the bytes of the given entry of the agent jar, or {@code null} if it isn't indexed. */
+  @Nullable
+  ByteBuffer find(String name) {
+    int hash = name.hashCode();
+    byte[] nameBytes = null;
+    for (int slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+      int slotOffset = HEADER_SIZE + slot * SLOT_SIZE;
+      int nameLength = buffer.getInt(slotOffset + 8);
+      if (nameLength == 0) {
+        return null;
+      }
+      if (buffer.getInt(slotOffset) != hash) {
+        continue;
+      }
+      if (nameBytes == null) {
+        nameBytes = name.getBytes(UTF_8);
+      }
+      if (nameLength == nameBytes.length
+          && bytesEqual(buffer, buffer.getInt(slotOffset + 4), nameBytes)) {
+        return slice(buffer, buffer.getInt(slotOffset + 12), buffer.getInt(slotOffset + 16));
+      }
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+    ByteBuffer result = buffer.duplicate();
+    result.position(offset);
+    result.limit(offset + length);
+    return result.slice();
+  }
+
+  // returns the offset of the data of the given entry, or -1 when it can't be found
+  private static int findEntryData(ByteBuffer jar, String entryName) {
+    int end = findEnd(jar);
+    if (end < 0) {
+      return -1;
+    }
+    long centralDirectory = jar.getInt(end + 16) & 0xFFFFFFFFL;
+    if (centralDirectory == 0xFFFFFFFFL) {
+      // the agent jar has too many entries for the 32-bit end record
+      int locator = end - 20;
+      if (locator < 0 || jar.getInt(locator) != ZIP64_LOCATOR_SIGNATURE) {
+        return -1;
+      }
+      int zip64End = (int) jar.getLong(locator + 8);
+      if (jar.getInt(zip64End) != ZIP64_END_SIGNATURE) {
+        return -1;
+      }
+      centralDirectory = jar.getLong(zip64End + 48);
+    }
+
+    byte[] nameBytes = entryName.getBytes(UTF_8);
+    int offset = (int) centralDirectory;
+    while (offset + 46 <= jar.capacity() && jar.getInt(offset) == CENTRAL_HEADER_SIGNATURE) {
+      int nameLength = jar.getShort(offset + 28) & 0xFFFF;
+      int extraLength = jar.getShort(offset + 30) & 0xFFFF;
+      int commentLength = jar.getShort(offset + 32) & 0xFFFF;
+      if (nameLength == nameBytes.length && bytesEqual(jar, offset + 46, nameBytes)) {
+        int localHeader = jar.getInt(offset + 42);
+        if (localHeader < 0 || jar.getInt(localHeader) != LOCAL_HEADER_SIGNATURE) {
+          return -1;
+        }
+        return localHeader
+            + 30
+            + (jar.getShort(localHeader + 26) & 0xFFFF)
+            + (jar.getShort(localHeader + 28) & 0xFFFF);
+      }
+      offset += 46 + nameLength + extraLength + commentLength;
+    }
+    return -1;
+  }
+
+  private static int findEnd(ByteBuffer jar) {
+    int limit = Math.max(0, jar.capacity() - END_SIZE - MAX_COMMENT_SIZE);
+    for (int offset = jar.capacity() - END_SIZE; offset >= limit; offset--) {
+      if (jar.getInt(offset) == END_SIGNATURE) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean bytesEqual(ByteBuffer buffer, int offset, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(offset + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copies the agent jar and adds the index of the classes of its internal jar to the copy.
+   *
+   * <p>Arguments: agent jar, output jar, internal jar file name
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 3) {
+      throw new IllegalArgumentException(
+          "Usage: AgentClassIndex <agent jar> <output jar> <internal jar file name>");
+    }
+    addIndex(Paths.get(args[0]), Paths.get(args[1]), args[2]);
+  }
+
+  static void addIndex(Path agentJar, Path outputJar, String internalJarFileName)
+      throws IOException {
+    String prefix = internalJarFileName.isEmpty() ? "" : internalJarFileName + "/";
+    ByteArrayOutputStream index = new ByteArrayOutputStream();
+    try (JarFile jarFile = new JarFile(agentJar.toFile(), false)) {
+      write(readClasses(jarFile, prefix), prefix, index);
+    }
+
+    Files.copy(agentJar, outputJar, StandardCopyOption.REPLACE_EXISTING);
+    URI uri = URI.create("jar:" + outputJar.toUri());
+    // entries added by the zip file system are stored without compression, existing entries are
+    // copied as they are
+    try (FileSystem zip =
+        FileSystems.newFileSystem(uri, Collections.singletonMap("noCompression", "true"))) {
+      Files.write(zip.getPath(prefix + ENTRY_NAME), index.toByteArray());
+    }
+  }
+
+  private static Map<String, byte[]> readClasses(JarFile jarFile, String prefix)
+      throws IOException {
+    // sorted, so that the index is reproducible
+    Map<String, byte[]> result = new TreeMap<>();
+    Enumeration<JarEntry> entries = jarFile.entries();
+    while (entries.hasMoreElements()) {
+      JarEntry entry = entries.nextElement();
+      String name = entry.getName();
+      if (name.startsWith(prefix) && name.endsWith(CLASS_SUFFIX)) {
+        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+          result.put(name, readAllBytes(inputStream));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static byte[] readAllBytes(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      result.write(buffer, 0, read);
+    }
+    return result.toByteArray();
+  }
+
+  // visible for testing
+  static void write(Map<String, byte[]> classes, String prefix, OutputStream outputStream)
+      throws IOException {
+    // at most half of the slots are used, so that the probe sequences stay short
+    int slotCount = Integer.highestOneBit(Math.max(1, classes.size()) * 2) * 2;
+    int[] hashes = new int[slotCount];
+    int[] nameOffsets = new int[slotCount];
+    int[] nameLengths = new int[slotCount];
+    int[] dataOffsets = new int[slotCount];
+    int[] dataLengths = new int[slotCount];
+
+    ByteArrayOutputStream names = new ByteArrayOutputStream();
+    int namesOffset = HEADER_SIZE + slotCount * SLOT_SIZE;
+    int dataSize = 0;
+    for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+      byte[] nameBytes = entry.getKey().getBytes(UTF_8);
+      int hash = entry.getKey().hashCode();
+      int slot = hash & (slotCount - 1);
+      while (nameLengths[slot] != 0) {
+        slot = (slot + 1) & (slotCount - 1);
+      }
+      hashes[slot] = hash;
+      nameOffsets[slot] = namesOffset + names.size();
+      nameLengths[slot] = nameBytes.length;
+      // data offsets are relative to the end of the names until the names are written
+      dataOffsets[slot] = dataSize;
+      dataLengths[slot] = entry.getValue().length;
+      names.write(nameBytes);
+      dataSize += entry.getValue().length;
+    }
+    int dataOffset = namesOffset + names.size();
+
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(maxVersion(classes, prefix));
+    out.writeInt(slotCount);
+    for (int slot = 0; slot < slotCount; slot++) {
+      out.writeInt(hashes[slot]);
+      out.writeInt(nameOffsets[slot]);
+      out.writeInt(nameLengths[slot]);
+      out.writeInt(nameLengths[slot] == 0 ? 0 : dataOffset + dataOffsets[slot]);
+      out.writeInt(dataLengths[slot]);
+    }
+    names.writeTo(out);
+    for (byte[] bytes : classes.values()) {
+      out.write(bytes);
+    }
+    out.flush();
+  }
+
+  private static int maxVersion(Map<String, byte[]> classes, String prefix) {
+    String versionsPrefix = prefix + META_INF_VERSIONS;
+    int result = 0;
+    for (String name : classes.keySet()) {
+      if (name.startsWith(versionsPrefix)) {
+        int end = name.indexOf('/', versionsPrefix.length());
+        if (end != -1) {
+          try {
+            result =
+                Math.max(result, Integer.parseInt(name.substring(versionsPrefix.length(), end)));
+          } catch (NumberFormatException ignored) {
+            // not a versioned entry
+          }
+        }
+      }
+    }
+    return result;
+  }
+}
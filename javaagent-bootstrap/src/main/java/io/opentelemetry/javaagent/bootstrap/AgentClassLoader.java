@@ -16,6 +16,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
 import java.security.AllPermission;
 import java.security.CodeSource;
 import java.security.Permission;
@@ -77,6 +78,8 @@ public class AgentClassLoader extends URLClassLoader {
   private final CodeSource codeSource;
   private final boolean isSecurityManagerSupportEnabled;
   private final Manifest manifest;
+  // present when the agent jar was built with an index of the classes of the internal jar
+  @Nullable private final AgentClassIndex classIndex;
 
   // Used by tests
   public AgentClassLoader(File javaagentFile) {
@@ -138,6 +141,8 @@ public class AgentClassLoader extends URLClassLoader {
     } catch (IOException e) {
       throw new IllegalStateException("Unable to open agent jar", e);
     }
+    classIndex =
+        AgentClassIndex.open(javaagentFile, jarFile, jarEntryPrefix + AgentClassIndex.ENTRY_NAME);
 
     bootstrapProxy =
         new BootstrapClassLoaderProxy(
@@ -213,6 +218,10 @@ public class AgentClassLoader extends URLClassLoader {
 
   @Nullable
   private Class<?> findAgentClass(String name) throws ClassNotFoundException {
+    if (classIndex != null) {
+      return findIndexedAgentClass(classIndex, name);
+    }
+
     AgentJarResource jarResource = findAgentJarResource(name.replace('.', '/') + ".class");
     if (jarResource != null) {
       byte[] bytes;
@@ -229,6 +238,33 @@ public class AgentClassLoader extends URLClassLoader {
     return null;
   }
 
+  @Nullable
+  private Class<?> findIndexedAgentClass(AgentClassIndex classIndex, String name) {
+    // the index contains all classes of the internal jar, classes that are not in it are not
+    // looked up in the jar
+    String resourceName = name.replace('.', '/') + ".class" + getClassSuffix();
+    ByteBuffer bytes = null;
+    if (MULTI_RELEASE_JAR_ENABLE) {
+      // same logic as in findVersionedAgentJarResource, but starting from the highest version that
+      // the index contains classes for
+      int version = Math.min(JAVA_VERSION, classIndex.getMaxVersion());
+      while (bytes == null && version >= MIN_MULTI_RELEASE_JAR_JAVA_VERSION) {
+        bytes = classIndex.find(jarEntryPrefix + META_INF_VERSIONS + version + "/" + resourceName);
+        version--;
+      }
+    }
+    if (bytes == null) {
+      bytes = classIndex.find(jarEntryPrefix + resourceName);
+    }
+    if (bytes == null) {
+      return null;
+    }
+
+    definePackageIfNeeded(name);
+    // the class is defined straight from the memory mapped index, without copying it to the heap
+    return defineClass(name, bytes, codeSource);
+  }
+
   public Class<?> defineClass(String name, byte[] bytes) {
     return defineClass(name, bytes, 0, bytes.length, codeSource);
   }
@@ -0,0 +1,245 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.logging.Level.FINE;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextStorage;
+import io.opentelemetry.context.Scope;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Callable;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ContextStorage} that falls back to a context bound to a {@code java.lang.ScopedValue}
+ * when nothing was attached to the current thread by the wrapped storage.
+ *
+ * <p>Unlike thread locals, scoped value bindings are inherited by the subtasks forked from a {@code
+ * java.util.concurrent.StructuredTaskScope}, so a bound context is the current context in these
+ * subtasks without propagating it to each of them, and a virtual thread that only reads the context
+ * never allocates a thread local map. The agent binds the context of the forking thread around each
+ * task forked from a task scope with {@link #bindContext(Context, Callable)}, the task scopes
+ * opened in that task and their subtasks then inherit the binding. Application code can also bind
+ * the current context with {@link #runWithCurrentContext(Runnable)}.
+ *
+ * <p>A binding is only possible around a callback, {@link Context#makeCurrent()} keeps using the
+ * wrapped storage and a context attached there takes precedence over the bound one.
+ *
+ * <p>{@code ScopedValue} is a preview API before jdk 25 and is accessed reflectively, {@link
+ * #isAvailable()} returns {@code false} when it can't be used.
+ */
+public final class ScopedValueContextStorage implements ContextStorage, AutoCloseable {
+
+  private static final Logger logger = Logger.getLogger(ScopedValueContextStorage.class.getName());
+
+  // ()boolean, ()Object, (Object)Object and (Object, Runnable)void, bound to the scoped value
+  @Nullable private static final MethodHandle IS_BOUND;
+  @Nullable private static final MethodHandle GET;
+  @Nullable private static final MethodHandle WHERE;
+  @Nullable private static final MethodHandle RUN;
+
+  private static volatile boolean installed;
+
+  static {
+    MethodHandle isBound = null;
+    MethodHandle get = null;
+    MethodHandle where = null;
+    MethodHandle run = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+      Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+      Object scopedValue =
+          lookup.findStatic(scopedValueClass, "newInstance", methodType(scopedValueClass)).invoke();
+      isBound =
+          lookup
+              .findVirtual(scopedValueClass, "isBound", methodType(boolean.class))
+              .bindTo(scopedValue);
+      get =
+          lookup.findVirtual(scopedValueClass, "get", methodType(Object.class)).bindTo(scopedValue);
+      where =
+          MethodHandles.insertArguments(
+                  lookup.findStatic(
+                      scopedValueClass,
+                      "where",
+                      methodType(carrierClass, scopedValueClass, Object.class)),
+                  0,
+                  scopedValue)
+              .asType(methodType(Object.class, Object.class));
+      // run(Runnable) is the only method of the carrier that hasn't changed between jdk 21 and 25
+      run =
+          lookup
+              .findVirtual(carrierClass, "run", methodType(void.class, Runnable.class))
+              .asType(methodType(void.class, Object.class, Runnable.class));
+
+      // fails when preview features are not enabled
+      Object carrier = where.invokeExact((Object) Context.root());
+      run.invokeExact(carrier, (Runnable) () -> {});
+    } catch (Throwable t) {
+      logger.log(FINE, "ScopedValue is not available", t);
+      isBound = null;
+      get = null;
+      where = null;
+      run = null;
+    }
+    IS_BOUND = isBound;
+    GET = get;
+    WHERE = where;
+    RUN = run;
+  }
+
+  private final ContextStorage delegate;
+
+  public ScopedValueContextStorage(ContextStorage delegate) {
+    if (!isAvailable()) {
+      throw new IllegalStateException("ScopedValue is not available");
+    }
+    this.delegate = delegate;
+    installed = true;
+  }
+
+  /** Returns {@code true} when {@code java.lang.ScopedValue} can be used on this jvm. */
+  public static boolean isAvailable() {
+    return RUN != null;
+  }
+
+  /** Returns {@code true} when this storage is the context storage of the agent. */
+  public static boolean isInstalled() {
+    return installed;
+  }
+
+  /**
+   * Runs {@code runnable} with the current context bound to the scoped value. When this storage is
+   * not installed, {@code runnable} is just run.
+   *
+   * <p>Takes no {@link Context} so that it can also be called with the application's copy of the
+   * context api, which is bridged to the agent's current context.
+   */
+  public static void runWithCurrentContext(Runnable runnable) {
+    runWithContext(Context.current(), runnable);
+  }
+
+  /**
+   * Returns a task that runs {@code task} with {@code context} bound to the scoped value, or {@code
+   * task} itself when this storage is not installed.
+   */
+  public static <T> Callable<T> bindContext(Context context, Callable<T> task) {
+    if (!installed) {
+      return task;
+    }
+    return new BoundCallable<>(context, task);
+  }
+
+  private static void runWithContext(Context context, Runnable runnable) {
+    MethodHandle where = WHERE;
+    MethodHandle run = RUN;
+    if (!installed || where == null || run == null) {
+      runnable.run();
+      return;
+    }
+    try {
+      Object carrier = where.invokeExact((Object) context);
+      run.invokeExact(carrier, runnable);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      // run(Runnable) doesn't throw checked exceptions
+      throw new IllegalStateException(t);
+    }
+  }
+
+  /**
+   * Returns {@code true} when {@code context} is bound to the scoped value, tasks forked from a
+   * {@code StructuredTaskScope} inherit it and don't need to have it propagated.
+   */
+  public static boolean isInherited(Context context) {
+    return installed && boundContext() == context;
+  }
+
+  /**
+   * Returns {@code true} when the current context is bound to the scoped value. Takes no {@link
+   * Context} for the same reason as {@link #runWithCurrentContext(Runnable)}.
+   */
+  public static boolean isCurrentContextBound() {
+    return isInherited(Context.current());
+  }
+
+  @Nullable
+  private static Context boundContext() {
+    MethodHandle isBound = IS_BOUND;
+    MethodHandle get = GET;
+    if (isBound == null || get == null) {
+      return null;
+    }
+    try {
+      if ((boolean) isBound.invokeExact()) {
+        return (Context) (Object) get.invokeExact();
+      }
+      return null;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  @Override
+  public Scope attach(Context toAttach) {
+    return delegate.attach(toAttach);
+  }
+
+  @Nullable
+  @Override
+  public Context current() {
+    Context current = delegate.current();
+    if (current != null) {
+      return current;
+    }
+    return boundContext();
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (delegate instanceof AutoCloseable) {
+      ((AutoCloseable) delegate).close();
+    }
+  }
+
+  // run(Runnable) is used for the binding, the result of the task is kept in fields
+  private static final class BoundCallable<T> implements Callable<T>, Runnable {
+    private final Context context;
+    private final Callable<T> task;
+    @Nullable private T result;
+    @Nullable private Exception exception;
+
+    BoundCallable(Context context, Callable<T> task) {
+      this.context = context;
+      this.task = task;
+    }
+
+    @Override
+    @Nullable
+    public T call() throws Exception {
+      runWithContext(context, this);
+      Exception exception = this.exception;
+      if (exception != null) {
+        throw exception;
+      }
+      return result;
+    }
+
+    @Override
+    public void run() {
+      try {
+        result = task.call();
+      } catch (Exception e) {
+        exception = e;
+      }
+    }
+  }
+}
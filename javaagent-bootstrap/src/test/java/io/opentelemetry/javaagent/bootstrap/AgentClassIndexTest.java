@@ -0,0 +1,129 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.bootstrap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.instrumentation.testing.internal.AutoCleanupExtension;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+class AgentClassIndexTest {
+
+  @RegisterExtension final AutoCleanupExtension cleanup = AutoCleanupExtension.create();
+
+  @Test
+  void findsIndexedEntries() throws IOException {
+    Map<String, byte[]> entries = new TreeMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put("inst/com/example/Class" + i + ".classdata", ("class " + i).getBytes(UTF_8));
+    }
+    entries.put("inst/META-INF/versions/11/com/example/Class0.classdata", new byte[] {11});
+    entries.put("inst/com/example/resource.txt", new byte[] {1});
+    File indexedJar = addIndex(createJar(entries));
+
+    try (JarFile jarFile = new JarFile(indexedJar)) {
+      AgentClassIndex index =
+          AgentClassIndex.open(indexedJar, jarFile, "inst/" + AgentClassIndex.ENTRY_NAME);
+
+      assertThat(index).isNotNull();
+      assertThat(index.getMaxVersion()).isEqualTo(11);
+      for (int i = 0; i < 1000; i++) {
+        ByteBuffer bytes = index.find("inst/com/example/Class" + i + ".classdata");
+        assertThat(bytes).isNotNull();
+        assertThat(UTF_8.decode(bytes).toString()).isEqualTo("class " + i);
+      }
+      assertThat(index.find("inst/META-INF/versions/11/com/example/Class0.classdata"))
+          .isEqualTo(ByteBuffer.wrap(new byte[] {11}));
+      // only classes are indexed
+      assertThat(index.find("inst/com/example/resource.txt")).isNull();
+      assertThat(index.find("inst/com/example/Missing.classdata")).isNull();
+    }
+  }
+
+  @Test
+  void doesNotOpenJarWithoutIndex() throws IOException {
+    File jar = createJar(new TreeMap<>());
+
+    try (JarFile jarFile = new JarFile(jar)) {
+      assertThat(AgentClassIndex.open(jar, jarFile, "inst/" + AgentClassIndex.ENTRY_NAME))
+          .isNull();
+    }
+  }
+
+  @Test
+  void loadsClassesFromIndex() throws Exception {
+    String className = IndexedClass.class.getName();
+    Map<String, byte[]> entries = new TreeMap<>();
+    entries.put("inst/" + className.replace('.', '/') + ".classdata", classBytes(className));
+    File indexedJar = addIndex(createJar(entries));
+
+    AgentClassLoader loader = new AgentClassLoader(indexedJar, "inst", false);
+    cleanup.deferCleanup(loader);
+
+    Class<?> clazz = loader.loadClass(className);
+    // class was loaded by agent loader used in this test
+    assertThat(clazz.getClassLoader()).isEqualTo(loader);
+    assertThat(clazz.getPackage().getName()).isEqualTo(IndexedClass.class.getPackage().getName());
+  }
+
+  private static File createJar(Map<String, byte[]> entries) throws IOException {
+    File jar = createTempFile();
+    try (JarOutputStream out =
+        new JarOutputStream(Files.newOutputStream(jar.toPath()), new Manifest())) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        out.putNextEntry(new ZipEntry(entry.getKey()));
+        out.write(entry.getValue());
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private static File addIndex(File jar) throws IOException {
+    File indexedJar = createTempFile();
+    AgentClassIndex.addIndex(jar.toPath(), indexedJar.toPath(), "inst");
+    return indexedJar;
+  }
+
+  private static File createTempFile() throws IOException {
+    // the agent class loader keeps the jar open and mapped, which prevents deleting it on windows
+    File file = Files.createTempFile("agent", ".jar").toFile();
+    file.deleteOnExit();
+    return file;
+  }
+
+  private static byte[] classBytes(String className) throws IOException {
+    try (InputStream inputStream =
+        AgentClassIndexTest.class
+            .getClassLoader()
+            .getResourceAsStream(className.replace('.', '/') + ".class")) {
+      assertThat(inputStream).isNotNull();
+      ByteArrayOutputStream result = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        result.write(buffer, 0, read);
+      }
+      return result.toByteArray();
+    }
+  }
+
+  public static class IndexedClass {}
+}
@@ -9,9 +9,12 @@ import io.opentelemetry.instrumentation.api.internal.cache.Cache;
 import io.opentelemetry.javaagent.bootstrap.internal.ClassLoaderMatcherCacheHolder;
 import io.opentelemetry.javaagent.bootstrap.internal.InClassLoaderMatcher;
 import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 import net.bytebuddy.matcher.ElementMatcher;
 
 class ClassLoaderHasClassesNamedMatcher extends ElementMatcher.Junction.AbstractBase<ClassLoader> {
@@ -21,15 +24,24 @@ class ClassLoaderHasClassesNamedMatcher extends ElementMatcher.Junction.Abstract
   private static boolean useCache = true;
 
   private static final AtomicInteger counter = new AtomicInteger();
+  // many instrumentation modules look for the same classes, each distinct resource name gets a
+  // unique index that is used for caching whether a class loader has it
+  private static final ConcurrentMap<String, Integer> resourceIndexes = new ConcurrentHashMap<>();
+  private static final AtomicInteger resourceCounter = new AtomicInteger();
 
   private final String[] resources;
+  private final int[] resourceIndex;
   // each matcher gets a unique index that is used for caching the matching status
   private final int index = counter.getAndIncrement();
 
   ClassLoaderHasClassesNamedMatcher(String... classNames) {
     resources = classNames;
+    resourceIndex = new int[resources.length];
     for (int i = 0; i < resources.length; i++) {
       resources[i] = resources[i].replace(".", "/") + ".class";
+      resourceIndex[i] =
+          resourceIndexes.computeIfAbsent(
+              resources[i], unused -> resourceCounter.getAndIncrement());
     }
   }
 
@@ -47,17 +59,21 @@ class ClassLoaderHasClassesNamedMatcher extends ElementMatcher.Junction.Abstract
   }
 
   private static boolean hasResources(ClassLoader cl, String... resources) {
+    for (String resource : resources) {
+      if (!hasResource(cl, resource)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasResource(ClassLoader cl, String resource) {
     boolean priorValue = InClassLoaderMatcher.getAndSet(true);
     try {
-      for (String resource : resources) {
-        if (cl.getResource(resource) == null) {
-          return false;
-        }
-      }
+      return cl.getResource(resource) != null;
     } finally {
       InClassLoaderMatcher.set(priorValue);
     }
-    return true;
   }
 
   private static class Manager {
@@ -65,33 +81,53 @@ class ClassLoaderHasClassesNamedMatcher extends ElementMatcher.Junction.Abstract
     // each matcher gets a two bits in BitSet, that first bit indicates whether current matcher has
     // been run for given class loader and the second whether it matched or not
     private final Cache<ClassLoader, BitSet> enabled = Cache.weak();
+    // the same for each resource name, so that a class loader is asked for a resource at most once
+    // no matter how many matchers look for it, and missing resources are remembered as well
+    private final Cache<ClassLoader, BitSet> probedResources = Cache.weak();
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final Lock readLock = lock.readLock();
     private final Lock writeLock = lock.writeLock();
 
     Manager() {
       ClassLoaderMatcherCacheHolder.addCache(enabled);
+      ClassLoaderMatcherCacheHolder.addCache(probedResources);
     }
 
     boolean match(ClassLoaderHasClassesNamedMatcher matcher, ClassLoader cl) {
       BitSet set = enabled.computeIfAbsent(cl, (unused) -> new BitSet(counter.get() * 2));
-      int matcherRunBit = 2 * matcher.index;
-      int matchedBit = matcherRunBit + 1;
+      return getOrCompute(set, matcher.index, () -> hasResources(matcher, cl));
+    }
+
+    private boolean hasResources(ClassLoaderHasClassesNamedMatcher matcher, ClassLoader cl) {
+      BitSet set =
+          probedResources.computeIfAbsent(cl, (unused) -> new BitSet(resourceCounter.get() * 2));
+      for (int i = 0; i < matcher.resources.length; i++) {
+        String resource = matcher.resources[i];
+        if (!getOrCompute(set, matcher.resourceIndex[i], () -> hasResource(cl, resource))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean getOrCompute(BitSet set, int index, BooleanSupplier check) {
+      int runBit = 2 * index;
+      int matchedBit = runBit + 1;
       readLock.lock();
       try {
-        if (!set.get(matcherRunBit)) {
+        if (!set.get(runBit)) {
           // read lock needs to be released before upgrading to write lock
           readLock.unlock();
           // we do the resource presence check outside the lock to keep the time we need to hold
           // the write lock minimal
-          boolean matches = hasResources(cl, matcher.resources);
+          boolean matches = check.getAsBoolean();
           writeLock.lock();
           try {
-            if (!set.get(matcherRunBit)) {
+            if (!set.get(runBit)) {
               if (matches) {
                 set.set(matchedBit);
               }
-              set.set(matcherRunBit);
+              set.set(runBit);
             }
           } finally {
             // downgrading the write lock to the read lock
@@ -0,0 +1,79 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.extension.matcher;
+
+import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasClassesNamed;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.javaagent.bootstrap.internal.ClassLoaderMatcherCacheHolder;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import net.bytebuddy.matcher.ElementMatcher;
+import org.junit.jupiter.api.Test;
+
+class ClassLoaderHasClassesNamedMatcherTest {
+
+  private static final String PRESENT = ClassLoaderHasClassesNamedMatcherTest.class.getName();
+  private static final String MISSING = "com.example.Missing";
+
+  @Test
+  void matchesWhenAllClassesArePresent() {
+    CountingClassLoader classLoader = new CountingClassLoader();
+
+    assertThat(hasClassesNamed(PRESENT).matches(classLoader)).isTrue();
+    assertThat(hasClassesNamed(PRESENT, MISSING).matches(classLoader)).isFalse();
+    assertThat(hasClassesNamed(PRESENT).matches(null)).isFalse();
+  }
+
+  @Test
+  void sharesResourceLookupsBetweenMatchers() {
+    CountingClassLoader classLoader = new CountingClassLoader();
+    ElementMatcher<ClassLoader> first = hasClassesNamed(PRESENT, MISSING);
+    ElementMatcher<ClassLoader> second = hasClassesNamed(MISSING);
+    ElementMatcher<ClassLoader> third = hasClassesNamed(PRESENT);
+
+    assertThat(first.matches(classLoader)).isFalse();
+    assertThat(second.matches(classLoader)).isFalse();
+    assertThat(third.matches(classLoader)).isTrue();
+    assertThat(first.matches(classLoader)).isFalse();
+
+    // each resource is looked up once, including the missing one
+    assertThat(classLoader.requestedResources)
+        .containsExactly(resourceName(PRESENT), resourceName(MISSING));
+  }
+
+  @Test
+  void looksUpResourcesAgainAfterInvalidation() {
+    CountingClassLoader classLoader = new CountingClassLoader();
+    ElementMatcher<ClassLoader> matcher = hasClassesNamed(MISSING);
+
+    assertThat(matcher.matches(classLoader)).isFalse();
+    ClassLoaderMatcherCacheHolder.invalidateAllCachesForClassLoader(classLoader);
+    assertThat(matcher.matches(classLoader)).isFalse();
+
+    assertThat(classLoader.requestedResources)
+        .containsExactly(resourceName(MISSING), resourceName(MISSING));
+  }
+
+  private static String resourceName(String className) {
+    return className.replace('.', '/') + ".class";
+  }
+
+  private static class CountingClassLoader extends ClassLoader {
+    final List<String> requestedResources = new CopyOnWriteArrayList<>();
+
+    CountingClassLoader() {
+      super(ClassLoaderHasClassesNamedMatcherTest.class.getClassLoader());
+    }
+
+    @Override
+    public URL getResource(String name) {
+      requestedResources.add(name);
+      return super.getResource(name);
+    }
+  }
+}
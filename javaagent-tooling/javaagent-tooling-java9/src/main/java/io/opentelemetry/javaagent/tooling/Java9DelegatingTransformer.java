@@ -0,0 +1,60 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import java.util.function.BiConsumer;
+
+/**
+ * Transformer for java 9 and later with jpms module compatibility that applies transformers which
+ * may be added while the application is running.
+ */
+public class Java9DelegatingTransformer implements ClassFileTransformer {
+
+  private final BiConsumer<ClassLoader, String> beforeTransform;
+  private final Iterable<ClassFileTransformer> delegates;
+
+  /**
+   * Creates a transformer that calls {@code beforeTransform} with the class loader and the internal
+   * name of every transformed class, and then applies {@code delegates} in order.
+   */
+  public Java9DelegatingTransformer(
+      BiConsumer<ClassLoader, String> beforeTransform, Iterable<ClassFileTransformer> delegates) {
+    this.beforeTransform = beforeTransform;
+    this.delegates = delegates;
+  }
+
+  @Override
+  public byte[] transform(
+      Module module,
+      ClassLoader loader,
+      String className,
+      Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain,
+      byte[] classfileBuffer)
+      throws IllegalClassFormatException {
+    beforeTransform.accept(loader, className);
+
+    byte[] result = null;
+    for (ClassFileTransformer delegate : delegates) {
+      // the module is passed on, so that the delegates can make the agent classes readable from it
+      byte[] transformed =
+          delegate.transform(
+              module,
+              loader,
+              className,
+              classBeingRedefined,
+              protectionDomain,
+              result != null ? result : classfileBuffer);
+      if (transformed != null) {
+        result = transformed;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasSuperType;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.javaagent.tooling.muzzle.AgentCachingPoolStrategy;
+import io.opentelemetry.javaagent.tooling.muzzle.AgentTooling;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.pool.TypePool;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matches the super types of the classes in jackson-databind, which has deep class hierarchies
+ * like those of spring or hibernate, from several threads and class loaders at once, similar to
+ * what the agent does while an application server deploys applications. The {@code hits}, {@code
+ * misses} and {@code evictions} secondary results are the type cache statistics of each
+ * iteration.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@OutputTimeUnit(MICROSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+public class AgentCachingPoolStrategyBenchmark {
+
+  private static final ElementMatcher<TypeDescription> matcher =
+      hasSuperType(named("com.fasterxml.jackson.databind.JsonDeserializer"));
+
+  // 64 KiB holds about as many resolutions as the former cache of 64 entries
+  @Param({"65536", "4194304"})
+  long typeCacheMaxBytes = 4194304;
+
+  @Param({"1", "16"})
+  int classLoaderCount = 16;
+
+  private AgentCachingPoolStrategy poolStrategy;
+  private URLClassLoader[] classLoaders;
+  private ClassFileLocator[] classFileLocators;
+  private String[] classNames;
+
+  // type cache statistics at the start of the current iteration
+  private long hitsAtStart;
+  private long missesAtStart;
+  private long evictionsAtStart;
+  private final AtomicBoolean iterationReported = new AtomicBoolean();
+
+  @Setup
+  public void setUp() throws IOException, URISyntaxException {
+    poolStrategy = new AgentCachingPoolStrategy(AgentTooling.locationStrategy(), typeCacheMaxBytes);
+    URL[] urls = {
+      codeSource(ObjectMapper.class), codeSource(JsonParser.class), codeSource(JsonAutoDetect.class)
+    };
+    classLoaders = new URLClassLoader[classLoaderCount];
+    classFileLocators = new ClassFileLocator[classLoaderCount];
+    for (int i = 0; i < classLoaderCount; i++) {
+      // no parent, every class loader resolves its own copy of the jackson classes
+      classLoaders[i] = new URLClassLoader(urls, null);
+      classFileLocators[i] = AgentTooling.locationStrategy().classFileLocator(classLoaders[i]);
+    }
+    classNames = classNames(urls[0]);
+  }
+
+  @Setup(Level.Iteration)
+  public void startIteration() {
+    hitsAtStart = poolStrategy.getTypeCacheHits();
+    missesAtStart = poolStrategy.getTypeCacheMisses();
+    evictionsAtStart = poolStrategy.getTypeCacheEvictions();
+    iterationReported.set(false);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    for (URLClassLoader classLoader : classLoaders) {
+      classLoader.close();
+    }
+  }
+
+  @Benchmark
+  public boolean matchSuperTypes(TypeCacheCounters counters) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int loaderIndex = random.nextInt(classLoaders.length);
+    TypePool typePool =
+        poolStrategy.typePool(classFileLocators[loaderIndex], classLoaders[loaderIndex]);
+    TypeDescription type =
+        typePool.describe(classNames[random.nextInt(classNames.length)]).resolve();
+    return matcher.matches(type);
+  }
+
+  private void report(TypeCacheCounters counters) {
+    // the statistics of the cache are shared by all threads, only one of them reports them so that
+    // they are not counted once per thread
+    if (iterationReported.compareAndSet(false, true)) {
+      counters.hits = poolStrategy.getTypeCacheHits() - hitsAtStart;
+      counters.misses = poolStrategy.getTypeCacheMisses() - missesAtStart;
+      counters.evictions = poolStrategy.getTypeCacheEvictions() - evictionsAtStart;
+    } else {
+      counters.hits = 0;
+      counters.misses = 0;
+      counters.evictions = 0;
+    }
+  }
+
+  private static URL codeSource(Class<?> clazz) {
+    return clazz.getProtectionDomain().getCodeSource().getLocation();
+  }
+
+  private static String[] classNames(URL jar) throws IOException, URISyntaxException {
+    List<String> result = new ArrayList<>();
+    try (JarFile jarFile = new JarFile(Paths.get(jar.toURI()).toFile())) {
+      Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        String name = entries.nextElement().getName();
+        if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.contains("-info")) {
+          result.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+        }
+      }
+    }
+    return result.toArray(new String[0]);
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class TypeCacheCounters {
+    public long hits;
+    public long misses;
+    public long evictions;
+
+    @TearDown(Level.Iteration)
+    public void collect(AgentCachingPoolStrategyBenchmark benchmark) {
+      benchmark.report(this);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.ContextKey;
+import io.opentelemetry.context.ContextStorage;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.javaagent.bootstrap.ScopedValueContextStorage;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Callable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Forks a million virtual threads from a {@code StructuredTaskScope}, each of them reads the
+ * current context. With the thread local storage the context is propagated to every forked task
+ * and made current there, like the executors instrumentation does, with the scoped value storage
+ * the tasks inherit the context that is bound when the task scope is opened.
+ *
+ * <p>Requires jdk 21+, the structured concurrency api is a preview api that changes between jdk
+ * versions and is called reflectively.
+ */
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OperationsPerInvocation(ScopedValueContextStorageBenchmark.VIRTUAL_THREADS)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class ScopedValueContextStorageBenchmark {
+
+  static final int VIRTUAL_THREADS = 1_000_000;
+
+  private static final ContextKey<String> KEY = ContextKey.named("benchmark");
+
+  private static final Callable<String> TASK = () -> Context.current().get(KEY);
+
+  @Param({"threadLocal", "scopedValue"})
+  String storage = "scopedValue";
+
+  private boolean scopedValue;
+  private Context context;
+  private MethodHandle open;
+  private MethodHandle fork;
+  private MethodHandle join;
+  private MethodHandle close;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    scopedValue = storage.equals("scopedValue");
+    if (scopedValue) {
+      if (!ScopedValueContextStorage.isAvailable()) {
+        throw new IllegalStateException("ScopedValue is not available");
+      }
+      // before the context storage is first used
+      ContextStorage.addWrapper(ScopedValueContextStorage::new);
+    }
+    context = Context.root().with(KEY, "value");
+
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    Class<?> taskScopeClass = Class.forName("java.util.concurrent.StructuredTaskScope");
+    try {
+      // since jdk 25-ea+24
+      open = lookup.unreflect(taskScopeClass.getMethod("open"));
+    } catch (NoSuchMethodException e) {
+      open =
+          lookup.unreflectConstructor(
+              Class.forName("java.util.concurrent.StructuredTaskScope$ShutdownOnFailure")
+                  .getConstructor());
+    }
+    fork = lookup.unreflect(taskScopeClass.getMethod("fork", Callable.class));
+    join = lookup.unreflect(taskScopeClass.getMethod("join"));
+    close = lookup.unreflect(taskScopeClass.getMethod("close"));
+  }
+
+  @Benchmark
+  public void forkVirtualThreads() {
+    try (Scope ignored = context.makeCurrent()) {
+      if (scopedValue) {
+        ScopedValueContextStorage.runWithCurrentContext(this::forkAndJoin);
+      } else {
+        forkAndJoin();
+      }
+    }
+  }
+
+  private void forkAndJoin() {
+    try {
+      Object taskScope = open.invoke();
+      try {
+        for (int i = 0; i < VIRTUAL_THREADS; i++) {
+          fork.invoke(taskScope, scopedValue ? TASK : Context.current().wrap(TASK));
+        }
+        join.invoke(taskScope);
+      } finally {
+        close.invoke(taskScope);
+      }
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+}
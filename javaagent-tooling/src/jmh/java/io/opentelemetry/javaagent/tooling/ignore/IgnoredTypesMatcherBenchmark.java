@@ -7,6 +7,23 @@ package io.opentelemetry.javaagent.tooling.ignore;
 
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -15,6 +32,10 @@ import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 
 @Fork(1)
@@ -24,6 +45,8 @@ import org.openjdk.jmh.annotations.Warmup;
 @BenchmarkMode(Mode.AverageTime)
 public class IgnoredTypesMatcherBenchmark {
 
+  private static final int CORPUS_SIZE = 50_000;
+
   private static final TypeDescription springType =
       new TypeDescription.Latent("org.springframework.test.SomeClass", 0, null);
   private static final TypeDescription testAppType =
@@ -46,4 +69,87 @@ public class IgnoredTypesMatcherBenchmark {
   public boolean appType() {
     return ignoredTypesMatcher.matches(testAppType);
   }
+
+  /** Matches the names of the JDK classes and of the classes on the class path, in random order. */
+  @Benchmark
+  public int corpus(Corpus corpus) {
+    int ignored = 0;
+    for (TypeDescription type : corpus.types) {
+      if (corpus.matcher.matches(type)) {
+        ignored++;
+      }
+    }
+    return ignored;
+  }
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+
+    // compares the compact trie with the node based one
+    @Param({"true", "false"})
+    boolean compactTries = true;
+
+    ElementMatcher<TypeDescription> matcher;
+    TypeDescription[] types;
+
+    @Setup
+    public void setUp() throws IOException {
+      IgnoredTypesBuilderImpl builder = new IgnoredTypesBuilderImpl(compactTries);
+      new AdditionalLibraryIgnoredTypesConfigurer().configureInternal(builder);
+      matcher = new IgnoredTypesMatcher(builder.buildIgnoredTypesTrie());
+
+      List<String> classNames = new ArrayList<>(classNames());
+      Collections.shuffle(classNames, new Random(0));
+      types = new TypeDescription[CORPUS_SIZE];
+      for (int i = 0; i < CORPUS_SIZE; i++) {
+        // repeat the names if there are fewer classes than the corpus size
+        types[i] = new TypeDescription.Latent(classNames.get(i % classNames.size()), 0, null);
+      }
+    }
+
+    private static Set<String> classNames() throws IOException {
+      Set<String> result = new LinkedHashSet<>();
+      addJdkClassNames(result);
+      for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+        if (entry.endsWith(".jar")) {
+          addJarClassNames(new File(entry), result);
+        }
+      }
+      return result;
+    }
+
+    private static void addJdkClassNames(Set<String> result) throws IOException {
+      FileSystem jrt;
+      try {
+        jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+      } catch (RuntimeException e) {
+        // java 8, the class path has to suffice
+        return;
+      }
+      try (Stream<Path> paths = Files.walk(jrt.getPath("/modules"))) {
+        paths.forEach(
+            path -> {
+              // /modules/<module>/<class file path>
+              if (path.getNameCount() > 2) {
+                addClassName(path.subpath(2, path.getNameCount()).toString(), result);
+              }
+            });
+      }
+    }
+
+    private static void addJarClassNames(File jar, Set<String> result) throws IOException {
+      try (JarFile jarFile = new JarFile(jar)) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+          addClassName(entries.nextElement().getName(), result);
+        }
+      }
+    }
+
+    private static void addClassName(String path, Set<String> result) {
+      if (path.endsWith(".class") && !path.startsWith("META-INF/") && !path.contains("-info")) {
+        result.add(path.substring(0, path.length() - ".class".length()).replace('/', '.'));
+      }
+    }
+  }
 }
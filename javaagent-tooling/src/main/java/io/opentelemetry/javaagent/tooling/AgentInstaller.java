@@ -15,16 +15,19 @@ import static java.util.logging.Level.SEVERE;
 import static net.bytebuddy.matcher.ElementMatchers.any;
 import static net.bytebuddy.matcher.ElementMatchers.none;
 
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.context.Context;
 import io.opentelemetry.context.ContextStorage;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.api.internal.EmbeddedInstrumentationProperties;
+import io.opentelemetry.instrumentation.api.internal.SupportabilityMetrics;
 import io.opentelemetry.javaagent.bootstrap.AgentClassLoader;
 import io.opentelemetry.javaagent.bootstrap.BootstrapPackagePrefixesHolder;
 import io.opentelemetry.javaagent.bootstrap.DefineClassHelper;
 import io.opentelemetry.javaagent.bootstrap.InstrumentedTaskClasses;
 import io.opentelemetry.javaagent.bootstrap.LambdaTransformer;
 import io.opentelemetry.javaagent.bootstrap.LambdaTransformerHolder;
+import io.opentelemetry.javaagent.bootstrap.ScopedValueContextStorage;
 import io.opentelemetry.javaagent.bootstrap.http.HttpServerResponseCustomizer;
 import io.opentelemetry.javaagent.bootstrap.http.HttpServerResponseCustomizerHolder;
 import io.opentelemetry.javaagent.bootstrap.http.HttpServerResponseMutator;
@@ -39,12 +42,18 @@ import io.opentelemetry.javaagent.tooling.asyncannotationsupport.WeakRefAsyncOpe
 import io.opentelemetry.javaagent.tooling.bootstrap.BootstrapPackagesBuilderImpl;
 import io.opentelemetry.javaagent.tooling.bootstrap.BootstrapPackagesConfigurer;
 import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import io.opentelemetry.javaagent.tooling.decisioncache.DecisionCache;
 import io.opentelemetry.javaagent.tooling.field.FieldBackedImplementationConfiguration;
 import io.opentelemetry.javaagent.tooling.field.VirtualFieldImplementationInstaller;
 import io.opentelemetry.javaagent.tooling.field.VirtualFieldImplementationInstallerFactory;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredClassLoadersMatcher;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesBuilderImpl;
 import io.opentelemetry.javaagent.tooling.ignore.IgnoredTypesMatcher;
+import io.opentelemetry.javaagent.tooling.instrumentation.InstrumentationLoader;
+import io.opentelemetry.javaagent.tooling.instrumentation.LazyInstrumentationModules;
+import io.opentelemetry.javaagent.tooling.instrumentation.ParallelRedefinitionDiscoveryStrategy;
+import io.opentelemetry.javaagent.tooling.instrumentation.RetransformationFilter;
+import io.opentelemetry.javaagent.tooling.muzzle.AgentCachingPoolStrategy;
 import io.opentelemetry.javaagent.tooling.muzzle.AgentTooling;
 import io.opentelemetry.javaagent.tooling.util.Trie;
 import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdk;
@@ -59,6 +68,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -81,6 +91,25 @@ public class AgentInstaller {
 
   private static final String STRICT_CONTEXT_STRESSOR_MILLIS =
       "otel.javaagent.testing.strict-context-stressor-millis";
+  private static final String SUPPORTABILITY_METRICS_ENABLED =
+      "otel.javaagent.experimental.supportability-metrics.enabled";
+  // number of threads that filter the already loaded classes before they are retransformed, 0
+  // leaves the filtering to byte-buddy which evaluates all matchers on the installing thread
+  private static final String RETRANSFORMATION_THREADS =
+      "otel.javaagent.experimental.retransformation.threads";
+  // number of classes that are retransformed at once, 0 retransforms all of them at once
+  private static final String RETRANSFORMATION_BATCH_SIZE =
+      "otel.javaagent.experimental.retransformation.batch-size";
+
+  // defers installing the instrumentation modules that match classes only by name until one of
+  // these classes is loaded
+  private static final String LAZY_INSTRUMENTATION_MODULES_ENABLED =
+      "otel.javaagent.experimental.lazy-instrumentation-modules.enabled";
+
+  // on jdk 21+ looks up the context also in a ScopedValue binding, which is inherited by the
+  // subtasks forked from a StructuredTaskScope
+  private static final String SCOPED_VALUE_CONTEXT_STORAGE_ENABLED =
+      "otel.javaagent.experimental.scoped-value-context-storage.enabled";
 
   private static final Map<String, List<Runnable>> CLASS_LOAD_CALLBACKS = new HashMap<>();
 
@@ -94,6 +123,16 @@ public class AgentInstaller {
       ContextStorage.addWrapper(
           storage -> new StrictContextStressor(storage, strictContextStressorMillis));
     }
+    if (EarlyInitAgentConfig.get().getBoolean(SCOPED_VALUE_CONTEXT_STORAGE_ENABLED, false)) {
+      if (ScopedValueContextStorage.isAvailable()) {
+        ContextStorage.addWrapper(ScopedValueContextStorage::new);
+      } else {
+        logger.warning(
+            "ScopedValue is not available, "
+                + SCOPED_VALUE_CONTEXT_STORAGE_ENABLED
+                + " requires jdk 25, or jdk 21 with --enable-preview");
+      }
+    }
 
     logVersionInfo();
     if (EarlyInitAgentConfig.get().isEnabled()) {
@@ -119,31 +158,10 @@ public class AgentInstaller {
     // https://bugs.openjdk.org/browse/JDK-8164165
     ThreadLocalRandom.current();
 
-    AgentBuilder agentBuilder =
-        newAgentBuilder(
-                // default method graph compiler inspects the class hierarchy, we don't need it, so
-                // we use a simpler and faster strategy instead
-                new ByteBuddy()
-                    .with(MethodGraph.Compiler.ForDeclaredMethods.INSTANCE)
-                    .with(VisibilityBridgeStrategy.Default.NEVER)
-                    .with(InstrumentedType.Factory.Default.FROZEN))
-            .with(AgentBuilder.TypeStrategy.Default.DECORATE)
-            .disableClassFormatChanges()
-            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
-            .with(new RedefinitionDiscoveryStrategy())
-            .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY)
-            .with(AgentTooling.poolStrategy())
-            .with(AgentTooling.transformListener())
-            .with(AgentTooling.locationStrategy());
-
-    if (JavaModule.isSupported()) {
-      agentBuilder = agentBuilder.with(new ExposeAgentBootstrapListener(inst));
-    }
+    AgentBuilder agentBuilder = withRetransformation(newBaseAgentBuilder(inst));
     if (logger.isLoggable(FINE)) {
       agentBuilder =
-          agentBuilder
-              .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
-              .with(new RedefinitionDiscoveryStrategy())
+          withRetransformation(agentBuilder)
               .with(new RedefinitionLoggingListener())
               .with(new TransformLoggingListener());
     }
@@ -158,14 +176,33 @@ public class AgentInstaller {
     setBootstrapPackages(sdkConfig, extensionClassLoader);
     ConfiguredResourceAttributesHolder.initialize(
         SdkAutoconfigureAccess.getResource(autoConfiguredSdk).getAttributes());
+    registerSupportabilityMetrics(sdkConfig, autoConfiguredSdk);
 
     for (BeforeAgentListener agentListener :
         loadOrdered(BeforeAgentListener.class, extensionClassLoader)) {
       agentListener.beforeAgent(autoConfiguredSdk);
     }
 
+    DecisionCache.initialize(inst, EarlyInitAgentConfig.get().getExtensions());
+    DecisionCache decisionCache = DecisionCache.get();
+    if (decisionCache != null) {
+      agentBuilder = agentBuilder.with(decisionCache.listener());
+    }
+
     agentBuilder = agentBuilder.with(new ClassLoadListener());
-    agentBuilder = configureIgnoredTypes(sdkConfig, extensionClassLoader, agentBuilder);
+    Function<AgentBuilder, AgentBuilder.Ignored> ignoredTypes =
+        configureIgnoredTypes(sdkConfig, extensionClassLoader);
+    AgentBuilder.Ignored ignored = ignoredTypes.apply(agentBuilder);
+    // classes that were not transformed on the previous start are ignored before any of the
+    // instrumentation module matchers run
+    agentBuilder =
+        decisionCache != null ? ignored.or(decisionCache.unmodifiedClassMatcher()) : ignored;
+    if (sdkConfig.getBoolean(LAZY_INSTRUMENTATION_MODULES_ENABLED, false)) {
+      // deferred instrumentation modules retransform the classes they match themselves after they
+      // are installed, so their agent builder doesn't need the redefinition strategy and the
+      // listeners of the main one
+      LazyInstrumentationModules.enable(ignoredTypes.apply(newBaseAgentBuilder(inst)));
+    }
 
     int numberOfLoadedExtensions = 0;
     for (AgentExtension agentExtension : loadOrdered(AgentExtension.class, extensionClassLoader)) {
@@ -175,6 +212,10 @@ public class AgentInstaller {
             "Loading extension {0} [class {1}]",
             new Object[] {agentExtension.extensionName(), agentExtension.getClass().getName()});
       }
+      if (!(agentExtension instanceof InstrumentationLoader)) {
+        // the extension may add transformations that the retransformation filter doesn't know
+        RetransformationFilter.get().markIncomplete();
+      }
       try {
         agentBuilder = agentExtension.extend(agentBuilder, sdkConfig);
         numberOfLoadedExtensions++;
@@ -211,6 +252,95 @@ public class AgentInstaller {
     runAfterAgentListeners(agentListeners, autoConfiguredSdk);
   }
 
+  private static void registerSupportabilityMetrics(
+      ConfigProperties sdkConfig, AutoConfiguredOpenTelemetrySdk autoConfiguredSdk) {
+    // the counts are always collected, exporting them is opt-in
+    if (sdkConfig.getBoolean(SUPPORTABILITY_METRICS_ENABLED, false)) {
+      SupportabilityMetrics.instance().registerMetrics(autoConfiguredSdk.getOpenTelemetrySdk());
+      if (AgentTooling.poolStrategy() instanceof AgentCachingPoolStrategy) {
+        registerTypeCacheMetrics(
+            autoConfiguredSdk.getOpenTelemetrySdk().getMeter("io.opentelemetry.javaagent"),
+            (AgentCachingPoolStrategy) AgentTooling.poolStrategy());
+      }
+    }
+  }
+
+  private static void registerTypeCacheMetrics(Meter meter, AgentCachingPoolStrategy poolStrategy) {
+    meter
+        .counterBuilder("otel.javaagent.type_cache.hits")
+        .setDescription("Number of type resolutions found in the type cache")
+        .buildWithCallback(measurement -> measurement.record(poolStrategy.getTypeCacheHits()));
+    meter
+        .counterBuilder("otel.javaagent.type_cache.misses")
+        .setDescription("Number of type resolutions not found in the type cache")
+        .buildWithCallback(measurement -> measurement.record(poolStrategy.getTypeCacheMisses()));
+    meter
+        .counterBuilder("otel.javaagent.type_cache.evictions")
+        .setDescription("Number of type resolutions evicted from the type cache")
+        .buildWithCallback(
+            measurement -> measurement.record(poolStrategy.getTypeCacheEvictions()));
+    meter
+        .upDownCounterBuilder("otel.javaagent.type_cache.size")
+        .setDescription("Estimated number of bytes retained by the type cache")
+        .setUnit("By")
+        .buildWithCallback(
+            measurement -> measurement.record(poolStrategy.getTypeCacheEstimatedBytes()));
+  }
+
+  private static AgentBuilder.RedefinitionListenable withRetransformation(
+      AgentBuilder agentBuilder) {
+    EarlyInitAgentConfig config = EarlyInitAgentConfig.get();
+    int threads = config.getInt(RETRANSFORMATION_THREADS, 0);
+    int batchSize = config.getInt(RETRANSFORMATION_BATCH_SIZE, 0);
+
+    AgentBuilder.RedefinitionStrategy.DiscoveryStrategy discoveryStrategy =
+        new RedefinitionDiscoveryStrategy();
+    if (threads > 0) {
+      discoveryStrategy =
+          new ParallelRedefinitionDiscoveryStrategy(
+              discoveryStrategy, RetransformationFilter.get(), threads);
+    }
+    AgentBuilder.RedefinitionStrategy.BatchAllocator batchAllocator =
+        batchSize > 0
+            ? AgentBuilder.RedefinitionStrategy.BatchAllocator.ForFixedSize.ofSize(batchSize)
+            : AgentBuilder.RedefinitionStrategy.BatchAllocator.ForTotal.INSTANCE;
+    AgentBuilder.RedefinitionListenable result =
+        agentBuilder
+            .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            .with(batchAllocator)
+            .with(discoveryStrategy);
+    if (batchSize > 0) {
+      // give application threads a chance to run between the batches
+      result = result.with(AgentBuilder.RedefinitionStrategy.Listener.Yielding.INSTANCE);
+    }
+    if (threads > 0 || batchSize > 0) {
+      result = result.with(new RetransformationTimingListener());
+    }
+    return result;
+  }
+
+  private static AgentBuilder newBaseAgentBuilder(Instrumentation inst) {
+    AgentBuilder agentBuilder =
+        newAgentBuilder(
+                // default method graph compiler inspects the class hierarchy, we don't need it, so
+                // we use a simpler and faster strategy instead
+                new ByteBuddy()
+                    .with(MethodGraph.Compiler.ForDeclaredMethods.INSTANCE)
+                    .with(VisibilityBridgeStrategy.Default.NEVER)
+                    .with(InstrumentedType.Factory.Default.FROZEN))
+            .with(AgentBuilder.TypeStrategy.Default.DECORATE)
+            .disableClassFormatChanges()
+            .with(AgentBuilder.DescriptionStrategy.Default.POOL_ONLY)
+            .with(AgentTooling.poolStrategy())
+            .with(AgentTooling.transformListener())
+            .with(AgentTooling.locationStrategy());
+
+    if (JavaModule.isSupported()) {
+      agentBuilder = agentBuilder.with(new ExposeAgentBootstrapListener(inst));
+    }
+    return agentBuilder;
+  }
+
   private static AgentBuilder newAgentBuilder(ByteBuddy byteBuddy) {
     // AgentBuilder.Default constructor triggers sun.misc.Unsafe::objectFieldOffset called warning
     // AgentBuilder$Default.<init>
@@ -282,8 +412,8 @@ public class AgentInstaller {
 
   // Need to call deprecated API for backward compatibility with extensions that haven't migrated
   @SuppressWarnings("deprecation")
-  private static AgentBuilder configureIgnoredTypes(
-      ConfigProperties config, ClassLoader extensionClassLoader, AgentBuilder agentBuilder) {
+  private static Function<AgentBuilder, AgentBuilder.Ignored> configureIgnoredTypes(
+      ConfigProperties config, ClassLoader extensionClassLoader) {
     IgnoredTypesBuilderImpl builder = new IgnoredTypesBuilderImpl();
     for (IgnoredTypesConfigurer configurer :
         loadOrdered(IgnoredTypesConfigurer.class, extensionClassLoader)) {
@@ -293,13 +423,18 @@ public class AgentInstaller {
     Trie<Boolean> ignoredTasksTrie = builder.buildIgnoredTasksTrie();
     InstrumentedTaskClasses.setIgnoredTaskClassesPredicate(ignoredTasksTrie::contains);
 
-    return agentBuilder
-        .ignore(any(), new IgnoredClassLoadersMatcher(builder.buildIgnoredClassLoadersTrie()))
-        .or(new IgnoredTypesMatcher(builder.buildIgnoredTypesTrie()))
-        .or(
-            (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
-              return HelperInjector.isInjectedClass(classLoader, typeDescription.getName());
-            });
+    IgnoredClassLoadersMatcher ignoredClassLoadersMatcher =
+        new IgnoredClassLoadersMatcher(builder.buildIgnoredClassLoadersTrie());
+    IgnoredTypesMatcher ignoredTypesMatcher =
+        new IgnoredTypesMatcher(builder.buildIgnoredTypesTrie());
+    return agentBuilder ->
+        agentBuilder
+            .ignore(any(), ignoredClassLoadersMatcher)
+            .or(ignoredTypesMatcher)
+            .or(
+                (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
+                  return HelperInjector.isInjectedClass(classLoader, typeDescription.getName());
+                });
   }
 
   private static void addHttpServerResponseCustomizers(ClassLoader extensionClassLoader) {
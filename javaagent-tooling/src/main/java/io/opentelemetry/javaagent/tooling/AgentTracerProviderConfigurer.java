@@ -10,6 +10,7 @@ import static java.util.Collections.emptyList;
 import com.google.auto.service.AutoService;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
 import io.opentelemetry.instrumentation.thread.internal.AddThreadDetailsSpanProcessor;
 import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
 import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
@@ -17,15 +18,20 @@ import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvide
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
 import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
 
 @AutoService(AutoConfigurationCustomizerProvider.class)
 public class AgentTracerProviderConfigurer implements AutoConfigurationCustomizerProvider {
   private static final String ADD_THREAD_DETAILS = "otel.javaagent.add-thread-details";
+  private static final String SQL_QUERY_SANITIZATION_DEFERRED =
+      "otel.instrumentation.common.db.query-sanitization.experimental.deferred";
 
   @Override
   public void customize(AutoConfigurationCustomizer autoConfigurationCustomizer) {
     autoConfigurationCustomizer.addTracerProviderCustomizer(
         AgentTracerProviderConfigurer::configure);
+    autoConfigurationCustomizer.addSpanExporterCustomizer(
+        AgentTracerProviderConfigurer::maybeAttachDeferredSqlQueries);
   }
 
   @CanIgnoreReturnValue
@@ -53,6 +59,16 @@ public class AgentTracerProviderConfigurer implements AutoConfigurationCustomize
     }
   }
 
+  private static SpanExporter maybeAttachDeferredSqlQueries(
+      SpanExporter exporter, ConfigProperties config) {
+    if (!config.getBoolean(SQL_QUERY_SANITIZATION_DEFERRED, false)) {
+      return exporter;
+    }
+    // SQL query analysis is only deferred once the spans can be updated when they are exported
+    DeferredSqlQuerySpans.addExporter();
+    return new DeferredSqlQuerySpanExporter(exporter);
+  }
+
   private static boolean loggingExporterIsNotAlreadyConfigured(ConfigProperties config) {
     return !config.getList("otel.traces.exporter", emptyList()).contains("logging");
   }
@@ -0,0 +1,94 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Attaches the results of SQL query analyses that were still running in the background when their
+ * spans ended, see {@link DeferredSqlQuerySpans}. Exporting usually happens on the batch span
+ * processor's worker thread, so waiting for the analysis here keeps it off the application thread.
+ */
+final class DeferredSqlQuerySpanExporter implements SpanExporter {
+
+  private final SpanExporter delegate;
+
+  DeferredSqlQuerySpanExporter(SpanExporter delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    List<SpanData> updatedSpans = new ArrayList<>(spans.size());
+    boolean updated = false;
+    for (SpanData span : spans) {
+      DeferredSqlQuerySpans.Update update = DeferredSqlQuerySpans.take(span.getSpanContext());
+      if (update != null) {
+        updatedSpans.add(new UpdatedSpanData(span, update));
+        updated = true;
+      } else {
+        updatedSpans.add(span);
+      }
+    }
+    return delegate.export(updated ? updatedSpans : spans);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+
+  @Override
+  public String toString() {
+    return "DeferredSqlQuerySpanExporter{delegate=" + delegate + '}';
+  }
+
+  private static final class UpdatedSpanData extends DelegatingSpanData {
+    private final String name;
+    private final Attributes attributes;
+    private final int totalAttributeCount;
+
+    UpdatedSpanData(SpanData delegate, DeferredSqlQuerySpans.Update update) {
+      super(delegate);
+      String spanName = update.getSpanName();
+      this.name = spanName != null ? spanName : delegate.getName();
+      Attributes updatedAttributes = update.getAttributes();
+      this.attributes = delegate.getAttributes().toBuilder().putAll(updatedAttributes).build();
+      this.totalAttributeCount =
+          delegate.getTotalAttributeCount()
+              + attributes.size()
+              - delegate.getAttributes().size();
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public Attributes getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    public int getTotalAttributeCount() {
+      return totalAttributeCount;
+    }
+  }
+}
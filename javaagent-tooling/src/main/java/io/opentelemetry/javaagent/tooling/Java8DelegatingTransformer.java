@@ -0,0 +1,57 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.IllegalClassFormatException;
+import java.security.ProtectionDomain;
+import java.util.function.BiConsumer;
+
+/**
+ * Transformer for java versions before 9 without jpms modules support that applies transformers
+ * which may be added while the application is running.
+ */
+public class Java8DelegatingTransformer implements ClassFileTransformer {
+
+  private final BiConsumer<ClassLoader, String> beforeTransform;
+  private final Iterable<ClassFileTransformer> delegates;
+
+  /**
+   * Creates a transformer that calls {@code beforeTransform} with the class loader and the internal
+   * name of every transformed class, and then applies {@code delegates} in order.
+   */
+  public Java8DelegatingTransformer(
+      BiConsumer<ClassLoader, String> beforeTransform, Iterable<ClassFileTransformer> delegates) {
+    this.beforeTransform = beforeTransform;
+    this.delegates = delegates;
+  }
+
+  @Override
+  public byte[] transform(
+      ClassLoader loader,
+      String className,
+      Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain,
+      byte[] classfileBuffer)
+      throws IllegalClassFormatException {
+    beforeTransform.accept(loader, className);
+
+    byte[] result = null;
+    for (ClassFileTransformer delegate : delegates) {
+      byte[] transformed =
+          delegate.transform(
+              loader,
+              className,
+              classBeingRedefined,
+              protectionDomain,
+              result != null ? result : classfileBuffer);
+      if (transformed != null) {
+        result = transformed;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.logging.Level.FINE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import net.bytebuddy.agent.builder.AgentBuilder;
+
+/**
+ * Measures how long retransforming the classes that were loaded before the agent was installed
+ * takes. Application threads are blocked at most for the duration of one batch, so the longest
+ * batch is reported besides the total duration.
+ */
+final class RetransformationTimingListener implements AgentBuilder.RedefinitionStrategy.Listener {
+
+  private static final Logger logger =
+      Logger.getLogger(RetransformationTimingListener.class.getName());
+
+  private long startNanos = -1;
+  private long batchStartNanos = -1;
+  private long longestBatchNanos;
+  private long totalNanos;
+  private int batches;
+
+  @Override
+  public void onBatch(int index, List<Class<?>> batch, List<Class<?>> types) {
+    // called before each batch is retransformed, on the thread that installs the agent
+    long now = System.nanoTime();
+    if (startNanos < 0) {
+      startNanos = now;
+    }
+    endBatch(now);
+    batchStartNanos = now;
+    batches++;
+  }
+
+  @Override
+  public Iterable<? extends List<Class<?>>> onError(
+      int index, List<Class<?>> batch, Throwable throwable, List<Class<?>> types) {
+    return emptyList();
+  }
+
+  @Override
+  public void onComplete(
+      int amount, List<Class<?>> types, Map<List<Class<?>>, Throwable> failures) {
+    // called once for each round of class discovery
+    if (startNanos < 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    endBatch(now);
+    totalNanos = now - startNanos;
+    if (logger.isLoggable(FINE)) {
+      logger.log(
+          FINE,
+          "Retransformed {0} classes in {1} batches in {2} ms, the longest batch took {3} ms",
+          new Object[] {
+            types.size(),
+            batches,
+            NANOSECONDS.toMillis(totalNanos),
+            NANOSECONDS.toMillis(longestBatchNanos)
+          });
+    }
+  }
+
+  private void endBatch(long now) {
+    if (batchStartNanos >= 0) {
+      longestBatchNanos = Math.max(longestBatchNanos, now - batchStartNanos);
+      batchStartNanos = -1;
+    }
+  }
+
+  // visible for testing
+  int getBatches() {
+    return batches;
+  }
+
+  // visible for testing
+  long getLongestBatchNanos() {
+    return longestBatchNanos;
+  }
+
+  // visible for testing
+  long getTotalNanos() {
+    return totalNanos;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.decisioncache;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ClassFileTransformer} that never transforms anything, it only computes a checksum of the
+ * class file that is being loaded. It is registered before the agent's transformer, which runs next
+ * on the same thread and uses {@link #checksumOf(String)} to look up and record its decisions.
+ */
+final class ClassFileChecksums implements ClassFileTransformer {
+
+  static final long UNKNOWN = -1;
+
+  private final ThreadLocal<Checksum> current = ThreadLocal.withInitial(Checksum::new);
+
+  @Override
+  @Nullable
+  public byte[] transform(
+      @Nullable ClassLoader loader,
+      @Nullable String className,
+      @Nullable Class<?> classBeingRedefined,
+      @Nullable ProtectionDomain protectionDomain,
+      byte[] classfileBuffer) {
+    Checksum checksum = current.get();
+    if (className == null || classBeingRedefined != null) {
+      checksum.className = null;
+      return null;
+    }
+    CRC32 crc = checksum.crc;
+    crc.reset();
+    crc.update(classfileBuffer, 0, classfileBuffer.length);
+    // the length makes collisions of the 32 bit checksum even less likely
+    checksum.value = ((long) classfileBuffer.length << 32) | crc.getValue();
+    checksum.className = className;
+    return null;
+  }
+
+  /**
+   * Returns the checksum of the class that is being loaded on the current thread, or {@link
+   * #UNKNOWN} if the class file of that class was not seen.
+   */
+  long checksumOf(String className) {
+    Checksum checksum = current.get();
+    String internalName = checksum.className;
+    // loading a class may trigger loading other classes on the same thread, so check the name
+    if (internalName == null || !isSameName(internalName, className)) {
+      return UNKNOWN;
+    }
+    return checksum.value;
+  }
+
+  // compares an internal name (com/foo/Bar) with a binary name (com.foo.Bar) without allocating
+  private static boolean isSameName(String internalName, String className) {
+    if (internalName.length() != className.length()) {
+      return false;
+    }
+    for (int i = 0; i < internalName.length(); i++) {
+      char c = internalName.charAt(i);
+      char other = className.charAt(i);
+      if (c != other && !(c == '/' && other == '.')) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Checksum {
+    final CRC32 crc = new CRC32();
+    @Nullable String className;
+    long value;
+  }
+}
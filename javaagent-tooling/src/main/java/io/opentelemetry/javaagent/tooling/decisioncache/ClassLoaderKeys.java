@@ -0,0 +1,119 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.decisioncache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.javaagent.bootstrap.AgentClassLoader.BootstrapClassLoaderProxy;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import javax.annotation.Nullable;
+
+/**
+ * Computes keys that identify the classpath of a class loader across JVM restarts. Cached decisions
+ * are only valid for class loaders that load classes from exactly the same jar files, so the key
+ * includes the path, size and modification time of each jar. Class loaders whose contents can't be
+ * identified this way, e.g. loaders that load from directories or generate classes, get no key and
+ * their decisions are never cached.
+ */
+final class ClassLoaderKeys {
+
+  // empty string means that the class loader has no key
+  private static final String NO_KEY = "";
+  private static final String BOOTSTRAP_KEY = "bootstrap";
+
+  private final Cache<ClassLoader, String> keys = Cache.weak();
+
+  @Nullable
+  String keyOf(@Nullable ClassLoader classLoader) {
+    if (classLoader == null || classLoader instanceof BootstrapClassLoaderProxy) {
+      // the bootstrap classes are identified by the java runtime, which is part of the cache header
+      return BOOTSTRAP_KEY;
+    }
+    String key = keys.computeIfAbsent(classLoader, ClassLoaderKeys::computeKey);
+    return key.isEmpty() ? null : key;
+  }
+
+  private static String computeKey(ClassLoader classLoader) {
+    ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    StringBuilder description = new StringBuilder(classLoader.getClass().getName());
+    if (classLoader == systemClassLoader) {
+      for (String path : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+        if (!path.isEmpty() && !appendFile(description, new File(path))) {
+          return NO_KEY;
+        }
+      }
+    } else if (classLoader == systemClassLoader.getParent()) {
+      // the platform class loader, only loads classes from the java runtime
+      return "platform";
+    } else if (classLoader instanceof URLClassLoader) {
+      for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+        if (!appendUrl(description, url)) {
+          return NO_KEY;
+        }
+      }
+    } else {
+      return NO_KEY;
+    }
+
+    ClassLoader parent = classLoader.getParent();
+    if (parent != null) {
+      String parentKey = parent == systemClassLoader.getParent() ? "platform" : computeKey(parent);
+      if (parentKey.isEmpty()) {
+        return NO_KEY;
+      }
+      description.append("|parent=").append(parentKey);
+    }
+    return hash(description.toString());
+  }
+
+  private static boolean appendUrl(StringBuilder description, URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return false;
+    }
+    try {
+      return appendFile(description, new File(url.toURI()));
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  private static boolean appendFile(StringBuilder description, File file) {
+    // the contents of a directory can change without changing its modification time
+    if (!file.isFile()) {
+      return false;
+    }
+    description
+        .append('|')
+        .append(file.getAbsolutePath())
+        .append(':')
+        .append(file.length())
+        .append(':')
+        .append(file.lastModified());
+    return true;
+  }
+
+  static String hash(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(value.getBytes(UTF_8));
+      StringBuilder result = new StringBuilder();
+      // 128 bits are plenty to avoid collisions
+      for (int i = 0; i < 16; i++) {
+        result.append(Character.forDigit((hash[i] >> 4) & 0xf, 16));
+        result.append(Character.forDigit(hash[i] & 0xf, 16));
+      }
+      return result.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.decisioncache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.WARNING;
+
+import io.opentelemetry.javaagent.tooling.AgentVersion;
+import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.instrument.Instrumentation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * An opt-in cache of class transformation decisions that is persisted across JVM restarts, enabled
+ * by setting {@code otel.javaagent.experimental.decision-cache.file}.
+ *
+ * <p>Evaluating the type and class loader matchers of all instrumentation modules for every loaded
+ * class, and running muzzle for every class loader, is a large part of the agent startup time. This
+ * cache records
+ *
+ * <ul>
+ *   <li>the classes that no instrumentation was applied to, identified by their class loader's
+ *       classpath, name and a checksum of the class file, and
+ *   <li>the instrumentation modules that passed muzzle for a class loader's classpath.
+ * </ul>
+ *
+ * <p>On the next start, the recorded classes are ignored before any matcher runs, and muzzle is
+ * skipped for the recorded modules. The whole file is discarded when the agent version, the
+ * extensions, the java runtime, the {@code otel.*} configuration or the contents of the
+ * configuration files differ from the run that wrote it. The file is written when the JVM shuts
+ * down.
+ */
+public final class DecisionCache {
+
+  private static final Logger logger = Logger.getLogger(DecisionCache.class.getName());
+
+  private static final String FILE_PROPERTY = "otel.javaagent.experimental.decision-cache.file";
+  private static final String FORMAT_VERSION = "1";
+  // guards against the file growing without bounds when the classpath changes frequently
+  private static final int MAX_ENTRIES = 500_000;
+
+  // the configuration files read by the agent, their contents decide which instrumentations are
+  // enabled just like the otel.* properties
+  private static final String[] CONFIGURATION_FILE_PROPERTIES = {
+    "otel.javaagent.configuration-file", "otel.config.file", "otel.experimental.config.file"
+  };
+
+  private static final char UNMODIFIED_CLASS = 'C';
+  private static final char MUZZLE_PASSED = 'M';
+
+  @Nullable private static volatile DecisionCache instance;
+
+  private final Path file;
+  private final String header;
+  private final ClassLoaderKeys classLoaderKeys = new ClassLoaderKeys();
+  // visible for testing
+  final ClassFileChecksums checksums = new ClassFileChecksums();
+  // "loader key/class name" -> class file checksum
+  private final Map<String, Long> unmodifiedClasses = new ConcurrentHashMap<>();
+  // "loader key/instrumentation module class name"
+  private final Set<String> passedMuzzle = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean modified = new AtomicBoolean();
+
+  /** Returns the decision cache, or {@code null} when it is not enabled. */
+  @Nullable
+  public static DecisionCache get() {
+    return instance;
+  }
+
+  /**
+   * Creates the decision cache when it is enabled and registers the transformer that computes the
+   * class file checksums; must be called before the agent's transformer is installed.
+   */
+  public static void initialize(Instrumentation inst, @Nullable String extensions) {
+    String fileName = EarlyInitAgentConfig.get().getString(FILE_PROPERTY);
+    if (fileName == null || fileName.isEmpty()) {
+      return;
+    }
+    DecisionCache cache = new DecisionCache(Paths.get(fileName), computeHeader(extensions));
+    cache.load();
+    inst.addTransformer(cache.checksums, true);
+    Thread writer = new Thread(cache::save, "otel-decision-cache-writer");
+    Runtime.getRuntime().addShutdownHook(writer);
+    instance = cache;
+  }
+
+  // visible for testing
+  DecisionCache(Path file, String header) {
+    this.file = file;
+    this.header = header;
+  }
+
+  /** Returns a matcher for the classes that are known to need no transformation. */
+  public AgentBuilder.RawMatcher unmodifiedClassMatcher() {
+    return (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) -> {
+      if (classBeingRedefined != null || unmodifiedClasses.isEmpty()) {
+        return false;
+      }
+      String className = typeDescription.getName();
+      long checksum = checksums.checksumOf(className);
+      if (checksum == ClassFileChecksums.UNKNOWN) {
+        return false;
+      }
+      String loaderKey = classLoaderKeys.keyOf(classLoader);
+      if (loaderKey == null) {
+        return false;
+      }
+      Long recorded = unmodifiedClasses.get(loaderKey + '/' + className);
+      return recorded != null && recorded == checksum;
+    };
+  }
+
+  /** Returns a listener that records the classes that no instrumentation was applied to. */
+  public AgentBuilder.Listener listener() {
+    return new AgentBuilder.Listener.Adapter() {
+      @Override
+      public void onIgnored(
+          TypeDescription typeDescription,
+          @Nullable ClassLoader classLoader,
+          @Nullable JavaModule module,
+          boolean loaded) {
+        if (loaded) {
+          return;
+        }
+        String className = typeDescription.getName();
+        long checksum = checksums.checksumOf(className);
+        if (checksum == ClassFileChecksums.UNKNOWN) {
+          return;
+        }
+        String loaderKey = classLoaderKeys.keyOf(classLoader);
+        if (loaderKey != null) {
+          recordUnmodified(loaderKey + '/' + className, checksum);
+        }
+      }
+    };
+  }
+
+  /** Returns whether the instrumentation module passed muzzle for the class loader before. */
+  public boolean hasPassedMuzzle(ClassLoader classLoader, String moduleClassName) {
+    String loaderKey = classLoaderKeys.keyOf(classLoader);
+    return loaderKey != null && passedMuzzle.contains(loaderKey + '/' + moduleClassName);
+  }
+
+  public void recordMuzzlePassed(ClassLoader classLoader, String moduleClassName) {
+    String loaderKey = classLoaderKeys.keyOf(classLoader);
+    if (loaderKey != null
+        && unmodifiedClasses.size() + passedMuzzle.size() < MAX_ENTRIES
+        && passedMuzzle.add(loaderKey + '/' + moduleClassName)) {
+      modified.set(true);
+    }
+  }
+
+  private void recordUnmodified(String key, long checksum) {
+    if (unmodifiedClasses.size() + passedMuzzle.size() >= MAX_ENTRIES) {
+      return;
+    }
+    Long previous = unmodifiedClasses.put(key, checksum);
+    if (previous == null || previous != checksum) {
+      modified.set(true);
+    }
+  }
+
+  // visible for testing
+  void load() {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, UTF_8)) {
+      if (!header.equals(reader.readLine())) {
+        logger.log(FINE, "Discarding outdated decision cache {0}", file);
+        return;
+      }
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.length() < 2) {
+          continue;
+        }
+        String entry = line.substring(2);
+        if (line.charAt(0) == UNMODIFIED_CLASS) {
+          int separator = entry.lastIndexOf(' ');
+          unmodifiedClasses.put(
+              entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1), 16));
+        } else if (line.charAt(0) == MUZZLE_PASSED) {
+          passedMuzzle.add(entry);
+        }
+      }
+      logger.log(
+          FINE,
+          "Loaded decision cache {0} with {1} classes and {2} muzzle results",
+          new Object[] {file, unmodifiedClasses.size(), passedMuzzle.size()});
+    } catch (IOException | RuntimeException e) {
+      logger.log(WARNING, "Failed to read decision cache " + file, e);
+      unmodifiedClasses.clear();
+      passedMuzzle.clear();
+    }
+  }
+
+  // visible for testing
+  void save() {
+    if (!modified.get()) {
+      return;
+    }
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path temporaryFile = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+      try (Writer writer = new BufferedWriter(Files.newBufferedWriter(temporaryFile, UTF_8))) {
+        writer.write(header);
+        writer.write('\n');
+        // sorted to make the file easier to inspect
+        for (Map.Entry<String, Long> entry : new TreeMap<>(unmodifiedClasses).entrySet()) {
+          writer.write(UNMODIFIED_CLASS + " " + entry.getKey() + ' ');
+          writer.write(Long.toHexString(entry.getValue()));
+          writer.write('\n');
+        }
+        for (String entry : new TreeSet<>(passedMuzzle)) {
+          writer.write(MUZZLE_PASSED + " " + entry + '\n');
+        }
+      }
+      // other JVMs sharing the file see either the old or the new contents
+      Files.move(
+          temporaryFile,
+          file,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException | RuntimeException e) {
+      logger.log(WARNING, "Failed to write decision cache " + file, e);
+    }
+  }
+
+  // visible for testing
+  static String computeHeader(@Nullable String extensions) {
+    StringBuilder description = new StringBuilder();
+    description
+        .append(AgentVersion.VERSION)
+        .append('|')
+        .append(System.getProperty("java.home"))
+        .append('|')
+        .append(System.getProperty("java.vm.version"));
+    if (extensions != null) {
+      for (String extension : extensions.split(",")) {
+        File extensionFile = new File(extension.trim());
+        description
+            .append('|')
+            .append(extensionFile.getAbsolutePath())
+            .append(':')
+            .append(extensionFile.length())
+            .append(':')
+            .append(extensionFile.lastModified());
+      }
+    }
+    // the configuration decides which instrumentations are enabled
+    for (String key : new TreeSet<>(System.getProperties().stringPropertyNames())) {
+      if (key.startsWith("otel.")) {
+        description.append('|').append(key).append('=').append(System.getProperty(key));
+      }
+    }
+    new TreeMap<>(System.getenv())
+        .forEach(
+            (key, value) -> {
+              if (key.startsWith("OTEL_")) {
+                description.append('|').append(key).append('=').append(value);
+              }
+            });
+    for (String property : CONFIGURATION_FILE_PROPERTIES) {
+      appendConfigurationFile(description, property);
+    }
+    return "otel-decision-cache "
+        + FORMAT_VERSION
+        + " "
+        + ClassLoaderKeys.hash(description.toString());
+  }
+
+  private static void appendConfigurationFile(StringBuilder description, String property) {
+    String path = System.getProperty(property);
+    if (path == null) {
+      path = System.getenv(property.replace('.', '_').replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+    if (path == null) {
+      return;
+    }
+    // resolves ~ like ConfigurationFile does
+    File configurationFile = new File(path.replaceFirst("^~", System.getProperty("user.home")));
+    description.append('|').append(property).append(':');
+    try {
+      byte[] contents = Files.readAllBytes(configurationFile.toPath());
+      description.append(ClassLoaderKeys.hash(new String(contents, UTF_8)));
+    } catch (IOException e) {
+      description.append("unreadable");
+    }
+  }
+}
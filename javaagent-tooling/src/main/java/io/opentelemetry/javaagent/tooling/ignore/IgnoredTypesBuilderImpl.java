@@ -10,9 +10,21 @@ import io.opentelemetry.javaagent.extension.ignore.IgnoredTypesBuilder;
 import io.opentelemetry.javaagent.tooling.util.Trie;
 
 public class IgnoredTypesBuilderImpl implements IgnoredTypesBuilder {
-  private final Trie.Builder<IgnoreAllow> ignoredTypesTrie = Trie.builder();
-  private final Trie.Builder<IgnoreAllow> ignoredClassLoadersTrie = Trie.builder();
-  private final Trie.Builder<Boolean> ignoredTasksTrie = Trie.builder();
+  private final Trie.Builder<IgnoreAllow> ignoredTypesTrie;
+  private final Trie.Builder<IgnoreAllow> ignoredClassLoadersTrie;
+  private final Trie.Builder<Boolean> ignoredTasksTrie;
+
+  public IgnoredTypesBuilderImpl() {
+    this(true);
+  }
+
+  // visible for benchmarks
+  IgnoredTypesBuilderImpl(boolean compactTries) {
+    // the tries are built once and queried for every loaded class
+    ignoredTypesTrie = compactTries ? Trie.compactBuilder() : Trie.builder();
+    ignoredClassLoadersTrie = compactTries ? Trie.compactBuilder() : Trie.builder();
+    ignoredTasksTrie = compactTries ? Trie.compactBuilder() : Trie.builder();
+  }
 
   @Override
   @CanIgnoreReturnValue
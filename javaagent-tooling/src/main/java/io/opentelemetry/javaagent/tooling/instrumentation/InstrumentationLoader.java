@@ -15,7 +15,12 @@ import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModul
 import io.opentelemetry.javaagent.tooling.AgentExtension;
 import io.opentelemetry.javaagent.tooling.Utils;
 import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import net.bytebuddy.agent.builder.AgentBuilder;
 
 @AutoService(AgentExtension.class)
@@ -27,38 +32,72 @@ public class InstrumentationLoader implements AgentExtension {
 
   @Override
   public AgentBuilder extend(AgentBuilder agentBuilder, ConfigProperties config) {
+    LazyInstrumentationModules lazyModules =
+        LazyInstrumentationModules.create(
+            InstrumentationHolder.getInstrumentation(), instrumentationModuleInstaller, config);
+    List<InstrumentationModule> instrumentationModules =
+        loadOrdered(InstrumentationModule.class, Utils.getExtensionsClassLoader());
+    Set<InstrumentationModule> deferredModules =
+        Collections.newSetFromMap(new IdentityHashMap<>());
+    if (lazyModules != null) {
+      for (InstrumentationModule instrumentationModule : instrumentationModules) {
+        if (lazyModules.defer(instrumentationModule)) {
+          deferredModules.add(instrumentationModule);
+        }
+      }
+      // deferred modules that match already loaded classes need to retransform them, they are
+      // installed in order with the other modules
+      deferredModules.removeAll(lazyModules.start());
+    }
+
     int numberOfLoadedModules = 0;
-    for (InstrumentationModule instrumentationModule :
-        loadOrdered(InstrumentationModule.class, Utils.getExtensionsClassLoader())) {
-      if (logger.isLoggable(FINE)) {
-        logger.log(
-            FINE,
-            "Loading instrumentation {0} [class {1}]",
-            new Object[] {
-              instrumentationModule.instrumentationName(),
-              instrumentationModule.getClass().getName()
-            });
+    for (InstrumentationModule instrumentationModule : instrumentationModules) {
+      if (deferredModules.contains(instrumentationModule)) {
+        continue;
       }
-      try {
-        agentBuilder =
-            instrumentationModuleInstaller.install(instrumentationModule, agentBuilder, config);
+      AgentBuilder result = install(instrumentationModule, agentBuilder, config);
+      if (result != null) {
+        agentBuilder = result;
         numberOfLoadedModules++;
-      } catch (Exception | LinkageError e) {
-        logger.log(
-            SEVERE,
-            "Unable to load instrumentation "
-                + instrumentationModule.instrumentationName()
-                + " [class "
-                + instrumentationModule.getClass().getName()
-                + "]",
-            e);
       }
     }
     logger.log(FINE, "Installed {0} instrumentation(s)", numberOfLoadedModules);
+    if (lazyModules != null) {
+      logger.log(FINE, "Deferred {0} instrumentation(s)", deferredModules.size());
+    }
 
     return agentBuilder;
   }
 
+  @Nullable
+  private AgentBuilder install(
+      InstrumentationModule instrumentationModule,
+      AgentBuilder agentBuilder,
+      ConfigProperties config) {
+    if (logger.isLoggable(FINE)) {
+      logger.log(
+          FINE,
+          "Loading instrumentation {0} [class {1}]",
+          new Object[] {
+            instrumentationModule.instrumentationName(),
+            instrumentationModule.getClass().getName()
+          });
+    }
+    try {
+      return instrumentationModuleInstaller.install(instrumentationModule, agentBuilder, config);
+    } catch (Exception | LinkageError e) {
+      logger.log(
+          SEVERE,
+          "Unable to load instrumentation "
+              + instrumentationModule.instrumentationName()
+              + " [class "
+              + instrumentationModule.getClass().getName()
+              + "]",
+          e);
+      return null;
+    }
+  }
+
   @Override
   public String extensionName() {
     return "instrumentation-loader";
@@ -310,13 +310,17 @@ public final class InstrumentationModuleInstaller {
                 + typeInstrumentation.getClass().getSimpleName(),
             moduleClassLoaderMatcher.and(typeInstrumentation.classLoaderOptimization()));
 
+    ElementMatcher<TypeDescription> failSafeTypeMatcher =
+        new LoggingFailSafeMatcher<>(
+            typeMatcher, "Instrumentation type matcher unexpected exception: " + typeMatcher);
+    ElementMatcher<ClassLoader> failSafeClassLoaderMatcher =
+        new LoggingFailSafeMatcher<>(
+            classLoaderMatcher,
+            "Instrumentation class loader matcher unexpected exception: " + classLoaderMatcher);
+    RetransformationFilter.get().add(failSafeTypeMatcher, failSafeClassLoaderMatcher);
+
     return agentBuilder
-        .type(
-            new LoggingFailSafeMatcher<>(
-                typeMatcher, "Instrumentation type matcher unexpected exception: " + typeMatcher),
-            new LoggingFailSafeMatcher<>(
-                classLoaderMatcher,
-                "Instrumentation class loader matcher unexpected exception: " + classLoaderMatcher))
+        .type(failSafeTypeMatcher, failSafeClassLoaderMatcher)
         .and(
             (typeDescription, classLoader, module, classBeingRedefined, protectionDomain) ->
                 classLoader == null || NOT_DECORATOR_MATCHER.matches(typeDescription));
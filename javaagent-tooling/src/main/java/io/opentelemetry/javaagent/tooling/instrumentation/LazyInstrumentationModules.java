@@ -0,0 +1,388 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.logging.Level.FINE;
+import static java.util.logging.Level.SEVERE;
+import static java.util.logging.Level.WARNING;
+
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.tooling.Java8DelegatingTransformer;
+import io.opentelemetry.javaagent.tooling.Java9DelegatingTransformer;
+import io.opentelemetry.javaagent.tooling.muzzle.InstrumentationModuleMuzzle;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.agent.builder.AgentBuilderUtil;
+import net.bytebuddy.utility.JavaModule;
+
+/**
+ * Defers installing the instrumentation modules whose type matchers only match classes by name
+ * until one of these classes is loaded. The names are collected by muzzle when the module is
+ * compiled, see {@link InstrumentationModuleMuzzle#getMuzzleTypeMatcherClassNames()}.
+ *
+ * <p>Loading a class that a deferred module may match only queues the module, nothing is installed
+ * from within the class file transformer. A background thread installs the queued modules into
+ * their own class file transformers and then retransforms the classes that they match which have
+ * been loaded in the meantime, including the class that triggered the installation. Modules that
+ * may match classes that are already loaded when the agent starts are installed like any other
+ * module, so that these classes are retransformed.
+ *
+ * <p>The transformers of the deferred modules are applied before the transformer of the agent, so
+ * only modules with the default {@link InstrumentationModule#order()} are deferred, and none at all
+ * when a module needs to be applied before the modules with the default order.
+ */
+public final class LazyInstrumentationModules {
+
+  private static final Logger logger = Logger.getLogger(LazyInstrumentationModules.class.getName());
+
+  private static final String PREFIX_SUFFIX = "*";
+
+  @Nullable private static volatile AgentBuilder lazyAgentBuilder;
+
+  private final Instrumentation instrumentation;
+  private final Function<InstrumentationModule, ClassFileTransformer> transformerFactory;
+  private final Executor installerExecutor;
+  // keys are internal class names, as they are passed to class file transformers
+  private final Map<String, List<DeferredModule>> modulesByClassName = new ConcurrentHashMap<>();
+  private final List<DeferredModule> modulesByPrefix = new CopyOnWriteArrayList<>();
+  private final List<ClassFileTransformer> transformers = new CopyOnWriteArrayList<>();
+  private final BlockingQueue<DeferredModule> queuedModules = new LinkedBlockingQueue<>();
+  private final AtomicInteger unclaimedModules = new AtomicInteger();
+  private boolean deferringDisabled;
+
+  /**
+   * Enables deferring instrumentation modules. Deferred modules are installed into the given agent
+   * builder, which should be configured like the one of the agent, but without the redefinition
+   * strategy and without the listeners that must run only once per class.
+   */
+  public static void enable(AgentBuilder agentBuilder) {
+    lazyAgentBuilder = agentBuilder;
+  }
+
+  /** Returns {@code null} unless deferring instrumentation modules was enabled. */
+  @Nullable
+  static LazyInstrumentationModules create(
+      Instrumentation instrumentation,
+      InstrumentationModuleInstaller instrumentationModuleInstaller,
+      ConfigProperties config) {
+    AgentBuilder agentBuilder = lazyAgentBuilder;
+    if (agentBuilder == null) {
+      return null;
+    }
+    return new LazyInstrumentationModules(
+        instrumentation,
+        module -> {
+          AgentBuilder moduleAgentBuilder =
+              instrumentationModuleInstaller.install(module, agentBuilder, config);
+          if (moduleAgentBuilder == agentBuilder) {
+            // the module is disabled
+            return null;
+          }
+          return AgentBuilderUtil.optimize(moduleAgentBuilder).makeRaw();
+        },
+        runnable -> {
+          Thread thread = new Thread(runnable, "otel-lazy-instrumentation-installer");
+          thread.setDaemon(true);
+          thread.start();
+        });
+  }
+
+  // visible for testing
+  LazyInstrumentationModules(
+      Instrumentation instrumentation,
+      Function<InstrumentationModule, ClassFileTransformer> transformerFactory,
+      Executor installerExecutor) {
+    this.instrumentation = instrumentation;
+    this.transformerFactory = transformerFactory;
+    this.installerExecutor = installerExecutor;
+  }
+
+  /**
+   * Defers installing the given module if muzzle collected the names of the classes it can match,
+   * returns {@code false} if the module needs to be installed right away. Modules must be passed in
+   * the order in which they are installed.
+   */
+  boolean defer(InstrumentationModule module) {
+    if (module.order() != 0) {
+      // deferred modules are applied first, modules ordered before them can't be applied earlier
+      if (module.order() < 0) {
+        deferringDisabled = true;
+      }
+      return false;
+    }
+    if (deferringDisabled) {
+      return false;
+    }
+    List<String> classNames = InstrumentationModuleMuzzle.getTypeMatcherClassNames(module);
+    if (classNames == null || classNames.isEmpty()) {
+      return false;
+    }
+
+    DeferredModule deferredModule = new DeferredModule(module, classNames);
+    for (String className : deferredModule.classNames) {
+      modulesByClassName
+          .computeIfAbsent(className, unused -> new CopyOnWriteArrayList<>())
+          .add(deferredModule);
+    }
+    if (!deferredModule.prefixes.isEmpty()) {
+      modulesByPrefix.add(deferredModule);
+    }
+    unclaimedModules.incrementAndGet();
+    logger.log(
+        FINE,
+        "Deferring instrumentation {0} until one of {1} is loaded",
+        new Object[] {module.instrumentationName(), classNames});
+    return true;
+  }
+
+  /**
+   * Starts installing the deferred modules when the classes they match are loaded. Returns the
+   * deferred modules that may match classes that are already loaded, these need to be installed
+   * right away.
+   */
+  List<InstrumentationModule> start() {
+    // registered before the transformer of the agent, and as retransformation capable so that the
+    // classes loaded before a module was installed can be retransformed
+    instrumentation.addTransformer(
+        JavaModule.isSupported()
+            ? new Java9DelegatingTransformer(this::onTransform, transformers)
+            : new Java8DelegatingTransformer(this::onTransform, transformers),
+        true);
+
+    List<DeferredModule> result = new ArrayList<>();
+    for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+      String className = clazz.getName().replace('.', '/');
+      List<DeferredModule> modules = modulesByClassName.get(className);
+      if (modules != null) {
+        for (DeferredModule module : modules) {
+          if (module.claim()) {
+            result.add(module);
+          }
+        }
+      }
+      for (DeferredModule module : modulesByPrefix) {
+        if (module.matchesPrefix(className) && module.claim()) {
+          result.add(module);
+        }
+      }
+    }
+
+    List<InstrumentationModule> loadedModules = new ArrayList<>(result.size());
+    for (DeferredModule module : result) {
+      remove(module);
+      unclaimedModules.decrementAndGet();
+      loadedModules.add(module.module);
+    }
+    if (unclaimedModules.get() > 0) {
+      installerExecutor.execute(this::runInstaller);
+    }
+    return loadedModules;
+  }
+
+  // visible for testing
+  void onTransform(@Nullable ClassLoader classLoader, @Nullable String className) {
+    if (className == null) {
+      return;
+    }
+    List<DeferredModule> modules = modulesByClassName.get(className);
+    if (modules != null) {
+      for (DeferredModule module : modules) {
+        queue(module, classLoader, className);
+      }
+    }
+    for (DeferredModule module : modulesByPrefix) {
+      if (module.matchesPrefix(className)) {
+        queue(module, classLoader, className);
+      }
+    }
+  }
+
+  private void queue(
+      DeferredModule module, @Nullable ClassLoader classLoader, String internalClassName) {
+    if (module.claim()) {
+      module.triggerClassLoader = classLoader;
+      module.triggerClassName = internalClassName.replace('/', '.');
+      // queued before the count is decremented, so that the installer doesn't stop before the
+      // last module is installed
+      queuedModules.add(module);
+      unclaimedModules.decrementAndGet();
+    }
+  }
+
+  private void runInstaller() {
+    try {
+      while (unclaimedModules.get() > 0 || !queuedModules.isEmpty()) {
+        List<DeferredModule> modules = new ArrayList<>();
+        modules.add(queuedModules.take());
+        queuedModules.drainTo(modules);
+        install(modules);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // visible for testing
+  void installQueuedModules() {
+    List<DeferredModule> modules = new ArrayList<>();
+    queuedModules.drainTo(modules);
+    install(modules);
+  }
+
+  private void install(List<DeferredModule> deferredModules) {
+    List<DeferredModule> installedModules = new ArrayList<>(deferredModules.size());
+    for (DeferredModule deferredModule : deferredModules) {
+      InstrumentationModule module = deferredModule.module;
+      logger.log(
+          FINE,
+          "Installing deferred instrumentation {0} [class {1}]",
+          new Object[] {module.instrumentationName(), module.getClass().getName()});
+      try {
+        ClassFileTransformer transformer = transformerFactory.apply(module);
+        if (transformer != null) {
+          transformers.add(transformer);
+          installedModules.add(deferredModule);
+        }
+      } catch (Exception | LinkageError e) {
+        logger.log(
+            SEVERE,
+            "Unable to load instrumentation "
+                + module.instrumentationName()
+                + " [class "
+                + module.getClass().getName()
+                + "]",
+            e);
+      }
+      remove(deferredModule);
+    }
+    if (!installedModules.isEmpty()) {
+      retransformLoadedClasses(installedModules);
+    }
+  }
+
+  private void retransformLoadedClasses(List<DeferredModule> modules) {
+    Set<Class<?>> classes = new LinkedHashSet<>();
+    for (DeferredModule module : modules) {
+      Class<?> triggerClass = module.loadTriggerClass();
+      if (triggerClass != null && instrumentation.isModifiableClass(triggerClass)) {
+        classes.add(triggerClass);
+      }
+    }
+    for (Class<?> clazz : instrumentation.getAllLoadedClasses()) {
+      String className = clazz.getName().replace('.', '/');
+      for (DeferredModule module : modules) {
+        if (module.matches(className) && instrumentation.isModifiableClass(clazz)) {
+          classes.add(clazz);
+          break;
+        }
+      }
+    }
+    if (classes.isEmpty()) {
+      return;
+    }
+    try {
+      instrumentation.retransformClasses(classes.toArray(new Class<?>[0]));
+    } catch (UnmodifiableClassException | RuntimeException | LinkageError e) {
+      logger.log(WARNING, "Unable to retransform " + classes, e);
+    }
+  }
+
+  private void remove(DeferredModule deferredModule) {
+    for (String className : deferredModule.classNames) {
+      modulesByClassName.computeIfPresent(
+          className,
+          (unused, modules) -> {
+            modules.remove(deferredModule);
+            return modules.isEmpty() ? null : modules;
+          });
+    }
+    modulesByPrefix.remove(deferredModule);
+  }
+
+  // visible for testing
+  int getTransformerCount() {
+    return transformers.size();
+  }
+
+  private static final class DeferredModule {
+    final InstrumentationModule module;
+    final List<String> classNames = new ArrayList<>();
+    final List<String> prefixes = new ArrayList<>();
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    // the class whose loading queued the module, set when the module is claimed
+    @Nullable volatile ClassLoader triggerClassLoader;
+    @Nullable volatile String triggerClassName;
+
+    DeferredModule(InstrumentationModule module, List<String> names) {
+      this.module = module;
+      for (String name : names) {
+        String internalName = name.replace('.', '/');
+        if (internalName.endsWith(PREFIX_SUFFIX)) {
+          prefixes.add(internalName.substring(0, internalName.length() - PREFIX_SUFFIX.length()));
+        } else {
+          classNames.add(internalName);
+        }
+      }
+    }
+
+    boolean matches(String className) {
+      return classNames.contains(className) || matchesPrefix(className);
+    }
+
+    boolean matchesPrefix(String className) {
+      for (String prefix : prefixes) {
+        if (className.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns the class whose loading queued this module, waiting until its loading has completed,
+     * so that it is found even if it wasn't defined yet when the loaded classes were listed.
+     */
+    @Nullable
+    Class<?> loadTriggerClass() {
+      String className = triggerClassName;
+      ClassLoader classLoader = triggerClassLoader;
+      triggerClassName = null;
+      triggerClassLoader = null;
+      if (className == null) {
+        return null;
+      }
+      try {
+        return Class.forName(className, false, classLoader);
+      } catch (ClassNotFoundException | LinkageError e) {
+        // e.g. classes that are defined directly and can't be found by name
+        return null;
+      }
+    }
+
+    /** Returns {@code true} only for the first caller. */
+    boolean claim() {
+      return !claimed.get() && claimed.compareAndSet(false, true);
+    }
+  }
+}
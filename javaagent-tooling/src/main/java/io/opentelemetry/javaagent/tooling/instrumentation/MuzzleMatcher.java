@@ -14,6 +14,7 @@ import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModul
 import io.opentelemetry.javaagent.tooling.TransformSafeLogger;
 import io.opentelemetry.javaagent.tooling.Utils;
 import io.opentelemetry.javaagent.tooling.config.EarlyInitAgentConfig;
+import io.opentelemetry.javaagent.tooling.decisioncache.DecisionCache;
 import io.opentelemetry.javaagent.tooling.muzzle.Mismatch;
 import io.opentelemetry.javaagent.tooling.muzzle.ReferenceMatcher;
 import java.security.ProtectionDomain;
@@ -67,8 +68,18 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
   }
 
   private boolean doesMatch(ClassLoader classLoader) {
-    ReferenceMatcher muzzle = getReferenceMatcher();
-    boolean isMatch = muzzle.matches(classLoader);
+    DecisionCache decisionCache = DecisionCache.get();
+    String moduleClassName = instrumentationModule.getClass().getName();
+    boolean isMatch;
+    if (decisionCache != null && decisionCache.hasPassedMuzzle(classLoader, moduleClassName)) {
+      // passed on a previous start with the same classpath
+      isMatch = true;
+    } else {
+      isMatch = getReferenceMatcher().matches(classLoader);
+      if (isMatch && decisionCache != null) {
+        decisionCache.recordMuzzlePassed(classLoader, moduleClassName);
+      }
+    }
 
     if (!isMatch) {
       MuzzleFailureCounter.inc();
@@ -81,7 +92,8 @@ class MuzzleMatcher implements AgentBuilder.RawMatcher {
               instrumentationModule.getClass().getName(),
               classLoader
             });
-        List<Mismatch> mismatches = muzzle.getMismatchedReferenceSources(classLoader);
+        List<Mismatch> mismatches =
+            getReferenceMatcher().getMismatchedReferenceSources(classLoader);
         for (Mismatch mismatch : mismatches) {
           muzzleLogger.log(muzzleLogLevel, "-- {0}", mismatch);
         }
@@ -0,0 +1,139 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.logging.Level.FINE;
+
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import net.bytebuddy.agent.builder.AgentBuilder;
+
+/**
+ * Narrows down the already loaded classes that byte-buddy considers for retransformation to the
+ * ones that an instrumentation may transform, evaluating the instrumentation matchers on a pool of
+ * worker threads. Byte-buddy evaluates its matchers for every discovered class on the thread that
+ * installs the agent, which takes a long time when the agent is attached to a running JVM with tens
+ * of thousands of loaded classes.
+ */
+public final class ParallelRedefinitionDiscoveryStrategy
+    implements AgentBuilder.RedefinitionStrategy.DiscoveryStrategy {
+
+  private static final Logger logger =
+      Logger.getLogger(ParallelRedefinitionDiscoveryStrategy.class.getName());
+
+  // large enough to amortize the task overhead, small enough to balance the work between threads
+  private static final int CHUNK_SIZE = 256;
+
+  private final AgentBuilder.RedefinitionStrategy.DiscoveryStrategy delegate;
+  private final RetransformationFilter filter;
+  private final int threads;
+
+  public ParallelRedefinitionDiscoveryStrategy(
+      AgentBuilder.RedefinitionStrategy.DiscoveryStrategy delegate,
+      RetransformationFilter filter,
+      int threads) {
+    this.delegate = delegate;
+    this.filter = filter;
+    this.threads = threads;
+  }
+
+  @Override
+  public Iterable<Iterable<Class<?>>> resolve(Instrumentation instrumentation) {
+    Iterable<Iterable<Class<?>>> discovered = delegate.resolve(instrumentation);
+    if (!filter.isComplete()) {
+      logger.fine("Not filtering loaded classes, transformations were added by an extension");
+      return discovered;
+    }
+    return () -> {
+      Iterator<Iterable<Class<?>>> iterator = discovered.iterator();
+      return new Iterator<Iterable<Class<?>>>() {
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Iterable<Class<?>> next() {
+          return filter(iterator.next());
+        }
+      };
+    };
+  }
+
+  // visible for testing
+  List<Class<?>> filter(Iterable<Class<?>> classes) {
+    long startNanos = System.nanoTime();
+    List<Class<?>> loadedClasses = new ArrayList<>();
+    classes.forEach(loadedClasses::add);
+
+    List<Class<?>> result = new ArrayList<>();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+    try {
+      List<Future<List<Class<?>>>> chunks = new ArrayList<>();
+      for (int start = 0; start < loadedClasses.size(); start += CHUNK_SIZE) {
+        List<Class<?>> chunk =
+            loadedClasses.subList(start, Math.min(start + CHUNK_SIZE, loadedClasses.size()));
+        chunks.add(executor.submit(() -> filterChunk(chunk)));
+      }
+      // keeps the order in which the classes were discovered
+      for (Future<List<Class<?>>> chunk : chunks) {
+        result.addAll(chunk.get());
+      }
+    } catch (ExecutionException e) {
+      logger.log(FINE, "Failed to filter loaded classes, retransforming all of them", e);
+      return loadedClasses;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return loadedClasses;
+    } finally {
+      executor.shutdownNow();
+    }
+
+    if (logger.isLoggable(FINE)) {
+      logger.log(
+          FINE,
+          "Filtered {0} loaded classes down to {1} in {2} ms using {3} threads",
+          new Object[] {
+            loadedClasses.size(),
+            result.size(),
+            NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+            threads
+          });
+    }
+    return result;
+  }
+
+  private List<Class<?>> filterChunk(List<Class<?>> chunk) {
+    List<Class<?>> result = new ArrayList<>();
+    for (Class<?> clazz : chunk) {
+      if (filter.mayTransform(clazz)) {
+        result.add(clazz);
+      }
+    }
+    return result;
+  }
+
+  private static final class WorkerThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "otel-retransformation-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
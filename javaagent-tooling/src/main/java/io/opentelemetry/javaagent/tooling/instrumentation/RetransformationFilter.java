@@ -0,0 +1,100 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import io.opentelemetry.javaagent.tooling.muzzle.AgentTooling;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.Nullable;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * Collects the type and class loader matchers of the installed instrumentations, so that the
+ * classes that were loaded before the agent was installed can be narrowed down to the ones that may
+ * be transformed before they are handed to byte-buddy, which evaluates its matchers for them on a
+ * single thread.
+ *
+ * <p>The filter is conservative: it never rejects a class that an instrumentation could transform,
+ * but may accept classes that muzzle or the other matchers reject later.
+ */
+public final class RetransformationFilter {
+
+  private static final RetransformationFilter INSTANCE = new RetransformationFilter();
+
+  private final List<Matchers> matchers = new CopyOnWriteArrayList<>();
+  private volatile boolean complete = true;
+
+  public static RetransformationFilter get() {
+    return INSTANCE;
+  }
+
+  // visible for testing
+  RetransformationFilter() {}
+
+  void add(
+      ElementMatcher<TypeDescription> typeMatcher,
+      ElementMatcher<ClassLoader> classLoaderMatcher) {
+    matchers.add(new Matchers(typeMatcher, classLoaderMatcher));
+  }
+
+  /**
+   * Marks that transformations were registered that this filter does not know about, e.g. by a
+   * custom agent extension, after which the filter must not be used.
+   */
+  public void markIncomplete() {
+    complete = false;
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /** Returns whether any instrumentation may transform the given class. */
+  public boolean mayTransform(Class<?> clazz) {
+    ClassLoader classLoader = clazz.getClassLoader();
+    TypeDescription type = null;
+    for (Matchers entry : matchers) {
+      if (!entry.classLoaderMatcher.matches(classLoader)) {
+        continue;
+      }
+      if (type == null) {
+        type = describe(clazz, classLoader);
+        if (type == null) {
+          // let byte-buddy decide what to do with the classes we can't describe
+          return true;
+        }
+      }
+      if (entry.typeMatcher.matches(type)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Nullable
+  private static TypeDescription describe(Class<?> clazz, @Nullable ClassLoader classLoader) {
+    // the same type description that byte-buddy uses with DescriptionStrategy.Default.POOL_ONLY
+    TypePool typePool =
+        AgentTooling.poolStrategy()
+            .typePool(AgentTooling.locationStrategy().classFileLocator(classLoader), classLoader);
+    TypePool.Resolution resolution = typePool.describe(clazz.getName());
+    return resolution.isResolved() ? resolution.resolve() : null;
+  }
+
+  private static final class Matchers {
+    final ElementMatcher<TypeDescription> typeMatcher;
+    final ElementMatcher<ClassLoader> classLoaderMatcher;
+
+    Matchers(
+        ElementMatcher<TypeDescription> typeMatcher,
+        ElementMatcher<ClassLoader> classLoaderMatcher) {
+      this.typeMatcher = typeMatcher;
+      this.classLoaderMatcher = classLoaderMatcher;
+    }
+  }
+}
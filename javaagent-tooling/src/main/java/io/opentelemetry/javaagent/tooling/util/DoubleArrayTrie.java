@@ -0,0 +1,270 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.util;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Trie} that stores its transitions in a single {@code int[]} instead of a graph of nodes.
+ * Every state occupies two adjacent slots: the base offset of its children and the state it was
+ * reached from. Following character {@code c} from state {@code s} leads to state {@code base(s) +
+ * code(c)}, which is valid only if it was reached from {@code s}. Lookups don't allocate and read
+ * two ints from one array per character instead of binary searching the children of every node,
+ * which matters because the ignored types and class loaders tries are queried for every loaded
+ * class.
+ *
+ * <p>Characters are mapped to dense codes first, so that the children of a state are stored close
+ * to each other. The trie is more expensive to build than {@link TrieImpl}, so it should be built
+ * once and then shared.
+ */
+final class DoubleArrayTrie<V> implements Trie<V> {
+
+  private static final int ROOT = 0;
+  private static final int NO_CODE = 0;
+  // set in the parent slot of states that have a value
+  private static final int HAS_VALUE = 0x80000000;
+  private static final int PARENT_MASK = ~HAS_VALUE;
+  private static final int FREE = -1;
+
+  // codes of ASCII characters, other characters are looked up in nonAsciiChars
+  private final char[] asciiCodes;
+  // sorted
+  private final char[] nonAsciiChars;
+  private final char[] nonAsciiCodes;
+  // base offset at 2 * state, parent state at 2 * state + 1
+  private final int[] units;
+  private final Object[] values;
+
+  private DoubleArrayTrie(
+      char[] asciiCodes, char[] nonAsciiChars, char[] nonAsciiCodes, int[] units, Object[] values) {
+    this.asciiCodes = asciiCodes;
+    this.nonAsciiChars = nonAsciiChars;
+    this.nonAsciiCodes = nonAsciiCodes;
+    this.units = units;
+    this.values = values;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked") // only values of type V are stored
+  public V getOrDefault(CharSequence str, V defaultValue) {
+    int[] units = this.units;
+    int state = ROOT;
+    int lastMatchedState = -1;
+
+    for (int i = 0; i < str.length(); ++i) {
+      int code = code(str.charAt(i));
+      if (code == NO_CODE) {
+        break;
+      }
+      // the array is padded so that base + code of every state is within bounds
+      int next = units[state << 1] + code;
+      int parent = units[(next << 1) + 1];
+      // free states have all bits set, which never matches a state
+      if ((parent & PARENT_MASK) != state) {
+        break;
+      }
+      state = next;
+      if ((parent & HAS_VALUE) != 0) {
+        lastMatchedState = state;
+      }
+    }
+
+    return lastMatchedState < 0 ? defaultValue : (V) values[lastMatchedState];
+  }
+
+  private int code(char c) {
+    if (c < asciiCodes.length) {
+      return asciiCodes[c];
+    }
+    int index = Arrays.binarySearch(nonAsciiChars, c);
+    return index < 0 ? NO_CODE : nonAsciiCodes[index];
+  }
+
+  static final class BuilderImpl<V> implements Builder<V> {
+
+    private final NodeBuilder<V> root = new NodeBuilder<>();
+
+    @Override
+    @CanIgnoreReturnValue
+    public Builder<V> put(CharSequence str, V value) {
+      NodeBuilder<V> node = root;
+      for (int i = 0; i < str.length(); ++i) {
+        node = node.children.computeIfAbsent(str.charAt(i), k -> new NodeBuilder<>());
+      }
+      node.value = value;
+      return this;
+    }
+
+    @Override
+    public Trie<V> build() {
+      return new ArrayBuilder<>(root).build();
+    }
+  }
+
+  private static final class NodeBuilder<V> {
+    // sorted, so that the states are laid out in the same order on every build
+    final TreeMap<Character, NodeBuilder<V>> children = new TreeMap<>();
+    @Nullable V value;
+  }
+
+  private static final class ArrayBuilder<V> {
+
+    private final NodeBuilder<V> root;
+    private final char[] asciiCodes = new char[128];
+    private final TreeMap<Character, Character> nonAsciiCodes = new TreeMap<>();
+    private int alphabetSize;
+
+    private int[] units = new int[64];
+    private Object[] values = new Object[32];
+    // all states below this one are in use
+    private int firstFree = ROOT + 1;
+    private int maxState = ROOT;
+
+    ArrayBuilder(NodeBuilder<V> root) {
+      this.root = root;
+      Arrays.fill(units, FREE);
+    }
+
+    DoubleArrayTrie<V> build() {
+      assignCodes();
+
+      units[(ROOT << 1) + 1] = ROOT;
+      Queue<NodeBuilder<V>> nodes = new ArrayDeque<>();
+      Queue<Integer> states = new ArrayDeque<>();
+      nodes.add(root);
+      states.add(ROOT);
+      while (!nodes.isEmpty()) {
+        NodeBuilder<V> node = nodes.remove();
+        int state = states.remove();
+        if (node.children.isEmpty()) {
+          continue;
+        }
+
+        int[] codes = new int[node.children.size()];
+        int i = 0;
+        for (Character c : node.children.keySet()) {
+          codes[i++] = code(c);
+        }
+        int base = findBase(codes);
+        units[state << 1] = base;
+
+        i = 0;
+        for (NodeBuilder<V> child : node.children.values()) {
+          int childState = base + codes[i++];
+          use(childState, state, child.value);
+          nodes.add(child);
+          states.add(childState);
+        }
+      }
+
+      // pad the array so that following any character from any state stays within bounds
+      int size = maxState + alphabetSize + 1;
+      int[] trimmedUnits = Arrays.copyOf(units, size << 1);
+      if (units.length < trimmedUnits.length) {
+        Arrays.fill(trimmedUnits, units.length, trimmedUnits.length, FREE);
+      }
+      Object[] trimmedValues = Arrays.copyOf(values, maxState + 1);
+
+      char[] nonAsciiChars = new char[nonAsciiCodes.size()];
+      char[] nonAsciiCodesArray = new char[nonAsciiCodes.size()];
+      int i = 0;
+      for (Map.Entry<Character, Character> e : nonAsciiCodes.entrySet()) {
+        nonAsciiChars[i] = e.getKey();
+        nonAsciiCodesArray[i++] = e.getValue();
+      }
+      return new DoubleArrayTrie<>(
+          asciiCodes, nonAsciiChars, nonAsciiCodesArray, trimmedUnits, trimmedValues);
+    }
+
+    private void assignCodes() {
+      Map<Character, Integer> frequencies = new TreeMap<>();
+      countCharacters(root, frequencies);
+      // the most frequent characters get the lowest codes, which keeps the array dense
+      Character[] alphabet = frequencies.keySet().toArray(new Character[0]);
+      Arrays.sort(alphabet, (a, b) -> Integer.compare(frequencies.get(b), frequencies.get(a)));
+      for (Character c : alphabet) {
+        char code = (char) ++alphabetSize;
+        if (c < asciiCodes.length) {
+          asciiCodes[c] = code;
+        } else {
+          nonAsciiCodes.put(c, code);
+        }
+      }
+    }
+
+    private static <V> void countCharacters(
+        NodeBuilder<V> root, Map<Character, Integer> frequencies) {
+      Queue<NodeBuilder<V>> nodes = new ArrayDeque<>();
+      nodes.add(root);
+      while (!nodes.isEmpty()) {
+        NodeBuilder<V> node = nodes.remove();
+        for (Map.Entry<Character, NodeBuilder<V>> e : node.children.entrySet()) {
+          frequencies.merge(e.getKey(), 1, Integer::sum);
+          nodes.add(e.getValue());
+        }
+      }
+    }
+
+    private int code(char c) {
+      if (c < asciiCodes.length) {
+        return asciiCodes[c];
+      }
+      return nonAsciiCodes.get(c);
+    }
+
+    /** Returns the lowest base for which all states {@code base + codes[i]} are free. */
+    private int findBase(int[] codes) {
+      while (!isFree(firstFree)) {
+        firstFree++;
+      }
+      // codes are not sorted, so the lowest one has to be found first
+      int minCode = Integer.MAX_VALUE;
+      for (int code : codes) {
+        minCode = Math.min(minCode, code);
+      }
+      int base = Math.max(1, firstFree - minCode);
+      while (!allFree(base, codes)) {
+        base++;
+      }
+      return base;
+    }
+
+    private boolean allFree(int base, int[] codes) {
+      for (int code : codes) {
+        if (!isFree(base + code)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean isFree(int state) {
+      return (state << 1) + 1 >= units.length || units[(state << 1) + 1] == FREE;
+    }
+
+    private void use(int state, int parent, @Nullable V value) {
+      int capacity = units.length >> 1;
+      if (state >= capacity) {
+        int newCapacity = Math.max(capacity << 1, state + 1);
+        units = Arrays.copyOf(units, newCapacity << 1);
+        Arrays.fill(units, capacity << 1, units.length, FREE);
+      }
+      if (state >= values.length) {
+        values = Arrays.copyOf(values, Math.max(values.length << 1, state + 1));
+      }
+      units[state << 1] = 0;
+      units[(state << 1) + 1] = value != null ? parent | HAS_VALUE : parent;
+      values[state] = value;
+      maxState = Math.max(maxState, state);
+    }
+  }
+}
@@ -16,6 +16,15 @@ public interface Trie<V> {
     return new TrieImpl.BuilderImpl<>();
   }
 
+  /**
+   * Start building a trie that is optimized for lookups. It takes more time to build than the one
+   * returned by {@link #builder()}, so it should be used for tries that are built once and queried
+   * often.
+   */
+  static <V> Builder<V> compactBuilder() {
+    return new DoubleArrayTrie.BuilderImpl<>();
+  }
+
   /**
    * Returns the value associated with the longest matched prefix, or null if there wasn't a match.
    * For example: for a trie containing an {@code ("abc", 10)} entry {@code trie.getOrNull("abcd")}
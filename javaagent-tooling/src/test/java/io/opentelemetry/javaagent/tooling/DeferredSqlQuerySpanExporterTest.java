@@ -0,0 +1,117 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling;
+
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.equalTo;
+import static java.util.Arrays.asList;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.instrumentation.api.incubator.semconv.db.internal.DeferredSqlQuerySpans;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeferredSqlQuerySpanExporterTest {
+
+  private static final AttributeKey<String> DB_QUERY_TEXT = AttributeKey.stringKey("db.query.text");
+  private static final AttributeKey<String> DB_SYSTEM_NAME =
+      AttributeKey.stringKey("db.system.name");
+
+  private final InMemorySpanExporter delegate = InMemorySpanExporter.create();
+  private final SdkTracerProvider tracerProvider =
+      SdkTracerProvider.builder()
+          .addSpanProcessor(
+              SimpleSpanProcessor.create(new DeferredSqlQuerySpanExporter(delegate)))
+          .build();
+  private final Tracer tracer = tracerProvider.get("test");
+
+  @AfterEach
+  void tearDown() {
+    tracerProvider.close();
+  }
+
+  @Test
+  void updatesPendingSpans() {
+    Span pending =
+        tracer
+            .spanBuilder("SELECT")
+            .setAttribute(DB_SYSTEM_NAME, "testdb")
+            .setAttribute(DB_QUERY_TEXT, "provisional")
+            .startSpan();
+    DeferredSqlQuerySpans.put(
+        pending.getSpanContext(),
+        update("SELECT users", Attributes.of(DB_QUERY_TEXT, "SELECT * FROM users WHERE id = ?")));
+    Span other = tracer.spanBuilder("other").startSpan();
+
+    pending.end();
+    other.end();
+
+    List<SpanData> spans = delegate.getFinishedSpanItems();
+    assertThat(spans).hasSize(2);
+    assertThat(spans.get(0))
+        .hasName("SELECT users")
+        .hasAttributesSatisfyingExactly(
+            equalTo(DB_SYSTEM_NAME, "testdb"),
+            equalTo(DB_QUERY_TEXT, "SELECT * FROM users WHERE id = ?"))
+        .hasTotalAttributeCount(2);
+    assertThat(spans.get(1)).hasName("other");
+    // the update is removed once it has been applied
+    assertThat(DeferredSqlQuerySpans.take(pending.getSpanContext())).isNull();
+  }
+
+  @Test
+  void keepsNameWhenNotUpdated() {
+    Span pending = tracer.spanBuilder("SELECT").startSpan();
+    DeferredSqlQuerySpans.put(
+        pending.getSpanContext(), update(null, Attributes.of(DB_QUERY_TEXT, "SELECT ?")));
+
+    pending.end();
+
+    assertThat(delegate.getFinishedSpanItems())
+        .satisfiesExactly(
+            span ->
+                assertThat(span)
+                    .hasName("SELECT")
+                    .hasAttributesSatisfyingExactly(equalTo(DB_QUERY_TEXT, "SELECT ?")));
+  }
+
+  @Test
+  void exportsBatchUnchangedWithoutPendingSpans() {
+    Span span = tracer.spanBuilder("span").startSpan();
+    span.end();
+    List<SpanData> spans = delegate.getFinishedSpanItems();
+    delegate.reset();
+
+    new DeferredSqlQuerySpanExporter(delegate).export(asList(spans.get(0), spans.get(0)));
+
+    assertThat(delegate.getFinishedSpanItems()).containsExactly(spans.get(0), spans.get(0));
+  }
+
+  private static DeferredSqlQuerySpans.Update update(
+      @Nullable String spanName, Attributes attributes) {
+    return new DeferredSqlQuerySpans.Update() {
+      @Override
+      @Nullable
+      public String getSpanName() {
+        return spanName;
+      }
+
+      @Override
+      public Attributes getAttributes() {
+        return attributes;
+      }
+    };
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.decisioncache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.description.type.TypeDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DecisionCacheTest {
+
+  private static final String HEADER = "test-header";
+  private static final TypeDescription TYPE =
+      new TypeDescription.Latent(
+          "com.example.Foo", Visibility.PUBLIC.getMask(), TypeDescription.Generic.OBJECT);
+
+  @TempDir Path tempDir;
+
+  @Test
+  void unmodifiedClassesAreRecordedAndReloaded() throws Exception {
+    Path file = tempDir.resolve("cache.txt");
+    URLClassLoader classLoader = jarClassLoader();
+    byte[] classFile = {1, 2, 3};
+
+    DecisionCache cache = new DecisionCache(file, HEADER);
+    cache.load();
+    loadClass(cache, classLoader, classFile);
+    assertThat(matches(cache, classLoader)).isFalse();
+    cache.listener().onIgnored(TYPE, classLoader, null, false);
+    cache.save();
+
+    DecisionCache reloaded = new DecisionCache(file, HEADER);
+    reloaded.load();
+    loadClass(reloaded, classLoader, classFile);
+    assertThat(matches(reloaded, classLoader)).isTrue();
+
+    // a changed class file is matched again
+    loadClass(reloaded, classLoader, new byte[] {1, 2, 4});
+    assertThat(matches(reloaded, classLoader)).isFalse();
+
+    // the checksum belongs to a different class
+    reloaded.checksums.transform(classLoader, "com/example/Other", null, null, classFile);
+    assertThat(matches(reloaded, classLoader)).isFalse();
+  }
+
+  @Test
+  void muzzleResultsAreRecordedAndReloaded() throws Exception {
+    Path file = tempDir.resolve("cache.txt");
+    URLClassLoader classLoader = jarClassLoader();
+
+    DecisionCache cache = new DecisionCache(file, HEADER);
+    assertThat(cache.hasPassedMuzzle(classLoader, "com.example.Module")).isFalse();
+    cache.recordMuzzlePassed(classLoader, "com.example.Module");
+    cache.save();
+
+    DecisionCache reloaded = new DecisionCache(file, HEADER);
+    reloaded.load();
+    assertThat(reloaded.hasPassedMuzzle(classLoader, "com.example.Module")).isTrue();
+    assertThat(reloaded.hasPassedMuzzle(classLoader, "com.example.OtherModule")).isFalse();
+    assertThat(reloaded.hasPassedMuzzle(jarClassLoader(), "com.example.Module"))
+        .as("different classpath")
+        .isFalse();
+  }
+
+  @Test
+  void outdatedFileIsDiscarded() throws Exception {
+    Path file = tempDir.resolve("cache.txt");
+    URLClassLoader classLoader = jarClassLoader();
+
+    DecisionCache cache = new DecisionCache(file, HEADER);
+    cache.recordMuzzlePassed(classLoader, "com.example.Module");
+    cache.save();
+
+    DecisionCache reloaded = new DecisionCache(file, "other-header");
+    reloaded.load();
+    assertThat(reloaded.hasPassedMuzzle(classLoader, "com.example.Module")).isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"otel.javaagent.configuration-file", "otel.config.file"})
+  void editedConfigurationFileChangesHeader(String property) throws Exception {
+    Path configurationFile = tempDir.resolve("otel-config");
+    Files.write(configurationFile, "otel.instrumentation.jdbc.enabled=true".getBytes(UTF_8));
+    System.setProperty(property, configurationFile.toString());
+    try {
+      String header = DecisionCache.computeHeader(null);
+      assertThat(DecisionCache.computeHeader(null)).isEqualTo(header);
+
+      Files.write(configurationFile, "otel.instrumentation.jdbc.enabled=false".getBytes(UTF_8));
+      assertThat(DecisionCache.computeHeader(null)).isNotEqualTo(header);
+    } finally {
+      System.clearProperty(property);
+    }
+  }
+
+  @Test
+  void editedConfigurationFileDiscardsCache() throws Exception {
+    Path file = tempDir.resolve("cache.txt");
+    Path configurationFile = tempDir.resolve("otel.properties");
+    URLClassLoader classLoader = jarClassLoader();
+    Files.write(configurationFile, "otel.instrumentation.jdbc.enabled=true".getBytes(UTF_8));
+    System.setProperty("otel.javaagent.configuration-file", configurationFile.toString());
+    try {
+      DecisionCache cache = new DecisionCache(file, DecisionCache.computeHeader(null));
+      cache.recordMuzzlePassed(classLoader, "com.example.Module");
+      cache.save();
+
+      Files.write(configurationFile, "otel.instrumentation.jdbc.enabled=false".getBytes(UTF_8));
+      DecisionCache reloaded = new DecisionCache(file, DecisionCache.computeHeader(null));
+      reloaded.load();
+      assertThat(reloaded.hasPassedMuzzle(classLoader, "com.example.Module")).isFalse();
+    } finally {
+      System.clearProperty("otel.javaagent.configuration-file");
+    }
+  }
+
+  @Test
+  void directoryClassLoadersAreNotCached() throws Exception {
+    Path file = tempDir.resolve("cache.txt");
+    URL classes = Files.createTempDirectory(tempDir, "classes").toUri().toURL();
+    URLClassLoader classLoader = new URLClassLoader(new URL[] {classes}, null);
+
+    DecisionCache cache = new DecisionCache(file, HEADER);
+    cache.recordMuzzlePassed(classLoader, "com.example.Module");
+    assertThat(cache.hasPassedMuzzle(classLoader, "com.example.Module")).isFalse();
+    cache.save();
+    assertThat(file).doesNotExist();
+  }
+
+  private URLClassLoader jarClassLoader() throws IOException {
+    Path jar = Files.createTempFile(tempDir, "library", ".jar");
+    return new URLClassLoader(new URL[] {jar.toUri().toURL()}, null);
+  }
+
+  private static void loadClass(DecisionCache cache, ClassLoader classLoader, byte[] classFile) {
+    cache.checksums.transform(classLoader, "com/example/Foo", null, null, classFile);
+  }
+
+  private static boolean matches(DecisionCache cache, ClassLoader classLoader) {
+    AgentBuilder.RawMatcher matcher = cache.unmodifiedClassMatcher();
+    return matcher.matches(TYPE, classLoader, null, null, null);
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
+import io.opentelemetry.javaagent.tooling.muzzle.InstrumentationModuleMuzzle;
+import io.opentelemetry.javaagent.tooling.muzzle.VirtualFieldMappingsBuilder;
+import io.opentelemetry.javaagent.tooling.muzzle.references.ClassRef;
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+class LazyInstrumentationModulesTest {
+
+  private final Instrumentation instrumentation = mock(Instrumentation.class);
+  private final List<InstrumentationModule> installedModules = new ArrayList<>();
+  private final List<Runnable> installers = new ArrayList<>();
+  private final LazyInstrumentationModules lazyModules =
+      new LazyInstrumentationModules(
+          instrumentation,
+          module -> {
+            installedModules.add(module);
+            return mock(ClassFileTransformer.class);
+          },
+          installers::add);
+
+  @Test
+  void installsModuleWhenFirstClassIsLoaded() {
+    when(instrumentation.getAllLoadedClasses()).thenReturn(new Class<?>[0]);
+    TestModule module = new TestModule("com.example.Foo", "com.example.Bar");
+
+    assertThat(lazyModules.defer(module)).isTrue();
+    assertThat(lazyModules.start()).isEmpty();
+
+    lazyModules.onTransform(null, "com/example/Other");
+    assertThat(installedModules).isEmpty();
+
+    lazyModules.onTransform(null, "com/example/Bar");
+    lazyModules.onTransform(null, "com/example/Foo");
+    // modules are never installed from within the class file transformer
+    assertThat(installedModules).isEmpty();
+    assertThat(installers).hasSize(1);
+
+    lazyModules.installQueuedModules();
+    assertThat(installedModules).containsExactly(module);
+    assertThat(lazyModules.getTransformerCount()).isEqualTo(1);
+  }
+
+  @Test
+  void retransformsClassesLoadedBeforeInstallation() throws Exception {
+    Class<?> loadedClass = LazyInstrumentationModulesTest.class;
+    when(instrumentation.getAllLoadedClasses()).thenReturn(new Class<?>[0]);
+    when(instrumentation.isModifiableClass(loadedClass)).thenReturn(true);
+    TestModule module = new TestModule(loadedClass.getName());
+
+    assertThat(lazyModules.defer(module)).isTrue();
+    assertThat(lazyModules.start()).isEmpty();
+
+    lazyModules.onTransform(loadedClass.getClassLoader(), loadedClass.getName().replace('.', '/'));
+    lazyModules.installQueuedModules();
+
+    assertThat(installedModules).containsExactly(module);
+    verify(instrumentation).retransformClasses(loadedClass);
+  }
+
+  @Test
+  void installerStopsWhenAllModulesAreInstalled() throws Exception {
+    when(instrumentation.getAllLoadedClasses()).thenReturn(new Class<?>[0]);
+    TestModule module = new TestModule("com.example.Foo");
+
+    assertThat(lazyModules.defer(module)).isTrue();
+    assertThat(lazyModules.start()).isEmpty();
+    lazyModules.onTransform(null, "com/example/Foo");
+
+    Thread installer = new Thread(installers.get(0));
+    installer.start();
+    installer.join(10_000);
+    assertThat(installer.isAlive()).isFalse();
+    assertThat(installedModules).containsExactly(module);
+  }
+
+  @Test
+  void doesNotDeferOrderedModules() {
+    assertThat(lazyModules.defer(new TestModule(1, "com.example.Foo"))).isFalse();
+    assertThat(lazyModules.defer(new TestModule("com.example.Bar"))).isTrue();
+  }
+
+  @Test
+  void doesNotDeferModulesAfterModulesOrderedFirst() {
+    assertThat(lazyModules.defer(new TestModule(-1, "com.example.Foo"))).isFalse();
+    assertThat(lazyModules.defer(new TestModule("com.example.Bar"))).isFalse();
+  }
+
+  @Test
+  void installsModuleWhenClassWithPrefixIsLoaded() {
+    when(instrumentation.getAllLoadedClasses()).thenReturn(new Class<?>[0]);
+    TestModule module = new TestModule("com.example.foo.*");
+
+    assertThat(lazyModules.defer(module)).isTrue();
+    assertThat(lazyModules.start()).isEmpty();
+
+    lazyModules.onTransform(null, "com/example/Foo");
+    assertThat(installedModules).isEmpty();
+
+    lazyModules.onTransform(null, "com/example/foo/Bar");
+    lazyModules.installQueuedModules();
+    assertThat(installedModules).containsExactly(module);
+  }
+
+  @Test
+  void returnsModulesOfLoadedClasses() {
+    when(instrumentation.getAllLoadedClasses())
+        .thenReturn(new Class<?>[] {LazyInstrumentationModulesTest.class});
+    TestModule loaded = new TestModule(LazyInstrumentationModulesTest.class.getName());
+    TestModule loadedByPrefix =
+        new TestModule(LazyInstrumentationModulesTest.class.getPackage().getName() + ".*");
+    TestModule notLoaded = new TestModule("com.example.Foo");
+
+    lazyModules.defer(loaded);
+    lazyModules.defer(loadedByPrefix);
+    lazyModules.defer(notLoaded);
+
+    assertThat(lazyModules.start()).containsExactly(loaded, loadedByPrefix);
+
+    // the returned modules are installed by the caller
+    lazyModules.onTransform(null, LazyInstrumentationModulesTest.class.getName().replace('.', '/'));
+    lazyModules.installQueuedModules();
+    assertThat(installedModules).isEmpty();
+  }
+
+  @Test
+  void doesNotDeferModulesWithoutClassNames() {
+    assertThat(lazyModules.defer(new TestModule((List<String>) null))).isFalse();
+  }
+
+  private static class TestModule extends InstrumentationModule
+      implements InstrumentationModuleMuzzle {
+    private final int order;
+    @Nullable private final List<String> typeMatcherClassNames;
+
+    TestModule(String... typeMatcherClassNames) {
+      this(0, asList(typeMatcherClassNames));
+    }
+
+    TestModule(int order, String... typeMatcherClassNames) {
+      this(order, asList(typeMatcherClassNames));
+    }
+
+    TestModule(@Nullable List<String> typeMatcherClassNames) {
+      this(0, typeMatcherClassNames);
+    }
+
+    private TestModule(int order, @Nullable List<String> typeMatcherClassNames) {
+      super("test");
+      this.order = order;
+      this.typeMatcherClassNames = typeMatcherClassNames;
+    }
+
+    @Override
+    public int order() {
+      return order;
+    }
+
+    @Override
+    public List<TypeInstrumentation> typeInstrumentations() {
+      return emptyList();
+    }
+
+    @Override
+    public Map<String, ClassRef> getMuzzleReferences() {
+      return emptyMap();
+    }
+
+    @Override
+    public void registerMuzzleVirtualFields(VirtualFieldMappingsBuilder builder) {}
+
+    @Override
+    public List<String> getMuzzleHelperClassNames() {
+      return emptyList();
+    }
+
+    @Override
+    @Nullable
+    public List<String> getMuzzleTypeMatcherClassNames() {
+      return typeMatcherClassNames;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.instrumentation;
+
+import static java.util.Collections.singletonList;
+import static net.bytebuddy.matcher.ElementMatchers.any;
+import static net.bytebuddy.matcher.ElementMatchers.nameEndsWith;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.none;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import org.junit.jupiter.api.Test;
+
+class ParallelRedefinitionDiscoveryStrategyTest {
+
+  @Test
+  void keepsClassesThatMayBeTransformed() {
+    RetransformationFilter filter = new RetransformationFilter();
+    filter.add(named(Instrumented.class.getName()), any());
+    filter.add(nameEndsWith("Other"), none());
+
+    List<Class<?>> loadedClasses = new ArrayList<>();
+    List<Class<?>> expected = new ArrayList<>();
+    // spans multiple chunks
+    for (int i = 0; i < 1000; i++) {
+      loadedClasses.add(NotInstrumented.class);
+      loadedClasses.add(i % 2 == 0 ? Instrumented.class : InstrumentedOther.class);
+      if (i % 2 == 0) {
+        expected.add(Instrumented.class);
+      }
+    }
+
+    List<List<Class<?>>> result = resolve(filter, loadedClasses);
+
+    assertThat(result).containsExactly(expected);
+  }
+
+  @Test
+  void keepsAllClassesWhenFilterIsIncomplete() {
+    RetransformationFilter filter = new RetransformationFilter();
+    filter.add(named(Instrumented.class.getName()), any());
+    filter.markIncomplete();
+
+    List<Class<?>> loadedClasses = new ArrayList<>();
+    loadedClasses.add(NotInstrumented.class);
+    loadedClasses.add(Instrumented.class);
+
+    List<List<Class<?>>> result = resolve(filter, loadedClasses);
+
+    assertThat(result).containsExactly(loadedClasses);
+  }
+
+  private static List<List<Class<?>>> resolve(
+      RetransformationFilter filter, List<Class<?>> loadedClasses) {
+    AgentBuilder.RedefinitionStrategy.DiscoveryStrategy delegate =
+        instrumentation -> singletonList(loadedClasses);
+    ParallelRedefinitionDiscoveryStrategy strategy =
+        new ParallelRedefinitionDiscoveryStrategy(delegate, filter, 4);
+
+    List<List<Class<?>>> result = new ArrayList<>();
+    for (Iterable<Class<?>> classes : strategy.resolve(null)) {
+      List<Class<?>> list = new ArrayList<>();
+      classes.forEach(list::add);
+      result.add(list);
+    }
+    return result;
+  }
+
+  static class Instrumented {}
+
+  static class InstrumentedOther {}
+
+  static class NotInstrumented {}
+}
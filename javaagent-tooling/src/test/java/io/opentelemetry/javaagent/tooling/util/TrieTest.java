@@ -7,13 +7,18 @@ package io.opentelemetry.javaagent.tooling.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class TrieTest {
-  @Test
-  void shouldMatchExactString() {
-    Trie<Integer> trie =
-        Trie.<Integer>builder().put("abc", 0).put("abcd", 10).put("abcde", 20).build();
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldMatchExactString(boolean compact) {
+    Trie<Integer> trie = builder(compact).put("abc", 0).put("abcd", 10).put("abcde", 20).build();
 
     assertThat(trie.getOrNull("ab")).isNull();
     assertThat(trie.contains("ab")).isFalse();
@@ -23,10 +28,10 @@ class TrieTest {
     assertThat(trie.contains("abcde")).isTrue();
   }
 
-  @Test
-  void shouldReturnLastMatchedValue() {
-    Trie<Integer> trie =
-        Trie.<Integer>builder().put("abc", 0).put("abcde", 10).put("abcdfgh", 20).build();
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldReturnLastMatchedValue(boolean compact) {
+    Trie<Integer> trie = builder(compact).put("abc", 0).put("abcde", 10).put("abcdfgh", 20).build();
 
     assertThat(trie.getOrNull("ababababa")).isNull();
     assertThat(trie.getOrNull("abcd")).isEqualTo(0);
@@ -34,17 +39,78 @@ class TrieTest {
     assertThat(trie.getOrNull("abcdfghjkl")).isEqualTo(20);
   }
 
-  @Test
-  void shouldOverwritePreviousValue() {
-    Trie<Integer> trie = Trie.<Integer>builder().put("abc", 0).put("abc", 12).build();
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldOverwritePreviousValue(boolean compact) {
+    Trie<Integer> trie = builder(compact).put("abc", 0).put("abc", 12).build();
 
     assertThat(trie.getOrNull("abc")).isEqualTo(12);
   }
 
-  @Test
-  void shouldReturnDefaultValueWhenNotMatched() {
-    Trie<Integer> trie = Trie.<Integer>builder().put("abc", 42).build();
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldReturnDefaultValueWhenNotMatched(boolean compact) {
+    Trie<Integer> trie = builder(compact).put("abc", 42).build();
 
     assertThat(trie.getOrDefault("acdc", -1)).isEqualTo(-1);
   }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldMatchNonAsciiCharacters(boolean compact) {
+    Trie<Integer> trie =
+        builder(compact).put("com.ex\u00e4mple.", 1).put("\u4f60\u597d", 2).build();
+
+    assertThat(trie.getOrNull("com.ex\u00e4mple.Main")).isEqualTo(1);
+    assertThat(trie.getOrNull("com.example.Main")).isNull();
+    assertThat(trie.getOrNull("\u4f60\u597d\u4e16\u754c")).isEqualTo(2);
+    assertThat(trie.getOrNull("\u4f60\u4e16\u754c")).isNull();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void shouldNotMatchEmptyTrie(boolean compact) {
+    Trie<Integer> trie = builder(compact).build();
+
+    assertThat(trie.getOrNull("")).isNull();
+    assertThat(trie.getOrNull("abc")).isNull();
+  }
+
+  @Test
+  void compactTrieShouldMatchLikeNodeTrie() {
+    Random random = new Random(42);
+    Trie.Builder<Integer> nodeTrieBuilder = Trie.builder();
+    Trie.Builder<Integer> compactTrieBuilder = Trie.compactBuilder();
+    List<String> prefixes = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      String prefix = randomClassName(random);
+      prefixes.add(prefix);
+      nodeTrieBuilder.put(prefix, i);
+      compactTrieBuilder.put(prefix, i);
+    }
+    Trie<Integer> nodeTrie = nodeTrieBuilder.build();
+    Trie<Integer> compactTrie = compactTrieBuilder.build();
+
+    for (int i = 0; i < 20000; i++) {
+      String name =
+          random.nextBoolean()
+              ? prefixes.get(random.nextInt(prefixes.size())) + randomClassName(random)
+              : randomClassName(random);
+      assertThat(compactTrie.getOrNull(name)).as(name).isEqualTo(nodeTrie.getOrNull(name));
+    }
+  }
+
+  private static Trie.Builder<Integer> builder(boolean compact) {
+    return compact ? Trie.compactBuilder() : Trie.builder();
+  }
+
+  private static String randomClassName(Random random) {
+    String alphabet = "abcdefgh.$_AB0";
+    StringBuilder name = new StringBuilder();
+    int length = 1 + random.nextInt(12);
+    for (int i = 0; i < length; i++) {
+      name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return name.toString();
+  }
 }
@@ -233,6 +233,55 @@ tasks {
     }
   }
 
+  // Same as shadowJar, plus an uncompressed index of the inst/ classes that the agent class loader
+  // memory maps instead of inflating the jar entries
+  val indexedJavaagentJar by registering(JavaExec::class) {
+    dependsOn(shadowJar)
+    val agentJar = shadowJar.flatMap { it.archiveFile }
+    val outputJar = shadowJar.flatMap { it.destinationDirectory.file(it.archiveFileName.map { name -> name.replace(".jar", "-indexed.jar") }) }
+    inputs.file(agentJar)
+    outputs.file(outputJar)
+
+    classpath = bootstrapLibs
+    mainClass.set("io.opentelemetry.javaagent.bootstrap.AgentClassIndex")
+    argumentProviders.add(
+      CommandLineArgumentProvider {
+        listOf(agentJar.get().asFile.absolutePath, outputJar.get().asFile.absolutePath, "inst")
+      },
+    )
+  }
+
+  // Dynamic class data sharing archive of the classes of shadowJar, it can only be used with the same
+  // jdk build that created it, see docs/advanced-configuration-options.md
+  val javaagentCdsArchive by registering(JavaExec::class) {
+    dependsOn(shadowJar)
+    val agentJar = shadowJar.flatMap { it.archiveFile }
+    val archiveFile = shadowJar.flatMap { it.destinationDirectory.file(it.archiveFileName.map { name -> name.replace(".jar", ".jsa") }) }
+    // without a class path the working directory is the class path of the training run, it needs to
+    // be empty so that the archive can be used with any application class path
+    val trainingDir = layout.buildDirectory.dir("tmp/javaagentCdsArchive").get().asFile
+    inputs.file(agentJar)
+    outputs.file(archiveFile)
+
+    // the training main class is loaded from the boot class path
+    mainClass.set("io.opentelemetry.javaagent.bootstrap.AgentClassDataSharing")
+    workingDir = trainingDir
+    jvmArgumentProviders.add(
+      CommandLineArgumentProvider {
+        listOf(
+          "-Xbootclasspath/a:${agentJar.get().asFile.absolutePath}",
+          "-XX:ArchiveClassesAtExit=${archiveFile.get().asFile.absolutePath}",
+        )
+      },
+    )
+    argumentProviders.add(CommandLineArgumentProvider { listOf(agentJar.get().asFile.absolutePath) })
+
+    doFirst {
+      trainingDir.deleteRecursively()
+      trainingDir.mkdirs()
+    }
+  }
+
   jar {
     // Empty jar that cannot be used for anything and isn't published.
     archiveClassifier.set("dontuse")
@@ -12,7 +12,7 @@ import static java.util.Collections.singletonMap;
 import static java.util.Objects.requireNonNull;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
-import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.ConfigPropertiesUtil;
 import io.opentelemetry.javaagent.bootstrap.InstrumentationHolder;
 import java.lang.instrument.Instrumentation;
 import java.lang.ref.WeakReference;
@@ -40,7 +40,8 @@ import net.bytebuddy.utility.JavaModule;
  *
  * <ul>
  *   There two core parts to the cache...
- *   <li>a cache of ClassLoader to WeakReference&lt;ClassLoader&gt;
+ *   <li>a cache of ClassLoader to a segment, which is a WeakReference&lt;ClassLoader&gt; that also
+ *       tracks the class names cached for the loader
  *   <li>a single cache of TypeResolutions for all ClassLoaders - keyed by a custom composite key of
  *       ClassLoader and class name
  * </ul>
@@ -48,7 +49,9 @@ import net.bytebuddy.utility.JavaModule;
  * <p>This design was chosen to create a single limited size cache that can be adjusted for the
  * entire application -- without having to create a large number of WeakReference objects.
  *
- * <p>Eviction is handled through a size restriction
+ * <p>Eviction is handled through a restriction on the estimated number of retained bytes, which
+ * can be configured with {@code otel.javaagent.experimental.type-cache.max-bytes}. All
+ * resolutions of a ClassLoader are evicted together once the ClassLoader is garbage collected.
  */
 public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
 
@@ -57,34 +60,52 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
 
   @Nullable private static final Method findLoadedClassMethod = getFindLoadedClassMethod();
 
-  static final int TYPE_CAPACITY = 64;
+  private static final String TYPE_CACHE_MAX_BYTES =
+      "otel.javaagent.experimental.type-cache.max-bytes";
+  static final int DEFAULT_TYPE_CACHE_MAX_BYTES = 4 * 1024 * 1024;
 
   static final int BOOTSTRAP_HASH = 7236344; // Just a random number
 
-  /**
-   * Cache of recent ClassLoader WeakReferences; used to...
-   *
-   * <ul>
-   *   <li>Reduced number of WeakReferences created
-   *   <li>Allow for quick fast path equivalence check of composite keys
-   * </ul>
-   */
-  final Cache<ClassLoader, WeakReference<ClassLoader>> loaderRefCache = Cache.weak();
-
   /**
    * Single shared Type.Resolution cache -- uses a composite key -- conceptually of loader & name
    */
-  final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache =
-      Cache.bounded(TYPE_CAPACITY);
+  final TypeResolutionCache typeCache;
 
   // fast path for bootstrap
-  final SharedResolutionCacheAdapter bootstrapCacheProvider =
-      new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, sharedResolutionCache);
+  final SharedResolutionCacheAdapter bootstrapCacheProvider;
 
   private final AgentLocationStrategy locationStrategy;
 
   public AgentCachingPoolStrategy(AgentLocationStrategy locationStrategy) {
+    this(
+        locationStrategy,
+        ConfigPropertiesUtil.getInt(TYPE_CACHE_MAX_BYTES, DEFAULT_TYPE_CACHE_MAX_BYTES));
+  }
+
+  public AgentCachingPoolStrategy(AgentLocationStrategy locationStrategy, long typeCacheMaxBytes) {
     this.locationStrategy = locationStrategy;
+    this.typeCache = new TypeResolutionCache(typeCacheMaxBytes);
+    this.bootstrapCacheProvider = new SharedResolutionCacheAdapter(BOOTSTRAP_HASH, null, typeCache);
+  }
+
+  /** Returns the number of type resolutions that were found in the cache. */
+  public long getTypeCacheHits() {
+    return typeCache.hits();
+  }
+
+  /** Returns the number of type resolutions that were not found in the cache. */
+  public long getTypeCacheMisses() {
+    return typeCache.misses();
+  }
+
+  /** Returns the number of type resolutions that were evicted from the cache. */
+  public long getTypeCacheEvictions() {
+    return typeCache.evictions();
+  }
+
+  /** Returns the estimated number of bytes retained by the cached type resolutions. */
+  public long getTypeCacheEstimatedBytes() {
+    return typeCache.estimatedBytes();
   }
 
   @Nullable
@@ -155,16 +176,12 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
       return bootstrapCacheProvider;
     }
 
-    WeakReference<ClassLoader> loaderRef =
-        loaderRefCache.computeIfAbsent(classLoader, WeakReference::new);
-
-    int loaderHash = System.identityHashCode(classLoader);
-    return new SharedResolutionCacheAdapter(loaderHash, loaderRef, sharedResolutionCache);
+    TypeResolutionCache.Segment segment = typeCache.segment(classLoader);
+    return new SharedResolutionCacheAdapter(segment.loaderHash, segment, typeCache);
   }
 
   /**
-   * TypeCacheKey is key for the sharedResolutionCache. Conceptually, it is a mix of ClassLoader &
-   * class name.
+   * TypeCacheKey is key for the typeCache. Conceptually, it is a mix of ClassLoader & class name.
    *
    * <p>For efficiency & GC purposes, it is actually composed of loaderHash &
    * WeakReference&lt;ClassLoader&gt;
@@ -244,6 +261,17 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
       return hashCode;
     }
 
+    @Nullable
+    TypeResolutionCache.Segment segment() {
+      return loaderRef instanceof TypeResolutionCache.Segment
+          ? (TypeResolutionCache.Segment) loaderRef
+          : null;
+    }
+
+    String className() {
+      return className;
+    }
+
     @Override
     public String toString() {
       return "TypeCacheKey{"
@@ -265,15 +293,15 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
 
     private final int loaderHash;
     @Nullable private final WeakReference<ClassLoader> loaderRef;
-    private final Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache;
+    private final TypeResolutionCache typeCache;
 
     SharedResolutionCacheAdapter(
         int loaderHash,
         @Nullable WeakReference<ClassLoader> loaderRef,
-        Cache<TypeCacheKey, TypePool.Resolution> sharedResolutionCache) {
+        TypeResolutionCache typeCache) {
       this.loaderHash = loaderHash;
       this.loaderRef = loaderRef;
-      this.sharedResolutionCache = sharedResolutionCache;
+      this.typeCache = typeCache;
     }
 
     @Nullable
@@ -293,13 +321,7 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
         return null;
       }
 
-      TypePool.Resolution existingResolution =
-          sharedResolutionCache.get(new TypeCacheKey(loaderHash, loaderRef, className));
-      if (existingResolution != null) {
-        return existingResolution;
-      }
-
-      return null;
+      return typeCache.find(new TypeCacheKey(loaderHash, loaderRef, className));
     }
 
     @Override
@@ -309,7 +331,7 @@ public class AgentCachingPoolStrategy implements AgentBuilder.PoolStrategy {
         return resolution;
       }
 
-      sharedResolutionCache.put(new TypeCacheKey(loaderHash, loaderRef, className), resolution);
+      typeCache.register(new TypeCacheKey(loaderHash, loaderRef, className), resolution);
       return resolution;
     }
 
@@ -83,4 +83,22 @@ public interface InstrumentationModuleMuzzle {
   default Boolean getMuzzleUseIsolatedHelperClasses() {
     return null;
   }
+
+  /**
+   * Returns the names of all classes that the type matchers of this module can match, or {@code
+   * null} when some of the type matchers don't match classes by their name. Names that end with
+   * {@code *} are prefixes of class names.
+   */
+  @Nullable
+  default List<String> getMuzzleTypeMatcherClassNames() {
+    return null;
+  }
+
+  /** See {@link #getMuzzleTypeMatcherClassNames()}. */
+  @Nullable
+  static List<String> getTypeMatcherClassNames(InstrumentationModule module) {
+    return module instanceof InstrumentationModuleMuzzle
+        ? ((InstrumentationModuleMuzzle) module).getMuzzleTypeMatcherClassNames()
+        : null;
+  }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.muzzle;
+
+import io.opentelemetry.instrumentation.api.internal.cache.Cache;
+import io.opentelemetry.instrumentation.api.internal.cache.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * The {@link TypePool.Resolution} cache shared by all class loaders.
+ *
+ * <p>The cache is bounded by the estimated number of bytes retained by the resolutions instead of
+ * by the number of entries, parsed type descriptions differ in size by orders of magnitude. The
+ * least recently used resolutions are evicted first, regardless of the class loader they belong
+ * to.
+ *
+ * <p>Each class loader has its own {@link Segment} that remembers which class names are cached for
+ * it. When a class loader is garbage collected all of its resolutions are evicted at once, instead
+ * of waiting for them to become the least recently used entries.
+ */
+final class TypeResolutionCache {
+
+  // a parsed type description retains its name, modifiers, super types, annotations and member
+  // tokens; these are rough estimates of the retained bytes, not exact measurements
+  private static final int ENTRY_BYTES = 256;
+  private static final int MEMBER_BYTES = 128;
+
+  private final ConcurrentLinkedHashMap<AgentCachingPoolStrategy.TypeCacheKey, TypePool.Resolution>
+      resolutions;
+  private final Cache<ClassLoader, Segment> segments = Cache.weak();
+  private final ReferenceQueue<ClassLoader> collectedLoaders = new ReferenceQueue<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  TypeResolutionCache(long maxBytes) {
+    resolutions =
+        new ConcurrentLinkedHashMap.Builder<
+                AgentCachingPoolStrategy.TypeCacheKey, TypePool.Resolution>()
+            .maximumWeightedCapacity(maxBytes)
+            .weigher(TypeResolutionCache::weigh)
+            .listener(
+                (key, value) -> {
+                  evictions.increment();
+                  Segment segment = key.segment();
+                  if (segment != null) {
+                    segment.classNames.remove(key.className());
+                  }
+                })
+            .build();
+  }
+
+  Segment segment(ClassLoader classLoader) {
+    return segments.computeIfAbsent(classLoader, loader -> new Segment(loader, collectedLoaders));
+  }
+
+  @Nullable
+  TypePool.Resolution find(AgentCachingPoolStrategy.TypeCacheKey key) {
+    TypePool.Resolution resolution = resolutions.get(key);
+    if (resolution != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return resolution;
+  }
+
+  void register(AgentCachingPoolStrategy.TypeCacheKey key, TypePool.Resolution resolution) {
+    evictCollectedLoaders();
+    Segment segment = key.segment();
+    if (segment != null) {
+      // added before the resolution so that it can't be missed when the loader is collected
+      segment.classNames.add(key.className());
+    }
+    resolutions.put(key, resolution);
+  }
+
+  private void evictCollectedLoaders() {
+    Segment segment;
+    while ((segment = (Segment) collectedLoaders.poll()) != null) {
+      for (String className : segment.classNames) {
+        // keys of the segment are equal to each other by reference even after the loader is gone
+        AgentCachingPoolStrategy.TypeCacheKey key =
+            new AgentCachingPoolStrategy.TypeCacheKey(segment.loaderHash, segment, className);
+        if (resolutions.remove(key) != null) {
+          evictions.increment();
+        }
+      }
+      segment.classNames.clear();
+    }
+  }
+
+  long hits() {
+    return hits.sum();
+  }
+
+  long misses() {
+    return misses.sum();
+  }
+
+  long evictions() {
+    return evictions.sum();
+  }
+
+  long estimatedBytes() {
+    return resolutions.weightedSize();
+  }
+
+  // visible for testing
+  int size() {
+    return resolutions.size();
+  }
+
+  private static int weigh(
+      AgentCachingPoolStrategy.TypeCacheKey key, TypePool.Resolution resolution) {
+    int weight = ENTRY_BYTES + 2 * key.className().length();
+    if (resolution.isResolved()) {
+      // the member lists of a parsed type are backed by the already parsed tokens
+      TypeDescription type = resolution.resolve();
+      weight +=
+          MEMBER_BYTES * (type.getDeclaredMethods().size() + type.getDeclaredFields().size());
+    }
+    return weight;
+  }
+
+  /** The cached class names of a class loader, also used as the weak reference to the loader. */
+  static final class Segment extends WeakReference<ClassLoader> {
+    final int loaderHash;
+    final Set<String> classNames = ConcurrentHashMap.newKeySet();
+
+    Segment(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      this.loaderHash = System.identityHashCode(classLoader);
+    }
+  }
+}
@@ -62,6 +62,8 @@ final class MuzzleCodeGenerator implements AsmVisitorWrapper {
   private static final String MUZZLE_VIRTUAL_FIELDS_METHOD_NAME = "registerMuzzleVirtualFields";
   private static final String MUZZLE_USE_ISOLATED_HELPER_CLASSES_METHOD_NAME =
       "getMuzzleUseIsolatedHelperClasses";
+  private static final String MUZZLE_TYPE_MATCHER_CLASS_NAMES_METHOD_NAME =
+      "getMuzzleTypeMatcherClassNames";
   private final URLClassLoader classLoader;
 
   public MuzzleCodeGenerator(URLClassLoader classLoader) {
@@ -104,6 +106,7 @@ final class MuzzleCodeGenerator implements AsmVisitorWrapper {
     private boolean generateHelperClassNamesMethod = true;
     private boolean generateVirtualFieldsMethod = true;
     private boolean generateUseIsolatedHelperClassesMethod = true;
+    private boolean generateTypeMatcherClassNamesMethod = true;
 
     GenerateMuzzleMethodsAndFields(ClassVisitor classVisitor, URLClassLoader classLoader) {
       super(AsmApi.VERSION, classVisitor);
@@ -163,6 +166,10 @@ final class MuzzleCodeGenerator implements AsmVisitorWrapper {
         generateUseIsolatedHelperClassesMethod = false;
         logMethodAlreadyExistsMessage(MUZZLE_USE_ISOLATED_HELPER_CLASSES_METHOD_NAME);
       }
+      if (MUZZLE_TYPE_MATCHER_CLASS_NAMES_METHOD_NAME.equals(name)) {
+        generateTypeMatcherClassNamesMethod = false;
+        logMethodAlreadyExistsMessage(MUZZLE_TYPE_MATCHER_CLASS_NAMES_METHOD_NAME);
+      }
       return super.visitMethod(access, name, descriptor, signature, exceptions);
     }
 
@@ -192,6 +199,9 @@ final class MuzzleCodeGenerator implements AsmVisitorWrapper {
       if (generateUseIsolatedHelperClassesMethod) {
         generateMuzzleUseIsolatedHelperClassesMethod(adviceClassNames);
       }
+      if (generateTypeMatcherClassNamesMethod) {
+        generateMuzzleTypeMatcherClassNamesMethod();
+      }
       super.visitEnd();
     }
 
@@ -511,43 +521,74 @@ final class MuzzleCodeGenerator implements AsmVisitorWrapper {
               null);
       mv.visitCode();
 
-      List<String> helperClassNames = collector.getSortedHelperClasses();
+      writeNewList(mv, collector.getSortedHelperClasses());
+      // stack: list
+      mv.visitInsn(Opcodes.ARETURN);
+
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+    }
+
+    private void generateMuzzleTypeMatcherClassNamesMethod() {
+      InstrumentationModule module =
+          requireNonNull(
+              instrumentationModule, "instrumentationModule must be set by visit() before use");
+
+      List<String> classNames = TypeMatcherClassNames.collect(module);
+      if (classNames == null) {
+        return;
+      }
+
+      /*
+       * public List<String> getMuzzleTypeMatcherClassNames() {
+       *   List<String> classNames = new ArrayList<>(...);
+       *   classNames.add(...);
+       *   return classNames;
+       * }
+       */
+      MethodVisitor mv =
+          super.visitMethod(
+              Opcodes.ACC_PUBLIC,
+              MUZZLE_TYPE_MATCHER_CLASS_NAMES_METHOD_NAME,
+              "()Ljava/util/List;",
+              null,
+              null);
+      mv.visitCode();
+
+      writeNewList(mv, classNames);
+      // stack: list
+      mv.visitInsn(Opcodes.ARETURN);
+
+      mv.visitMaxs(0, 0);
+      mv.visitEnd();
+    }
 
+    private static void writeNewList(MethodVisitor mv, List<String> values) {
       mv.visitTypeInsn(Opcodes.NEW, "java/util/ArrayList");
       // stack: list
       mv.visitInsn(Opcodes.DUP);
       // stack: list, list
-      mv.visitLdcInsn(helperClassNames.size());
+      mv.visitLdcInsn(values.size());
       // stack: list, list, size
       mv.visitMethodInsn(
           Opcodes.INVOKESPECIAL, "java/util/ArrayList", "<init>", "(I)V", /* isInterface= */ false);
       // stack: list
-      mv.visitVarInsn(Opcodes.ASTORE, 1);
-      // stack: <empty>
-
-      helperClassNames.forEach(
-          helperClassName -> {
-            mv.visitVarInsn(Opcodes.ALOAD, 1);
-            // stack: list
-            mv.visitLdcInsn(helperClassName);
-            // stack: list, helperClassName
-            mv.visitMethodInsn(
-                Opcodes.INVOKEINTERFACE,
-                "java/util/List",
-                "add",
-                "(Ljava/lang/Object;)Z",
-                /* isInterface= */ true);
-            // stack: added
-            mv.visitInsn(Opcodes.POP);
-            // stack: <empty>
-          });
-
-      mv.visitVarInsn(Opcodes.ALOAD, 1);
-      // stack: list
-      mv.visitInsn(Opcodes.ARETURN);
 
-      mv.visitMaxs(0, 0);
-      mv.visitEnd();
+      for (String value : values) {
+        mv.visitInsn(Opcodes.DUP);
+        // stack: list, list
+        mv.visitLdcInsn(value);
+        // stack: list, list, value
+        mv.visitMethodInsn(
+            Opcodes.INVOKEINTERFACE,
+            "java/util/List",
+            "add",
+            "(Ljava/lang/Object;)Z",
+            /* isInterface= */ true);
+        // stack: list, added
+        mv.visitInsn(Opcodes.POP);
+        // stack: list
+      }
     }
 
     private void generateMuzzleVirtualFieldsMethod(ReferenceCollector collector) {
@@ -0,0 +1,134 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.muzzle.generation;
+
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.NameMatcher;
+import net.bytebuddy.matcher.StringMatcher;
+import net.bytebuddy.matcher.StringSetMatcher;
+
+/**
+ * Collects the names of the classes that the type matchers of an {@link InstrumentationModule} can
+ * match, so that the agent can defer installing the module until one of these classes is loaded.
+ * Only matchers that are built from {@code named()}, {@code namedOneOf()} and {@code
+ * nameStartsWith()} can be decomposed, the names of the type matchers are collected only if all of
+ * them can.
+ *
+ * <p>This class is run at compile time by the {@link MuzzleCodeGenerationPlugin} ByteBuddy plugin.
+ */
+final class TypeMatcherClassNames {
+
+  static final String PREFIX_SUFFIX = "*";
+
+  /**
+   * Returns the sorted names of the classes that the type matchers of the module can match, or
+   * {@code null} if some of the type matchers can't be decomposed.
+   */
+  @Nullable
+  static List<String> collect(InstrumentationModule module) {
+    List<TypeInstrumentation> typeInstrumentations = module.typeInstrumentations();
+    if (typeInstrumentations.isEmpty()) {
+      // the type instrumentations may depend on the configuration, e.g. the methods module
+      return null;
+    }
+    Set<String> result = new TreeSet<>();
+    for (TypeInstrumentation typeInstrumentation : typeInstrumentations) {
+      Set<String> names = inspect(typeInstrumentation.typeMatcher());
+      if (names == null) {
+        return null;
+      }
+      result.addAll(names);
+    }
+    return new ArrayList<>(result);
+  }
+
+  // visible for testing
+  @Nullable
+  static Set<String> inspect(ElementMatcher<?> matcher) {
+    try {
+      return inspectMatcher(matcher);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // byte-buddy internals have changed, the module won't be deferred
+      return null;
+    }
+  }
+
+  @Nullable
+  private static Set<String> inspectMatcher(ElementMatcher<?> matcher)
+      throws ReflectiveOperationException {
+    if (matcher instanceof NameMatcher) {
+      return inspectNameMatcher(getField(NameMatcher.class, "matcher", matcher));
+    } else if (matcher instanceof ElementMatcher.Junction.Conjunction) {
+      // when the conjunction matches all its elements match, so the names of any element will do
+      for (ElementMatcher<?> element :
+          getMatchers(ElementMatcher.Junction.Conjunction.class, matcher)) {
+        Set<String> names = inspectMatcher(element);
+        if (names != null) {
+          return names;
+        }
+      }
+    } else if (matcher instanceof ElementMatcher.Junction.Disjunction) {
+      // when the disjunction matches any of its elements may match, so all of them are needed
+      Set<String> result = new TreeSet<>();
+      for (ElementMatcher<?> element :
+          getMatchers(ElementMatcher.Junction.Disjunction.class, matcher)) {
+        Set<String> names = inspectMatcher(element);
+        if (names == null) {
+          return null;
+        }
+        result.addAll(names);
+      }
+      return result.isEmpty() ? null : result;
+    }
+    return null;
+  }
+
+  @Nullable
+  private static Set<String> inspectNameMatcher(Object matcher)
+      throws ReflectiveOperationException {
+    Set<String> result = new TreeSet<>();
+    if (matcher instanceof StringMatcher) {
+      String value = (String) getField(StringMatcher.class, "value", matcher);
+      StringMatcher.Mode mode = (StringMatcher.Mode) getField(StringMatcher.class, "mode", matcher);
+      if (mode == StringMatcher.Mode.EQUALS_FULLY) {
+        result.add(value);
+      } else if (mode == StringMatcher.Mode.STARTS_WITH && !value.isEmpty()) {
+        result.add(value + PREFIX_SUFFIX);
+      } else {
+        return null;
+      }
+    } else if (matcher instanceof StringSetMatcher) {
+      for (Object value : (Collection<?>) getField(StringSetMatcher.class, "values", matcher)) {
+        result.add((String) value);
+      }
+    }
+    return result.isEmpty() ? null : result;
+  }
+
+  @SuppressWarnings("unchecked") // casting reflection result
+  private static List<ElementMatcher<?>> getMatchers(Class<?> junctionClass, Object junction)
+      throws ReflectiveOperationException {
+    return (List<ElementMatcher<?>>) getField(junctionClass, "matchers", junction);
+  }
+
+  private static Object getField(Class<?> clazz, String name, Object target)
+      throws ReflectiveOperationException {
+    Field field = clazz.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(target);
+  }
+
+  private TypeMatcherClassNames() {}
+}
@@ -166,6 +166,82 @@ class CacheProviderTest {
     assertThat(loader2).isNotNull();
   }
 
+  @Test
+  void testHitAndMissCounts() {
+    AgentCachingPoolStrategy poolStrat = new AgentCachingPoolStrategy(null);
+
+    ClassLoader loader = newClassLoader();
+
+    TypePool.CacheProvider cacheProvider = poolStrat.getCacheProvider(loader);
+
+    assertThat(cacheProvider.find("foo")).isNull();
+    cacheProvider.register("foo", newVoid());
+    assertThat(cacheProvider.find("foo")).isNotNull();
+    assertThat(cacheProvider.find("foo")).isNotNull();
+
+    assertThat(poolStrat.getTypeCacheMisses()).isEqualTo(1);
+    assertThat(poolStrat.getTypeCacheHits()).isEqualTo(2);
+    assertThat(poolStrat.getTypeCacheEstimatedBytes()).isPositive();
+    // use loader to ensures that it isn't collected before the test completes
+    assertThat(loader).isNotNull();
+  }
+
+  @Test
+  void testEvictionByEstimatedBytes() {
+    // room for about three resolutions of void
+    AgentCachingPoolStrategy poolStrat = new AgentCachingPoolStrategy(null, 800);
+
+    ClassLoader loader = newClassLoader();
+
+    TypePool.CacheProvider cacheProvider = poolStrat.getCacheProvider(loader);
+
+    for (int i = 0; i < 10; i++) {
+      cacheProvider.register("foo" + i, newVoid());
+    }
+
+    assertThat(poolStrat.typeCache.size()).isEqualTo(3);
+    assertThat(poolStrat.getTypeCacheEvictions()).isEqualTo(7);
+    assertThat(poolStrat.getTypeCacheEstimatedBytes()).isLessThanOrEqualTo(800);
+    // the most recently registered resolutions are kept
+    assertThat(cacheProvider.find("foo9")).isNotNull();
+    assertThat(cacheProvider.find("foo0")).isNull();
+    // the segment only tracks the cached class names
+    assertThat(poolStrat.typeCache.segment(loader).classNames)
+        .containsExactlyInAnyOrder("foo7", "foo8", "foo9");
+    // use loader to ensures that it isn't collected before the test completes
+    assertThat(loader).isNotNull();
+  }
+
+  @Test
+  void testCollectedLoaderIsEvicted() {
+    AgentCachingPoolStrategy poolStrat = new AgentCachingPoolStrategy(null);
+
+    ClassLoader loader1 = newClassLoader();
+    ClassLoader loader2 = newClassLoader();
+
+    TypePool.CacheProvider cacheProvider1 = poolStrat.getCacheProvider(loader1);
+    TypePool.CacheProvider cacheProvider2 = poolStrat.getCacheProvider(loader2);
+
+    cacheProvider1.register("foo", newVoid());
+    cacheProvider1.register("bar", newVoid());
+    cacheProvider2.register("foo", newVoid());
+
+    // simulate garbage collection of loader1
+    poolStrat.typeCache.segment(loader1).enqueue();
+    cacheProvider2.register("bar", newVoid());
+
+    assertThat(cacheProvider1.find("foo")).isNull();
+    assertThat(cacheProvider1.find("bar")).isNull();
+    assertThat(cacheProvider2.find("foo")).isNotNull();
+    assertThat(cacheProvider2.find("bar")).isNotNull();
+    assertThat(poolStrat.getTypeCacheEvictions()).isEqualTo(2);
+    assertThat(poolStrat.typeCache.size()).isEqualTo(2);
+
+    // use loader to ensures that it isn't collected before the test completes
+    assertThat(loader1).isNotNull();
+    assertThat(loader2).isNotNull();
+  }
+
   private static TypePool.Resolution newVoid() {
     return new TypePool.Resolution.Simple(TypeDescription.ForLoadedType.of(void.class));
   }
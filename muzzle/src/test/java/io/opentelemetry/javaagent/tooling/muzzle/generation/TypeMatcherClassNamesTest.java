@@ -0,0 +1,111 @@
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.opentelemetry.javaagent.tooling.muzzle.generation;
+
+import static io.opentelemetry.javaagent.extension.matcher.AgentElementMatchers.hasSuperType;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static net.bytebuddy.matcher.ElementMatchers.nameEndsWith;
+import static net.bytebuddy.matcher.ElementMatchers.nameStartsWith;
+import static net.bytebuddy.matcher.ElementMatchers.named;
+import static net.bytebuddy.matcher.ElementMatchers.namedOneOf;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.javaagent.extension.instrumentation.InstrumentationModule;
+import io.opentelemetry.javaagent.extension.instrumentation.TypeInstrumentation;
+import io.opentelemetry.javaagent.extension.instrumentation.TypeTransformer;
+import java.util.List;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.junit.jupiter.api.Test;
+
+class TypeMatcherClassNamesTest {
+
+  @Test
+  void inspectsNameMatchers() {
+    assertThat(TypeMatcherClassNames.inspect(named("com.example.Foo")))
+        .containsExactly("com.example.Foo");
+    assertThat(TypeMatcherClassNames.inspect(namedOneOf("com.example.Foo", "com.example.Bar")))
+        .containsExactly("com.example.Bar", "com.example.Foo");
+    assertThat(TypeMatcherClassNames.inspect(nameStartsWith("com.example.")))
+        .containsExactly("com.example.*");
+  }
+
+  @Test
+  void inspectsJunctions() {
+    assertThat(
+            TypeMatcherClassNames.inspect(
+                named("com.example.Foo").or(nameStartsWith("com.example.bar."))))
+        .containsExactly("com.example.Foo", "com.example.bar.*");
+    assertThat(
+            TypeMatcherClassNames.inspect(
+                ElementMatchers.<TypeDescription>isPublic().and(named("com.example.Foo"))))
+        .containsExactly("com.example.Foo");
+  }
+
+  @Test
+  void doesNotInspectOtherMatchers() {
+    assertThat(TypeMatcherClassNames.inspect(hasSuperType(named("com.example.Foo")))).isNull();
+    assertThat(TypeMatcherClassNames.inspect(nameEndsWith("Foo"))).isNull();
+    assertThat(TypeMatcherClassNames.inspect(named("com.example.Foo").or(nameEndsWith("Bar"))))
+        .isNull();
+  }
+
+  @Test
+  void collectsNamesOfAllTypeInstrumentations() {
+    InstrumentationModule module =
+        new TestModule(
+            asList(
+                new TestTypeInstrumentation(named("com.example.Foo")),
+                new TestTypeInstrumentation(nameStartsWith("com.example.bar."))));
+
+    assertThat(TypeMatcherClassNames.collect(module))
+        .containsExactly("com.example.Foo", "com.example.bar.*");
+  }
+
+  @Test
+  void doesNotCollectWhenAnyTypeMatcherCantBeInspected() {
+    InstrumentationModule module =
+        new TestModule(
+            asList(
+                new TestTypeInstrumentation(named("com.example.Foo")),
+                new TestTypeInstrumentation(hasSuperType(named("com.example.Bar")))));
+
+    assertThat(TypeMatcherClassNames.collect(module)).isNull();
+    assertThat(TypeMatcherClassNames.collect(new TestModule(emptyList()))).isNull();
+  }
+
+  private static class TestModule extends InstrumentationModule {
+    private final List<TypeInstrumentation> typeInstrumentations;
+
+    TestModule(List<TypeInstrumentation> typeInstrumentations) {
+      super("test");
+      this.typeInstrumentations = typeInstrumentations;
+    }
+
+    @Override
+    public List<TypeInstrumentation> typeInstrumentations() {
+      return typeInstrumentations;
+    }
+  }
+
+  private static class TestTypeInstrumentation implements TypeInstrumentation {
+    private final ElementMatcher<TypeDescription> typeMatcher;
+
+    TestTypeInstrumentation(ElementMatcher<TypeDescription> typeMatcher) {
+      this.typeMatcher = typeMatcher;
+    }
+
+    @Override
+    public ElementMatcher<TypeDescription> typeMatcher() {
+      return typeMatcher;
+    }
+
+    @Override
+    public void transform(TypeTransformer transformer) {}
+  }
+}